@@ -0,0 +1,16 @@
+package com.java.Coursework01.Class;
+
+/**
+ * How the gaps between a participant's ticks are spread around the mean set by its rate and load profile.
+ */
+public enum ArrivalDistribution {
+
+    // Every gap equals the mean, as with a plain rate
+    FIXED,
+
+    // Exponentially distributed gaps, so ticks arrive as a Poisson process
+    POISSON,
+
+    // Ticks arrive in back-to-back bursts, with exponentially distributed gaps between bursts
+    BURSTY
+}
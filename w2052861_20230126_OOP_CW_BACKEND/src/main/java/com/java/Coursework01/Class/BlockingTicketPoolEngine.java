@@ -0,0 +1,424 @@
+package com.java.Coursework01.Class;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ticket pool engine guarded by a single lock.
+ * Vendors and customers wait on separate conditions, so a release only wakes customers
+ * and a purchase only wakes vendors. Single-ticket operations wake one waiter at a time.
+ */
+public class BlockingTicketPoolEngine implements TicketPoolEngine {
+
+    // Lock guarding the ticket deque
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Signalled when a ticket is removed
+    private final Condition notFull = lock.newCondition();
+
+    // Signalled when a ticket is added
+    private final Condition notEmpty = lock.newCondition();
+
+    // Tickets currently in the pool, newest last
+    private final IntTicketStore tickets = new IntTicketStore();
+
+    // Maximum number of tickets in the pool, counting held ones
+    private int capacity;
+
+    // Tickets taken out by holds that still count against the capacity
+    private int held;
+
+    // Customers waiting for a whole batch, who may need more than one added ticket to proceed
+    private int wholeBatchWaiters;
+
+    // Receives lock hold times; NONE unless metrics are attached
+    private volatile TicketPoolTimings timings = TicketPoolTimings.NONE;
+
+    // When the current lock holder acquired the lock, or 0 if hold times are not recorded
+    private long acquiredAt;
+
+    /**
+     * Creates an empty engine.
+     *
+     * @param capacity The maximum number of tickets the engine may hold.
+     */
+    public BlockingTicketPoolEngine(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void setLockTimings(TicketPoolTimings timings) {
+        this.timings = timings;
+    }
+
+    @Override
+    public void put(int ticket) throws InterruptedException {
+        lockInterruptibly();
+        try {
+            while (tickets.size() + held >= capacity) {
+                await(notFull); // Wait until there is space in the pool
+            }
+            tickets.addLast(ticket);
+            signalNotEmpty(1); // Wake a waiting customer
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int take() throws InterruptedException {
+        lockInterruptibly();
+        try {
+            while (tickets.isEmpty()) {
+                await(notEmpty); // Wait until there are tickets to remove
+            }
+            int ticket = tickets.removeLast();
+            notFull.signal(); // Wake one waiting vendor
+            return ticket;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(int ticket) {
+        lock();
+        try {
+            if (tickets.size() + held >= capacity) {
+                return false;
+            }
+            tickets.addLast(ticket);
+            signalNotEmpty(1);
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int poll() {
+        lock();
+        try {
+            if (tickets.isEmpty()) {
+                return NO_TICKET;
+            }
+            int ticket = tickets.removeLast();
+            notFull.signal();
+            return ticket;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(int ticket, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lockInterruptibly();
+        try {
+            while (tickets.size() + held >= capacity) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = awaitNanos(notFull, nanos);
+            }
+            tickets.addLast(ticket);
+            signalNotEmpty(1);
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lockInterruptibly();
+        try {
+            while (tickets.isEmpty()) {
+                if (nanos <= 0L) {
+                    return NO_TICKET;
+                }
+                nanos = awaitNanos(notEmpty, nanos);
+            }
+            int ticket = tickets.removeLast();
+            notFull.signal();
+            return ticket;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int take(int[] buffer, int count, boolean allOrNothing) throws InterruptedException {
+        lockInterruptibly();
+        try {
+            int needed = allOrNothing ? count : 1;
+            if (needed > 1) {
+                wholeBatchWaiters++;
+            }
+            try {
+                while (tickets.size() < needed) {
+                    if (needed > capacity) {
+                        return 0; // The capacity dropped below the batch, which can never be filled now
+                    }
+                    await(notEmpty); // Wait until the request can be filled
+                }
+            } finally {
+                if (needed > 1) {
+                    wholeBatchWaiters--;
+                }
+            }
+            return removeUpTo(buffer, count);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int offer(int[] batch, int offset, int count) {
+        lock();
+        try {
+            int step = Math.max(Math.min(count, capacity - tickets.size() - held), 0);
+            for (int i = 0; i < step; i++) {
+                tickets.addLast(batch[offset + i]);
+            }
+            signalNotEmpty(step);
+            return step;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int poll(int[] buffer, int count, boolean allOrNothing) {
+        lock();
+        try {
+            if (allOrNothing && tickets.size() < count) {
+                return 0;
+            }
+            return removeUpTo(buffer, count);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int poll(int[] buffer, int count, boolean allOrNothing, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return removeWithin(buffer, count, allOrNothing, unit.toNanos(timeout), false);
+    }
+
+    @Override
+    public int hold(int[] buffer, int count, boolean allOrNothing, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return removeWithin(buffer, count, allOrNothing, unit.toNanos(timeout), true);
+    }
+
+    @Override
+    public void releaseHeld(int[] batch, int offset, int count) {
+        lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                tickets.addLast(batch[offset + i]);
+            }
+            held -= count; // The tickets take back the space they kept
+            signalNotEmpty(count);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public void dropHeld(int count) {
+        lock();
+        try {
+            held -= count;
+            if (count == 1) {
+                notFull.signal();
+            } else if (count > 1) {
+                notFull.signalAll();
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public void reserveHeld(int count) {
+        lock();
+        try {
+            held += count;
+        } finally {
+            unlock();
+        }
+    }
+
+    // Removes a batch within the given time; held tickets keep their space, purchased ones free it for vendors
+    private int removeWithin(int[] buffer, int count, boolean allOrNothing, long nanos, boolean hold)
+            throws InterruptedException {
+        lockInterruptibly();
+        try {
+            int needed = allOrNothing ? count : 1;
+            if (needed > 1) {
+                wholeBatchWaiters++;
+            }
+            try {
+                while (tickets.size() < needed) {
+                    if (nanos <= 0L || needed > capacity) {
+                        return 0;
+                    }
+                    nanos = awaitNanos(notEmpty, nanos);
+                }
+            } finally {
+                if (needed > 1) {
+                    wholeBatchWaiters--;
+                }
+            }
+            if (hold) {
+                int removed = Math.min(count, tickets.size());
+                for (int i = 0; i < removed; i++) {
+                    buffer[i] = tickets.removeLast();
+                }
+                held += removed;
+                return removed;
+            }
+            return removeUpTo(buffer, count);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock();
+        try {
+            return tickets.size();
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int capacity() {
+        lock();
+        try {
+            return capacity;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public boolean resize(int capacity) {
+        lock();
+        try {
+            this.capacity = capacity;
+            notFull.signalAll(); // Vendors may fit into the new capacity
+            if (wholeBatchWaiters > 0) {
+                notEmpty.signalAll(); // Whole batches may no longer fit it
+            }
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock();
+        try {
+            tickets.clear();
+            notFull.signalAll();
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        lock();
+        try {
+            return tickets.toArray();
+        } finally {
+            unlock();
+        }
+    }
+
+    // Acquires the lock, noting when if hold times are recorded
+    private void lock() {
+        lock.lock();
+        acquiredAt = holdStart();
+    }
+
+    // Acquires the lock unless interrupted, noting when if hold times are recorded
+    private void lockInterruptibly() throws InterruptedException {
+        lock.lockInterruptibly();
+        acquiredAt = holdStart();
+    }
+
+    // Records how long the lock was held and releases it
+    private void unlock() {
+        recordHold();
+        lock.unlock();
+    }
+
+    // Waits on a condition; the time spent waiting does not count as holding the lock
+    private void await(Condition condition) throws InterruptedException {
+        recordHold();
+        try {
+            condition.await();
+        } finally {
+            acquiredAt = holdStart();
+        }
+    }
+
+    // Waits on a condition for at most the given time, returning the time left; waiting does not count as holding the lock
+    private long awaitNanos(Condition condition, long nanos) throws InterruptedException {
+        recordHold();
+        try {
+            return condition.awaitNanos(nanos);
+        } finally {
+            acquiredAt = holdStart();
+        }
+    }
+
+    // Current time if hold times are recorded, otherwise 0
+    private long holdStart() {
+        return timings == TicketPoolTimings.NONE ? 0L : System.nanoTime();
+    }
+
+    // Reports the time since the lock was acquired or last re-acquired
+    private void recordHold() {
+        if (acquiredAt != 0L) {
+            timings.lockHeld(System.nanoTime() - acquiredAt);
+            acquiredAt = 0L;
+        }
+    }
+
+    // Removes up to count tickets, newest first, and wakes vendors for the freed space
+    private int removeUpTo(int[] buffer, int count) {
+        int removed = Math.min(count, tickets.size());
+        for (int i = 0; i < removed; i++) {
+            buffer[i] = tickets.removeLast();
+        }
+        if (removed == 1) {
+            notFull.signal();
+        } else if (removed > 1) {
+            notFull.signalAll();
+        }
+        return removed;
+    }
+
+    // Wakes one customer per single added ticket, or every customer when one of them may need a whole batch
+    private void signalNotEmpty(int added) {
+        if (added <= 0) {
+            return;
+        }
+        if (added == 1 && wholeBatchWaiters == 0) {
+            notEmpty.signal();
+        } else {
+            notEmpty.signalAll();
+        }
+    }
+}
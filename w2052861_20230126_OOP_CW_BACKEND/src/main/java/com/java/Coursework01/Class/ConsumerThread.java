@@ -1,60 +1,180 @@
 package com.java.Coursework01.Class;
 
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-
 /**
- * Represents a thread responsible for retrieving tickets from the ticket pool.
- * Implements the Runnable interface to allow running this class as a thread.
+ * Represents a customer responsible for retrieving tickets from the ticket pool.
+ * Implements PoolParticipant so a scheduler can drive it one purchase per tick.
+ * Purchases go through the pool's {@link FairPurchaseQueue}, so waiting customers are served in turn.
+ * When the pool has a {@link SeatMap}, each batch is seated together: the customer claims adjacent
+ * seats first and only then buys the tickets, all or nothing, giving the seats back if it cannot.
  */
-public class ConsumerThread implements Runnable {
+public class ConsumerThread implements PoolParticipant {
 
     // Reference to the ticket pool
     private final TicketPool ticketPool;
 
-    // The rate at which tickets are retrieved, in milliseconds
+    // The rate at which tickets are retrieved, in tenths of a second between tickets
     private final int ticketRetrievalRate;
 
-    // Template for sending messages/logs to the frontend via WebSocket
-    private final SimpMessagingTemplate messagingTemplate;
+    // Receives log events for the frontend
+    private final PoolEventSink events;
+
+    // Number of tickets bought per tick
+    private final int batchSize;
+
+    // Whether a purchase must be filled completely
+    private final PurchaseMode purchaseMode;
+
+    // Limits the customer's purchase rate, or null for no limit
+    private final TokenBucket rateLimit;
+
+    // Recorded as the owner of the tickets bought, or null
+    private final String customerId;
 
     /**
      * Constructor to initialize the ConsumerThread with required dependencies.
      *
      * @param ticketPool         The ticket pool from which tickets will be retrieved.
-     * @param ticketRetrievalRate The interval in milliseconds between ticket retrievals.
-     * @param messagingTemplate   The messaging template for sending logs to the frontend.
+     * @param ticketRetrievalRate The interval in tenths of a second between ticket retrievals.
+     * @param events             Receives log events for the frontend.
+     */
+    public ConsumerThread(TicketPool ticketPool, int ticketRetrievalRate, PoolEventSink events) {
+        this(ticketPool, ticketRetrievalRate, events, 1, PurchaseMode.PARTIAL_FILL);
+    }
+
+    /**
+     * Constructor for a customer that buys several tickets per tick.
+     *
+     * @param ticketPool         The ticket pool from which tickets will be retrieved.
+     * @param ticketRetrievalRate The interval in tenths of a second between purchases.
+     * @param events             Receives log events for the frontend.
+     * @param batchSize          The number of tickets bought per purchase.
+     * @param purchaseMode       Whether each purchase must be filled completely.
+     */
+    public ConsumerThread(TicketPool ticketPool, int ticketRetrievalRate, PoolEventSink events,
+                          int batchSize, PurchaseMode purchaseMode) {
+        this(ticketPool, ticketRetrievalRate, events, batchSize, purchaseMode, null);
+    }
+
+    /**
+     * Constructor for a customer whose purchases are rate limited.
+     *
+     * @param ticketPool         The ticket pool from which tickets will be retrieved.
+     * @param ticketRetrievalRate The interval in tenths of a second between purchases.
+     * @param events             Receives log events for the frontend.
+     * @param batchSize          The number of tickets bought per purchase.
+     * @param purchaseMode       Whether each purchase must be filled completely.
+     * @param rateLimit          Tokens the customer spends per ticket bought; a tick without enough is skipped.
+     *                           Null for no limit.
      */
-    public ConsumerThread(TicketPool ticketPool, int ticketRetrievalRate, SimpMessagingTemplate messagingTemplate) {
+    public ConsumerThread(TicketPool ticketPool, int ticketRetrievalRate, PoolEventSink events,
+                          int batchSize, PurchaseMode purchaseMode, TokenBucket rateLimit) {
+        this(ticketPool, ticketRetrievalRate, events, batchSize, purchaseMode, rateLimit, null);
+    }
+
+    /**
+     * Constructor for a customer recorded as the owner of the tickets it buys.
+     *
+     * @param ticketPool         The ticket pool from which tickets will be retrieved.
+     * @param ticketRetrievalRate The interval in tenths of a second between purchases.
+     * @param events             Receives log events for the frontend.
+     * @param batchSize          The number of tickets bought per purchase.
+     * @param purchaseMode       Whether each purchase must be filled completely.
+     * @param rateLimit          Tokens the customer spends per ticket bought, or null for no limit.
+     * @param customerId         Owner of the tickets bought in the pool's ticket index, or null.
+     */
+    public ConsumerThread(TicketPool ticketPool, int ticketRetrievalRate, PoolEventSink events,
+                          int batchSize, PurchaseMode purchaseMode, TokenBucket rateLimit, String customerId) {
         this.ticketPool = ticketPool;
         this.ticketRetrievalRate = ticketRetrievalRate;
-        this.messagingTemplate = messagingTemplate;
+        this.events = events;
+        this.batchSize = Math.max(batchSize, 1);
+        this.purchaseMode = purchaseMode;
+        this.rateLimit = rateLimit;
+        this.customerId = customerId;
     }
 
     /**
-     * The run method defines the logic executed by this thread.
-     * Continuously retrieves tickets from the pool while it is available.
+     * Logs the start of ticket retrieval.
      */
     @Override
-    public void run() {
-        // Log the start of ticket retrieval
-        messagingTemplate.convertAndSend("/topic/logs", "Starting ticket retrieval...");
-
-        // Continue running as long as the ticket pool is available
-        while (ticketPool.isAvailable()) {
-            // Remove a ticket from the pool
-            ticketPool.removeTicket();
-
-            // Send a log message to the frontend with the current pool size
-            messagingTemplate.convertAndSend("/topic/logs",
-                    "Retrieved ticket. Remaining Pool Size: " + ticketPool.getTickets().size());
-            try {
-                // Sleep for the specified retrieval rate to control ticket consumption speed
-                Thread.sleep(ticketRetrievalRate * 100L);
-            } catch (InterruptedException e) {
-                // Handle thread interruption gracefully
-                Thread.currentThread().interrupt();
-                messagingTemplate.convertAndSend("/topic/logs", "Ticket retrieval interrupted.");
-            }
+    public void onStart() {
+        events.publish(PoolEvent.of(PoolEvent.Type.RETRIEVAL_STARTED));
+    }
+
+    /**
+     * Buys one batch of tickets from the pool while it is available.
+     *
+     * @param mayBlock Whether the tick may wait for tickets to arrive.
+     * @return false once the pool is unavailable.
+     */
+    @Override
+    public boolean tick(boolean mayBlock) {
+        // Stop once the ticket pool is unavailable
+        if (!ticketPool.isAvailable()) {
+            return false;
+        }
+
+        // Skip this tick if the customer is over its purchase limit
+        if (rateLimit != null && !rateLimit.tryAcquire(batchSize)) {
+            return true;
+        }
+
+        // Buy a batch in turn, or skip this tick if it cannot be filled and we may not wait
+        int removed = purchase(mayBlock);
+        if (rateLimit != null && removed < batchSize) {
+            rateLimit.refund(batchSize - removed); // Only tickets bought count against the limit
         }
+        if (removed == 0 && (!mayBlock || !Thread.currentThread().isInterrupted())) {
+            return true; // Not enough tickets or adjacent seats, try again next tick
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            // Handle removal of the customer while it was waiting for a ticket
+            events.publish(PoolEvent.of(PoolEvent.Type.RETRIEVAL_INTERRUPTED));
+            return false;
+        }
+
+        // Record a log event with the current pool size
+        events.publish(PoolEvent.removed(removed, ticketPool.getPoolSize()));
+        return true;
+    }
+
+    // Buys a batch, seated together if the pool has a seat map; 0 if there is no room or the wait was interrupted
+    private int purchase(boolean mayBlock) {
+        SeatMap seats = ticketPool.seatMap();
+        if (seats == null) {
+            return buy(mayBlock, purchaseMode);
+        }
+        SeatMap.SeatBlock block = seats.claim(batchSize, null);
+        if (block == null) {
+            return 0; // No row has room for the batch
+        }
+        int bought = buy(mayBlock, PurchaseMode.ALL_OR_NOTHING);
+        if (bought == 0) {
+            seats.release(block);
+        }
+        return bought;
+    }
+
+    // Buys a batch through the pool's purchase queue; 0 if interrupted while waiting in line
+    private int buy(boolean mayBlock, PurchaseMode mode) {
+        FairPurchaseQueue queue = ticketPool.purchaseQueue();
+        if (!mayBlock) {
+            return queue.tryPurchase(batchSize, mode, customerId);
+        }
+        try {
+            return queue.purchase(batchSize, mode, customerId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            return 0;
+        }
+    }
+
+    /**
+     * @return The retrieval rate converted to milliseconds between purchases.
+     */
+    @Override
+    public long nextTickDelayMillis() {
+        return ticketRetrievalRate * 100L;
     }
 }
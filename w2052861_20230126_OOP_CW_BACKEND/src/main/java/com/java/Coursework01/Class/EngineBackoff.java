@@ -0,0 +1,56 @@
+package com.java.Coursework01.Class;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waiting strategy of the lock-free engines: threads that find the pool full or empty spin,
+ * then yield, and finally park for short, growing intervals.
+ */
+final class EngineBackoff {
+
+    // Upper bound on the parking interval while waiting for space or tickets
+    static final long MAX_PARK_NANOS = 1_000_000L;
+
+    // Number of busy spins before a waiting thread starts yielding
+    private static final int SPIN_LIMIT = 64;
+
+    // Number of yields before a waiting thread starts parking
+    private static final int YIELD_LIMIT = 128;
+
+    private EngineBackoff() {
+    }
+
+    // Spins, then yields, then parks for a growing interval of at most maxParkNanos
+    static void backOff(int attempt, long maxParkNanos) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else if (attempt < SPIN_LIMIT + YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            int shift = Math.min(attempt - SPIN_LIMIT - YIELD_LIMIT, 10);
+            LockSupport.parkNanos(Math.min(Math.min(1_000L << shift, MAX_PARK_NANOS), maxParkNanos));
+        }
+    }
+
+    // Spins, then yields, while another thread finishes a step it has already claimed
+    static void spinOrYield(int spins) {
+        if (spins < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield(); // The other thread may not be running; let it
+        }
+    }
+
+    // Backs off without parking past the deadline; false once the deadline has passed
+    static boolean backOffUntil(long deadline, int attempt) throws InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0L) {
+            return false;
+        }
+        backOff(attempt, remaining);
+        return true;
+    }
+}
@@ -0,0 +1,302 @@
+package com.java.Coursework01.Class;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * First-come, first-served line of customers waiting for tickets of one {@link TicketPool}.
+ * <p>
+ * Without it, every customer blocked in the pool races for the tickets whenever a vendor signals,
+ * so an unlucky customer can lose over and over. Here waiting customers queue up, and tickets are
+ * handed to the head of the line directly: whichever thread adds tickets or gives up a place
+ * runs the dispatch, removes the head's tickets on its behalf and wakes it with them. A customer
+ * only skips the line when nobody is waiting, and the head blocks those behind it until its own
+ * request can be filled, so large all-or-nothing purchases are not starved by small ones.
+ * Holds wait in the same line as purchases, so a hold cannot jump ahead of customers either.
+ * Tickets that return to the pool without a vendor add (e.g. expired holds) are picked up by the
+ * head's periodic recheck.
+ */
+public class FairPurchaseQueue implements TicketPoolListener {
+
+    // How often the head of the line rechecks the pool on its own, in nanoseconds
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // The pool the tickets come from
+    private final TicketPool pool;
+
+    // Customers waiting, oldest first
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    // Dispatch requests not yet served; the thread that raises it from 0 runs the dispatch
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+
+    /**
+     * Creates an empty line; register it as a listener of the pool so additions are dispatched.
+     *
+     * @param pool The pool the tickets come from.
+     */
+    public FairPurchaseQueue(TicketPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Buys tickets, waiting in line until the request can be filled.
+     *
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @return The number of tickets bought.
+     * @throws InterruptedException If the calling thread is interrupted while waiting; it leaves the line.
+     */
+    public int purchase(int count, PurchaseMode mode) throws InterruptedException {
+        return purchase(count, mode, Long.MAX_VALUE, (String) null);
+    }
+
+    /**
+     * Buys tickets for the given owner, waiting in line until the request can be filled.
+     *
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @param owner Who is buying, recorded in the pool's ticket index; null if unknown.
+     * @return The number of tickets bought.
+     * @throws InterruptedException If the calling thread is interrupted while waiting; it leaves the line.
+     */
+    public int purchase(int count, PurchaseMode mode, String owner) throws InterruptedException {
+        return purchase(count, mode, Long.MAX_VALUE, owner);
+    }
+
+    /**
+     * Buys tickets, waiting in line at most the given time until the request can be filled.
+     *
+     * @param count   Number of tickets wanted.
+     * @param mode    Whether the purchase must be filled completely.
+     * @param timeout How long to wait.
+     * @param unit    The unit of {@code timeout}.
+     * @return The number of tickets bought, 0 if the request could not be filled in time.
+     * @throws InterruptedException If the calling thread is interrupted while waiting; it leaves the line.
+     */
+    public int purchase(int count, PurchaseMode mode, long timeout, TimeUnit unit) throws InterruptedException {
+        return purchase(count, mode, unit.toNanos(timeout), (String) null);
+    }
+
+    /**
+     * Buys tickets for the given owner, waiting in line at most the given time until the request can be filled.
+     *
+     * @param count   Number of tickets wanted.
+     * @param mode    Whether the purchase must be filled completely.
+     * @param timeout How long to wait.
+     * @param unit    The unit of {@code timeout}.
+     * @param owner   Who is buying, recorded in the pool's ticket index; null if unknown.
+     * @return The number of tickets bought, 0 if the request could not be filled in time.
+     * @throws InterruptedException If the calling thread is interrupted while waiting; it leaves the line.
+     */
+    public int purchase(int count, PurchaseMode mode, long timeout, TimeUnit unit, String owner)
+            throws InterruptedException {
+        return purchase(count, mode, unit.toNanos(timeout), owner);
+    }
+
+    /**
+     * Buys tickets without waiting. Never goes ahead of customers already in line.
+     *
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @return The number of tickets bought, 0 if customers are waiting or the request cannot be filled now.
+     */
+    public int tryPurchase(int count, PurchaseMode mode) {
+        return tryPurchase(count, mode, null);
+    }
+
+    /**
+     * Buys tickets for the given owner without waiting. Never goes ahead of customers already in line.
+     *
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @param owner Who is buying, recorded in the pool's ticket index; null if unknown.
+     * @return The number of tickets bought, 0 if customers are waiting or the request cannot be filled now.
+     */
+    public int tryPurchase(int count, PurchaseMode mode, String owner) {
+        pool.checkBatchSize(count, mode);
+        return waiters.isEmpty() ? pool.tryRemoveTickets(count, mode, owner) : 0;
+    }
+
+    /**
+     * Holds tickets, waiting in line at most the given time until the request can be filled.
+     *
+     * @param buffer  Receives the IDs of the held tickets.
+     * @param count   Number of tickets wanted.
+     * @param mode    Whether the hold must be filled completely.
+     * @param timeout How long to wait, 0 to return at once.
+     * @param unit    The unit of {@code timeout}.
+     * @return The number of tickets held, 0 if the request could not be filled in time.
+     * @throws InterruptedException If the calling thread is interrupted while waiting; it leaves the line.
+     */
+    public int hold(int[] buffer, int count, PurchaseMode mode, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return waitInLine(count, mode, null, buffer, unit.toNanos(timeout));
+    }
+
+    /**
+     * Holds tickets without waiting. Never goes ahead of customers already in line.
+     *
+     * @param buffer Receives the IDs of the held tickets.
+     * @param count  Number of tickets wanted.
+     * @param mode   Whether the hold must be filled completely.
+     * @return The number of tickets held, 0 if customers are waiting or the request cannot be filled now.
+     */
+    public int tryHold(int[] buffer, int count, PurchaseMode mode) {
+        pool.checkBatchSize(count, mode);
+        return waiters.isEmpty() ? pool.tryHoldTickets(buffer, count, mode) : 0;
+    }
+
+    /**
+     * @return The number of customers waiting in line.
+     */
+    public int waiting() {
+        return waiters.size();
+    }
+
+    /**
+     * Hands the new tickets to the customers in line.
+     */
+    @Override
+    public void ticketsAdded(int[] tickets, int offset, int count) {
+        if (!waiters.isEmpty()) {
+            dispatch();
+        }
+    }
+
+    // Buys tickets, joining the line unless it is empty and the pool can fill the request at once
+    private int purchase(int count, PurchaseMode mode, long timeoutNanos, String owner) throws InterruptedException {
+        return waitInLine(count, mode, owner, null, timeoutNanos);
+    }
+
+    // Joins the line unless it is empty and the pool can fill the request at once; holds if a buffer is given
+    private int waitInLine(int count, PurchaseMode mode, String owner, int[] holdBuffer, long timeoutNanos)
+            throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        int bought = holdBuffer == null ? tryPurchase(count, mode, owner) : tryHold(holdBuffer, count, mode);
+        if (bought > 0 || timeoutNanos <= 0L) {
+            return bought;
+        }
+
+        long start = pool.waitStart();
+        Waiter waiter = new Waiter(Thread.currentThread(), count, mode, owner, holdBuffer);
+        waiters.add(waiter);
+        dispatch(); // Tickets may have arrived before we joined
+        long deadline = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeoutNanos;
+        try {
+            while (waiter.state != Waiter.GRANTED) {
+                if (Thread.interrupted()) {
+                    if (leave(waiter)) {
+                        throw new InterruptedException();
+                    }
+                    Thread.currentThread().interrupt(); // Granted while leaving; keep the tickets
+                    break;
+                }
+                long remaining = deadline == Long.MAX_VALUE ? RECHECK_NANOS : deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    if (leave(waiter)) {
+                        return 0;
+                    }
+                    break;
+                }
+                LockSupport.parkNanos(this, Math.min(remaining, RECHECK_NANOS));
+                if (waiter.state == Waiter.PENDING && waiters.peek() == waiter) {
+                    dispatch(); // Recheck in case tickets came back without an add
+                }
+            }
+            return waiter.granted;
+        } finally {
+            pool.recordCustomerWait(start);
+        }
+    }
+
+    // Takes a waiter out of the line; false if it was granted its tickets first
+    private boolean leave(Waiter waiter) {
+        while (true) {
+            if (Waiter.STATE.compareAndSet(waiter, Waiter.PENDING, Waiter.CANCELLED)) {
+                boolean wasHead = waiters.peek() == waiter;
+                waiters.remove(waiter);
+                if (wasHead) {
+                    dispatch(); // The next in line may be fillable
+                }
+                return true;
+            }
+            if (waiter.state == Waiter.GRANTED) {
+                return false;
+            }
+            Thread.onSpinWait(); // A dispatch is trying to fill it right now
+        }
+    }
+
+    // Fills waiters from the head of the line until one cannot be filled; one thread at a time
+    private void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return; // The running dispatch will go round again
+        }
+        int requests = 1;
+        do {
+            Waiter head;
+            while ((head = waiters.peek()) != null) {
+                if (!Waiter.STATE.compareAndSet(head, Waiter.PENDING, Waiter.DISPATCHING)) {
+                    waiters.remove(head); // Cancelled
+                    continue;
+                }
+                int bought;
+                try {
+                    bought = head.holdBuffer == null
+                            ? pool.tryRemoveTickets(head.count, head.mode, head.owner)
+                            : pool.tryHoldTickets(head.holdBuffer, head.count, head.mode);
+                } catch (IllegalArgumentException e) {
+                    bought = -1; // The pool shrank below the request; let the waiter go empty-handed
+                }
+                if (bought == 0) {
+                    head.state = Waiter.PENDING;
+                    break; // Everyone behind waits for the head
+                }
+                head.granted = Math.max(bought, 0);
+                waiters.remove(head);
+                head.state = Waiter.GRANTED;
+                LockSupport.unpark(head.thread);
+            }
+            requests = dispatchRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    // A customer waiting in line to buy or hold tickets
+    private static final class Waiter {
+        private static final int PENDING = 0;
+        private static final int DISPATCHING = 1;
+        private static final int GRANTED = 2;
+        private static final int CANCELLED = 3;
+
+        // Atomic access to state
+        private static final AtomicIntegerFieldUpdater<Waiter> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "state");
+
+        private final Thread thread;
+        private final int count;
+        private final PurchaseMode mode;
+        private final String owner;
+
+        // Receives the held tickets, or null for a purchase
+        private final int[] holdBuffer;
+
+        // Tickets bought on the waiter's behalf; published by the write to state
+        private int granted;
+
+        private volatile int state = PENDING;
+
+        private Waiter(Thread thread, int count, PurchaseMode mode, String owner, int[] holdBuffer) {
+            this.thread = thread;
+            this.count = count;
+            this.mode = mode;
+            this.owner = owner;
+            this.holdBuffer = holdBuffer;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.java.Coursework01.Class;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of request results by idempotency key, so a client that retries a request
+ * gets the result of the first attempt instead of repeating its effect.
+ * <p>
+ * Results are cached as futures: a duplicate that arrives while the first request is still
+ * running waits for its result rather than starting a second one. Every entry lives for the
+ * same TTL, so insertion order is expiry order; expired entries are evicted from the head of a
+ * FIFO on the next insert, in O(1) each, without a background thread. When the cache is full,
+ * the oldest entry is evicted early.
+ *
+ * @param <V> The type of the cached results.
+ */
+public class IdempotencyCache<V> {
+
+    // Cached results by key
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    // Entries in insertion order, and so in expiry order; may still hold entries already removed
+    private final ConcurrentLinkedQueue<Entry<V>> order = new ConcurrentLinkedQueue<>();
+
+    // How long a result is kept, in nanoseconds
+    private final long ttlNanos;
+
+    // Most results kept at once
+    private final int maxEntries;
+
+    // Current time in nanoseconds
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param ttlMillis  How long a result is kept, in milliseconds.
+     * @param maxEntries Most results kept at once.
+     */
+    public IdempotencyCache(long ttlMillis, int maxEntries) {
+        this(ttlMillis, maxEntries, System::nanoTime);
+    }
+
+    /**
+     * Creates an empty cache with its own clock, e.g. for tests.
+     *
+     * @param ttlMillis  How long a result is kept, in milliseconds.
+     * @param maxEntries Most results kept at once.
+     * @param nanoClock  Current time in nanoseconds.
+     */
+    public IdempotencyCache(long ttlMillis, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(ttlMillis, 1));
+        this.maxEntries = Math.max(maxEntries, 1);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Caches the result of a new request, unless a request with the same key came first.
+     *
+     * @param key    The idempotency key.
+     * @param result The result of the new request, to be completed by the caller.
+     * @return null if the key was new and {@code result} is now cached for it; otherwise the result of
+     * the earlier request, which may not be complete yet.
+     */
+    public CompletableFuture<V> putIfAbsent(String key, CompletableFuture<V> result) {
+        long now = nanoClock.getAsLong();
+        evict(now);
+        Entry<V> entry = new Entry<>(key, result, now + ttlNanos);
+        while (true) {
+            Entry<V> existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                order.add(entry);
+                return null;
+            }
+            if (existing.expiresAt - now > 0) {
+                return existing.result;
+            }
+            entries.remove(key, existing); // Expired but not evicted yet
+        }
+    }
+
+    /**
+     * Forgets the result of a request, e.g. one that failed and may be retried.
+     *
+     * @param key    The idempotency key.
+     * @param result The result cached by {@link #putIfAbsent}; a newer result for the key is kept.
+     */
+    public void remove(String key, CompletableFuture<V> result) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.result == result) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * @return The number of results cached, including expired ones not evicted yet.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    // Evicts expired entries, and the oldest ones while the cache is full
+    private void evict(long now) {
+        Entry<V> oldest;
+        while ((oldest = order.peek()) != null
+                && (oldest.expiresAt - now <= 0 || entries.size() >= maxEntries)) {
+            if (order.remove(oldest)) {
+                entries.remove(oldest.key, oldest); // No-op if it was already removed or replaced
+            }
+        }
+    }
+
+    // A cached result
+    private static final class Entry<V> {
+        private final String key;
+        private final CompletableFuture<V> result;
+        private final long expiresAt;
+
+        private Entry(String key, CompletableFuture<V> result, long expiresAt) {
+            this.key = key;
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
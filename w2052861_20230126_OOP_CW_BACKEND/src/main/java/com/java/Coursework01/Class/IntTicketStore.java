@@ -0,0 +1,158 @@
+package com.java.Coursework01.Class;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Growable double-ended queue of primitive ticket IDs.
+ * Backed by a power-of-two circular int array, so adding or removing at either end
+ * is O(1) and no ticket is ever boxed. Not thread-safe; callers provide their own locking.
+ */
+public class IntTicketStore {
+
+    // Capacity of a store created without a size hint
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Circular array of ticket IDs
+    private int[] elements;
+
+    // Index of the first ticket
+    private int head;
+
+    // Number of tickets in the store
+    private int size;
+
+    // Creates an empty store with the default capacity
+    public IntTicketStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty store sized for the expected number of tickets.
+     *
+     * @param expectedSize The number of tickets the store should hold without growing.
+     */
+    public IntTicketStore(int expectedSize) {
+        this.elements = new int[arrayLength(expectedSize)];
+    }
+
+    /**
+     * Creates a store holding the given tickets, first to last.
+     *
+     * @param tickets The ticket IDs to copy into the store.
+     * @return The new store.
+     */
+    public static IntTicketStore of(int[] tickets) {
+        IntTicketStore store = new IntTicketStore(tickets.length);
+        System.arraycopy(tickets, 0, store.elements, 0, tickets.length);
+        store.size = tickets.length;
+        return store;
+    }
+
+    // Adds a ticket before the first ticket
+    public void addFirst(int ticket) {
+        ensureCapacity(size + 1);
+        head = (head - 1) & (elements.length - 1);
+        elements[head] = ticket;
+        size++;
+    }
+
+    // Adds a ticket after the last ticket
+    public void addLast(int ticket) {
+        ensureCapacity(size + 1);
+        elements[(head + size) & (elements.length - 1)] = ticket;
+        size++;
+    }
+
+    // Removes and returns the first ticket
+    public int removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException("Ticket store is empty.");
+        }
+        int ticket = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return ticket;
+    }
+
+    // Removes and returns the last ticket
+    public int removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException("Ticket store is empty.");
+        }
+        size--;
+        return elements[(head + size) & (elements.length - 1)];
+    }
+
+    /**
+     * Returns the ticket at the given position without removing it.
+     *
+     * @param index Position from the first ticket, starting at 0.
+     * @return The ticket ID at that position.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return elements[(head + index) & (elements.length - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Removes every ticket while keeping the allocated array
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Copies the tickets into a new array, first to last.
+     *
+     * @return The ticket IDs in the store.
+     */
+    public int[] toArray() {
+        int[] copy = new int[size];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, copy, 0, firstPart);
+        System.arraycopy(elements, 0, copy, firstPart, size - firstPart);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof IntTicketStore && Arrays.equals(toArray(), ((IntTicketStore) other).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    // Doubles the array until it can hold the requested number of tickets
+    private void ensureCapacity(int required) {
+        if (required <= elements.length) {
+            return;
+        }
+        if (required > 1 << 30) {
+            throw new IllegalStateException("Ticket store cannot hold more than 2^30 tickets.");
+        }
+        int[] grown = new int[arrayLength(required)];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+        elements = grown;
+        head = 0;
+    }
+
+    // Smallest power of two that fits the requested size
+    private static int arrayLength(int requested) {
+        int length = Integer.highestOneBit(Math.max(requested, DEFAULT_CAPACITY));
+        return length < requested ? length << 1 : length;
+    }
+}
@@ -0,0 +1,94 @@
+package com.java.Coursework01.Class;
+
+import java.util.List;
+
+/**
+ * Time-varying load for a group of vendors or customers, read from the configuration JSON.
+ * <p>
+ * Each point scales the participants' configured rate from {@code atSeconds} after they start: a
+ * multiplier of 10 means ten times as many ticks. With {@link Shape#STEP} a multiplier holds until
+ * the next point, with {@link Shape#RAMP} it changes linearly towards it; before the first point
+ * the multiplier is 1 and after the last it stays at the last value. For example, a 10x on-sale
+ * spike after one minute that fades over five:
+ * <pre>
+ * {"arrival": "POISSON", "shape": "RAMP",
+ *  "points": [{"atSeconds": 60, "multiplier": 1}, {"atSeconds": 61, "multiplier": 10},
+ *             {"atSeconds": 360, "multiplier": 1}]}
+ * </pre>
+ *
+ * @param arrival   How ticks are spread around the mean gap; FIXED if omitted.
+ * @param burstSize Ticks per burst with {@link ArrivalDistribution#BURSTY}; 10 if omitted.
+ * @param shape     How the multiplier changes between points; STEP if omitted.
+ * @param points    Rate multipliers over time, in ascending time order; none keeps the configured rate.
+ * @param seed      Seed for the random gaps so runs can be repeated, or null for a random seed.
+ */
+public record LoadProfile(ArrivalDistribution arrival, Integer burstSize, Shape shape, List<Point> points, Long seed) {
+
+    /**
+     * Fills in defaults and checks the points.
+     *
+     * @throws IllegalArgumentException If a multiplier is not positive or the points are out of order.
+     */
+    public LoadProfile {
+        arrival = arrival == null ? ArrivalDistribution.FIXED : arrival;
+        burstSize = burstSize == null ? 10 : burstSize;
+        shape = shape == null ? Shape.STEP : shape;
+        points = points == null ? List.of() : List.copyOf(points);
+        if (burstSize <= 0) {
+            throw new IllegalArgumentException("Burst size must be a positive integer.");
+        }
+        for (int i = 0; i < points.size(); i++) {
+            Point point = points.get(i);
+            if (!(point.multiplier() > 0)) {
+                throw new IllegalArgumentException("Load profile multipliers must be positive.");
+            }
+            if (point.atSeconds() < 0 || (i > 0 && point.atSeconds() < points.get(i - 1).atSeconds())) {
+                throw new IllegalArgumentException("Load profile points must be in ascending time order.");
+            }
+        }
+    }
+
+    /**
+     * Returns the rate multiplier at a time since the participants started.
+     *
+     * @param seconds Seconds since the participants started.
+     * @return The multiplier, always positive.
+     */
+    public double multiplierAt(double seconds) {
+        if (points.isEmpty() || seconds < points.get(0).atSeconds()) {
+            return 1.0;
+        }
+        int i = 0;
+        while (i + 1 < points.size() && points.get(i + 1).atSeconds() <= seconds) {
+            i++;
+        }
+        Point from = points.get(i);
+        if (shape == Shape.STEP || i + 1 == points.size()) {
+            return from.multiplier();
+        }
+        Point to = points.get(i + 1);
+        double fraction = (seconds - from.atSeconds()) / (to.atSeconds() - from.atSeconds());
+        return from.multiplier() + fraction * (to.multiplier() - from.multiplier());
+    }
+
+    /**
+     * How the multiplier changes between points.
+     */
+    public enum Shape {
+
+        // Hold each multiplier until the next point
+        STEP,
+
+        // Change linearly from each multiplier to the next
+        RAMP
+    }
+
+    /**
+     * A rate multiplier from a time on.
+     *
+     * @param atSeconds  Seconds after the participants start.
+     * @param multiplier Factor applied to the configured rate; must be positive.
+     */
+    public record Point(double atSeconds, double multiplier) {
+    }
+}
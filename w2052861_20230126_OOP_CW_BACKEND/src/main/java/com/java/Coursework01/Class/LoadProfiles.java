@@ -0,0 +1,13 @@
+package com.java.Coursework01.Class;
+
+/**
+ * Load profiles for the vendors and customers of a pool, as given in the configuration JSON.
+ *
+ * @param vendors   Profile driving the vendors, or null for their plain rate.
+ * @param customers Profile driving the customers, or null for their plain rate.
+ */
+public record LoadProfiles(LoadProfile vendors, LoadProfile customers) {
+
+    // Runs every participant at its plain rate
+    public static final LoadProfiles NONE = new LoadProfiles(null, null);
+}
@@ -0,0 +1,84 @@
+package com.java.Coursework01.Class;
+
+/**
+ * Something that happened in the ticket pool, recorded by vendors and customers.
+ * Events only carry numbers, so recording one is cheap; the log text is built later
+ * by whoever publishes the event.
+ *
+ * @param type             What happened.
+ * @param tickets          Number of tickets added or removed, 0 for other events.
+ * @param poolSize         Pool size right after the event.
+ * @param ticketsGenerated Total tickets generated right after the event.
+ * @param message          Free-form text for {@link Type#MESSAGE} events, otherwise null.
+ * @param eventId          The event whose pool changed, or null for the default pool.
+ */
+public record PoolEvent(Type type, int tickets, int poolSize, int ticketsGenerated, String message, String eventId) {
+
+    /**
+     * The kinds of pool events.
+     */
+    public enum Type {
+        TICKETS_ADDED,
+        TICKETS_REMOVED,
+        RETRIEVAL_STARTED,
+        GENERATION_INTERRUPTED,
+        RETRIEVAL_INTERRUPTED,
+        MESSAGE
+    }
+
+    // A vendor added tickets
+    public static PoolEvent added(int tickets, int poolSize, int ticketsGenerated) {
+        return new PoolEvent(Type.TICKETS_ADDED, tickets, poolSize, ticketsGenerated, null, null);
+    }
+
+    // A customer bought tickets
+    public static PoolEvent removed(int tickets, int poolSize) {
+        return new PoolEvent(Type.TICKETS_REMOVED, tickets, poolSize, 0, null, null);
+    }
+
+    // An event without numbers
+    public static PoolEvent of(Type type) {
+        return new PoolEvent(type, 0, 0, 0, null, null);
+    }
+
+    // A free-form log line
+    public static PoolEvent message(String message) {
+        return new PoolEvent(Type.MESSAGE, 0, 0, 0, message, null);
+    }
+
+    /**
+     * @param eventId The event whose pool changed.
+     * @return A copy of this event attributed to the given event.
+     */
+    public PoolEvent forEvent(String eventId) {
+        return new PoolEvent(type, tickets, poolSize, ticketsGenerated, message, eventId);
+    }
+
+    /**
+     * @return The log line shown to the frontend for this event, prefixed with its event ID if any.
+     */
+    public String describe() {
+        return eventId == null ? describeChange() : "[" + eventId + "] " + describeChange();
+    }
+
+    // Builds the log line for the change itself
+    private String describeChange() {
+        switch (type) {
+            case TICKETS_ADDED:
+                return (tickets == 1 ? "Generated ticket." : "Generated " + tickets + " tickets.") +
+                        " Pool Size: " + poolSize + " total generated tickets: " + ticketsGenerated;
+            case TICKETS_REMOVED:
+                return (tickets == 1 ? "Retrieved ticket." : "Retrieved " + tickets + " tickets.") +
+                        " Remaining Pool Size: " + poolSize;
+            case RETRIEVAL_STARTED:
+                return "Starting ticket retrieval...";
+            case GENERATION_INTERRUPTED:
+                return "Ticket generation interrupted.";
+            case RETRIEVAL_INTERRUPTED:
+                return "Ticket retrieval interrupted.";
+            case MESSAGE:
+            default:
+                return message;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.java.Coursework01.Class;
+
+/**
+ * Receives pool events from vendors and customers.
+ * Implementations must not block, since events are recorded on the ticket hot path.
+ */
+public interface PoolEventSink {
+
+    /**
+     * Records an event for later delivery.
+     *
+     * @param event The event to record.
+     */
+    void publish(PoolEvent event);
+}
@@ -0,0 +1,29 @@
+package com.java.Coursework01.Class;
+
+/**
+ * A vendor or customer driven by scheduler ticks instead of its own sleeping thread.
+ * Each tick performs one unit of work against the ticket pool, after which the
+ * scheduler waits {@link #nextTickDelayMillis()} before the next tick.
+ */
+public interface PoolParticipant {
+
+    /**
+     * Called once before the first tick.
+     */
+    default void onStart() {
+    }
+
+    /**
+     * Performs one unit of work against the ticket pool.
+     *
+     * @param mayBlock true if the tick runs on its own (virtual) thread and may wait on the pool,
+     *                 false if it shares a bounded scheduler thread and must return immediately.
+     * @return true to be ticked again, false once the participant has finished.
+     */
+    boolean tick(boolean mayBlock);
+
+    /**
+     * @return The delay in milliseconds before the next tick.
+     */
+    long nextTickDelayMillis();
+}
@@ -0,0 +1,46 @@
+package com.java.Coursework01.Class;
+
+/**
+ * Immutable snapshot of the settings a running pool is driven by.
+ * <p>
+ * A new snapshot is published as a whole when the pool is reconfigured, so vendors and customers
+ * always see the rates, capacity and counts of one configuration, never a mix of two. As when the
+ * pool is started, the release and retrieval rates are shared among the vendors and customers.
+ *
+ * @param ticketReleaseRate           Rate at which tickets are released by the vendors together.
+ * @param customerTicketRetrievalRate Rate at which tickets are retrieved by the customers together.
+ * @param maxTicketCapacity           Maximum number of tickets in the pool.
+ * @param vendorCount                 Number of vendors to run.
+ * @param consumerCount               Number of customers to run.
+ */
+public record PoolSettings(int ticketReleaseRate, int customerTicketRetrievalRate, int maxTicketCapacity,
+                           int vendorCount, int consumerCount) {
+
+    /**
+     * Checks the settings.
+     *
+     * @throws IllegalArgumentException If a setting is negative.
+     */
+    public PoolSettings {
+        if (ticketReleaseRate < 0 || customerTicketRetrievalRate < 0 || maxTicketCapacity < 0) {
+            throw new IllegalArgumentException("Rates and max capacity must not be negative.");
+        }
+        if (vendorCount < 0 || consumerCount < 0) {
+            throw new IllegalArgumentException("Vendor and Consumer counts must not be negative.");
+        }
+    }
+
+    /**
+     * @return The delay in milliseconds between the ticks of each vendor.
+     */
+    public long vendorDelayMillis() {
+        return Math.max(ticketReleaseRate / Math.max(vendorCount, 1), 1) * 100L;
+    }
+
+    /**
+     * @return The delay in milliseconds between the ticks of each customer.
+     */
+    public long customerDelayMillis() {
+        return Math.max(customerTicketRetrievalRate / Math.max(consumerCount, 1), 1) * 100L;
+    }
+}
@@ -0,0 +1,82 @@
+package com.java.Coursework01.Class;
+
+import java.util.SplittableRandom;
+
+/**
+ * Drives a vendor or customer according to a {@link LoadProfile}.
+ * Ticks are passed on unchanged; only the delay before each tick is reshaped. The participant's own
+ * delay is the mean gap at a multiplier of 1, and the profile scales it and spreads it according to
+ * its arrival distribution.
+ */
+public class ProfiledParticipant implements PoolParticipant {
+
+    // The vendor or customer doing the work
+    private final PoolParticipant participant;
+
+    // Load profile shaping the delays
+    private final LoadProfile profile;
+
+    // When the profile's timeline started, from System.nanoTime()
+    private final long startNanos;
+
+    // Source of the random gaps; only used by the scheduler thread ticking this participant
+    private final SplittableRandom random;
+
+    // Ticks left in the current burst
+    private int burstRemaining;
+
+    /**
+     * Wraps a participant.
+     *
+     * @param participant The vendor or customer doing the work.
+     * @param profile     Load profile shaping the delays.
+     * @param startNanos  When the profile's timeline started, from {@link System#nanoTime()}; shared by every
+     *                    participant started together so their peaks line up.
+     * @param random      Source of the random gaps.
+     */
+    public ProfiledParticipant(PoolParticipant participant, LoadProfile profile, long startNanos,
+                               SplittableRandom random) {
+        this.participant = participant;
+        this.profile = profile;
+        this.startNanos = startNanos;
+        this.random = random;
+    }
+
+    @Override
+    public void onStart() {
+        participant.onStart();
+    }
+
+    @Override
+    public boolean tick(boolean mayBlock) {
+        return participant.tick(mayBlock);
+    }
+
+    /**
+     * @return The participant's delay scaled by the current multiplier and drawn from the arrival distribution.
+     */
+    @Override
+    public long nextTickDelayMillis() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        double mean = participant.nextTickDelayMillis() / profile.multiplierAt(seconds);
+        switch (profile.arrival()) {
+            case POISSON:
+                return Math.round(exponential(mean));
+            case BURSTY:
+                if (burstRemaining > 0) {
+                    burstRemaining--;
+                    return 0L; // Next tick of the same burst
+                }
+                burstRemaining = profile.burstSize() - 1;
+                return Math.round(exponential(mean * profile.burstSize()));
+            case FIXED:
+            default:
+                return Math.round(mean);
+        }
+    }
+
+    // Draws an exponentially distributed gap with the given mean
+    private double exponential(double mean) {
+        return -mean * Math.log(1.0 - random.nextDouble());
+    }
+}
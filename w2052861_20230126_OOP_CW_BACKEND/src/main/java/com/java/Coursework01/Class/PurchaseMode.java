@@ -0,0 +1,13 @@
+package com.java.Coursework01.Class;
+
+/**
+ * How a bulk purchase behaves when the pool holds fewer tickets than requested.
+ */
+public enum PurchaseMode {
+
+    // Take every requested ticket at once, or none of them
+    ALL_OR_NOTHING,
+
+    // Take whatever is available, up to the requested number
+    PARTIAL_FILL
+}
@@ -0,0 +1,46 @@
+package com.java.Coursework01.Class;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Drives a vendor or customer at a rate that can change while it runs.
+ * Ticks are passed on unchanged; the delay before each tick is read from the current settings,
+ * so a reconfiguration takes effect from the participant's next tick without restarting it.
+ */
+public class ReconfigurableParticipant implements PoolParticipant {
+
+    // The vendor or customer doing the work
+    private final PoolParticipant participant;
+
+    // Current delay between ticks, in milliseconds
+    private final LongSupplier delayMillis;
+
+    /**
+     * Wraps a participant.
+     *
+     * @param participant The vendor or customer doing the work.
+     * @param delayMillis Current delay between ticks in milliseconds, read before every tick.
+     */
+    public ReconfigurableParticipant(PoolParticipant participant, LongSupplier delayMillis) {
+        this.participant = participant;
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public void onStart() {
+        participant.onStart();
+    }
+
+    @Override
+    public boolean tick(boolean mayBlock) {
+        return participant.tick(mayBlock);
+    }
+
+    /**
+     * @return The delay of the current settings.
+     */
+    @Override
+    public long nextTickDelayMillis() {
+        return delayMillis.getAsLong();
+    }
+}
@@ -0,0 +1,351 @@
+package com.java.Coursework01.Class;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.java.Coursework01.Class.EngineBackoff.MAX_PARK_NANOS;
+import static com.java.Coursework01.Class.EngineBackoff.backOff;
+import static com.java.Coursework01.Class.EngineBackoff.backOffUntil;
+import static com.java.Coursework01.Class.EngineBackoff.spinOrYield;
+
+/**
+ * Lock-free bounded multi-producer multi-consumer ticket pool engine.
+ * <p>
+ * Tickets live in a power-of-two ring of slots, each stamped with a sequence number
+ * that tells producers and consumers whose turn it is. Before claiming a slot a vendor
+ * reserves a capacity permit and a customer reserves a published ticket, both with a
+ * single compare-and-set, so a claimed slot is always about to become usable and no
+ * thread ever holds a lock. Threads that find the pool full or empty back off by
+ * spinning, yielding and finally parking for short, growing intervals.
+ */
+public class RingBufferTicketPoolEngine implements TicketPoolEngine {
+
+    // Largest capacity whose ring length is still a positive int
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    // Ticket IDs, indexed by position & mask
+    private final int[] buffer;
+
+    // Per-slot sequence: equals the position when free, position + 1 when filled
+    private final AtomicLongArray sequences;
+
+    // Mask for mapping a position to its slot
+    private final int mask;
+
+    // Next position to be written by a vendor
+    private final AtomicLong tail = new AtomicLong();
+
+    // Next position to be read by a customer
+    private final AtomicLong head = new AtomicLong();
+
+    // Capacity permits taken: tickets in the pool and held, plus in-flight puts and takes
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    // Tickets written and not yet claimed by a customer
+    private final AtomicInteger published = new AtomicInteger();
+
+    // Maximum number of tickets in the pool, never above the ring length
+    private volatile int capacity;
+
+    /**
+     * Creates an empty engine whose ring is large enough for the given capacity.
+     *
+     * @param capacity The maximum number of tickets the engine may hold.
+     * @throws IllegalArgumentException If the capacity is negative or above {@link #MAX_CAPACITY}
+     */
+    public RingBufferTicketPoolEngine(int capacity) {
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 0 and " + MAX_CAPACITY + ".");
+        }
+        int length = ringLength(capacity);
+        this.buffer = new int[length];
+        this.sequences = new AtomicLongArray(length);
+        this.mask = length - 1;
+        this.capacity = capacity;
+        for (int i = 0; i < length; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    @Override
+    public void put(int ticket) throws InterruptedException {
+        for (int attempt = 0; !offer(ticket); attempt++) {
+            backOff(attempt, MAX_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public int take() throws InterruptedException {
+        int ticket;
+        for (int attempt = 0; (ticket = poll()) == NO_TICKET; attempt++) {
+            backOff(attempt, MAX_PARK_NANOS);
+        }
+        return ticket;
+    }
+
+    @Override
+    public boolean offer(int ticket, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !offer(ticket); attempt++) {
+            if (!backOffUntil(deadline, attempt)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int ticket;
+        for (int attempt = 0; (ticket = poll()) == NO_TICKET; attempt++) {
+            if (!backOffUntil(deadline, attempt)) {
+                return NO_TICKET;
+            }
+        }
+        return ticket;
+    }
+
+    @Override
+    public boolean offer(int ticket) {
+        if (!reservePermit()) {
+            return false;
+        }
+        long position = tail.getAndIncrement();
+        int slot = (int) position & mask;
+        awaitSequence(slot, position); // The customer that claimed this slot one lap ago may still be reading it
+        buffer[slot] = ticket;
+        sequences.set(slot, position + 1); // Publishes the ticket write
+        published.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public int poll() {
+        if (!reserveTicket()) {
+            return NO_TICKET;
+        }
+        long position = head.getAndIncrement();
+        int slot = (int) position & mask;
+        awaitSequence(slot, position + 1); // The vendor that claimed this slot may still be writing it
+        int ticket = buffer[slot];
+        sequences.set(slot, position + buffer.length); // Frees the slot for the next lap
+        reserved.decrementAndGet();
+        return ticket;
+    }
+
+    @Override
+    public int take(int[] out, int count, boolean allOrNothing) throws InterruptedException {
+        int taken;
+        for (int attempt = 0; (taken = poll(out, count, allOrNothing)) == 0; attempt++) {
+            if (allOrNothing && count > capacity) {
+                return 0; // The capacity dropped below the batch, which can never be filled now
+            }
+            backOff(attempt, MAX_PARK_NANOS);
+        }
+        return taken;
+    }
+
+    @Override
+    public int offer(int[] tickets, int offset, int count) {
+        int granted = reservePermits(count);
+        if (granted > 0) {
+            publish(tickets, offset, granted);
+        }
+        return granted;
+    }
+
+    @Override
+    public int poll(int[] out, int count, boolean allOrNothing) {
+        int granted = claim(out, count, allOrNothing);
+        if (granted > 0) {
+            reserved.addAndGet(-granted); // Frees the capacity for vendors
+        }
+        return granted;
+    }
+
+    @Override
+    public int poll(int[] out, int count, boolean allOrNothing, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int taken;
+        for (int attempt = 0; (taken = poll(out, count, allOrNothing)) == 0; attempt++) {
+            if ((allOrNothing && count > capacity) || !backOffUntil(deadline, attempt)) {
+                return 0;
+            }
+        }
+        return taken;
+    }
+
+    @Override
+    public int hold(int[] out, int count, boolean allOrNothing, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int taken;
+        // Held tickets keep their permits, so a release always has space
+        for (int attempt = 0; (taken = claim(out, count, allOrNothing)) == 0; attempt++) {
+            if ((allOrNothing && count > capacity) || !backOffUntil(deadline, attempt)) {
+                return 0;
+            }
+        }
+        return taken;
+    }
+
+    @Override
+    public void releaseHeld(int[] tickets, int offset, int count) {
+        if (count > 0) {
+            publish(tickets, offset, count); // The permits were kept by the hold
+        }
+    }
+
+    @Override
+    public void dropHeld(int count) {
+        reserved.addAndGet(-count);
+    }
+
+    @Override
+    public void reserveHeld(int count) {
+        reserved.addAndGet(count);
+    }
+
+    @Override
+    public int size() {
+        return Math.max(published.get(), 0);
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean resize(int capacity) {
+        if (capacity > buffer.length) {
+            return false; // The ring itself would have to grow
+        }
+        this.capacity = Math.max(capacity, 0);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != NO_TICKET) {
+            // Drain every published ticket
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        long from = head.get();
+        int count = (int) Math.max(Math.min(tail.get() - from, buffer.length), 0);
+        int[] copy = new int[count];
+        int filled = 0;
+        for (long position = from; filled < count; position++) {
+            int slot = (int) position & mask;
+            if (sequences.get(slot) != position + 1) {
+                break; // Not yet written or already taken
+            }
+            copy[filled++] = buffer[slot];
+        }
+        return filled == count ? copy : Arrays.copyOf(copy, filled);
+    }
+
+    // Writes tickets whose permits are already taken, claiming every slot of the batch with a single increment
+    private void publish(int[] tickets, int offset, int count) {
+        long first = tail.getAndAdd(count);
+        for (int i = 0; i < count; i++) {
+            long position = first + i;
+            int slot = (int) position & mask;
+            awaitSequence(slot, position);
+            buffer[slot] = tickets[offset + i];
+            sequences.set(slot, position + 1);
+        }
+        published.addAndGet(count);
+    }
+
+    // Reads up to count published tickets, keeping their permits; the caller frees them unless they are held
+    private int claim(int[] out, int count, boolean allOrNothing) {
+        int granted = reserveTickets(count, allOrNothing);
+        if (granted == 0) {
+            return 0;
+        }
+        // Claim every slot of the batch with a single increment
+        long first = head.getAndAdd(granted);
+        for (int i = 0; i < granted; i++) {
+            long position = first + i;
+            int slot = (int) position & mask;
+            awaitSequence(slot, position + 1);
+            out[i] = buffer[slot];
+            sequences.set(slot, position + buffer.length);
+        }
+        return granted;
+    }
+
+    // Waits for the thread that claimed a slot before us to finish with it; it may have been preempted midway
+    private void awaitSequence(int slot, long expected) {
+        for (int spins = 0; sequences.get(slot) != expected; spins++) {
+            spinOrYield(spins);
+        }
+    }
+
+    // Takes a capacity permit if the pool is below capacity
+    private boolean reservePermit() {
+        int current;
+        do {
+            current = reserved.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!reserved.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // Takes up to count capacity permits, returning how many were granted
+    private int reservePermits(int count) {
+        int current;
+        int granted;
+        do {
+            current = reserved.get();
+            granted = Math.min(count, capacity - current);
+            if (granted <= 0) {
+                return 0;
+            }
+        } while (!reserved.compareAndSet(current, current + granted));
+        return granted;
+    }
+
+    // Claims up to count published tickets, or none unless all are available when allOrNothing is set
+    private int reserveTickets(int count, boolean allOrNothing) {
+        int current;
+        int granted;
+        do {
+            current = published.get();
+            granted = Math.min(count, current);
+            if (granted <= 0 || (allOrNothing && granted < count)) {
+                return 0;
+            }
+        } while (!published.compareAndSet(current, current - granted));
+        return granted;
+    }
+
+    // Claims a published ticket if one is available
+    private boolean reserveTicket() {
+        int current;
+        do {
+            current = published.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!published.compareAndSet(current, current - 1));
+        return true;
+    }
+
+    // Smallest power of two that fits the capacity
+    private static int ringLength(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity, 1));
+        return length < capacity ? length << 1 : length;
+    }
+}
@@ -0,0 +1,312 @@
+package com.java.Coursework01.Class;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Seats of a venue, split into sections of rows, with the free seats of each row in a bitset.
+ * <p>
+ * Rows are numbered in order of preference: sections in the order given, front row first within
+ * each. A max segment tree over the rows holds the longest free run of each row, so the best row
+ * with {@code n} adjacent free seats is found by descending the tree in O(log rows), without
+ * looking at rows that cannot fit the block. Within that row the block is placed in the free run
+ * that lets it sit nearest the middle of the row. Claiming a block clears its bits and refreshes
+ * the row's entry in the tree, so a claim touches one row and one path of the tree however large
+ * the venue is.
+ * <p>
+ * Claims and releases are atomic: the map is guarded by its own monitor, which is held only for the
+ * lookup and the update of one row.
+ */
+public class SeatMap {
+
+    // Most seats a venue may have
+    public static final int MAX_SEATS = 1_000_000;
+
+    // Sections in order of preference
+    private final List<Section> sections;
+
+    // Index of the first row of each section, plus the total row count at the end
+    private final int[] sectionFirstRow;
+
+    // Free seats of each row; bit i is seat i + 1
+    private final BitSet[] free;
+
+    // Number of seats in each row
+    private final int[] rowSeats;
+
+    // Section of each row
+    private final int[] rowSection;
+
+    // Max segment tree of the longest free run per row; leaves start at index leaves
+    private final int[] tree;
+    private final int leaves;
+
+    // Seats not claimed
+    private int freeSeats;
+
+    /**
+     * Creates a venue with every seat free.
+     *
+     * @param sections The sections, best first.
+     * @throws IllegalArgumentException If there are no sections, a name is repeated, or there are more than {@link #MAX_SEATS} seats.
+     */
+    public SeatMap(List<Section> sections) {
+        if (sections == null || sections.isEmpty()) {
+            throw new IllegalArgumentException("A seat map needs at least one section.");
+        }
+        Set<String> names = new HashSet<>();
+        long seats = 0;
+        int rows = 0;
+        for (Section section : sections) {
+            if (!names.add(section.name())) {
+                throw new IllegalArgumentException("Duplicate section: " + section.name());
+            }
+            seats += (long) section.rows() * section.seatsPerRow();
+            rows += section.rows();
+        }
+        if (seats > MAX_SEATS) {
+            throw new IllegalArgumentException("A seat map may have at most " + MAX_SEATS + " seats.");
+        }
+
+        this.sections = List.copyOf(sections);
+        this.sectionFirstRow = new int[sections.size() + 1];
+        this.free = new BitSet[rows];
+        this.rowSeats = new int[rows];
+        this.rowSection = new int[rows];
+        int leafCount = 1;
+        while (leafCount < rows) {
+            leafCount <<= 1;
+        }
+        this.leaves = leafCount;
+        this.tree = new int[2 * leafCount];
+
+        int row = 0;
+        for (int s = 0; s < sections.size(); s++) {
+            Section section = sections.get(s);
+            sectionFirstRow[s] = row;
+            for (int r = 0; r < section.rows(); r++, row++) {
+                free[row] = new BitSet(section.seatsPerRow());
+                free[row].set(0, section.seatsPerRow());
+                rowSeats[row] = section.seatsPerRow();
+                rowSection[row] = s;
+                tree[leaves + row] = section.seatsPerRow();
+            }
+        }
+        sectionFirstRow[sections.size()] = rows;
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+        this.freeSeats = (int) seats;
+    }
+
+    /**
+     * Claims the best block of adjacent free seats: in the first row, in order of preference, that has
+     * room for it, as near the middle of that row as the free seats allow.
+     *
+     * @param count   Number of adjacent seats wanted.
+     * @param section Name of the section to look in, or null for any.
+     * @return The claimed seats, or null if no row has that many adjacent free seats.
+     * @throws IllegalArgumentException If {@code count} is not positive or the section does not exist.
+     */
+    public synchronized SeatBlock claim(int count, String section) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Seat count must be a positive integer.");
+        }
+        int from = 0;
+        int to = free.length;
+        if (section != null) {
+            int s = sectionIndex(section);
+            from = sectionFirstRow[s];
+            to = sectionFirstRow[s + 1];
+        }
+        int row = firstRowWith(1, 0, leaves, from, to, count);
+        if (row < 0) {
+            return null;
+        }
+        int start = bestStart(row, count);
+        free[row].clear(start, start + count);
+        freeSeats -= count;
+        updateRow(row);
+        return blockAt(row, start, count);
+    }
+
+    /**
+     * Frees the seats of a block, e.g. when the purchase they were claimed for falls through.
+     *
+     * @param block A block returned by {@link #claim}.
+     * @return false if the block is not in this map or any of its seats is already free.
+     */
+    public synchronized boolean release(SeatBlock block) {
+        int s;
+        try {
+            s = sectionIndex(block.section());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (block.row() < 1 || block.row() > sections.get(s).rows() || block.firstSeat() < 1 || block.count() <= 0
+                || block.firstSeat() - 1 + block.count() > sections.get(s).seatsPerRow()) {
+            return false;
+        }
+        int row = sectionFirstRow[s] + block.row() - 1;
+        int start = block.firstSeat() - 1;
+        int firstFree = free[row].nextSetBit(start);
+        if (firstFree >= 0 && firstFree < start + block.count()) {
+            return false;
+        }
+        free[row].set(start, start + block.count());
+        freeSeats += block.count();
+        updateRow(row);
+        return true;
+    }
+
+    /**
+     * @return The number of free seats.
+     */
+    public synchronized int freeSeats() {
+        return freeSeats;
+    }
+
+    /**
+     * @return Free seats and the largest block of adjacent free seats of each section, in order of preference.
+     */
+    public synchronized List<SectionSummary> summary() {
+        List<SectionSummary> summary = new ArrayList<>(sections.size());
+        for (int s = 0; s < sections.size(); s++) {
+            Section section = sections.get(s);
+            int sectionFree = 0;
+            for (int row = sectionFirstRow[s]; row < sectionFirstRow[s + 1]; row++) {
+                sectionFree += free[row].cardinality();
+            }
+            summary.add(new SectionSummary(section.name(), section.rows() * section.seatsPerRow(), sectionFree,
+                    longestRun(1, 0, leaves, sectionFirstRow[s], sectionFirstRow[s + 1])));
+        }
+        return summary;
+    }
+
+    // Index of a section by name
+    private int sectionIndex(String name) {
+        for (int s = 0; s < sections.size(); s++) {
+            if (sections.get(s).name().equals(name)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("Unknown section: " + name);
+    }
+
+    // First row in from..to-1 whose longest free run is at least count, or -1; skips subtrees that cannot fit it
+    private int firstRowWith(int node, int nodeFrom, int nodeTo, int from, int to, int count) {
+        if (nodeTo <= from || to <= nodeFrom || tree[node] < count) {
+            return -1;
+        }
+        if (nodeTo - nodeFrom == 1) {
+            return nodeFrom;
+        }
+        int mid = (nodeFrom + nodeTo) >>> 1;
+        int row = firstRowWith(2 * node, nodeFrom, mid, from, to, count);
+        return row >= 0 ? row : firstRowWith(2 * node + 1, mid, nodeTo, from, to, count);
+    }
+
+    // Longest free run of the rows from..to-1
+    private int longestRun(int node, int nodeFrom, int nodeTo, int from, int to) {
+        if (nodeTo <= from || to <= nodeFrom) {
+            return 0;
+        }
+        if (from <= nodeFrom && nodeTo <= to) {
+            return tree[node];
+        }
+        int mid = (nodeFrom + nodeTo) >>> 1;
+        return Math.max(longestRun(2 * node, nodeFrom, mid, from, to), longestRun(2 * node + 1, mid, nodeTo, from, to));
+    }
+
+    // First seat index of the placement nearest the middle of the row among the free runs that fit count seats
+    private int bestStart(int row, int count) {
+        BitSet seats = free[row];
+        int ideal = (rowSeats[row] - count) / 2;
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int start = seats.nextSetBit(0); start >= 0; ) {
+            int end = seats.nextClearBit(start);
+            if (end - start >= count) {
+                int placed = Math.min(Math.max(ideal, start), end - count);
+                int distance = Math.abs(placed - ideal);
+                if (distance < bestDistance) {
+                    best = placed;
+                    bestDistance = distance;
+                }
+            }
+            start = seats.nextSetBit(end);
+        }
+        return best;
+    }
+
+    // Recomputes a row's longest free run and the path of the tree above it
+    private void updateRow(int row) {
+        BitSet seats = free[row];
+        int longest = 0;
+        for (int start = seats.nextSetBit(0); start >= 0; ) {
+            int end = seats.nextClearBit(start);
+            longest = Math.max(longest, end - start);
+            start = seats.nextSetBit(end);
+        }
+        int node = leaves + row;
+        tree[node] = longest;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    // The block of count seats from a seat index of a row, numbered as shown to customers
+    private SeatBlock blockAt(int row, int start, int count) {
+        int s = rowSection[row];
+        return new SeatBlock(sections.get(s).name(), row - sectionFirstRow[s] + 1, start + 1, count);
+    }
+
+    /**
+     * A section of the venue.
+     *
+     * @param name        Name of the section, unique within the venue.
+     * @param rows        Number of rows, front row first.
+     * @param seatsPerRow Number of seats in each row.
+     */
+    public record Section(String name, int rows, int seatsPerRow) {
+
+        /**
+         * Checks the section.
+         *
+         * @throws IllegalArgumentException If the name is blank or the row or seat count is not positive.
+         */
+        public Section {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("Section name must not be blank.");
+            }
+            if (rows <= 0 || seatsPerRow <= 0) {
+                throw new IllegalArgumentException("Rows and seats per row must be positive integers.");
+            }
+        }
+    }
+
+    /**
+     * Adjacent seats in one row.
+     *
+     * @param section   Name of the section.
+     * @param row       Row number within the section, from 1 at the front.
+     * @param firstSeat Number of the first seat in the row, from 1.
+     * @param count     Number of seats.
+     */
+    public record SeatBlock(String section, int row, int firstSeat, int count) {
+    }
+
+    /**
+     * Availability of one section.
+     *
+     * @param name         Name of the section.
+     * @param seats        Number of seats.
+     * @param freeSeats    Number of seats not claimed.
+     * @param largestBlock Most adjacent free seats in any one row.
+     */
+    public record SectionSummary(String name, int seats, int freeSeats, int largestBlock) {
+    }
+}
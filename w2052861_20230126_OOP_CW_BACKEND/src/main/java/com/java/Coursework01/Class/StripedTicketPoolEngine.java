@@ -0,0 +1,330 @@
+package com.java.Coursework01.Class;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.java.Coursework01.Class.EngineBackoff.MAX_PARK_NANOS;
+import static com.java.Coursework01.Class.EngineBackoff.backOff;
+import static com.java.Coursework01.Class.EngineBackoff.backOffUntil;
+import static com.java.Coursework01.Class.EngineBackoff.spinOrYield;
+
+/**
+ * Ticket pool engine split into stripes, one small queue per group of threads.
+ * <p>
+ * Each thread has a home stripe chosen from its ID, so a vendor ticked on its own thread keeps
+ * adding to the same sub-queue and vendors on different threads rarely touch the same lock or
+ * cache lines. Customers take from their home stripe first and steal from the others, in turn,
+ * when it is empty. The pool-wide counts are two atomic words updated by compare-and-set, like the
+ * ring buffer engine's: a vendor reserves capacity on the reserved count and a customer reserves
+ * tickets on the available count, so capacity is never exceeded, a customer never reserves a
+ * ticket that is not in a stripe, and a reservation only fails when the pool really is full or
+ * empty. Waiting threads back off like the ring buffer engine.
+ */
+public class StripedTicketPoolEngine implements TicketPoolEngine {
+
+    // Most stripes created, however many processors there are
+    private static final int MAX_STRIPES = 64;
+
+    // Sub-queues of tickets; a thread's home stripe is picked by its ID & mask
+    private final Stripe[] stripes;
+
+    // Mask for mapping a thread ID to its home stripe
+    private final int mask;
+
+    // Capacity permits taken: tickets in the stripes and held, plus in-flight puts
+    private final AtomicLong reserved = new AtomicLong();
+
+    // Tickets in the stripes not yet claimed by a customer
+    private final AtomicLong available = new AtomicLong();
+
+    // Maximum number of tickets in the pool
+    private volatile int capacity;
+
+    /**
+     * Creates an empty engine with one stripe per available processor.
+     *
+     * @param capacity The maximum number of tickets the engine may hold.
+     */
+    public StripedTicketPoolEngine(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an empty engine.
+     *
+     * @param capacity    The maximum number of tickets the engine may hold.
+     * @param stripeCount The number of stripes, rounded up to a power of two and capped at 64.
+     */
+    public StripedTicketPoolEngine(int capacity, int stripeCount) {
+        int length = Integer.highestOneBit(Math.min(Math.max(stripeCount, 1), MAX_STRIPES));
+        length = length < Math.min(stripeCount, MAX_STRIPES) ? length << 1 : length;
+        this.stripes = new Stripe[length];
+        for (int i = 0; i < length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = length - 1;
+        this.capacity = Math.max(capacity, 0);
+    }
+
+    @Override
+    public void put(int ticket) throws InterruptedException {
+        for (int attempt = 0; !offer(ticket); attempt++) {
+            backOff(attempt, MAX_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public int take() throws InterruptedException {
+        int ticket;
+        for (int attempt = 0; (ticket = poll()) == NO_TICKET; attempt++) {
+            backOff(attempt, MAX_PARK_NANOS);
+        }
+        return ticket;
+    }
+
+    @Override
+    public boolean offer(int ticket, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !offer(ticket); attempt++) {
+            if (!backOffUntil(deadline, attempt)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int ticket;
+        for (int attempt = 0; (ticket = poll()) == NO_TICKET; attempt++) {
+            if (!backOffUntil(deadline, attempt)) {
+                return NO_TICKET;
+            }
+        }
+        return ticket;
+    }
+
+    @Override
+    public boolean offer(int ticket) {
+        if (reservePermits(1) == 0) {
+            return false;
+        }
+        Stripe home = stripes[homeIndex()];
+        synchronized (home) {
+            home.tickets.addLast(ticket);
+        }
+        available.incrementAndGet(); // Only now may a customer reserve it
+        return true;
+    }
+
+    @Override
+    public int poll() {
+        if (reserveTickets(1, true) == 0) {
+            return NO_TICKET;
+        }
+        int start = homeIndex();
+        // The reserved ticket is in some stripe; another sweep finds it if others took from under us
+        for (int i = 0; ; i++) {
+            Stripe stripe = stripes[(start + i) & mask];
+            synchronized (stripe) {
+                if (!stripe.tickets.isEmpty()) {
+                    int ticket = stripe.tickets.removeFirst();
+                    reserved.decrementAndGet(); // Frees the capacity for vendors
+                    return ticket;
+                }
+            }
+            if ((i & mask) == mask) {
+                spinOrYield(i / stripes.length); // A full sweep missed it; let the other customer finish
+            }
+        }
+    }
+
+    @Override
+    public int take(int[] buffer, int count, boolean allOrNothing) throws InterruptedException {
+        int taken;
+        for (int attempt = 0; (taken = poll(buffer, count, allOrNothing)) == 0; attempt++) {
+            if (allOrNothing && count > capacity) {
+                return 0; // The capacity dropped below the batch, which can never be filled now
+            }
+            backOff(attempt, MAX_PARK_NANOS);
+        }
+        return taken;
+    }
+
+    @Override
+    public int offer(int[] tickets, int offset, int count) {
+        int granted = reservePermits(count);
+        if (granted == 0) {
+            return 0;
+        }
+        Stripe home = stripes[homeIndex()];
+        synchronized (home) {
+            for (int i = 0; i < granted; i++) {
+                home.tickets.addLast(tickets[offset + i]);
+            }
+        }
+        available.addAndGet(granted);
+        return granted;
+    }
+
+    @Override
+    public int poll(int[] buffer, int count, boolean allOrNothing) {
+        int granted = reserveTickets(count, allOrNothing);
+        if (granted > 0) {
+            collect(buffer, granted);
+            reserved.addAndGet(-granted); // Frees the capacity for vendors
+        }
+        return granted;
+    }
+
+    @Override
+    public int poll(int[] buffer, int count, boolean allOrNothing, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int taken;
+        for (int attempt = 0; (taken = poll(buffer, count, allOrNothing)) == 0; attempt++) {
+            if ((allOrNothing && count > capacity) || !backOffUntil(deadline, attempt)) {
+                return 0;
+            }
+        }
+        return taken;
+    }
+
+    @Override
+    public int hold(int[] buffer, int count, boolean allOrNothing, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int taken;
+        // Held tickets keep their permits, so a release always has space
+        for (int attempt = 0; (taken = reserveTickets(count, allOrNothing)) == 0; attempt++) {
+            if ((allOrNothing && count > capacity) || !backOffUntil(deadline, attempt)) {
+                return 0;
+            }
+        }
+        collect(buffer, taken);
+        return taken;
+    }
+
+    @Override
+    public void releaseHeld(int[] tickets, int offset, int count) {
+        if (count <= 0) {
+            return;
+        }
+        Stripe home = stripes[homeIndex()];
+        synchronized (home) {
+            for (int i = 0; i < count; i++) {
+                home.tickets.addLast(tickets[offset + i]);
+            }
+        }
+        available.addAndGet(count); // The permits were kept by the hold
+    }
+
+    @Override
+    public void dropHeld(int count) {
+        reserved.addAndGet(-count);
+    }
+
+    @Override
+    public void reserveHeld(int count) {
+        reserved.addAndGet(count);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.max(available.get(), 0L);
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean resize(int capacity) {
+        this.capacity = Math.max(capacity, 0); // The stripes are unbounded; only the permits change
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        int[] buffer = new int[256];
+        while (poll(buffer, buffer.length, false) > 0) {
+            // Drain every available ticket, so customers that reserved some still find them
+        }
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] copy = new int[0];
+        for (Stripe stripe : stripes) {
+            int[] tickets;
+            synchronized (stripe) {
+                tickets = stripe.tickets.toArray();
+            }
+            int from = copy.length;
+            copy = Arrays.copyOf(copy, from + tickets.length);
+            System.arraycopy(tickets, 0, copy, from, tickets.length);
+        }
+        return copy;
+    }
+
+    // Index of the calling thread's home stripe
+    private int homeIndex() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 16)) & mask;
+    }
+
+    // Removes reserved tickets, from the home stripe first and then from each other stripe in turn; their
+    // permits are kept, for the caller to free unless they are held
+    private void collect(int[] buffer, int count) {
+        int start = homeIndex();
+        int filled = 0;
+        // Every reserved ticket is in some stripe, so another sweep finds what others took from under us
+        for (int i = 0; filled < count; i++) {
+            Stripe stripe = stripes[(start + i) & mask];
+            synchronized (stripe) {
+                while (filled < count && !stripe.tickets.isEmpty()) {
+                    buffer[filled++] = stripe.tickets.removeFirst();
+                }
+            }
+            if ((i & mask) == mask) {
+                spinOrYield(i / stripes.length); // A full sweep fell short; let the other customers finish
+            }
+        }
+    }
+
+    // Takes up to count capacity permits, returning how many were granted
+    private int reservePermits(int count) {
+        long current;
+        long granted;
+        do {
+            current = reserved.get();
+            granted = Math.min(count, capacity - current);
+            if (granted <= 0) {
+                return 0;
+            }
+        } while (!reserved.compareAndSet(current, current + granted));
+        return (int) granted;
+    }
+
+    // Claims up to count available tickets, or none unless all are available when allOrNothing is set
+    private int reserveTickets(int count, boolean allOrNothing) {
+        long current;
+        long granted;
+        do {
+            current = available.get();
+            granted = Math.min(count, current);
+            if (granted <= 0 || (allOrNothing && granted < count)) {
+                return 0;
+            }
+        } while (!available.compareAndSet(current, current - granted));
+        return (int) granted;
+    }
+
+    // One sub-queue, guarded by its own monitor
+    private static final class Stripe {
+        private final IntTicketStore tickets = new IntTicketStore();
+    }
+}
@@ -0,0 +1,645 @@
+package com.java.Coursework01.Class;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Compressed index of the ticket IDs a pool has issued: which are available, held, sold or withdrawn,
+ * and who bought each sold ticket.
+ * <p>
+ * Laid out like a Roaring bitmap. The ID space is split into chunks of 65536 IDs by the high 16 bits,
+ * and each chunk keeps one container of low 16 bits per status: a sorted {@code char} array while it
+ * holds up to 4096 IDs, and an 8 KiB bitmap once denser. A status therefore never costs more than
+ * two bytes per ticket, and one bit per ticket for the dense ranges a pool hands out, so tens of
+ * millions of tickets fit in a few megabytes. A status check finds the chunk through a two-level
+ * directory and tests one bit or binary searches at most 4096 values, in constant time either way.
+ * A range count adds the cardinalities of whole containers and counts bits only in the partial words
+ * at the ends of the range. Owners of sold tickets are kept per chunk as runs of consecutive IDs sold
+ * to the same owner, so a batch purchase usually costs one run; owner names are stored once each, up to
+ * {@value #MAX_OWNERS} of them, after which tickets sold to new owners are recorded without one.
+ * <p>
+ * Each chunk is guarded by its own monitor and the directory is filled in without locking, so updates
+ * to different chunks never contend. A range count locks one chunk at a time: while tickets are
+ * changing it is exact for each chunk but not a snapshot of the whole range.
+ */
+public class TicketIndex {
+
+    // Chunks per directory page; a page covers 16 million IDs
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    // IDs per chunk: every value of the low 16 bits
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    // Most IDs an array container holds; one more and it becomes a bitmap
+    private static final int ARRAY_MAX = 4096;
+
+    // Owner code of tickets sold without a named owner
+    private static final int NO_OWNER = 0;
+
+    // Most owner names stored; a sold ticket keeps its owner for good, so codes can never be reclaimed
+    static final int MAX_OWNERS = 1 << 16;
+
+    // Pages of chunks by the high 16 bits of the ID, both created on first use
+    private final AtomicReferenceArray<AtomicReferenceArray<Chunk>> pages = new AtomicReferenceArray<>(PAGE_SIZE);
+
+    // Owner codes by name; guarded by this
+    private final Map<String, Integer> ownerCodes = new HashMap<>();
+
+    // Owner names by code, starting at 1; guarded by this
+    private String[] ownerNames = new String[16];
+
+    /**
+     * Records new tickets as issued and available. IDs already recorded are left alone, so a ticket a customer
+     * bought before its vendor got to index it stays sold.
+     *
+     * @param tickets The IDs of the tickets.
+     * @param offset  Index of the first ID in {@code tickets}.
+     * @param count   Number of IDs.
+     */
+    public void issue(int[] tickets, int offset, int count) {
+        update(tickets, offset, count, NO_OWNER, Chunk::issue);
+    }
+
+    /**
+     * Records available tickets as taken by a hold.
+     *
+     * @param tickets The IDs of the tickets.
+     * @param offset  Index of the first ID in {@code tickets}.
+     * @param count   Number of IDs.
+     */
+    public void hold(int[] tickets, int offset, int count) {
+        update(tickets, offset, count, NO_OWNER, Chunk::hold);
+    }
+
+    /**
+     * Records held tickets as back in the pool.
+     *
+     * @param tickets The IDs of the tickets.
+     * @param offset  Index of the first ID in {@code tickets}.
+     * @param count   Number of IDs.
+     */
+    public void release(int[] tickets, int offset, int count) {
+        update(tickets, offset, count, NO_OWNER, Chunk::release);
+    }
+
+    /**
+     * Records available or held tickets as sold.
+     *
+     * @param tickets The IDs of the tickets.
+     * @param offset  Index of the first ID in {@code tickets}.
+     * @param count   Number of IDs.
+     * @param owner   Who bought them, or null if unknown.
+     */
+    public void sell(int[] tickets, int offset, int count, String owner) {
+        update(tickets, offset, count, ownerCode(owner), Chunk::sell);
+    }
+
+    /**
+     * Records available or held tickets as dropped from the pool without being sold.
+     *
+     * @param tickets The IDs of the tickets.
+     * @param offset  Index of the first ID in {@code tickets}.
+     * @param count   Number of IDs.
+     */
+    public void withdraw(int[] tickets, int offset, int count) {
+        update(tickets, offset, count, NO_OWNER, Chunk::withdraw);
+    }
+
+    /**
+     * Records every available and held ticket as withdrawn, for a pool that was cleared.
+     */
+    public void withdrawAll() {
+        for (int p = 0; p < PAGE_SIZE; p++) {
+            AtomicReferenceArray<Chunk> page = pages.get(p);
+            for (int c = 0; page != null && c < PAGE_SIZE; c++) {
+                Chunk chunk = page.get(c);
+                if (chunk != null) {
+                    synchronized (chunk) {
+                        chunk.available = null;
+                        chunk.held = null;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up the status of one ticket.
+     *
+     * @param ticket The ID of the ticket.
+     * @return Its status, {@link TicketStatus#NOT_ISSUED} if the pool never issued it.
+     */
+    public TicketStatus status(int ticket) {
+        Chunk chunk = chunk(ticket >>> 16, false);
+        if (chunk == null) {
+            return TicketStatus.NOT_ISSUED;
+        }
+        synchronized (chunk) {
+            return chunk.status((char) ticket);
+        }
+    }
+
+    /**
+     * Looks up who bought a ticket.
+     *
+     * @param ticket The ID of the ticket.
+     * @return The owner, or null if the ticket is not sold or was sold without a named owner.
+     */
+    public String ownerOf(int ticket) {
+        Chunk chunk = chunk(ticket >>> 16, false);
+        if (chunk == null) {
+            return null;
+        }
+        int code;
+        synchronized (chunk) {
+            code = chunk.ownerOf((char) ticket);
+        }
+        return code == NO_OWNER ? null : ownerName(code);
+    }
+
+    /**
+     * Looks up the status and owner of one ticket together.
+     *
+     * @param ticket The ID of the ticket.
+     * @return The ticket's status, and its owner if it was sold to a named one.
+     */
+    public TicketInfo lookup(int ticket) {
+        Chunk chunk = chunk(ticket >>> 16, false);
+        if (chunk == null) {
+            return new TicketInfo(ticket, TicketStatus.NOT_ISSUED, null);
+        }
+        TicketStatus status;
+        int code;
+        synchronized (chunk) {
+            status = chunk.status((char) ticket);
+            code = chunk.ownerOf((char) ticket);
+        }
+        return new TicketInfo(ticket, status, code == NO_OWNER ? null : ownerName(code));
+    }
+
+    /**
+     * Counts the tickets of each status in a range of IDs.
+     *
+     * @param from First ID of the range.
+     * @param to   Last ID of the range, inclusive.
+     * @return The counts.
+     * @throws IllegalArgumentException If {@code from} is negative or greater than {@code to}.
+     */
+    public TicketCounts count(int from, int to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("Ticket range must be non-negative, with from no greater than to.");
+        }
+        long[] totals = new long[4];
+        for (int high = from >>> 16; high <= to >>> 16; high++) {
+            Chunk chunk = chunk(high, false);
+            if (chunk == null) {
+                continue;
+            }
+            int low = high == from >>> 16 ? from & 0xFFFF : 0;
+            int end = high == to >>> 16 ? (to & 0xFFFF) + 1 : CHUNK_SIZE;
+            synchronized (chunk) {
+                chunk.count(low, end, totals);
+            }
+        }
+        return new TicketCounts(from, to, totals[0], totals[1], totals[2], totals[3],
+                totals[0] - totals[1] - totals[2] - totals[3]);
+    }
+
+    /**
+     * @return An estimate of the heap used by the index, in bytes.
+     */
+    public long sizeInBytes() {
+        long bytes = 16L + 16L + 4L * PAGE_SIZE;
+        for (int p = 0; p < PAGE_SIZE; p++) {
+            AtomicReferenceArray<Chunk> page = pages.get(p);
+            if (page == null) {
+                continue;
+            }
+            bytes += 16L + 16L + 4L * PAGE_SIZE;
+            for (int c = 0; c < PAGE_SIZE; c++) {
+                Chunk chunk = page.get(c);
+                if (chunk != null) {
+                    synchronized (chunk) {
+                        bytes += chunk.sizeInBytes();
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // Applies a transition to each ticket, locking each chunk once per run of IDs that fall in it
+    private void update(int[] tickets, int offset, int count, int owner, Transition transition) {
+        int end = offset + count;
+        int i = offset;
+        while (i < end) {
+            int high = tickets[i] >>> 16;
+            Chunk chunk = chunk(high, true);
+            synchronized (chunk) {
+                do {
+                    transition.apply(chunk, (char) tickets[i], owner);
+                    i++;
+                } while (i < end && tickets[i] >>> 16 == high);
+            }
+        }
+    }
+
+    // Returns the chunk for the high 16 bits of an ID, creating it and its page if asked to; null otherwise
+    private Chunk chunk(int high, boolean create) {
+        int p = high >>> PAGE_BITS;
+        AtomicReferenceArray<Chunk> page = pages.get(p);
+        if (page == null) {
+            if (!create) {
+                return null;
+            }
+            pages.compareAndSet(p, null, new AtomicReferenceArray<>(PAGE_SIZE));
+            page = pages.get(p); // Ours, or one another thread created first
+        }
+        int c = high & (PAGE_SIZE - 1);
+        Chunk chunk = page.get(c);
+        if (chunk == null && create) {
+            page.compareAndSet(c, null, new Chunk());
+            chunk = page.get(c);
+        }
+        return chunk;
+    }
+
+    // Returns the code of an owner name, assigning the next one to a new name while there is room for it
+    private synchronized int ownerCode(String owner) {
+        if (owner == null) {
+            return NO_OWNER;
+        }
+        Integer code = ownerCodes.get(owner);
+        if (code == null) {
+            if (ownerCodes.size() == MAX_OWNERS) {
+                return NO_OWNER; // Full; the ticket is still recorded as sold
+            }
+            code = ownerCodes.size() + 1;
+            if (code == ownerNames.length) {
+                ownerNames = Arrays.copyOf(ownerNames, ownerNames.length * 2);
+            }
+            ownerNames[code] = owner;
+            ownerCodes.put(owner, code);
+        }
+        return code;
+    }
+
+    // Returns the owner name of a code
+    private synchronized String ownerName(int code) {
+        return ownerNames[code];
+    }
+
+    /**
+     * The status of one ticket.
+     *
+     * @param ticketId ID of the ticket.
+     * @param status   Where the ticket stands.
+     * @param owner    Who bought it, or null if it is not sold or was sold without a named owner.
+     */
+    public record TicketInfo(int ticketId, TicketStatus status, String owner) {
+    }
+
+    /**
+     * Ticket counts by status over a range of IDs.
+     *
+     * @param from      First ID of the range.
+     * @param to        Last ID of the range, inclusive.
+     * @param issued    IDs the pool has issued.
+     * @param available Tickets in the pool.
+     * @param held      Tickets taken by holds.
+     * @param sold      Tickets bought.
+     * @param withdrawn Tickets cleared or dropped without being sold.
+     */
+    public record TicketCounts(int from, int to, long issued, long available, long held, long sold, long withdrawn) {
+    }
+
+    // A status change of one ticket within a locked chunk
+    @FunctionalInterface
+    private interface Transition {
+        void apply(Chunk chunk, char low, int owner);
+    }
+
+    // The tickets of 65536 consecutive IDs; guarded by its own monitor
+    private static final class Chunk {
+
+        // IDs by status; null when empty. Every available, held and sold ID is also issued
+        private Container issued;
+        private Container available;
+        private Container held;
+        private Container sold;
+
+        // Owners of sold tickets as runs: IDs runStarts[i]..runEnds[i] were sold to runOwners[i], sorted by start
+        private char[] runStarts = new char[0];
+        private char[] runEnds = new char[0];
+        private int[] runOwners = new int[0];
+        private int runs;
+
+        private void issue(char low, int owner) {
+            if (contains(issued, low)) {
+                return; // Already held, sold or withdrawn by the time its vendor indexed it
+            }
+            issued = add(issued, low);
+            available = add(available, low);
+        }
+
+        private void hold(char low, int owner) {
+            issued = add(issued, low);
+            available = remove(available, low);
+            held = add(held, low);
+        }
+
+        private void release(char low, int owner) {
+            if (contains(held, low)) {
+                held = remove(held, low);
+                available = add(available, low);
+            }
+        }
+
+        private void sell(char low, int owner) {
+            issued = add(issued, low);
+            available = remove(available, low);
+            held = remove(held, low);
+            sold = add(sold, low);
+            if (owner != NO_OWNER) {
+                addOwner(low, owner);
+            }
+        }
+
+        private void withdraw(char low, int owner) {
+            available = remove(available, low);
+            held = remove(held, low);
+        }
+
+        private TicketStatus status(char low) {
+            if (contains(sold, low)) {
+                return TicketStatus.SOLD;
+            }
+            if (contains(held, low)) {
+                return TicketStatus.HELD;
+            }
+            if (contains(available, low)) {
+                return TicketStatus.AVAILABLE;
+            }
+            return contains(issued, low) ? TicketStatus.WITHDRAWN : TicketStatus.NOT_ISSUED;
+        }
+
+        // Adds the IDs from..end-1 of each status to totals: issued, available, held, sold
+        private void count(int from, int end, long[] totals) {
+            totals[0] += count(issued, from, end);
+            totals[1] += count(available, from, end);
+            totals[2] += count(held, from, end);
+            totals[3] += count(sold, from, end);
+        }
+
+        private int ownerOf(char low) {
+            int run = findRun(low);
+            return run >= 0 && low <= runEnds[run] && contains(sold, low) ? runOwners[run] : NO_OWNER;
+        }
+
+        // Extends the run the ID follows if it has the same owner, otherwise starts a new run
+        private void addOwner(char low, int owner) {
+            int run = findRun(low);
+            if (run >= 0 && low <= runEnds[run]) {
+                return; // Already has an owner; IDs are sold once
+            }
+            if (run >= 0 && runEnds[run] + 1 == low && runOwners[run] == owner
+                    && (run + 1 == runs || runStarts[run + 1] > low)) {
+                runEnds[run] = low;
+                return;
+            }
+            if (runs == runStarts.length) {
+                int length = Math.max(runs * 2, 4);
+                runStarts = Arrays.copyOf(runStarts, length);
+                runEnds = Arrays.copyOf(runEnds, length);
+                runOwners = Arrays.copyOf(runOwners, length);
+            }
+            int at = run + 1;
+            System.arraycopy(runStarts, at, runStarts, at + 1, runs - at);
+            System.arraycopy(runEnds, at, runEnds, at + 1, runs - at);
+            System.arraycopy(runOwners, at, runOwners, at + 1, runs - at);
+            runStarts[at] = low;
+            runEnds[at] = low;
+            runOwners[at] = owner;
+            runs++;
+        }
+
+        // Index of the last run starting at or before the ID, or -1
+        private int findRun(char low) {
+            if (runs > 0 && runStarts[runs - 1] <= low) {
+                return runs - 1; // Sales mostly come in ID order
+            }
+            int lo = 0;
+            int hi = runs - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (runStarts[mid] <= low) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        private long sizeInBytes() {
+            return 48L + sizeInBytes(issued) + sizeInBytes(available) + sizeInBytes(held) + sizeInBytes(sold)
+                    + 48L + runStarts.length * 8L;
+        }
+
+        private static Container add(Container container, char low) {
+            return (container == null ? new ArrayContainer() : container).add(low);
+        }
+
+        private static Container remove(Container container, char low) {
+            return container == null ? null : container.remove(low);
+        }
+
+        private static boolean contains(Container container, char low) {
+            return container != null && container.contains(low);
+        }
+
+        private static int count(Container container, int from, int end) {
+            return container == null ? 0 : container.count(from, end);
+        }
+
+        private static long sizeInBytes(Container container) {
+            return container == null ? 0L : container.sizeInBytes();
+        }
+    }
+
+    // A set of low 16 bits; adding or removing may return a container of the other kind
+    private abstract static class Container {
+
+        abstract Container add(char value);
+
+        // Returns null once the container is empty
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        // Number of values from..end-1
+        abstract int count(int from, int end);
+
+        abstract long sizeInBytes();
+    }
+
+    // Sorted array of up to ARRAY_MAX values
+    private static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        Container add(char value) {
+            int index;
+            if (size == 0 || values[size - 1] < value) {
+                index = size; // New tickets mostly come in ID order
+            } else {
+                index = Arrays.binarySearch(values, 0, size, value);
+                if (index >= 0) {
+                    return this;
+                }
+                index = -index - 1;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_MAX));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                return this;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return size == 0 ? null : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int count(int from, int end) {
+            return lowerBound(end) - lowerBound(from);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32L + 2L * values.length;
+        }
+
+        // Index of the first value at or above the given one
+        private int lowerBound(int value) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = size;
+            return bitmap;
+        }
+    }
+
+    // One bit for each of the 65536 values
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[CHUNK_SIZE / Long.SIZE];
+        private int cardinality;
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+            }
+            // Back to an array well below the limit, so a container near it does not flip on every change
+            return cardinality <= ARRAY_MAX / 2 ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int count(int from, int end) {
+            if (from >= end) {
+                return 0;
+            }
+            if (from == 0 && end == CHUNK_SIZE) {
+                return cardinality;
+            }
+            int first = from >>> 6;
+            int last = (end - 1) >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> (63 - ((end - 1) & 63));
+            if (first == last) {
+                return Long.bitCount(words[first] & firstMask & lastMask);
+            }
+            int total = Long.bitCount(words[first] & firstMask);
+            for (int i = first + 1; i < last; i++) {
+                total += Long.bitCount(words[i]);
+            }
+            return total + Long.bitCount(words[last] & lastMask);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32L + 8L * words.length;
+        }
+
+        private Container toArray() {
+            if (cardinality == 0) {
+                return null;
+            }
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[cardinality];
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    array.values[array.size++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
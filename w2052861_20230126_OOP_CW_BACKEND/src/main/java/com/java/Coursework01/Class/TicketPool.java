@@ -1,15 +1,17 @@
 package com.java.Coursework01.Class;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 @Getter
 @Setter
@@ -19,6 +21,24 @@ public class TicketPool {
     // Logger for logging information and errors
     private static final Logger logger = LoggerFactory.getLogger(TicketPool.class);
 
+    // Atomic access to ticketsGenerated, which vendors update without a lock
+    private static final AtomicIntegerFieldUpdater<TicketPool> TICKETS_GENERATED =
+            AtomicIntegerFieldUpdater.newUpdater(TicketPool.class, "ticketsGenerated");
+
+    // Atomic access to lastTicketId, which vendors advance without a lock
+    private static final AtomicIntegerFieldUpdater<TicketPool> LAST_TICKET_ID =
+            AtomicIntegerFieldUpdater.newUpdater(TicketPool.class, "lastTicketId");
+
+    // Atomic access to heldTickets
+    private static final AtomicIntegerFieldUpdater<TicketPool> HELD_TICKETS =
+            AtomicIntegerFieldUpdater.newUpdater(TicketPool.class, "heldTickets");
+
+    // Longest a blocked customer waits on one engine before checking whether the pool moved to another
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // Number of tickets moved at a time when the pool moves to a new engine
+    private static final int MOVE_BATCH = 1024;
+
     // Primary key for the TicketPool entity with auto-generated value
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,20 +58,70 @@ public class TicketPool {
 
     // Number of tickets generated so far, with default value 0
     @Column(name = "tickets_generated", nullable = false, columnDefinition = "integer default 0")
-    private int ticketsGenerated;
+    private volatile int ticketsGenerated;
+
+    // Highest ticket ID handed out; IDs keep rising across resets, so no ID is ever issued twice
+    @Column(name = "last_ticket_id", nullable = false, columnDefinition = "integer default 0")
+    private volatile int lastTicketId;
+
+    // Tickets taken out of the pool by holds and not yet confirmed or released; held tickets still count against
+    // the capacity, and as pooled for listeners, so after a restart they are back in the pool
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private volatile int heldTickets;
+
+    // Guards heldTickets and the engine's held capacity together, so a hold never straddles an engine replacement
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Object holdLock = new Object();
 
     // Boolean to indicate whether the ticket pool is available
-    private boolean Available = false;
+    private volatile boolean Available = false;
+
+    // Engine implementation used when the engine is first created
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private TicketPoolEngineType engineType = TicketPoolEngineType.BLOCKING;
 
-    // A list to store tickets, mapped to a separate table in the database
-    @ElementCollection
-    @CollectionTable(name = "tickets", joinColumns = @JoinColumn(name = "ticket_pool_id"))
-    @Column(name = "ticket")
-    private List<Integer> tickets;
+    // Live ticket storage, created on first use
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile TicketPoolEngine engine;
 
-    // Default constructor to initialize the ticket list as a synchronized list
+    // Notified of every ticket added or removed, e.g. to persist the changes
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile TicketPoolListener[] listeners = new TicketPoolListener[0];
+
+    // Receives wait and lock hold times, e.g. for metrics
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile TicketPoolTimings timings = TicketPoolTimings.NONE;
+
+    // Line of customers waiting for tickets, created on first use
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile FairPurchaseQueue purchaseQueue;
+
+    // Status of every ticket issued since the pool was loaded, and owners of the sold ones
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile TicketIndex ticketIndex = new TicketIndex();
+
+    // Seats assigned to purchases, or null for an event without reserved seating
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile SeatMap seatMap;
+
+    // Default constructor required by JPA
     public TicketPool() {
-        this.tickets = Collections.synchronizedList(new ArrayList<>());
     }
 
     // Parameterized constructor to initialize the ticket pool with specified attributes
@@ -60,22 +130,139 @@ public class TicketPool {
         this.ticketReleaseRate = ticketReleaseRate;
         this.customerTicketRetrievalRate = customerTicketRetrievalRate;
         this.maxTicketCapacity = maxTicketCapacity;
-        this.tickets = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    /**
+     * Selects the engine implementation from the {@code ticketpool.engine} property.
+     *
+     * @param engineName The configured engine name, e.g. "blocking" or "ring-buffer".
+     */
+    @Value("${ticketpool.engine:blocking}")
+    public void configureEngine(String engineName) {
+        setEngineType(TicketPoolEngineType.fromName(engineName));
+    }
+
+    /**
+     * Switches the engine implementation, carrying over any tickets already in the pool.
+     *
+     * @param engineType The engine implementation to use.
+     */
+    public synchronized void setEngineType(TicketPoolEngineType engineType) {
+        this.engineType = engineType;
+        if (engine != null) {
+            replaceEngine();
+        }
+        logger.info("Ticket pool engine: {}", engineType);
+    }
+
+    /**
+     * Updates the maximum capacity of the pool.
+     * Resizes the engine in place where possible, otherwise moves the tickets into a new engine.
+     *
+     * @param maxTicketCapacity The new maximum capacity.
+     */
+    public synchronized void setMaxTicketCapacity(int maxTicketCapacity) {
+        this.maxTicketCapacity = maxTicketCapacity;
+        if (engine != null && !engine.resize(maxTicketCapacity)) {
+            replaceEngine();
+        }
+    }
+
+    /**
+     * Registers a listener notified of every ticket added to or removed from the pool.
+     *
+     * @param listener The listener to add.
+     */
+    public synchronized void addListener(TicketPoolListener listener) {
+        TicketPoolListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Sets where to report how long vendors and customers wait and how long the engine holds its lock.
+     *
+     * @param timings Receiver of the times, or {@link TicketPoolTimings#NONE}.
+     */
+    public synchronized void setTimings(TicketPoolTimings timings) {
+        this.timings = timings;
+        if (engine != null) {
+            engine.setLockTimings(timings);
+        }
+    }
+
+    /**
+     * Returns the line in which customers wait for tickets, so they are served in arrival order
+     * rather than racing for each batch a vendor adds.
+     *
+     * @return The pool's purchase queue, created and registered as a listener on first use.
+     */
+    public FairPurchaseQueue purchaseQueue() {
+        FairPurchaseQueue queue = purchaseQueue;
+        if (queue == null) {
+            synchronized (this) {
+                queue = purchaseQueue;
+                if (queue == null) {
+                    queue = new FairPurchaseQueue(this);
+                    addListener(queue);
+                    purchaseQueue = queue;
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * @return The index of issued, held and sold tickets of this pool.
+     */
+    public TicketIndex ticketIndex() {
+        return ticketIndex;
+    }
+
+    /**
+     * @return The seats assigned to purchases, or null if the event has no reserved seating.
+     */
+    public SeatMap seatMap() {
+        return seatMap;
+    }
+
+    /**
+     * Gives the event reserved seating: from now on every purchase by a customer also claims adjacent seats.
+     *
+     * @param seatMap The venue's seats, or null to sell unseated tickets again.
+     */
+    public void setSeatMap(SeatMap seatMap) {
+        this.seatMap = seatMap;
+    }
+
+    /**
+     * Replaces the pooled tickets with recovered ones, without notifying listeners.
+     * Tickets beyond the maximum capacity are dropped. The ticket index starts over with the recovered tickets.
+     *
+     * @param recovered The IDs of the tickets to place in the pool.
+     */
+    public synchronized void loadTickets(int[] recovered) {
+        TicketPoolEngine restored = createEngine();
+        int loaded = restored.offer(recovered, 0, recovered.length);
+        this.engine = restored;
+        indexRestored(recovered, loaded);
     }
 
     /**
      * Adds a ticket to the pool.
      * If the pool is at maximum capacity, waits until space is available.
      */
-    public synchronized void addTicket() {
+    public void addTicket() {
         try {
-            while (tickets.size() >= maxTicketCapacity) {
-                wait(); // Wait until there is space in the pool
-            }
-            tickets.add(tickets.size() + 1); // Add a ticket to the pool
-            ticketsGenerated++; // Increment the generated ticket count
-            logger.info("Added ticket. Pool size: {}, Total generated: {}", tickets.size(), ticketsGenerated);
-            notifyAll(); // Notify consumers waiting for tickets
+            TicketPoolEngine current = engine();
+            int ticket = LAST_TICKET_ID.incrementAndGet(this);
+            long start = waitStart();
+            current.put(ticket); // Add a ticket to the pool, waiting for space
+            recordVendorWait(start);
+            carryOver(current);
+            ticketsIssued(new int[] {ticket}, 1);
+            int generated = TICKETS_GENERATED.incrementAndGet(this); // Increment the generated ticket count
+            logAdded(current, 1, generated);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Restore interrupted status
             logger.error("Thread interrupted while waiting to add ticket.", e);
@@ -86,18 +273,425 @@ public class TicketPool {
      * Removes a ticket from the pool.
      * If the pool is empty, waits until tickets are available.
      */
-    public synchronized void removeTicket() {
+    public void removeTicket() {
         try {
-            while (tickets.isEmpty()) {
-                wait(); // Wait until there are tickets to remove
+            int[] ticket = new int[1];
+            long start = waitStart();
+            removeWaiting(ticket, 1, false, -1L); // Remove a ticket from the pool, waiting for one to arrive
+            recordCustomerWait(start);
+            ticketsSold(ticket, 1, null);
+            logRemoved(engine(), 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            logger.error("Thread interrupted while waiting for tickets.", e);
+        }
+    }
+
+    /**
+     * Adds a ticket to the pool without waiting.
+     *
+     * @return true if the ticket was added, false if the pool is at maximum capacity.
+     */
+    public boolean tryAddTicket() {
+        TicketPoolEngine current = engine();
+        int ticket = LAST_TICKET_ID.incrementAndGet(this); // Unused if the pool is full; IDs may have gaps
+        if (!current.offer(ticket)) {
+            return false;
+        }
+        carryOver(current);
+        ticketsIssued(new int[] {ticket}, 1);
+        int generated = TICKETS_GENERATED.incrementAndGet(this);
+        logAdded(current, 1, generated);
+        return true;
+    }
+
+    /**
+     * Removes a ticket from the pool without waiting.
+     *
+     * @return true if a ticket was removed, false if the pool is empty.
+     */
+    public boolean tryRemoveTicket() {
+        TicketPoolEngine current = engine();
+        int ticket = current.poll();
+        if (ticket == TicketPoolEngine.NO_TICKET) {
+            return false;
+        }
+        ticketsSold(new int[] {ticket}, 1, null);
+        logRemoved(current, 1);
+        return true;
+    }
+
+    /**
+     * Adds a ticket to the pool, waiting at most the given time for space.
+     *
+     * @param timeout How long to wait for space.
+     * @param unit    The unit of {@code timeout}.
+     * @return true if the ticket was added, false if the pool was still at maximum capacity when the time ran out.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public boolean tryAddTicket(long timeout, TimeUnit unit) throws InterruptedException {
+        TicketPoolEngine current = engine();
+        int ticket = LAST_TICKET_ID.incrementAndGet(this);
+        long start = waitStart();
+        boolean added = current.offer(ticket, timeout, unit);
+        recordVendorWait(start);
+        if (!added) {
+            return false;
+        }
+        carryOver(current);
+        ticketsIssued(new int[] {ticket}, 1);
+        int generated = TICKETS_GENERATED.incrementAndGet(this);
+        logAdded(current, 1, generated);
+        return true;
+    }
+
+    /**
+     * Removes a ticket from the pool, waiting at most the given time for one to arrive.
+     *
+     * @param timeout How long to wait for a ticket.
+     * @param unit    The unit of {@code timeout}.
+     * @return true if a ticket was removed, false if the pool was still empty when the time ran out.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public boolean tryRemoveTicket(long timeout, TimeUnit unit) throws InterruptedException {
+        int[] ticket = new int[1];
+        long start = waitStart();
+        int removed = removeWaiting(ticket, 1, false, Math.max(unit.toNanos(timeout), 0L));
+        recordCustomerWait(start);
+        if (removed == 0) {
+            return false;
+        }
+        ticketsSold(ticket, 1, null);
+        logRemoved(engine(), 1);
+        return true;
+    }
+
+    /**
+     * Adds a batch of tickets to the pool, filling free space with one engine call at a time.
+     * If the pool is at maximum capacity, waits until space is available for the rest of the batch.
+     *
+     * @param count Number of tickets to add.
+     * @return The number of tickets added, fewer than requested only if the thread was interrupted.
+     */
+    public int addTickets(int count) {
+        checkBatchSize(count, PurchaseMode.PARTIAL_FILL);
+        TicketPoolEngine current = engine();
+        int[] batch = nextTicketIds(count);
+        int added = 0;
+        long start = waitStart();
+        try {
+            while (added < count) {
+                added += current.offer(batch, added, count - added);
+                if (added < count) {
+                    current.put(batch[added]); // Wait for space, then continue with the rest of the batch
+                    added++;
+                }
             }
-            tickets.remove(tickets.size() - 1); // Remove a ticket from the pool
-            logger.info("Ticket removed. Remaining tickets: {}", tickets.size());
-            notifyAll(); // Notify producers waiting to add tickets
+            recordVendorWait(start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            logger.error("Thread interrupted while waiting to add tickets.", e);
+        }
+        return recordAdded(current, batch, added);
+    }
+
+    /**
+     * Adds as many tickets of a batch as fit without waiting.
+     *
+     * @param count Number of tickets to add.
+     * @return The number of tickets added.
+     */
+    public int tryAddTickets(int count) {
+        checkBatchSize(count, PurchaseMode.PARTIAL_FILL);
+        TicketPoolEngine current = engine();
+        int[] batch = nextTicketIds(count);
+        return recordAdded(current, batch, current.offer(batch, 0, count));
+    }
+
+    /**
+     * Adds a batch of tickets to the pool, waiting at most the given time in total for space.
+     *
+     * @param count   Number of tickets to add.
+     * @param timeout How long to wait for space.
+     * @param unit    The unit of {@code timeout}.
+     * @return The number of tickets added, fewer than requested if the time ran out.
+     * @throws InterruptedException If the calling thread is interrupted while waiting; tickets added until then stay in the pool.
+     */
+    public int tryAddTickets(int count, long timeout, TimeUnit unit) throws InterruptedException {
+        checkBatchSize(count, PurchaseMode.PARTIAL_FILL);
+        TicketPoolEngine current = engine();
+        int[] batch = nextTicketIds(count);
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int added = 0;
+        long start = waitStart();
+        try {
+            while (added < count) {
+                added += current.offer(batch, added, count - added);
+                if (added < count) {
+                    // Wait for space for the next ticket only as long as the deadline allows
+                    if (!current.offer(batch[added], deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        break;
+                    }
+                    added++;
+                }
+            }
+            recordVendorWait(start);
+        } finally {
+            recordAdded(current, batch, added);
+        }
+        return added;
+    }
+
+    /**
+     * Removes a batch of tickets from the pool.
+     * If the pool cannot fill the request, waits until it can: for all tickets at once with
+     * {@link PurchaseMode#ALL_OR_NOTHING}, or for at least one with {@link PurchaseMode#PARTIAL_FILL}.
+     *
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @return The number of tickets removed, 0 if the thread was interrupted or the capacity was lowered
+     *         below an all-or-nothing batch while waiting.
+     */
+    public int removeTickets(int count, PurchaseMode mode) {
+        checkBatchSize(count, mode);
+        try {
+            int[] buffer = new int[count];
+            long start = waitStart();
+            int removed = removeWaiting(buffer, count, mode == PurchaseMode.ALL_OR_NOTHING, -1L);
+            recordCustomerWait(start);
+            ticketsSold(buffer, removed, null);
+            logRemoved(engine(), removed);
+            return removed;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Restore interrupted status
             logger.error("Thread interrupted while waiting for tickets.", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Removes a batch of tickets without waiting.
+     *
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @return The number of tickets removed.
+     */
+    public int tryRemoveTickets(int count, PurchaseMode mode) {
+        return tryRemoveTickets(count, mode, null);
+    }
+
+    /**
+     * Removes a batch of tickets without waiting, recording them in the ticket index as sold to the given owner.
+     *
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @param owner Who is buying the tickets, or null if unknown.
+     * @return The number of tickets removed.
+     */
+    public int tryRemoveTickets(int count, PurchaseMode mode, String owner) {
+        checkBatchSize(count, mode);
+        TicketPoolEngine current = engine();
+        int[] buffer = new int[count];
+        int removed = current.poll(buffer, count, mode == PurchaseMode.ALL_OR_NOTHING);
+        if (removed > 0) {
+            ticketsSold(buffer, removed, owner);
+            logRemoved(current, removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes tickets for several buyers at once without waiting, taking them from the engine in a single
+     * call. Buyers are served in order: each gets what it asked for while tickets last, except that an
+     * all-or-nothing buyer that cannot be filled completely gets none, leaving them for later buyers.
+     * The shares are worked out from the tickets in the pool first, and only their total is taken, so no
+     * ticket is ever taken for nobody; if other customers got there first, the shares are worked out again.
+     * Buyers are not checked against the capacity: one whose all-or-nothing batch exceeds it simply gets none.
+     *
+     * @param counts  Number of tickets wanted by each buyer.
+     * @param modes   Whether each purchase must be filled completely.
+     * @param owners  Who each buyer is, or null if unknown.
+     * @param buyers  Number of buyers, from the start of the arrays.
+     * @param granted Receives the number of tickets removed for each buyer.
+     * @return The number of tickets removed in total.
+     * @throws IllegalArgumentException If a batch is empty.
+     */
+    public int removeTicketsForGroup(int[] counts, PurchaseMode[] modes, String[] owners, int buyers, int[] granted) {
+        long wanted = 0;
+        for (int i = 0; i < buyers; i++) {
+            if (counts[i] <= 0) {
+                throw new IllegalArgumentException("Batch size must be a positive integer.");
+            }
+            wanted += counts[i];
+        }
+        TicketPoolEngine current = engine();
+        int[] buffer = new int[0];
+        int total;
+        do {
+            int available = Math.max(current.size(), 0);
+            total = 0;
+            for (int i = 0; i < buyers; i++) {
+                int share = Math.min(counts[i], available - total);
+                if (modes[i] == PurchaseMode.ALL_OR_NOTHING && share < counts[i]) {
+                    share = 0;
+                }
+                granted[i] = share;
+                total += share;
+            }
+            if (buffer.length < total) {
+                buffer = new int[(int) Math.min(wanted, available)];
+            }
+        } while (total > 0 && current.poll(buffer, total, true) == 0); // Taken from under us; share out what is left
+        int sold = 0;
+        for (int i = 0; i < buyers; i++) {
+            if (granted[i] > 0) {
+                ticketIndex.sell(buffer, sold, granted[i], owners[i]);
+                sold += granted[i];
+            }
+        }
+        if (sold > 0) {
+            notifyRemoved(buffer, 0, sold);
+            logRemoved(current, sold);
+        }
+        return sold;
+    }
+
+    /**
+     * Removes a batch of tickets, waiting at most the given time until the request can be filled:
+     * for all tickets at once with {@link PurchaseMode#ALL_OR_NOTHING}, or for at least one with
+     * {@link PurchaseMode#PARTIAL_FILL}.
+     *
+     * @param count   Number of tickets wanted.
+     * @param mode    Whether the purchase must be filled completely.
+     * @param timeout How long to wait.
+     * @param unit    The unit of {@code timeout}.
+     * @return The number of tickets removed, 0 if the request could not be filled in time.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public int tryRemoveTickets(int count, PurchaseMode mode, long timeout, TimeUnit unit) throws InterruptedException {
+        checkBatchSize(count, mode);
+        int[] buffer = new int[count];
+        long start = waitStart();
+        int removed = removeWaiting(buffer, count, mode == PurchaseMode.ALL_OR_NOTHING, Math.max(unit.toNanos(timeout), 0L));
+        recordCustomerWait(start);
+        if (removed > 0) {
+            ticketsSold(buffer, removed, null);
+            logRemoved(engine(), removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Takes tickets out of the pool for a hold without waiting; customers that need to wait use
+     * {@link FairPurchaseQueue#hold}, so holds queue behind purchases. The held tickets keep their place against
+     * the capacity, so releasing them always fits. Listeners are not told until the hold is confirmed, so
+     * persisted state keeps the tickets until then.
+     *
+     * @param buffer Receives the IDs of the held tickets.
+     * @param count  Number of tickets wanted.
+     * @param mode   Whether the hold must be filled completely.
+     * @return The number of tickets held.
+     */
+    public int tryHoldTickets(int[] buffer, int count, PurchaseMode mode) {
+        checkBatchSize(count, mode);
+        int held;
+        synchronized (holdLock) {
+            held = holdNow(engine(), buffer, count, mode == PurchaseMode.ALL_OR_NOTHING);
+            HELD_TICKETS.addAndGet(this, held);
+        }
+        if (held > 0) {
+            ticketIndex.hold(buffer, 0, held);
+        }
+        return held;
+    }
+
+    /**
+     * Completes the sale of held tickets, reporting them to listeners as removed.
+     *
+     * @param tickets The IDs of the held tickets.
+     * @param count   The number of tickets.
+     */
+    public void confirmHeld(int[] tickets, int count) {
+        confirmHeld(tickets, count, null);
+    }
+
+    /**
+     * Completes the sale of held tickets to the given owner, reporting them to listeners as removed.
+     * The capacity they kept is freed for vendors.
+     *
+     * @param tickets The IDs of the held tickets.
+     * @param count   The number of tickets.
+     * @param owner   Who bought the tickets, or null if unknown.
+     */
+    public void confirmHeld(int[] tickets, int count, String owner) {
+        TicketPoolEngine current;
+        synchronized (holdLock) {
+            HELD_TICKETS.addAndGet(this, -count);
+            current = engine();
+            current.dropHeld(count);
+        }
+        ticketsSold(tickets, count, owner);
+        logRemoved(current, count);
+    }
+
+    /**
+     * Puts held tickets back into the pool, into the capacity they kept.
+     *
+     * @param tickets The IDs of the held tickets.
+     * @param count   The number of tickets.
+     */
+    public void releaseHeld(int[] tickets, int count) {
+        synchronized (holdLock) {
+            HELD_TICKETS.addAndGet(this, -count);
+            engine().releaseHeld(tickets, 0, count);
+        }
+        ticketIndex.release(tickets, 0, count);
+    }
+
+    /**
+     * Moves up to {@code buffer.length} tickets out of the pool without waiting.
+     *
+     * @param buffer Receives the IDs of the removed tickets.
+     * @return The number of tickets written to the buffer.
+     */
+    public int drainTo(int[] buffer) {
+        int removed = engine().poll(buffer, buffer.length, false);
+        if (removed > 0) {
+            ticketIndex.withdraw(buffer, 0, removed);
+            notifyRemoved(buffer, 0, removed);
+        }
+        return removed;
+    }
+
+    /**
+     * @return The number of tickets currently in the pool.
+     */
+    public int getPoolSize() {
+        return engine().size();
+    }
+
+    /**
+     * Removes every ticket from the pool.
+     */
+    public void clearTickets() {
+        synchronized (holdLock) {
+            TicketPoolEngine current = engine();
+            current.clear();
+            current.dropHeld(HELD_TICKETS.getAndSet(this, 0)); // Holds are dropped along with the tickets
         }
+        ticketIndex.withdrawAll();
+        notifyCleared();
+    }
+
+    /**
+     * Copies the IDs of the pooled tickets, e.g. to rewrite persisted state in full after a recovery.
+     * Costs time proportional to the pool size and is not atomic with concurrent changes; routine saves rely
+     * on the listeners instead.
+     *
+     * @return The IDs of the tickets in the pool.
+     */
+    public int[] ticketIds() {
+        return engine().toArray();
     }
 
     /**
@@ -105,7 +699,224 @@ public class TicketPool {
      *
      * @return true if the pool is available, false otherwise.
      */
-    public synchronized boolean isAvailable() {
+    public boolean isAvailable() {
         return Available;
     }
+
+    // Holds tickets without waiting; an interrupted caller gets none and keeps its interrupt status
+    private static int holdNow(TicketPoolEngine current, int[] buffer, int count, boolean allOrNothing) {
+        try {
+            return current.hold(buffer, count, allOrNothing, 0L, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    // Removes tickets, waiting at most nanos (or for good if negative) until the request can be filled. Waits in
+    // slices, so a customer parked on an engine that was replaced meanwhile moves on to the replacement
+    private int removeWaiting(int[] buffer, int count, boolean allOrNothing, long nanos) throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        TicketPoolEngine current = engine();
+        while (true) {
+            long slice = nanos < 0L ? WAIT_SLICE_NANOS : Math.min(WAIT_SLICE_NANOS, deadline - System.nanoTime());
+            int removed = current.poll(buffer, count, allOrNothing, Math.max(slice, 0L), TimeUnit.NANOSECONDS);
+            if (removed > 0 || (allOrNothing && count > current.capacity())) {
+                return removed; // Filled, or the capacity dropped below the batch, which can never be filled now
+            }
+            if (nanos >= 0L && deadline - System.nanoTime() <= 0L) {
+                return 0;
+            }
+            current = engine();
+        }
+    }
+
+    // Starts the ticket index over with restored tickets, and keeps new IDs above them
+    private void indexRestored(int[] restored, int count) {
+        TicketIndex index = new TicketIndex();
+        index.issue(restored, 0, count);
+        this.ticketIndex = index;
+        int highest = 0;
+        for (int i = 0; i < count; i++) {
+            highest = Math.max(highest, restored[i]);
+        }
+        LAST_TICKET_ID.accumulateAndGet(this, highest, Math::max);
+    }
+
+    // Returns the engine, creating it on first use
+    private TicketPoolEngine engine() {
+        TicketPoolEngine current = engine;
+        if (current == null) {
+            synchronized (this) {
+                current = engine;
+                if (current == null) {
+                    current = createEngine();
+                    engine = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Creates an engine of the configured type and capacity, reporting lock hold times
+    private TicketPoolEngine createEngine() {
+        return createEngine(maxTicketCapacity);
+    }
+
+    // Creates an engine of the configured type and the given capacity, reporting lock hold times
+    private TicketPoolEngine createEngine(int capacity) {
+        TicketPoolEngine created = engineType.create(capacity);
+        created.setLockTimings(timings);
+        return created;
+    }
+
+    // Current time if wait times are recorded, otherwise 0
+    long waitStart() {
+        return timings == TicketPoolTimings.NONE ? 0L : System.nanoTime();
+    }
+
+    // Reports the time a vendor spent in a blocking add
+    private void recordVendorWait(long start) {
+        if (start != 0L) {
+            timings.vendorWaited(System.nanoTime() - start);
+        }
+    }
+
+    // Reports the time a customer spent in a blocking removal
+    void recordCustomerWait(long start) {
+        if (start != 0L) {
+            timings.customerWaited(System.nanoTime() - start);
+        }
+    }
+
+    // Numbers a batch of new tickets after the last ID handed out; IDs not added are skipped, never reused
+    private int[] nextTicketIds(int count) {
+        int[] batch = new int[count];
+        int first = LAST_TICKET_ID.getAndAdd(this, count) + 1;
+        for (int i = 0; i < count; i++) {
+            batch[i] = first + i;
+        }
+        return batch;
+    }
+
+    // Counts, logs and reports a batch of added tickets
+    private int recordAdded(TicketPoolEngine current, int[] batch, int added) {
+        if (added > 0) {
+            carryOver(current);
+            ticketsIssued(batch, added);
+            int generated = TICKETS_GENERATED.addAndGet(this, added);
+            logAdded(current, added, generated);
+        }
+        return added;
+    }
+
+    // Logs added tickets at DEBUG; routine activity is summarized at INFO by TicketPoolActivityLog
+    private static void logAdded(TicketPoolEngine current, int added, int generated) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Tickets added: {}. Pool size: {}, Total generated: {}", added, current.size(), generated);
+        }
+    }
+
+    // Logs removed tickets at DEBUG; routine activity is summarized at INFO by TicketPoolActivityLog
+    private static void logRemoved(TicketPoolEngine current, int removed) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Tickets removed: {}. Remaining tickets: {}", removed, current.size());
+        }
+    }
+
+    /**
+     * Checks that a purchase could ever be filled by this pool.
+     *
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @throws IllegalArgumentException If the batch is empty, or is all-or-nothing and larger than the capacity.
+     */
+    public void checkBatchSize(int count, PurchaseMode mode) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Batch size must be a positive integer.");
+        }
+        if (mode == PurchaseMode.ALL_OR_NOTHING && count > maxTicketCapacity) {
+            throw new IllegalArgumentException("Batch size cannot exceed max capacity for all-or-nothing purchases.");
+        }
+    }
+
+    // Indexes new tickets and reports them to listeners
+    private void ticketsIssued(int[] added, int count) {
+        ticketIndex.issue(added, 0, count);
+        notifyAdded(added, 0, count);
+    }
+
+    // Indexes bought tickets and reports them to listeners as removed
+    private void ticketsSold(int[] removed, int count, String owner) {
+        ticketIndex.sell(removed, 0, count, owner);
+        notifyRemoved(removed, 0, count);
+    }
+
+    // Reports added tickets to every listener
+    private void notifyAdded(int[] added, int offset, int count) {
+        for (TicketPoolListener listener : listeners) {
+            listener.ticketsAdded(added, offset, count);
+        }
+    }
+
+    // Reports removed tickets to every listener
+    private void notifyRemoved(int[] removed, int offset, int count) {
+        for (TicketPoolListener listener : listeners) {
+            listener.ticketsRemoved(removed, offset, count);
+        }
+    }
+
+    // Reports a cleared pool to every listener
+    private void notifyCleared() {
+        for (TicketPoolListener listener : listeners) {
+            listener.ticketsCleared();
+        }
+    }
+
+    // Moves the tickets of the current engine into a new engine of the configured type. Holds pause meanwhile, so
+    // outstanding ones keep their capacity in the new engine; vendors that still add to the old engine carry their
+    // tickets over themselves, and customers waiting on it move on at the end of their wait slice
+    private void replaceEngine() {
+        synchronized (holdLock) {
+            TicketPoolEngine previous = engine;
+            int held = heldTickets;
+            // Room for every ticket of the old engine even if the capacity was lowered below them; the new engine
+            // shrinks in place once they are moved and stays over capacity until customers buy them
+            TicketPoolEngine replacement = createEngine(Math.max(maxTicketCapacity, previous.size() + held));
+            replacement.reserveHeld(held);
+            engine = replacement;
+            moveTickets(previous, replacement);
+            replacement.resize(maxTicketCapacity);
+        }
+    }
+
+    // Moves tickets a vendor added to an engine that was replaced meanwhile, and so may have been emptied already
+    private void carryOver(TicketPoolEngine current) {
+        TicketPoolEngine next;
+        while ((next = engine) != current) {
+            moveTickets(current, next);
+            current = next; // Follow the pool if it moved again meanwhile
+        }
+    }
+
+    // Moves every ticket of a replaced engine into its replacement. Tickets that vendors left no room for wait for
+    // space like a vendor would, so none are lost
+    private static void moveTickets(TicketPoolEngine from, TicketPoolEngine to) {
+        int[] batch = new int[MOVE_BATCH];
+        boolean interrupted = false;
+        int taken;
+        while ((taken = from.poll(batch, batch.length, false)) > 0) {
+            for (int moved = to.offer(batch, 0, taken); moved < taken; ) {
+                try {
+                    to.put(batch[moved]);
+                    moved++;
+                } catch (InterruptedException e) {
+                    interrupted = true; // Finish the move, then restore the interrupt status
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,194 @@
+package com.java.Coursework01.Class;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage and hand-off strategy behind a {@link TicketPool}.
+ * An engine holds the IDs of the tickets currently in the pool and enforces the
+ * pool capacity, parking vendors while it is full and customers while it is empty.
+ */
+public interface TicketPoolEngine {
+
+    // Returned by poll() when the engine holds no tickets
+    int NO_TICKET = -1;
+
+    /**
+     * Adds a ticket, waiting while the engine is at capacity.
+     *
+     * @param ticket The ID of the ticket to add.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    void put(int ticket) throws InterruptedException;
+
+    /**
+     * Removes a ticket, waiting while the engine is empty.
+     *
+     * @return The ID of the removed ticket.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    int take() throws InterruptedException;
+
+    /**
+     * Adds a ticket without waiting.
+     *
+     * @param ticket The ID of the ticket to add.
+     * @return true if the ticket was added, false if the engine is at capacity.
+     */
+    boolean offer(int ticket);
+
+    /**
+     * Removes a ticket without waiting.
+     *
+     * @return The ID of the removed ticket, or {@link #NO_TICKET} if the engine is empty.
+     */
+    int poll();
+
+    /**
+     * Adds a ticket, waiting at most the given time while the engine is at capacity.
+     *
+     * @param ticket  The ID of the ticket to add.
+     * @param timeout How long to wait for space.
+     * @param unit    The unit of {@code timeout}.
+     * @return true if the ticket was added, false if the engine was still at capacity when the time ran out.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    boolean offer(int ticket, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Removes a ticket, waiting at most the given time while the engine is empty.
+     *
+     * @param timeout How long to wait for a ticket.
+     * @param unit    The unit of {@code timeout}.
+     * @return The ID of the removed ticket, or {@link #NO_TICKET} if the engine was still empty when the time ran out.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    int poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Removes a batch of tickets, waiting until the request can be filled.
+     *
+     * @param buffer       Receives the IDs of the removed tickets.
+     * @param count        The number of tickets wanted.
+     * @param allOrNothing true to wait for all tickets at once, false to return as soon as any are available.
+     * @return The number of tickets removed, 0 if all tickets are wanted at once and the capacity is, or while
+     *         waiting drops, below {@code count}.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    int take(int[] buffer, int count, boolean allOrNothing) throws InterruptedException;
+
+    /**
+     * Adds as many tickets of a batch as fit without waiting.
+     *
+     * @param tickets The IDs of the tickets to add.
+     * @param offset  Index of the first ticket to add.
+     * @param count   The number of tickets to add.
+     * @return The number of tickets added.
+     */
+    int offer(int[] tickets, int offset, int count);
+
+    /**
+     * Removes a batch of tickets without waiting. With {@code allOrNothing = false} this
+     * drains up to {@code count} tickets into the buffer.
+     *
+     * @param buffer       Receives the IDs of the removed tickets.
+     * @param count        The number of tickets wanted.
+     * @param allOrNothing true to remove nothing unless all tickets are available.
+     * @return The number of tickets removed.
+     */
+    int poll(int[] buffer, int count, boolean allOrNothing);
+
+    /**
+     * Removes a batch of tickets, waiting at most the given time until the request can be filled.
+     *
+     * @param buffer       Receives the IDs of the removed tickets.
+     * @param count        The number of tickets wanted.
+     * @param allOrNothing true to wait for all tickets at once, false to return as soon as any are available.
+     * @param timeout      How long to wait.
+     * @param unit         The unit of {@code timeout}.
+     * @return The number of tickets removed, 0 if the request could not be filled in time or, for all tickets at
+     *         once, the capacity is or drops below {@code count}.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    int poll(int[] buffer, int count, boolean allOrNothing, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Removes a batch of tickets for a hold, waiting at most the given time until the request can be filled.
+     * Unlike a purchase, the held tickets keep their share of the capacity until {@link #releaseHeld} puts them
+     * back or {@link #dropHeld} gives it up, so vendors cannot fill the space meant for a released hold.
+     *
+     * @param buffer       Receives the IDs of the held tickets.
+     * @param count        The number of tickets wanted.
+     * @param allOrNothing true to wait for all tickets at once, false to return as soon as any are available.
+     * @param timeout      How long to wait, 0 to return at once.
+     * @param unit         The unit of {@code timeout}.
+     * @return The number of tickets held, 0 if the request could not be filled in time or, for all tickets at
+     *         once, the capacity is or drops below {@code count}.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    int hold(int[] buffer, int count, boolean allOrNothing, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Puts held tickets back, into the capacity they kept. Always succeeds, even if the capacity has since
+     * been lowered below the tickets in the engine.
+     *
+     * @param tickets The IDs of the held tickets.
+     * @param offset  Index of the first ticket to put back.
+     * @param count   The number of tickets to put back.
+     */
+    void releaseHeld(int[] tickets, int offset, int count);
+
+    /**
+     * Gives up the capacity kept by held tickets that were sold or discarded.
+     *
+     * @param count The number of held tickets.
+     */
+    void dropHeld(int count);
+
+    /**
+     * Keeps capacity for tickets held from another engine, e.g. when the pool moves to a new engine.
+     *
+     * @param count The number of held tickets.
+     */
+    void reserveHeld(int count);
+
+    /**
+     * @return The number of tickets currently in the engine, not counting held ones.
+     */
+    int size();
+
+    /**
+     * @return The maximum number of tickets the engine may hold.
+     */
+    int capacity();
+
+    /**
+     * Changes the capacity of the engine without moving its tickets.
+     *
+     * @param capacity The new maximum number of tickets.
+     * @return true if the engine was resized in place, false if a new engine is required.
+     */
+    boolean resize(int capacity);
+
+    /**
+     * Removes every ticket from the engine.
+     */
+    void clear();
+
+    /**
+     * Sets where to report how long the engine's lock is held.
+     * Engines without a lock ignore it.
+     *
+     * @param timings Receiver of lock hold times.
+     */
+    default void setLockTimings(TicketPoolTimings timings) {
+    }
+
+    /**
+     * Copies the tickets currently held, oldest first, so offering them in order
+     * to an empty engine of the same type reproduces its state.
+     * The copy is not atomic with respect to concurrent puts and takes.
+     *
+     * @return The IDs of the tickets in the engine.
+     */
+    int[] toArray();
+}
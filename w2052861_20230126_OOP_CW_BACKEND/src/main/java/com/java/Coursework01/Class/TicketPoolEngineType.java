@@ -0,0 +1,49 @@
+package com.java.Coursework01.Class;
+
+import java.util.Locale;
+
+/**
+ * The available {@link TicketPoolEngine} implementations.
+ * Selected at startup through the {@code ticketpool.engine} property.
+ */
+public enum TicketPoolEngineType {
+
+    // Single lock with separate "not full" and "not empty" conditions
+    BLOCKING,
+
+    // Lock-free multi-producer multi-consumer ring buffer
+    RING_BUFFER,
+
+    // Per-thread sub-queues with work-stealing customers and striped counters
+    STRIPED;
+
+    /**
+     * Creates a new, empty engine of this type.
+     *
+     * @param capacity The maximum number of tickets the engine may hold.
+     * @return The created engine.
+     */
+    public TicketPoolEngine create(int capacity) {
+        switch (this) {
+            case RING_BUFFER:
+                return new RingBufferTicketPoolEngine(capacity);
+            case STRIPED:
+                return new StripedTicketPoolEngine(capacity);
+            case BLOCKING:
+            default:
+                return new BlockingTicketPoolEngine(capacity);
+        }
+    }
+
+    /**
+     * Resolves an engine type from its property value, e.g. "blocking", "ring-buffer" or "striped".
+     *
+     * @param name The configured engine name.
+     * @return The matching engine type.
+     * @throws IllegalArgumentException If no engine type matches the name.
+     */
+    public static TicketPoolEngineType fromName(String name) {
+        String normalized = name.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        return TicketPoolEngineType.valueOf(normalized);
+    }
+}
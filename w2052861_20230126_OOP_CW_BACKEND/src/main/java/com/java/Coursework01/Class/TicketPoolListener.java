@@ -0,0 +1,75 @@
+package com.java.Coursework01.Class;
+
+/**
+ * Observes tickets entering and leaving a {@link TicketPool}.
+ * Called on the vendor or customer thread right after the pool changes, so implementations
+ * must be quick and must not block. Calls from different threads may arrive out of order.
+ */
+public interface TicketPoolListener {
+
+    /**
+     * Called after tickets were added to the pool.
+     *
+     * @param tickets The array holding the IDs of the added tickets.
+     * @param offset  Index of the first added ticket.
+     * @param count   The number of tickets added.
+     */
+    default void ticketsAdded(int[] tickets, int offset, int count) {
+    }
+
+    /**
+     * Called after tickets were removed from the pool.
+     *
+     * @param tickets The array holding the IDs of the removed tickets.
+     * @param offset  Index of the first removed ticket.
+     * @param count   The number of tickets removed.
+     */
+    default void ticketsRemoved(int[] tickets, int offset, int count) {
+    }
+
+    /**
+     * Called after every ticket was removed from the pool at once.
+     */
+    default void ticketsCleared() {
+    }
+
+    /**
+     * Splits a list of ticket IDs into runs of consecutive IDs, as produced by a batch.
+     * A run may be ascending or descending; each is reported as its lowest and highest ID.
+     *
+     * @param tickets The array holding the ticket IDs.
+     * @param offset  Index of the first ticket.
+     * @param count   The number of tickets.
+     * @param runs    Receives each run.
+     */
+    static void forEachRun(int[] tickets, int offset, int count, RunConsumer runs) {
+        int end = offset + count;
+        int i = offset;
+        while (i < end) {
+            int first = tickets[i];
+            int last = first;
+            int step = 0;
+            int j = i + 1;
+            // Extend the run while IDs keep rising or falling by one
+            while (j < end) {
+                int nextStep = tickets[j] - last;
+                if ((nextStep != 1 && nextStep != -1) || (step != 0 && nextStep != step)) {
+                    break;
+                }
+                step = nextStep;
+                last = tickets[j];
+                j++;
+            }
+            runs.accept(Math.min(first, last), Math.max(first, last));
+            i = j;
+        }
+    }
+
+    /**
+     * Receives a run of consecutive ticket IDs.
+     */
+    @FunctionalInterface
+    interface RunConsumer {
+        void accept(int first, int last);
+    }
+}
@@ -0,0 +1,37 @@
+package com.java.Coursework01.Class;
+
+/**
+ * Receives how long vendors and customers spend in blocking pool calls and how long
+ * the pool's engine holds its lock.
+ * Called on every blocking operation, so implementations must be thread-safe and cheap.
+ */
+public interface TicketPoolTimings {
+
+    // Records nothing; pools skip reading the clock while this is in use
+    TicketPoolTimings NONE = new TicketPoolTimings() {
+    };
+
+    /**
+     * Called when a vendor's blocking add returns.
+     *
+     * @param nanos Time spent in the call, including any wait for space.
+     */
+    default void vendorWaited(long nanos) {
+    }
+
+    /**
+     * Called when a customer's blocking removal returns.
+     *
+     * @param nanos Time spent in the call, including any wait for tickets.
+     */
+    default void customerWaited(long nanos) {
+    }
+
+    /**
+     * Called each time the engine's lock is released or given up to wait.
+     *
+     * @param nanos Time the lock was held.
+     */
+    default void lockHeld(long nanos) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.java.Coursework01.Class;
+
+/**
+ * Where a ticket ID stands in its pool, as recorded by the pool's {@link TicketIndex}.
+ */
+public enum TicketStatus {
+
+    // The pool has never issued this ID
+    NOT_ISSUED,
+
+    // In the pool, waiting for a customer
+    AVAILABLE,
+
+    // Taken out of the pool by a hold that is not yet confirmed or released
+    HELD,
+
+    // Bought by a customer
+    SOLD,
+
+    // Issued, but cleared or dropped from the pool without being sold
+    WITHDRAWN
+}
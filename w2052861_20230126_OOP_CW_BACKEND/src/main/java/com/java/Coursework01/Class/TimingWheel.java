@@ -0,0 +1,214 @@
+package com.java.Coursework01.Class;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for expiring large numbers of timeouts at a fixed tick.
+ * <p>
+ * Level 0 has one slot per tick; each higher level has one slot per full turn of the level
+ * below, so four levels of 64 slots cover 64<sup>4</sup> ticks. A timeout is filed in the
+ * lowest level whose span reaches its deadline, and moves down a level when the wheel
+ * below completes a turn. Scheduling and cancelling are O(1), and each tick costs O(1)
+ * plus the timeouts that expire or move down. Timeouts beyond the last level wait in its
+ * farthest slot and are re-filed when it comes round.
+ * Not thread-safe; callers provide their own locking.
+ *
+ * @param <T> The type of the items attached to the timeouts.
+ */
+public class TimingWheel<T> {
+
+    // Bits of tick number per level, so each level has 64 slots
+    private static final int SLOT_BITS = 6;
+
+    // Slots in each level
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    // Mask for a slot index within a level
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    // Number of levels
+    private static final int LEVELS = 4;
+
+    // Ticks covered by all levels together
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    // Milliseconds per tick
+    private final long tickMillis;
+
+    // Time of tick 0, in milliseconds
+    private final long startMillis;
+
+    // Sentinels of the circular timeout lists, by level and slot
+    private final Timeout<T>[][] slots;
+
+    // Ticks processed so far
+    private long currentTick;
+
+    // Number of scheduled timeouts
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis  Milliseconds per tick; deadlines are rounded up to a whole tick.
+     * @param startMillis The current time, in milliseconds.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = Math.max(tickMillis, 1);
+        this.startMillis = startMillis;
+        this.slots = new Timeout[LEVELS][SLOTS];
+        for (Timeout<T>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = Timeout.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedules an item to expire at a deadline. A deadline in the past expires on the next tick.
+     *
+     * @param item           The item to hand back when the timeout expires.
+     * @param deadlineMillis When the item expires, in milliseconds.
+     * @return The timeout, for cancelling it.
+     */
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        long elapsed = Math.max(deadlineMillis - startMillis, 0L);
+        long tick = (elapsed + tickMillis - 1) / tickMillis; // Never expire early
+        Timeout<T> timeout = new Timeout<>(item, tick);
+        file(timeout, currentTick + 1); // The current tick has already been processed
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout so it never expires.
+     *
+     * @param timeout The timeout returned by {@link #schedule}.
+     * @return true if the timeout was pending, false if it had already expired or been cancelled.
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.next == null) {
+            return false;
+        }
+        timeout.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to the given time, handing each expired item to the consumer.
+     *
+     * @param nowMillis The current time, in milliseconds.
+     * @param expired   Receives the items whose deadline has passed.
+     * @return The number of items expired.
+     */
+    public int advance(long nowMillis, Consumer<? super T> expired) {
+        long targetTick = Math.max(nowMillis - startMillis, 0L) / tickMillis;
+        int count = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Timeout<T> head = slots[0][(int) currentTick & SLOT_MASK];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                timeout.unlink();
+                size--;
+                count++;
+                expired.accept(timeout.item);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of scheduled timeouts.
+     */
+    public int size() {
+        return size;
+    }
+
+    // Moves the timeouts of each higher level whose lower level has just completed a turn down a level
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return; // The level below has not completed a turn
+            }
+            Timeout<T> head = slots[level][(int) (currentTick >>> shift) & SLOT_MASK];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                timeout.unlink();
+                file(timeout, currentTick); // The current tick's slot is processed right after the cascade
+            }
+        }
+    }
+
+    // Files a timeout in the lowest level whose span reaches its deadline, expiring no earlier than firstTick
+    private void file(Timeout<T> timeout, long firstTick) {
+        long tick = Math.max(timeout.tick, firstTick);
+        long delta = tick - currentTick;
+        if (delta >= SPAN) {
+            tick = currentTick + SPAN - 1; // Park in the farthest slot and re-file when it comes round
+            delta = SPAN - 1;
+        }
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        slots[level][(int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK].linkBefore(timeout);
+    }
+
+    /**
+     * A scheduled expiry, linked into one slot of the wheel.
+     *
+     * @param <T> The type of the attached item.
+     */
+    public static final class Timeout<T> {
+        // Item handed back on expiry
+        private final T item;
+
+        // Tick at which the timeout expires
+        private final long tick;
+
+        // Neighbours in the slot list; null once unlinked
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+
+        // Creates the head of an empty slot list, linked to itself
+        private static <T> Timeout<T> sentinel() {
+            Timeout<T> sentinel = new Timeout<>(null, 0L);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        /**
+         * @return The item attached to the timeout.
+         */
+        public T item() {
+            return item;
+        }
+
+        // Links a timeout at the end of this sentinel's list
+        private void linkBefore(Timeout<T> timeout) {
+            timeout.prev = prev;
+            timeout.next = this;
+            prev.next = timeout;
+            prev = timeout;
+        }
+
+        // Removes this timeout from its list
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.java.Coursework01.Class;
+
+/**
+ * Token bucket limiting how many tickets one customer may buy per second.
+ * The bucket refills continuously at the configured rate up to its burst size;
+ * each purchase spends one token per ticket.
+ */
+public class TokenBucket {
+
+    // Tokens added per nanosecond
+    private final double tokensPerNano;
+
+    // Maximum number of tokens the bucket holds
+    private final double burst;
+
+    // Tokens currently in the bucket; guarded by this
+    private double tokens;
+
+    // When the bucket was last refilled, from System.nanoTime(); guarded by this
+    private long refilledAt;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param tokensPerSecond Tickets the customer may buy per second on average.
+     * @param burst           Tickets the customer may buy at once after being idle; at least 1.
+     */
+    public TokenBucket(double tokensPerSecond, int burst) {
+        if (tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Token rate must be positive.");
+        }
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.burst = Math.max(burst, 1);
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes tokens from the bucket if it holds enough.
+     *
+     * @param count Number of tokens wanted; requests above the burst size are capped to it.
+     * @return true if the tokens were taken, false if the customer is over its limit.
+     */
+    public synchronized boolean tryAcquire(int count) {
+        refill();
+        double wanted = Math.min(count, burst);
+        if (tokens < wanted) {
+            return false;
+        }
+        tokens -= wanted;
+        return true;
+    }
+
+    /**
+     * Returns tokens taken for a purchase that did not go through.
+     *
+     * @param count Number of tokens to return.
+     */
+    public synchronized void refund(int count) {
+        tokens = Math.min(tokens + Math.min(count, burst), burst);
+    }
+
+    // Adds the tokens earned since the last refill
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(tokens + (now - refilledAt) * tokensPerNano, burst);
+        refilledAt = now;
+    }
+}
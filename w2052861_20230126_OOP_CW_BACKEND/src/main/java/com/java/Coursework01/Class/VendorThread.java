@@ -1,58 +1,87 @@
 package com.java.Coursework01.Class;
 
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-
 /**
- * Represents a thread responsible for generating tickets in the ticket pool.
- * Implements the Runnable interface to allow running this class as a thread.
+ * Represents a vendor responsible for generating tickets in the ticket pool.
+ * Implements PoolParticipant so a scheduler can drive it one batch of tickets per tick.
  */
-public class VendorThread implements Runnable {
+public class VendorThread implements PoolParticipant {
 
     // Reference to the ticket pool
     private final TicketPool ticketPool;
 
-    // The rate at which tickets are released, in milliseconds
+    // The rate at which tickets are released, in tenths of a second between tickets
     private final int ticketReleaseRate;
 
-    // Template for sending messages/logs to the frontend via WebSocket
-    private final SimpMessagingTemplate messagingTemplate;
+    // Receives log events for the frontend
+    private final PoolEventSink events;
+
+    // Number of tickets released per tick
+    private final int batchSize;
 
     /**
      * Constructor to initialize the VendorThread with required dependencies.
      *
      * @param ticketPool       The ticket pool to which tickets will be added.
-     * @param ticketReleaseRate The interval in milliseconds between ticket additions.
-     * @param messagingTemplate The messaging template for sending logs to the frontend.
+     * @param ticketReleaseRate The interval in tenths of a second between ticket additions.
+     * @param events           Receives log events for the frontend.
+     */
+    public VendorThread(TicketPool ticketPool, int ticketReleaseRate, PoolEventSink events) {
+        this(ticketPool, ticketReleaseRate, events, 1);
+    }
+
+    /**
+     * Constructor for a vendor that releases several tickets per tick.
+     *
+     * @param ticketPool       The ticket pool to which tickets will be added.
+     * @param ticketReleaseRate The interval in tenths of a second between batches.
+     * @param events           Receives log events for the frontend.
+     * @param batchSize        The number of tickets released per batch.
      */
-    public VendorThread(TicketPool ticketPool, int ticketReleaseRate, SimpMessagingTemplate messagingTemplate) {
+    public VendorThread(TicketPool ticketPool, int ticketReleaseRate, PoolEventSink events,
+                        int batchSize) {
         this.ticketPool = ticketPool;
         this.ticketReleaseRate = ticketReleaseRate;
-        this.messagingTemplate = messagingTemplate;
+        this.events = events;
+        this.batchSize = Math.max(batchSize, 1);
     }
 
     /**
-     * The run method defines the logic executed by this thread.
-     * Continuously adds tickets to the pool while it is available and within capacity.
+     * Adds one batch of tickets to the pool while it is available and within capacity.
+     *
+     * @param mayBlock Whether the tick may wait for space in the pool.
+     * @return false once the pool is unavailable or every ticket has been generated.
      */
     @Override
-    public void run() {
-        // Continue running as long as the pool is available and has not reached max capacity
-        while (ticketPool.isAvailable() && ticketPool.getTicketsGenerated() != ticketPool.getMaxTicketCapacity()) {
-            // Add a ticket to the pool
-            ticketPool.addTicket();
-
-            // Send a log message to the frontend with the current pool size and total tickets generated
-            messagingTemplate.convertAndSend("/topic/logs",
-                    "Generated ticket. Pool Size: " + ticketPool.getTickets().size() +
-                            " total generated tickets: " + ticketPool.getTicketsGenerated());
-            try {
-                // Sleep for the specified release rate to control ticket generation speed
-                Thread.sleep(ticketReleaseRate * 100L);
-            } catch (InterruptedException e) {
-                // Handle thread interruption gracefully
-                Thread.currentThread().interrupt();
-                messagingTemplate.convertAndSend("/topic/logs", "Ticket generation interrupted.");
-            }
+    public boolean tick(boolean mayBlock) {
+        // Stop once the pool is unavailable or has reached max capacity
+        int remaining = ticketPool.getMaxTicketCapacity() - ticketPool.getTicketsGenerated();
+        if (!ticketPool.isAvailable() || remaining <= 0) {
+            return false;
         }
+
+        // Add a batch to the pool, or as much of it as fits if we may not wait
+        int batch = Math.min(batchSize, remaining);
+        int added = mayBlock ? ticketPool.addTickets(batch) : ticketPool.tryAddTickets(batch);
+        if (added == 0 && !mayBlock) {
+            return true; // Pool is full, try again next tick
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            // Handle removal of the vendor while it was waiting for space
+            events.publish(PoolEvent.of(PoolEvent.Type.GENERATION_INTERRUPTED));
+            return false;
+        }
+
+        // Record a log event with the current pool size and total tickets generated
+        events.publish(PoolEvent.added(added, ticketPool.getPoolSize(), ticketPool.getTicketsGenerated()));
+        return true;
+    }
+
+    /**
+     * @return The release rate converted to milliseconds between batches.
+     */
+    @Override
+    public long nextTickDelayMillis() {
+        return ticketReleaseRate * 100L;
     }
 }
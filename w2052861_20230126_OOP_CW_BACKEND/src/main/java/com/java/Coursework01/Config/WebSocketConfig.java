@@ -5,6 +5,7 @@ import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * Configuration class for setting up WebSocket messaging in the application.
@@ -36,4 +37,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("http://localhost:4200") // Allow connections from the Angular frontend
                 .withSockJS(); // Enable SockJS fallback options for browsers that do not support WebSocket
     }
+
+    /**
+     * Limits how much outbound data may pile up for a slow client.
+     * Log events arrive as batched frames, so a client that cannot keep up is dropped
+     * instead of holding back the broker.
+     *
+     * @param registration The WebSocketTransportRegistration to configure transport limits.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(10 * 1000) // Maximum time to send one frame, in milliseconds
+                .setSendBufferSizeLimit(1024 * 1024); // Maximum unsent bytes buffered per client
+    }
 }
@@ -0,0 +1,374 @@
+package com.java.Coursework01.Controller;
+
+// Importing required classes and libraries
+import com.java.Coursework01.Class.LoadProfiles;
+import com.java.Coursework01.Class.PoolSettings;
+import com.java.Coursework01.Class.PurchaseMode;
+import com.java.Coursework01.Class.SeatMap.Section;
+import com.java.Coursework01.Class.SeatMap.SectionSummary;
+import com.java.Coursework01.Class.TicketIndex.TicketCounts;
+import com.java.Coursework01.Class.TicketIndex.TicketInfo;
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Service.TicketHoldService;
+import com.java.Coursework01.Service.TicketHoldService.HoldView;
+import com.java.Coursework01.Service.TicketPoolRegistry;
+import com.java.Coursework01.Service.TicketPoolService;
+import com.java.Coursework01.Service.TicketPoolService.PurchaseResult;
+import com.java.Coursework01.Service.TicketPoolService.SeatPurchaseResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+// REST controller for ticket pools of individual events
+@RestController
+@CrossOrigin(origins = "http://localhost:4200") // Allowing cross-origin requests from the frontend
+@RequestMapping("/api/ticket-pool/{eventId}") // Base path for all endpoints of one event
+public class EventPoolController {
+
+    // Longest Idempotency-Key header accepted
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    // Autowired dependencies for service, pool registry and holds
+    @Autowired
+    private TicketPoolService ticketPoolService;
+
+    @Autowired
+    private TicketPoolRegistry ticketPoolRegistry;
+
+    @Autowired
+    private TicketHoldService ticketHoldService;
+
+    // Exception handler for missing required request parameters
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<String> handleMissingParams(MissingServletRequestParameterException ex) {
+        return ResponseEntity.badRequest().body("Missing required parameter: " + ex.getParameterName());
+    }
+
+    // Exception handler for invalid event IDs and arguments
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    // Endpoint to create or re-initialize an event's ticket pool
+    @PostMapping("/initialize")
+    public ResponseEntity<String> initializePool(
+            @PathVariable String eventId,
+            @RequestParam int maxTicketCapacity,
+            @RequestParam int totalTickets,
+            @RequestParam int ticketReleaseRate,
+            @RequestParam int customerTicketRetrievalRate) {
+
+        // Validate input parameters to ensure they are positive
+        if (maxTicketCapacity <= 0 || totalTickets <= 0 || ticketReleaseRate <= 0 || customerTicketRetrievalRate <= 0) {
+            return ResponseEntity.badRequest().body("All parameters must be positive integers.");
+        }
+
+        // Ensure total tickets do not exceed maximum capacity
+        if (totalTickets > maxTicketCapacity) {
+            return ResponseEntity.badRequest().body("Total tickets cannot exceed max capacity.");
+        }
+
+        ticketPoolService.initializeEvent(eventId, maxTicketCapacity, totalTickets, ticketReleaseRate,
+                customerTicketRetrievalRate);
+        return ResponseEntity.ok("Ticket pool initialized successfully for event " + eventId + ".");
+    }
+
+    // Endpoint to start an event's vendors and customers, optionally under load profiles given as the JSON body
+    @PostMapping("/start")
+    public ResponseEntity<String> startProcesses(@PathVariable String eventId,
+                                                 @RequestParam int vendorCount,
+                                                 @RequestParam int consumerCount,
+                                                 @RequestParam(defaultValue = "1") int vendorBatchSize,
+                                                 @RequestParam(defaultValue = "1") int customerBatchSize,
+                                                 @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode,
+                                                 @RequestBody(required = false) LoadProfiles loadProfiles) {
+
+        // Validate input parameters to ensure they are positive
+        if (vendorCount <= 0 || consumerCount <= 0) {
+            return ResponseEntity.badRequest().body("Vendor and Consumer counts must be positive integers.");
+        }
+        if (vendorBatchSize <= 0 || customerBatchSize <= 0) {
+            return ResponseEntity.badRequest().body("Batch sizes must be positive integers.");
+        }
+
+        if (!ticketPoolService.startEvent(eventId, vendorCount, consumerCount, vendorBatchSize,
+                customerBatchSize, purchaseMode, loadProfiles)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Processes started or resumed successfully for event " + eventId + ".");
+    }
+
+    // Endpoint to get the settings an event's vendors and customers run under
+    @GetMapping("/config")
+    public ResponseEntity<PoolSettings> getSettings(@PathVariable String eventId) {
+        PoolSettings settings = ticketPoolService.settingsOf(eventId);
+        return settings == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(settings);
+    }
+
+    // Endpoint to change an event's rates, capacity and vendor/customer counts while its processes run
+    @PutMapping("/config")
+    public ResponseEntity<PoolSettings> reconfigure(@PathVariable String eventId, @RequestBody PoolSettings settings) {
+        PoolSettings applied = ticketPoolService.reconfigure(eventId, settings);
+        return applied == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(applied);
+    }
+
+    // Endpoint to stop an event's vendors and customers
+    @PostMapping("/stop")
+    public ResponseEntity<String> stopProcesses(@PathVariable String eventId) {
+        if (!ticketPoolService.stopEvent(eventId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Processes stopped successfully for event " + eventId + ".");
+    }
+
+    // Endpoint to reset an event's ticket pool
+    @PostMapping("/reset")
+    public ResponseEntity<String> resetPool(@PathVariable String eventId) {
+        if (!ticketPoolService.resetEvent(eventId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Ticket pool has been reset for event " + eventId + ".");
+    }
+
+    // Endpoint to remove an event and its ticket pool
+    @DeleteMapping
+    public ResponseEntity<String> removeEvent(@PathVariable String eventId) {
+        if (!ticketPoolService.removeEvent(eventId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Event " + eventId + " removed.");
+    }
+
+    // Endpoint to get the current size of an event's ticket pool
+    @GetMapping("/size")
+    public ResponseEntity<Integer> getPoolSize(@PathVariable String eventId) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(pool.getPoolSize());
+    }
+
+    // Endpoint to look up the status of one ticket of an event, and who bought it
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<TicketInfo> getTicket(@PathVariable String eventId, @PathVariable int ticketId) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(pool.ticketIndex().lookup(ticketId));
+    }
+
+    // Endpoint to count an event's tickets by status over a range of IDs, inclusive
+    @GetMapping("/tickets")
+    public ResponseEntity<TicketCounts> countTickets(@PathVariable String eventId,
+                                                     @RequestParam(defaultValue = "0") int from,
+                                                     @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int to) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(pool.ticketIndex().count(from, to));
+    }
+
+    // Endpoint to buy tickets from an event's pool, waiting at most waitMs; responds 503 when none could be had in time.
+    // Retries carrying the same Idempotency-Key header get the first outcome instead of buying again.
+    @PostMapping("/purchase")
+    public ResponseEntity<?> purchase(@PathVariable String eventId,
+                                      @RequestParam(defaultValue = "1") int count,
+                                      @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode,
+                                      @RequestParam(defaultValue = "0") long waitMs,
+                                      @RequestParam(required = false) String owner,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (count <= 0) {
+            return ResponseEntity.badRequest().body("Ticket count must be a positive integer.");
+        }
+        if (waitMs < 0) {
+            return ResponseEntity.badRequest().body("Wait time cannot be negative.");
+        }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            return ResponseEntity.badRequest()
+                    .body("Idempotency key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+        }
+
+        PurchaseResult result;
+        try {
+            result = ticketPoolService.purchase(eventId, count, purchaseMode, waitMs, owner, idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Purchase interrupted.");
+        }
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (result.purchased() == 0) {
+            // Sold out for now: tell the client to come back instead of holding the request open
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // Endpoint to give an event reserved seating, replacing its seat map with one where every seat is free
+    @PutMapping("/seats")
+    public ResponseEntity<List<SectionSummary>> configureSeats(@PathVariable String eventId,
+                                                               @RequestBody List<Section> sections) {
+        List<SectionSummary> summary = ticketPoolService.configureSeatMap(eventId, sections);
+        return summary == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(summary);
+    }
+
+    // Endpoint to get the free seats and largest free block of each section of an event
+    @GetMapping("/seats")
+    public ResponseEntity<List<SectionSummary>> getSeats(@PathVariable String eventId) {
+        List<SectionSummary> summary = ticketPoolService.seatSummary(eventId);
+        return summary == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(summary);
+    }
+
+    // Endpoint to buy the best block of count adjacent seats; responds 503 when no block or tickets could be had
+    @PostMapping("/seats/purchase")
+    public ResponseEntity<?> purchaseSeats(@PathVariable String eventId,
+                                           @RequestParam(defaultValue = "1") int count,
+                                           @RequestParam(required = false) String section,
+                                           @RequestParam(defaultValue = "0") long waitMs,
+                                           @RequestParam(required = false) String owner) {
+        if (count <= 0) {
+            return ResponseEntity.badRequest().body("Seat count must be a positive integer.");
+        }
+        if (waitMs < 0) {
+            return ResponseEntity.badRequest().body("Wait time cannot be negative.");
+        }
+
+        SeatPurchaseResult result;
+        try {
+            result = ticketPoolService.purchaseSeats(eventId, count, section, waitMs, owner);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Purchase interrupted.");
+        }
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (result.seats() == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // Endpoint to hold an event's tickets for ttlMs before confirming them; responds 503 when none could be had within waitMs
+    @PostMapping("/holds")
+    public ResponseEntity<?> holdTickets(@PathVariable String eventId,
+                                         @RequestParam(defaultValue = "1") int count,
+                                         @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode,
+                                         @RequestParam(defaultValue = "0") long ttlMs,
+                                         @RequestParam(defaultValue = "0") long waitMs,
+                                         @RequestParam(required = false) String owner) {
+        if (count <= 0) {
+            return ResponseEntity.badRequest().body("Ticket count must be a positive integer.");
+        }
+        if (ttlMs < 0 || waitMs < 0) {
+            return ResponseEntity.badRequest().body("TTL and wait time cannot be negative.");
+        }
+
+        HoldView hold;
+        try {
+            hold = ticketHoldService.hold(eventId, count, purchaseMode, ttlMs, waitMs, owner);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted status
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Hold interrupted.");
+        }
+        if (hold == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (hold.held() == 0) {
+            // Nothing to hold right now: tell the client to come back instead of holding the request open
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(hold);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    // Endpoint to get the available and held ticket counts of an event
+    @GetMapping("/holds/summary")
+    public ResponseEntity<Map<String, Integer>> getHoldSummary(@PathVariable String eventId) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("available", pool.getPoolSize(), "held", pool.getHeldTickets()));
+    }
+
+    // Endpoint to get an outstanding hold of an event
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<HoldView> getHold(@PathVariable String eventId, @PathVariable String holdId) {
+        HoldView hold = ticketHoldService.get(eventId, holdId);
+        return hold == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(hold);
+    }
+
+    // Endpoint to sell the tickets of a hold; 404 once the hold has expired
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<HoldView> confirmHold(@PathVariable String eventId, @PathVariable String holdId) {
+        HoldView hold = ticketHoldService.confirm(eventId, holdId);
+        return hold == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(hold);
+    }
+
+    // Endpoint to return the tickets of a hold to the pool before it expires
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<String> releaseHold(@PathVariable String eventId, @PathVariable String holdId) {
+        if (!ticketHoldService.release(eventId, holdId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Hold released.");
+    }
+
+    // Endpoint to add a new vendor to an event's ticket pool
+    @PostMapping("/addVendor")
+    public ResponseEntity<String> addVendor(@PathVariable String eventId,
+                                            @RequestParam String vendorId, @RequestParam int ticketReleaseRate,
+                                            @RequestParam(defaultValue = "1") int batchSize) {
+        if (batchSize <= 0) {
+            return ResponseEntity.badRequest().body("Batch size must be a positive integer.");
+        }
+        if (!ticketPoolService.addVendor(eventId, vendorId, ticketReleaseRate, batchSize)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Vendor added successfully.");
+    }
+
+    // Endpoint to remove an existing vendor from an event's ticket pool
+    @DeleteMapping("/removeVendor")
+    public ResponseEntity<String> removeVendor(@PathVariable String eventId, @RequestParam String vendorId) {
+        if (!ticketPoolService.removeVendor(eventId, vendorId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Vendor removed successfully.");
+    }
+
+    // Endpoint to add a new customer to an event's ticket pool
+    @PostMapping("/addCustomer")
+    public ResponseEntity<String> addCustomer(@PathVariable String eventId,
+                                              @RequestParam String customerId, @RequestParam int ticketRetrievalRate,
+                                              @RequestParam(defaultValue = "1") int batchSize,
+                                              @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode) {
+        if (batchSize <= 0) {
+            return ResponseEntity.badRequest().body("Batch size must be a positive integer.");
+        }
+        if (!ticketPoolService.addCustomer(eventId, customerId, ticketRetrievalRate, batchSize, purchaseMode)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Customer added successfully.");
+    }
+
+    // Endpoint to remove an existing customer from an event's ticket pool
+    @DeleteMapping("/removeCustomer")
+    public ResponseEntity<String> removeCustomer(@PathVariable String eventId, @RequestParam String customerId) {
+        if (!ticketPoolService.removeCustomer(eventId, customerId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok("Customer removed successfully.");
+    }
+}
@@ -2,22 +2,26 @@ package com.java.Coursework01.Controller;
 
 // Importing required classes and libraries
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.Coursework01.Class.LoadProfiles;
+import com.java.Coursework01.Class.PoolSettings;
+import com.java.Coursework01.Class.PurchaseMode;
 import com.java.Coursework01.Class.TicketPool;
 import com.java.Coursework01.Repository.TicketPoolRepository;
+import com.java.Coursework01.Service.PoolEventPublisher;
+import com.java.Coursework01.Service.PoolSnapshotBroadcaster;
+import com.java.Coursework01.Service.TicketPoolRegistry;
 import com.java.Coursework01.Service.TicketPoolService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 
 // Marking this class as a REST controller
 @RestController
@@ -25,7 +29,7 @@ import java.util.concurrent.TimeUnit;
 @RequestMapping("/api/ticket-pool") // Base path for all endpoints in this controller
 public class TicketPoolController {
 
-    // Autowired dependencies for service, ticket pool, messaging template, and repository
+    // Autowired dependencies for service, ticket pool, event publisher, repository, pool registry, and snapshot broadcaster
     @Autowired
     private TicketPoolService ticketPoolService;
 
@@ -33,14 +37,20 @@ public class TicketPoolController {
     private TicketPool ticketPool;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private PoolEventPublisher poolEventPublisher;
 
     @Autowired
     private TicketPoolRepository ticketPoolRepository;
 
-    // Sends a log message to the frontend using WebSocket
+    @Autowired
+    private TicketPoolRegistry ticketPoolRegistry;
+
+    @Autowired
+    private PoolSnapshotBroadcaster poolSnapshotBroadcaster;
+
+    // Queues a log message for the next batch sent to the frontend over WebSocket
     public void sendLog(String message) {
-        messagingTemplate.convertAndSend("/topic/logs", message);
+        poolEventPublisher.publish(message);
     }
 
     // Endpoint to send a test log message to the frontend
@@ -57,6 +67,12 @@ public class TicketPoolController {
         return ResponseEntity.badRequest().body("Missing required parameter: " + name); // Respond with an error message
     }
 
+    // Exception handler for invalid event IDs and arguments
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
     // Endpoint to initialize the ticket pool with the given parameters
     @PostMapping("/initialize")
     public ResponseEntity<String> initializePool(
@@ -76,7 +92,7 @@ public class TicketPoolController {
         }
 
         // Synchronize access to ticket pool to safely update shared data
-        synchronized (ticketPool) {
+        synchronized (ticketPoolRegistry.lockFor(TicketPoolRegistry.DEFAULT_EVENT)) {
             ticketPool.setMaxTicketCapacity(maxTicketCapacity);
             ticketPool.setTotalTickets(totalTickets);
             ticketPool.setTicketReleaseRate(ticketReleaseRate);
@@ -85,10 +101,8 @@ public class TicketPoolController {
             ticketPool.setAvailable(true);
 
             // Clear existing tickets and initialize new ones
-            ticketPool.getTickets().clear();
-            for (int i = 0; i < totalTickets; i++) {
-                ticketPool.addTicket();
-            }
+            ticketPool.clearTickets();
+            ticketPool.addTickets(totalTickets);
         }
 
         // Save the updated configuration and log the operation
@@ -102,31 +116,34 @@ public class TicketPoolController {
         return ResponseEntity.ok("Ticket pool initialized successfully.");
     }
 
-    // Endpoint to start vendor and consumer threads
+    // Endpoint to start vendor and consumer threads, optionally under load profiles given as the JSON body
     @PostMapping("/start")
     public ResponseEntity<String> startProcesses(@RequestParam int vendorCount,
-                                                 @RequestParam int consumerCount) {
+                                                 @RequestParam int consumerCount,
+                                                 @RequestParam(defaultValue = "1") int vendorBatchSize,
+                                                 @RequestParam(defaultValue = "1") int customerBatchSize,
+                                                 @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode,
+                                                 @RequestBody(required = false) LoadProfiles loadProfiles) {
 
         // Validate input parameters to ensure they are positive
         if (vendorCount <= 0 || consumerCount <= 0) {
             return ResponseEntity.badRequest().body("Vendor and Consumer counts must be positive integers.");
         }
+        if (vendorBatchSize <= 0 || customerBatchSize <= 0) {
+            return ResponseEntity.badRequest().body("Batch sizes must be positive integers.");
+        }
 
         // Synchronize access to safely modify the availability state
-        synchronized (ticketPool) {
+        synchronized (ticketPoolRegistry.lockFor(TicketPoolRegistry.DEFAULT_EVENT)) {
             if (!ticketPool.isAvailable()) {
                 ticketPool.setAvailable(true);
             }
         }
 
         try {
-            // Adjust rates for ticket release and retrieval based on vendor/consumer counts
-            int adjustedTicketReleaseRate = Math.max(ticketPool.getTicketReleaseRate() / vendorCount, 1);
-            int adjustedTicketRetrievalRate = Math.max(ticketPool.getCustomerTicketRetrievalRate() / consumerCount, 1);
-
-            // Start threads for vendors and consumers
-            ticketPoolService.startVendorThreads(vendorCount, adjustedTicketReleaseRate);
-            ticketPoolService.startCustomerThreads(consumerCount, adjustedTicketRetrievalRate);
+            // Start vendors and consumers, sharing the release and retrieval rates among them
+            ticketPoolService.startParticipants(TicketPoolRegistry.DEFAULT_EVENT, vendorCount, consumerCount,
+                    vendorBatchSize, customerBatchSize, purchaseMode, loadProfiles);
 
             // Log the operation
             sendLog("Processes resumed or started with " + vendorCount +
@@ -150,11 +167,11 @@ public class TicketPoolController {
     // Endpoint to reset the ticket pool
     @PostMapping("/reset")
     public ResponseEntity<String> resetPool() {
-        synchronized (ticketPool) {
+        synchronized (ticketPoolRegistry.lockFor(TicketPoolRegistry.DEFAULT_EVENT)) {
             // Stop all threads and clear ticket pool data
             ticketPool.setAvailable(false);
             ticketPoolService.stopAllThreads();
-            ticketPool.getTickets().clear();
+            ticketPool.clearTickets();
             ticketPool.setTicketsGenerated(0);
             ticketPool.setTotalTickets(0);
             ticketPool.setMaxTicketCapacity(0);
@@ -172,21 +189,33 @@ public class TicketPoolController {
     // Endpoint to stream logs to the frontend using Server-Sent Events (SSE)
     @GetMapping(value = "/logs", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter streamLogs() {
-        SseEmitter emitter = new SseEmitter();
-
-        // Periodically send log messages to the client
-        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(() -> {
-            try {
-                String logMessage = "Thread: " + Thread.currentThread().getName() +
-                        " - Current Pool Size: " + ticketPool.getTickets().size() +
-                        " - Time: " + System.currentTimeMillis();
-                emitter.send(logMessage); // Send log message
-            } catch (IOException e) {
-                emitter.completeWithError(e); // Complete emitter with error if exception occurs
-            }
-        }, 10, 1, TimeUnit.SECONDS);
+        return poolSnapshotBroadcaster.subscribeLog(); // One line per tick of the broadcaster's sampling thread
+    }
 
-        return emitter; // Return the emitter for log streaming
+    // Endpoint to stream pool snapshots to the frontend using Server-Sent Events (SSE)
+    @GetMapping(value = "/snapshots", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSnapshots() {
+        return poolSnapshotBroadcaster.subscribe(); // Shares the broadcaster's single sampling thread
+    }
+
+    // Endpoint to get the state of every pool as of the last snapshot tick
+    @GetMapping("/snapshot")
+    public ResponseEntity<PoolSnapshotBroadcaster.Frame> getSnapshot() {
+        return ResponseEntity.ok(poolSnapshotBroadcaster.snapshot());
+    }
+
+    // Endpoint to get the settings the vendors and consumers run under
+    @GetMapping("/config")
+    public ResponseEntity<PoolSettings> getSettings() {
+        return ResponseEntity.ok(ticketPoolService.settingsOf(TicketPoolRegistry.DEFAULT_EVENT));
+    }
+
+    // Endpoint to change the rates, capacity and vendor/consumer counts while the processes run
+    @PutMapping("/config")
+    public ResponseEntity<PoolSettings> reconfigure(@RequestBody PoolSettings settings) {
+        PoolSettings applied = ticketPoolService.reconfigure(TicketPoolRegistry.DEFAULT_EVENT, settings);
+        ticketPoolService.saveConfiguration(ticketPool);
+        return ResponseEntity.ok(applied);
     }
 
     // Endpoint to save the current ticket pool configuration
@@ -221,8 +250,12 @@ public class TicketPoolController {
 
     // Endpoint to add a new vendor to the ticket pool
     @PostMapping("/addVendor")
-    public ResponseEntity<String> addVendor(@RequestParam String vendorId, @RequestParam int ticketReleaseRate) {
-        ticketPoolService.addVendor(vendorId, ticketReleaseRate); // Add vendor using service
+    public ResponseEntity<String> addVendor(@RequestParam String vendorId, @RequestParam int ticketReleaseRate,
+                                            @RequestParam(defaultValue = "1") int batchSize) {
+        if (batchSize <= 0) {
+            return ResponseEntity.badRequest().body("Batch size must be a positive integer.");
+        }
+        ticketPoolService.addVendor(vendorId, ticketReleaseRate, batchSize); // Add vendor using service
         return ResponseEntity.ok("Vendor added successfully."); // Respond with success message
     }
 
@@ -235,8 +268,13 @@ public class TicketPoolController {
 
     // Endpoint to add a new customer to the ticket pool
     @PostMapping("/addCustomer")
-    public ResponseEntity<String> addCustomer(@RequestParam String customerId, @RequestParam int ticketRetrievalRate) {
-        ticketPoolService.addCustomer(customerId, ticketRetrievalRate); // Add customer using service
+    public ResponseEntity<String> addCustomer(@RequestParam String customerId, @RequestParam int ticketRetrievalRate,
+                                              @RequestParam(defaultValue = "1") int batchSize,
+                                              @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode) {
+        if (batchSize <= 0) {
+            return ResponseEntity.badRequest().body("Batch size must be a positive integer.");
+        }
+        ticketPoolService.addCustomer(customerId, ticketRetrievalRate, batchSize, purchaseMode); // Add customer using service
         return ResponseEntity.ok("Customer added successfully."); // Respond with success message
     }
 
@@ -253,10 +291,16 @@ public class TicketPoolController {
         return ResponseEntity.ok("Logs cleared."); // Respond with success message
     }
 
+    // Endpoint to list the IDs of all events, including the default pool
+    @GetMapping("/events")
+    public ResponseEntity<Set<String>> listEvents() {
+        return ResponseEntity.ok(ticketPoolRegistry.eventIds());
+    }
+
     // Endpoint to get the current size of the ticket pool
     @GetMapping("/size")
     public ResponseEntity<Integer> getPoolSize() {
-        int poolSize = ticketPool.getTickets().size(); // Retrieve current pool size
+        int poolSize = ticketPool.getPoolSize(); // Retrieve current pool size
         return ResponseEntity.ok(poolSize); // Respond with the size
     }
 }
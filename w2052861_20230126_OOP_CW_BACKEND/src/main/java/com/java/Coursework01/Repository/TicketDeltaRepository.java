@@ -0,0 +1,149 @@
+package com.java.Coursework01.Repository;
+
+import com.java.Coursework01.Class.IntTicketStore;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to the persisted ticket pool state, written incrementally.
+ * <p>
+ * Tickets live in {@code ticket_pool_ticket}, one row per ticket ID with the number of pooled
+ * tickets carrying that ID. Changes are applied as quantity deltas, so a flush touches only
+ * the tickets that changed rather than the whole pool. Deltas commute: listeners may report a
+ * removal before the addition of the same ticket, so a row may go negative until the addition
+ * is flushed, and only rows with a positive quantity count as pooled tickets.
+ */
+@Repository // Marks this class as a Spring Data Repository
+public class TicketDeltaRepository {
+
+    // Adds a quantity delta to a ticket row, creating the row if needed
+    private static final String UPSERT_TICKET =
+            "INSERT INTO ticket_pool_ticket (pool_id, ticket_id, quantity) VALUES (?, ?, ?) " +
+                    "ON CONFLICT (pool_id, ticket_id) DO UPDATE SET quantity = quantity + excluded.quantity";
+
+    // Removes a ticket row once its additions and removals cancel out; a negative row waits for its late addition
+    private static final String DELETE_EMPTY_TICKET =
+            "DELETE FROM ticket_pool_ticket WHERE pool_id = ? AND ticket_id = ? AND quantity = 0";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Creates the ticket table if it does not exist yet
+    @PostConstruct
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS ticket_pool_ticket (" +
+                "pool_id INTEGER NOT NULL, ticket_id INTEGER NOT NULL, quantity INTEGER NOT NULL, " +
+                "PRIMARY KEY (pool_id, ticket_id))");
+    }
+
+    /**
+     * Applies per-ticket quantity changes in JDBC batches.
+     * Must be called inside a transaction for the changes to be applied atomically.
+     *
+     * @param poolId     ID of the ticket pool row.
+     * @param ticketIds  The IDs of the changed tickets.
+     * @param quantities The change in quantity for each ticket ID.
+     * @param count      The number of entries to apply.
+     * @param batchSize  The maximum number of statements per JDBC batch.
+     */
+    public void applyTicketDeltas(long poolId, int[] ticketIds, int[] quantities, int count, int batchSize) {
+        List<Object[]> upserts = new ArrayList<>(Math.min(count, batchSize));
+        List<Object[]> deletes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (quantities[i] == 0) {
+                continue; // Additions and removals cancelled out
+            }
+            upserts.add(new Object[] {poolId, ticketIds[i], quantities[i]});
+            deletes.add(new Object[] {poolId, ticketIds[i]}); // Any changed row may have come back to zero
+            if (upserts.size() == batchSize) {
+                jdbcTemplate.batchUpdate(UPSERT_TICKET, upserts);
+                upserts.clear();
+            }
+        }
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_TICKET, upserts);
+        }
+        for (int from = 0; from < deletes.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_TICKET, deletes.subList(from, Math.min(from + batchSize, deletes.size())));
+        }
+    }
+
+    /**
+     * @return The ID of the most recently created ticket pool row, or null if there is none.
+     */
+    public Long findLatestPoolId() {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM ticket_pool", Long.class);
+    }
+
+    /**
+     * Reads the counters and settings of a ticket pool row.
+     *
+     * @param poolId ID of the ticket pool row.
+     * @return The stored values, or null if the row does not exist.
+     */
+    public PoolCounters findCounters(long poolId) {
+        List<PoolCounters> rows = jdbcTemplate.query("SELECT total_tickets, ticket_release_rate, " +
+                        "customer_ticket_retrieval_rate, max_ticket_capacity, tickets_generated, last_ticket_id, " +
+                        "available FROM ticket_pool WHERE id = ?",
+                (rs, row) -> new PoolCounters(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5),
+                        rs.getInt(6), rs.getBoolean(7)),
+                poolId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Reads the pooled tickets of a pool, one entry per ticket.
+     *
+     * @param poolId ID of the ticket pool row.
+     * @return The IDs of the stored tickets, in ID order.
+     */
+    public int[] findTickets(long poolId) {
+        IntTicketStore tickets = new IntTicketStore();
+        jdbcTemplate.query("SELECT ticket_id, quantity FROM ticket_pool_ticket WHERE pool_id = ? AND quantity > 0 " +
+                        "ORDER BY ticket_id",
+                (RowCallbackHandler) rs -> {
+                    for (int q = rs.getInt(2); q > 0; q--) {
+                        tickets.addLast(rs.getInt(1));
+                    }
+                },
+                poolId);
+        return tickets.toArray();
+    }
+
+    /**
+     * Removes every ticket row of a pool.
+     *
+     * @param poolId ID of the ticket pool row.
+     */
+    public void deleteTickets(long poolId) {
+        jdbcTemplate.update("DELETE FROM ticket_pool_ticket WHERE pool_id = ?", poolId);
+    }
+
+    /**
+     * Updates the counters and settings of a ticket pool row.
+     *
+     * @param poolId   ID of the ticket pool row.
+     * @param counters The values to store.
+     */
+    public void updateCounters(long poolId, PoolCounters counters) {
+        jdbcTemplate.update("UPDATE ticket_pool SET total_tickets = ?, ticket_release_rate = ?, " +
+                        "customer_ticket_retrieval_rate = ?, max_ticket_capacity = ?, tickets_generated = ?, " +
+                        "last_ticket_id = ?, available = ? WHERE id = ?",
+                counters.totalTickets(), counters.ticketReleaseRate(), counters.customerTicketRetrievalRate(),
+                counters.maxTicketCapacity(), counters.ticketsGenerated(), counters.lastTicketId(),
+                counters.available(), poolId);
+    }
+
+    /**
+     * Counters and settings of a ticket pool, as stored in its row.
+     */
+    public record PoolCounters(int totalTickets, int ticketReleaseRate, int customerTicketRetrievalRate,
+                               int maxTicketCapacity, int ticketsGenerated, int lastTicketId, boolean available) {
+    }
+}
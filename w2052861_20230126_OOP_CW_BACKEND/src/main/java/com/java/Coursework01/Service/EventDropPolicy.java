@@ -0,0 +1,27 @@
+package com.java.Coursework01.Service;
+
+import java.util.Locale;
+
+/**
+ * What the event publisher does when its queue is full.
+ * Selected at startup through the {@code ticketpool.events.drop-policy} property.
+ */
+public enum EventDropPolicy {
+
+    // Discard the oldest queued event to make room, keeping the log current
+    DROP_OLDEST,
+
+    // Discard the new event, keeping what is already queued
+    DROP_NEWEST;
+
+    /**
+     * Resolves a drop policy from its property value, e.g. "drop-oldest" or "drop-newest".
+     *
+     * @param name The configured policy name.
+     * @return The matching drop policy.
+     * @throws IllegalArgumentException If no drop policy matches the name.
+     */
+    public static EventDropPolicy fromName(String name) {
+        return EventDropPolicy.valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
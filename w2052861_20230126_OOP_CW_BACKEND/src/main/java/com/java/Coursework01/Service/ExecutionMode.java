@@ -0,0 +1,27 @@
+package com.java.Coursework01.Service;
+
+import java.util.Locale;
+
+/**
+ * How vendor and customer ticks are executed.
+ * Selected at startup through the {@code ticketpool.execution-mode} property.
+ */
+public enum ExecutionMode {
+
+    // Every tick runs on a fresh virtual thread and may wait on the pool
+    VIRTUAL,
+
+    // Ticks run directly on a bounded pool of platform scheduler threads and never wait
+    SCHEDULED;
+
+    /**
+     * Resolves an execution mode from its property value, e.g. "virtual" or "scheduled".
+     *
+     * @param name The configured mode name.
+     * @return The matching execution mode.
+     * @throws IllegalArgumentException If no execution mode matches the name.
+     */
+    public static ExecutionMode fromName(String name) {
+        return ExecutionMode.valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
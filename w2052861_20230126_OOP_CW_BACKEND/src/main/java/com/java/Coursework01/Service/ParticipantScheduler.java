@@ -0,0 +1,186 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.PoolParticipant;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives vendors and customers with timer ticks instead of one sleeping thread each.
+ * <p>
+ * A small scheduled executor decides when each participant is due. In {@link ExecutionMode#VIRTUAL}
+ * mode the due tick is handed to a new virtual thread, so a participant waiting on the pool costs
+ * a parked virtual thread rather than a platform thread. In {@link ExecutionMode#SCHEDULED} mode
+ * the tick runs on the scheduler thread itself and must not wait.
+ */
+@Component
+public class ParticipantScheduler {
+    // Logger for logging information and errors
+    private static final Logger logger = LoggerFactory.getLogger(ParticipantScheduler.class);
+
+    // How ticks are executed
+    private final ExecutionMode mode;
+
+    // Timer deciding when each participant is due
+    private final ScheduledThreadPoolExecutor timer;
+
+    // Executor running ticks on virtual threads, or null in scheduled mode
+    private final ExecutorService virtualExecutor;
+
+    /**
+     * Creates the scheduler for the configured execution mode.
+     *
+     * @param modeName         The configured execution mode, "virtual" or "scheduled".
+     * @param schedulerThreads Number of platform threads in the timer pool.
+     */
+    public ParticipantScheduler(@Value("${ticketpool.execution-mode:virtual}") String modeName,
+                                @Value("${ticketpool.scheduler-threads:4}") int schedulerThreads) {
+        this.mode = ExecutionMode.fromName(modeName);
+        // Virtual mode only uses the timer to hand ticks off, so one thread is enough
+        int timerThreads = mode == ExecutionMode.VIRTUAL ? 1 : Math.max(schedulerThreads, 1);
+        this.timer = new ScheduledThreadPoolExecutor(timerThreads,
+                Thread.ofPlatform().name("participant-timer-", 0).daemon(true).factory());
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.virtualExecutor = mode == ExecutionMode.VIRTUAL
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("participant-", 0).factory())
+                : null;
+        logger.info("Participant execution mode: {} ({} timer threads)", mode, timerThreads);
+    }
+
+    /**
+     * Starts ticking a participant, beginning immediately.
+     *
+     * @param participantId Vendor or customer ID, used for logging.
+     * @param participant   The participant to drive.
+     * @return A handle for stopping the participant and checking whether it is still running.
+     */
+    public ScheduledParticipant schedule(String participantId, PoolParticipant participant) {
+        ScheduledParticipant scheduled = new ScheduledParticipant(participantId, participant);
+        scheduled.dispatch();
+        return scheduled;
+    }
+
+    /**
+     * @return The execution mode in use.
+     */
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    // Stops the timer and interrupts any ticks still running
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * A running vendor or customer and its pending tick.
+     */
+    public final class ScheduledParticipant {
+
+        // Vendor or customer ID
+        private final String participantId;
+
+        // The participant being ticked
+        private final PoolParticipant participant;
+
+        // Set once the participant is cancelled or finishes
+        private volatile boolean done;
+
+        // Whether onStart has been called
+        private boolean started;
+
+        // Next pending tick, if the participant is waiting for its delay
+        private volatile ScheduledFuture<?> pending;
+
+        // Thread currently running a tick, if any
+        private volatile Thread running;
+
+        private ScheduledParticipant(String participantId, PoolParticipant participant) {
+            this.participantId = participantId;
+            this.participant = participant;
+        }
+
+        /**
+         * @return true until the participant finishes or is cancelled.
+         */
+        public boolean isAlive() {
+            return !done;
+        }
+
+        /**
+         * Stops the participant, interrupting its tick if one is waiting on the pool.
+         */
+        public void cancel() {
+            done = true;
+            ScheduledFuture<?> next = pending;
+            if (next != null) {
+                next.cancel(false);
+            }
+            Thread thread = running;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        // Runs the next tick on the executor for the current mode
+        private void dispatch() {
+            if (done) {
+                return;
+            }
+            try {
+                if (virtualExecutor != null) {
+                    virtualExecutor.execute(this::runTick);
+                } else {
+                    timer.execute(this::runTick);
+                }
+            } catch (RuntimeException e) {
+                done = true; // Scheduler is shutting down
+            }
+        }
+
+        // Performs one tick and schedules the following one
+        private void runTick() {
+            // Publish the thread before checking done, so a concurrent cancel always sees one or the other
+            running = Thread.currentThread();
+            if (done) {
+                running = null;
+                return;
+            }
+            boolean again;
+            try {
+                if (!started) {
+                    started = true;
+                    participant.onStart();
+                }
+                again = participant.tick(virtualExecutor != null);
+            } catch (RuntimeException e) {
+                logger.error("Participant {} failed and was stopped.", participantId, e);
+                again = false;
+            } finally {
+                running = null;
+                Thread.interrupted(); // Do not leak a cancellation interrupt into the pooled thread
+            }
+            if (!again || done) {
+                done = true;
+                return;
+            }
+            try {
+                pending = timer.schedule(this::dispatch, participant.nextTickDelayMillis(), TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                done = true; // Scheduler is shutting down
+            }
+        }
+    }
+}
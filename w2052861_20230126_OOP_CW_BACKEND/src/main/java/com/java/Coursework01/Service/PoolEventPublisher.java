@@ -0,0 +1,183 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.PoolEvent;
+import com.java.Coursework01.Class.PoolEventSink;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers pool events to the frontend in periodic batches instead of one STOMP message per ticket.
+ * <p>
+ * Vendors and customers drop events into a bounded lock-free queue and return straight away.
+ * A single publisher thread drains the queue every {@code ticketpool.events.publish-interval-ms},
+ * builds the log lines, and sends them to {@code /topic/logs} as one {@link Frame}. When the queue
+ * is full, events are discarded according to the configured {@link EventDropPolicy}; lines beyond
+ * the per-frame limit are only counted, so the frame stays small under heavy load.
+ */
+@Component
+public class PoolEventPublisher implements PoolEventSink {
+    // Logger for logging information and errors
+    private static final Logger logger = LoggerFactory.getLogger(PoolEventPublisher.class);
+
+    // Destination subscribed to by the frontend logger
+    private static final String LOG_TOPIC = "/topic/logs";
+
+    // Template for sending frames to the frontend via WebSocket
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Events waiting for the next frame
+    private final ConcurrentLinkedQueue<PoolEvent> queue = new ConcurrentLinkedQueue<>();
+
+    // Number of queued events, used to bound the queue
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Events discarded since the last frame
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Maximum number of queued events
+    private final int queueCapacity;
+
+    // Maximum number of log lines per frame
+    private final int maxMessagesPerFrame;
+
+    // What to discard when the queue is full
+    private final EventDropPolicy dropPolicy;
+
+    // Thread draining the queue into frames
+    private final ScheduledExecutorService publisher;
+
+    /**
+     * Creates the publisher and starts its flush cycle.
+     *
+     * @param messagingTemplate   The messaging template for sending frames to the frontend.
+     * @param publishIntervalMs   Milliseconds between frames.
+     * @param queueCapacity       Maximum number of queued events.
+     * @param maxMessagesPerFrame Maximum number of log lines per frame.
+     * @param dropPolicyName      The configured drop policy, "drop-oldest" or "drop-newest".
+     */
+    public PoolEventPublisher(SimpMessagingTemplate messagingTemplate,
+                              @Value("${ticketpool.events.publish-interval-ms:100}") long publishIntervalMs,
+                              @Value("${ticketpool.events.queue-capacity:4096}") int queueCapacity,
+                              @Value("${ticketpool.events.max-messages-per-frame:200}") int maxMessagesPerFrame,
+                              @Value("${ticketpool.events.drop-policy:drop-oldest}") String dropPolicyName) {
+        this.messagingTemplate = messagingTemplate;
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.maxMessagesPerFrame = Math.max(maxMessagesPerFrame, 1);
+        this.dropPolicy = EventDropPolicy.fromName(dropPolicyName);
+        this.publisher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("pool-event-publisher").daemon(true).factory());
+        long interval = Math.max(publishIntervalMs, 1);
+        this.publisher.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Pool events published every {} ms (queue {}, {})", interval, this.queueCapacity, dropPolicy);
+    }
+
+    /**
+     * Queues an event for the next frame without waiting.
+     * If the queue is full, the oldest or the new event is discarded depending on the drop policy.
+     *
+     * @param event The event to publish.
+     */
+    @Override
+    public void publish(PoolEvent event) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            if (dropPolicy == EventDropPolicy.DROP_NEWEST || queue.poll() == null) {
+                queued.decrementAndGet();
+                dropped.incrementAndGet();
+                return;
+            }
+            queued.decrementAndGet(); // Made room by discarding the oldest event
+            dropped.incrementAndGet();
+        }
+        queue.offer(event);
+    }
+
+    /**
+     * Queues a free-form log line for the next frame.
+     *
+     * @param message The log line to send.
+     */
+    public void publish(String message) {
+        publish(PoolEvent.message(message));
+    }
+
+    /**
+     * Sends everything queued so far as one frame.
+     * Called by the publisher thread; also safe to call directly.
+     */
+    public synchronized void flush() {
+        // Drain at most one queue's worth, so busy producers cannot keep a flush running forever
+        List<String> messages = new ArrayList<>();
+        int coalesced = 0;
+        int ticketsAdded = 0;
+        int ticketsRemoved = 0;
+        int poolSize = -1;
+        int ticketsGenerated = -1;
+        PoolEvent event;
+        for (int i = 0; i < queueCapacity && (event = queue.poll()) != null; i++) {
+            queued.decrementAndGet();
+            if (event.type() == PoolEvent.Type.TICKETS_ADDED) {
+                ticketsAdded += event.tickets();
+                poolSize = event.poolSize();
+                ticketsGenerated = event.ticketsGenerated();
+            } else if (event.type() == PoolEvent.Type.TICKETS_REMOVED) {
+                ticketsRemoved += event.tickets();
+                poolSize = event.poolSize();
+            }
+            if (messages.size() < maxMessagesPerFrame) {
+                messages.add(event.describe());
+            } else {
+                coalesced++;
+            }
+        }
+        long droppedEvents = dropped.getAndSet(0);
+        if (messages.isEmpty() && droppedEvents == 0) {
+            return;
+        }
+        messagingTemplate.convertAndSend(LOG_TOPIC, new Frame(messages, coalesced, droppedEvents,
+                ticketsAdded, ticketsRemoved, poolSize, ticketsGenerated));
+    }
+
+    // Sends any remaining events and stops the publisher thread
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+        flushSafely();
+    }
+
+    // Flushes without letting a broker failure cancel the periodic task
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to publish pool events.", e);
+        }
+    }
+
+    /**
+     * One batch of events as sent to {@code /topic/logs}.
+     *
+     * @param messages         Log lines, oldest first.
+     * @param coalesced        Events counted in the totals but left out of {@code messages}.
+     * @param dropped          Events discarded because the queue was full.
+     * @param ticketsAdded     Tickets added by the events in this frame.
+     * @param ticketsRemoved   Tickets removed by the events in this frame.
+     * @param poolSize         Latest pool size reported in this frame, or -1 if none.
+     * @param ticketsGenerated Latest total of generated tickets in this frame, or -1 if none.
+     */
+    public record Frame(List<String> messages, int coalesced, long dropped, int ticketsAdded,
+                        int ticketsRemoved, int poolSize, int ticketsGenerated) {
+    }
+}
@@ -0,0 +1,469 @@
+package com.java.Coursework01.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.Coursework01.Class.TicketPool;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Streams the state of every event pool to the frontend, sampled once per tick and shared by all subscribers.
+ * <p>
+ * Every {@code ticketpool.snapshots.interval-ms} a single thread reads the size, capacity, generated and held ticket
+ * counts of each pool and compares them with the previous tick. Only the pools that changed, and the events that
+ * were removed, go into the {@link Frame}; every {@code ticketpool.snapshots.keyframe-every} ticks a full frame is
+ * sent instead, so late STOMP subscribers catch up. The frame is encoded once, sent to
+ * {@code /topic/pool-snapshots}, and handed to every SSE subscriber.
+ * <p>
+ * SSE clients are written on their own virtual thread, so a slow client never holds up the tick. While a write is
+ * in progress, newer frames for that client are merged into one pending frame (latest state per pool), so its
+ * backlog never grows beyond one frame. A client whose write has not returned within
+ * {@code ticketpool.snapshots.send-timeout-ms} is dropped. In-process listeners, such as the reactive API, get the
+ * same frames and apply their own backpressure.
+ * <p>
+ * The same tick also writes one plain-text log line per tick to the subscribers of {@link #subscribeLog()}, with the
+ * size of the default pool, as the {@code /logs} stream always has.
+ */
+@Component
+public class PoolSnapshotBroadcaster {
+    // Logger for logging information and errors
+    private static final Logger logger = LoggerFactory.getLogger(PoolSnapshotBroadcaster.class);
+
+    // Destination subscribed to by the frontend charts
+    private static final String SNAPSHOT_TOPIC = "/topic/pool-snapshots";
+
+    // Name of the SSE events carrying frames
+    private static final String SSE_EVENT = "snapshot";
+
+    // Registry of the pools to sample
+    private final TicketPoolRegistry ticketPoolRegistry;
+
+    // Template for sending frames to STOMP subscribers
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Encodes frames as JSON for SSE subscribers
+    private final ObjectMapper objectMapper;
+
+    // Ticks between full frames
+    private final int keyframeEvery;
+
+    // Milliseconds an SSE subscriber is kept open
+    private final long sseTimeoutMs;
+
+    // Nanoseconds a write to one SSE subscriber may take before it is dropped
+    private final long sendTimeoutNanos;
+
+    // State sent on the last tick, by event ID; replaced as a whole on every tick
+    private Map<String, PoolState> current = Map.of();
+
+    // Number of the last frame sent
+    private long sequence;
+
+    // Connected SSE subscribers
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Connected SSE subscribers of the log lines
+    private final List<Subscriber> logSubscribers = new CopyOnWriteArrayList<>();
+
+    // In-process frame listeners
+    private final List<Consumer<Frame>> listeners = new CopyOnWriteArrayList<>();
+
+    // Thread sampling the pools
+    private final ScheduledExecutorService sampler;
+
+    // Virtual threads writing frames to SSE subscribers, at most one per subscriber
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Creates the broadcaster and starts its tick.
+     *
+     * @param ticketPoolRegistry The registry of event pools.
+     * @param messagingTemplate  The messaging template for sending frames to STOMP subscribers.
+     * @param objectMapper       The JSON mapper for SSE frames.
+     * @param intervalMs         Milliseconds between ticks.
+     * @param keyframeEvery      Ticks between full frames.
+     * @param sseTimeoutMs       Milliseconds an SSE subscriber is kept open.
+     * @param sendTimeoutMs      Milliseconds a write to one SSE subscriber may take before it is dropped.
+     */
+    public PoolSnapshotBroadcaster(TicketPoolRegistry ticketPoolRegistry,
+                                   SimpMessagingTemplate messagingTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Value("${ticketpool.snapshots.interval-ms:1000}") long intervalMs,
+                                   @Value("${ticketpool.snapshots.keyframe-every:10}") int keyframeEvery,
+                                   @Value("${ticketpool.snapshots.sse-timeout-ms:1800000}") long sseTimeoutMs,
+                                   @Value("${ticketpool.snapshots.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.ticketPoolRegistry = ticketPoolRegistry;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.keyframeEvery = Math.max(keyframeEvery, 1);
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(sendTimeoutMs, 1));
+        this.sampler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("pool-snapshot-broadcaster").daemon(true).factory());
+        long interval = Math.max(intervalMs, 1);
+        this.sampler.scheduleWithFixedDelay(this::tickSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens an SSE stream of frames. The first frame is a full one with the state of the last tick.
+     *
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, subscribers);
+        // Serialized with tick(), so the full frame is never older than a delta already queued for the subscriber
+        synchronized (this) {
+            subscribers.add(subscriber);
+            subscriber.offer(new Encoded(snapshot(), null));
+        }
+        return emitter;
+    }
+
+    /**
+     * Opens an SSE stream of plain-text log lines, one per tick, each with the size of the default pool.
+     * A client that falls behind gets only the latest line.
+     *
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribeLog() {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        logSubscribers.add(new Subscriber(emitter, logSubscribers));
+        return emitter;
+    }
+
+    /**
+     * Builds the log line sent on {@code /logs}: the calling thread, the size of the default pool and the time.
+     *
+     * @return The log line.
+     */
+    public String logLine() {
+        TicketPool pool = ticketPoolRegistry.get(TicketPoolRegistry.DEFAULT_EVENT);
+        return "Thread: " + Thread.currentThread().getName() +
+                " - Current Pool Size: " + (pool == null ? 0 : pool.getPoolSize()) +
+                " - Time: " + System.currentTimeMillis();
+    }
+
+    /**
+     * Adds an in-process listener, called on the sampling thread with every frame sent. The first call, made before
+     * this method returns, is a full frame with the state of the last tick. Listeners must not block.
+     *
+     * @param listener Receives the frames.
+     * @return Removes the listener when run.
+     */
+    public Runnable addListener(Consumer<Frame> listener) {
+        // Serialized with tick(), like subscribe()
+        synchronized (this) {
+            listeners.add(listener);
+            listener.accept(snapshot());
+        }
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Returns the state of every pool as of the last tick, as a full frame.
+     *
+     * @return The current full frame.
+     */
+    public synchronized Frame snapshot() {
+        return new Frame(sequence, System.currentTimeMillis(), true, current, List.of());
+    }
+
+    /**
+     * Samples every pool once and sends the changes to all subscribers.
+     * Called by the sampling thread; also safe to call directly.
+     */
+    public synchronized void tick() {
+        Map<String, PoolState> previous = current;
+        Map<String, PoolState> sampled = new HashMap<>();
+        for (String eventId : ticketPoolRegistry.eventIds()) {
+            TicketPool pool = ticketPoolRegistry.get(eventId);
+            if (pool != null) {
+                sampled.put(eventId, new PoolState(pool.getPoolSize(), pool.getMaxTicketCapacity(),
+                        pool.getTicketsGenerated(), pool.getHeldTickets()));
+            }
+        }
+
+        sequence++;
+        boolean full = sequence % keyframeEvery == 0;
+        Map<String, PoolState> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, PoolState> entry : sampled.entrySet()) {
+            if (full || !entry.getValue().equals(previous.get(entry.getKey()))) {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        if (!full) {
+            for (String eventId : previous.keySet()) {
+                if (!sampled.containsKey(eventId)) {
+                    removed.add(eventId);
+                }
+            }
+        }
+        current = Map.copyOf(sampled);
+
+        dropStalled(subscribers);
+        dropStalled(logSubscribers);
+        if (!logSubscribers.isEmpty()) {
+            String line = logLine();
+            for (Subscriber subscriber : logSubscribers) {
+                subscriber.offerLine(line);
+            }
+        }
+        if (!full && changed.isEmpty() && removed.isEmpty()) {
+            return; // Nothing changed: send nothing
+        }
+        Frame frame = new Frame(sequence, System.currentTimeMillis(), full, changed, removed);
+        messagingTemplate.convertAndSend(SNAPSHOT_TOPIC, frame);
+        for (Consumer<Frame> listener : listeners) {
+            try {
+                listener.accept(frame);
+            } catch (RuntimeException e) {
+                logger.error("Pool snapshot listener failed.", e); // Keep serving the other listeners and subscribers
+            }
+        }
+        if (!subscribers.isEmpty()) {
+            Encoded encoded = new Encoded(frame, encode(frame)); // Encoded once for every subscriber that keeps up
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(encoded);
+            }
+        }
+    }
+
+    // Stops sampling and closes every SSE stream
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        for (Subscriber subscriber : logSubscribers) {
+            subscriber.close();
+        }
+        senders.shutdownNow();
+    }
+
+    // Drops the SSE subscribers whose current write has taken too long
+    private void dropStalled(List<Subscriber> subscribers) {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.stalledSince(now) > sendTimeoutNanos) {
+                logger.warn("Dropping snapshot subscriber that has not accepted a frame for {} ms.",
+                        TimeUnit.NANOSECONDS.toMillis(subscriber.stalledSince(now)));
+                subscribers.remove(subscriber);
+                senders.execute(subscriber::close); // complete() waits for the stuck write; keep the tick moving
+            }
+        }
+    }
+
+    // Encodes a frame for SSE
+    private String encode(Frame frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode pool snapshot.", e);
+        }
+    }
+
+    // Ticks without letting a failure cancel the periodic task
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            logger.error("Failed to broadcast pool snapshots.", e);
+        }
+    }
+
+    /**
+     * State of one pool at a tick.
+     *
+     * @param poolSize         Tickets in the pool.
+     * @param capacity         Maximum number of tickets in the pool.
+     * @param ticketsGenerated Tickets generated so far.
+     * @param held             Tickets taken out of the pool by holds that are not yet confirmed or released.
+     */
+    public record PoolState(int poolSize, int capacity, int ticketsGenerated, int held) {
+    }
+
+    /**
+     * One tick as sent to {@code /topic/pool-snapshots} and SSE subscribers.
+     *
+     * @param sequence Number of the tick; SSE frames carry it as the event ID.
+     * @param time     When the frame was built, in epoch milliseconds.
+     * @param full     Whether {@code pools} lists every pool; otherwise it lists only the pools that changed.
+     * @param pools    Pool state by event ID.
+     * @param removed  Events removed since the previous frame; always empty in a full frame.
+     */
+    public record Frame(long sequence, long time, boolean full, Map<String, PoolState> pools, List<String> removed) {
+
+        /**
+         * Combines this frame with a later one, as if both had been received in order.
+         *
+         * @param next The later frame.
+         * @return A frame with the same effect as this frame followed by {@code next}.
+         */
+        public Frame merge(Frame next) {
+            if (next.full) {
+                return next;
+            }
+            Map<String, PoolState> pools = new LinkedHashMap<>(this.pools);
+            Set<String> removed = new LinkedHashSet<>(this.removed);
+            for (String eventId : next.removed) {
+                pools.remove(eventId);
+                removed.add(eventId);
+            }
+            for (Map.Entry<String, PoolState> entry : next.pools.entrySet()) {
+                pools.put(entry.getKey(), entry.getValue());
+                removed.remove(entry.getKey());
+            }
+            return new Frame(next.sequence, next.time, full, pools, full ? List.of() : List.copyOf(removed));
+        }
+    }
+
+    // A frame with its JSON, or null JSON once it has been merged for a single subscriber
+    private record Encoded(Frame frame, String json) {
+    }
+
+    // One SSE client, with at most one frame or log line waiting behind the write in progress
+    private final class Subscriber {
+        // Stream to the client
+        private final SseEmitter emitter;
+
+        // List the client is registered in
+        private final List<Subscriber> owner;
+
+        // Frame waiting to be written, merged from every tick since the last write; guarded by this
+        private Encoded pending;
+
+        // Log line waiting to be written, replaced on every tick; guarded by this
+        private String pendingLine;
+
+        // Whether a sender thread is writing to the client; guarded by this
+        private boolean sending;
+
+        // When the write in progress started, from System.nanoTime(); guarded by this
+        private long sendStartedNanos;
+
+        // Set once the client is gone; guarded by this
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, List<Subscriber> owner) {
+            this.emitter = emitter;
+            this.owner = owner;
+            emitter.onCompletion(() -> owner.remove(this));
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        // Queues a frame, merging it into the one already waiting, and starts a sender if none is running
+        private void offer(Encoded encoded) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                pending = pending == null ? encoded : new Encoded(pending.frame().merge(encoded.frame()), null);
+                if (!startSending()) {
+                    return;
+                }
+            }
+            senders.execute(this::drain);
+        }
+
+        // Queues a log line in place of the one already waiting, and starts a sender if none is running
+        private void offerLine(String line) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                pendingLine = line;
+                if (!startSending()) {
+                    return;
+                }
+            }
+            senders.execute(this::drain);
+        }
+
+        // Marks a sender as running; false if one already is. Called holding this
+        private boolean startSending() {
+            if (sending) {
+                return false;
+            }
+            sending = true;
+            sendStartedNanos = System.nanoTime();
+            return true;
+        }
+
+        // Nanoseconds the write in progress has been running, or 0 if none is
+        private synchronized long stalledSince(long now) {
+            return sending ? now - sendStartedNanos : 0;
+        }
+
+        // Writes pending frames and log lines until none is left
+        private void drain() {
+            while (true) {
+                Encoded next;
+                String line;
+                synchronized (this) {
+                    next = pending;
+                    line = pendingLine;
+                    pending = null;
+                    pendingLine = null;
+                    if ((next == null && line == null) || closed) {
+                        sending = false;
+                        return;
+                    }
+                    sendStartedNanos = System.nanoTime();
+                }
+                try {
+                    if (next != null) {
+                        String json = next.json() != null ? next.json() : encode(next.frame());
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(next.frame().sequence()))
+                                .name(SSE_EVENT)
+                                .data(json, MediaType.APPLICATION_JSON));
+                    }
+                    if (line != null) {
+                        emitter.send(line);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    close(); // The client went away
+                    return;
+                }
+            }
+        }
+
+        // Stops sending to the client and ends its stream
+        private void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending = null;
+            }
+            owner.remove(this);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.FairPurchaseQueue;
+import com.java.Coursework01.Class.PurchaseMode;
+import com.java.Coursework01.Class.TicketPool;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces API purchases that do not wait into batched pool operations (group commit).
+ * <p>
+ * A request thread only appends its purchase to a lock-free queue and waits for the result. One
+ * dispatcher thread drains everything that arrived since its last round and, per pool, takes the
+ * tickets for all of those purchases in a single engine call, then hands each its share in arrival
+ * order. Under load the queue fills while a round runs, so many buyers share one pool operation;
+ * when idle, a purchase is dispatched at once. Coalesced purchases never go ahead of customers
+ * waiting in the pool's {@link FairPurchaseQueue}.
+ */
+@Component
+public class PurchaseCoalescer {
+    // Logger for logging information and errors
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseCoalescer.class);
+
+    // Purchases not yet dispatched, oldest first
+    private final ConcurrentLinkedQueue<PendingPurchase> pending = new ConcurrentLinkedQueue<>();
+
+    // Number of purchases in the queue
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    // Most purchases queued at once; later ones are turned away
+    private final int maxPending;
+
+    // Most purchases dispatched in one round
+    private final int maxBatch;
+
+    // Thread dispatching the queued purchases
+    private final Thread dispatcher;
+
+    // Cleared on shutdown
+    private volatile boolean running = true;
+
+    /**
+     * Creates the coalescer and starts its dispatcher.
+     *
+     * @param maxPending Most purchases queued at once; later ones buy nothing.
+     * @param maxBatch   Most purchases dispatched in one round.
+     */
+    public PurchaseCoalescer(@Value("${ticketpool.purchase.coalesce.max-pending:10000}") int maxPending,
+                             @Value("${ticketpool.purchase.coalesce.max-batch:1024}") int maxBatch) {
+        this.maxPending = Math.max(maxPending, 1);
+        this.maxBatch = Math.max(maxBatch, 1);
+        this.dispatcher = Thread.ofPlatform().name("purchase-dispatcher").daemon(true).unstarted(this::dispatch);
+        dispatcher.start();
+    }
+
+    /**
+     * Buys tickets without waiting, in the dispatcher's next round.
+     *
+     * @param pool  The pool to buy from.
+     * @param count Number of tickets wanted.
+     * @param mode  Whether the purchase must be filled completely.
+     * @param owner Who is buying the tickets, or null if unknown.
+     * @return The number of tickets bought; 0 if customers are waiting in line, the request cannot be filled
+     * now, or too many purchases are queued.
+     * @throws IllegalArgumentException If the pool could never fill the request.
+     */
+    public int purchase(TicketPool pool, int count, PurchaseMode mode, String owner) {
+        pool.checkBatchSize(count, mode);
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            return 0;
+        }
+        PendingPurchase purchase = new PendingPurchase(pool, count, mode, owner);
+        pending.add(purchase);
+        LockSupport.unpark(dispatcher);
+        if (!running) {
+            purchase.result.complete(0); // The dispatcher may have stopped before seeing it
+        }
+        try {
+            return purchase.result.join(); // Not interruptible: the tickets may already be bought
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Purchase could not be dispatched.", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the dispatcher. Purchases still queued buy nothing.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+    }
+
+    // Dispatcher loop: drains a round of purchases, or parks until one is queued
+    private void dispatch() {
+        List<PendingPurchase> round = new ArrayList<>();
+        while (running) {
+            PendingPurchase next;
+            while (round.size() < maxBatch && (next = pending.poll()) != null) {
+                round.add(next);
+            }
+            if (round.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+            pendingCount.addAndGet(-round.size());
+            try {
+                dispatchRound(round);
+            } catch (RuntimeException e) {
+                logger.error("Failed to dispatch {} purchases.", round.size(), e);
+                for (PendingPurchase purchase : round) {
+                    purchase.result.completeExceptionally(e); // No-op for those already served
+                }
+            }
+            round.clear();
+        }
+        PendingPurchase left;
+        while ((left = pending.poll()) != null) {
+            left.result.complete(0);
+        }
+    }
+
+    // Serves a round of purchases with one removal per pool
+    private void dispatchRound(List<PendingPurchase> round) {
+        Map<TicketPool, List<PendingPurchase>> byPool = new IdentityHashMap<>();
+        for (PendingPurchase purchase : round) {
+            byPool.computeIfAbsent(purchase.pool, pool -> new ArrayList<>()).add(purchase);
+        }
+        for (Map.Entry<TicketPool, List<PendingPurchase>> entry : byPool.entrySet()) {
+            TicketPool pool = entry.getKey();
+            List<PendingPurchase> group = entry.getValue();
+            int buyers = group.size();
+            int[] granted = new int[buyers];
+            if (pool.purchaseQueue().waiting() == 0) { // Otherwise waiting customers come first
+                int[] counts = new int[buyers];
+                PurchaseMode[] modes = new PurchaseMode[buyers];
+                String[] owners = new String[buyers];
+                for (int i = 0; i < buyers; i++) {
+                    PendingPurchase purchase = group.get(i);
+                    counts[i] = purchase.count;
+                    modes[i] = purchase.mode;
+                    owners[i] = purchase.owner;
+                }
+                pool.removeTicketsForGroup(counts, modes, owners, buyers, granted);
+            }
+            for (int i = 0; i < buyers; i++) {
+                group.get(i).result.complete(granted[i]);
+            }
+        }
+    }
+
+    // A purchase waiting for the dispatcher
+    private static final class PendingPurchase {
+        private final TicketPool pool;
+        private final int count;
+        private final PurchaseMode mode;
+        private final String owner;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        private PendingPurchase(TicketPool pool, int count, PurchaseMode mode, String owner) {
+            this.pool = pool;
+            this.count = count;
+            this.mode = mode;
+            this.owner = owner;
+        }
+    }
+}
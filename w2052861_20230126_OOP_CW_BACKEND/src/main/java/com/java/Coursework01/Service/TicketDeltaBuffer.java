@@ -0,0 +1,92 @@
+package com.java.Coursework01.Service;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates per-ticket quantity changes and nets them by ticket ID.
+ * Entries are packed as (ticket ID << 32 | quantity) in one long array, so netting is a
+ * primitive sort and a single merge pass. Not thread-safe.
+ */
+class TicketDeltaBuffer {
+
+    // Packed entries; sorted and unique by ticket ID up to nettedCount
+    private long[] entries = new long[64];
+
+    // Number of entries in use
+    private int count;
+
+    // Number of leading entries that are already netted
+    private int nettedCount;
+
+    /**
+     * Adds a quantity change for every ticket ID from first to last.
+     *
+     * @param first    The lowest ticket ID.
+     * @param last     The highest ticket ID.
+     * @param quantity The change in quantity for each ID.
+     */
+    void add(int first, int last, int quantity) {
+        for (long ticket = first; ticket <= last; ticket++) {
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[count++] = ticket << 32 | (quantity & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Discards every change.
+     */
+    void clear() {
+        count = 0;
+        nettedCount = 0;
+    }
+
+    /**
+     * Sorts the changes by ticket ID, adds up equal IDs and drops those that cancelled out.
+     */
+    void net() {
+        if (nettedCount == count) {
+            return;
+        }
+        Arrays.sort(entries, 0, count);
+        int merged = 0;
+        for (int i = 0; i < count; i++) {
+            int ticket = ticketId(i);
+            int quantity = quantity(i);
+            if (merged > 0 && ticketId(merged - 1) == ticket) {
+                quantity += quantity(merged - 1);
+                merged--;
+            }
+            entries[merged++] = (long) ticket << 32 | (quantity & 0xFFFFFFFFL);
+            if (quantity == 0) {
+                merged--;
+            }
+        }
+        count = merged;
+        nettedCount = merged;
+    }
+
+    /**
+     * @return The number of entries; after {@link #net()}, the number of changed ticket IDs.
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * @param index Index of the entry.
+     * @return The ticket ID of the entry.
+     */
+    int ticketId(int index) {
+        return (int) (entries[index] >> 32);
+    }
+
+    /**
+     * @param index Index of the entry.
+     * @return The change in quantity of the entry.
+     */
+    int quantity(int index) {
+        return (int) entries[index];
+    }
+}
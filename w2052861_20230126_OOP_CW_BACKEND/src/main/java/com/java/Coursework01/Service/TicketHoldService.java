@@ -0,0 +1,304 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.PurchaseMode;
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Class.TicketPoolListener;
+import com.java.Coursework01.Class.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-phase sales: tickets are held for a limited time, then confirmed or returned to the pool.
+ * <p>
+ * A hold takes its tickets out of the pool straight away, so they cannot be sold twice, and is
+ * confirmed or released by its ID. Holds that are neither expire after their TTL. Expiry runs on a
+ * {@link TimingWheel} advanced every {@code ticketpool.holds.tick-ms}, so outstanding holds cost
+ * nothing until they are due, however many there are. Holds live in memory only: held tickets stay
+ * in the persisted pool until confirmed, so a restart returns them to sale.
+ */
+@Service
+public class TicketHoldService {
+    // Logger for logging information and errors
+    private static final Logger logger = LoggerFactory.getLogger(TicketHoldService.class);
+
+    // Registry of the event pools
+    private final TicketPoolRegistry ticketPoolRegistry;
+
+    // Publisher for hold activity log lines
+    private final PoolEventPublisher poolEventPublisher;
+
+    // Outstanding holds by ID
+    private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+
+    // Expiry schedule of the outstanding holds; guarded by itself
+    private final TimingWheel<Hold> expiries;
+
+    // Pools whose resets are watched to drop their holds
+    private final Set<TicketPool> watchedPools = ConcurrentHashMap.newKeySet();
+
+    // TTL of a hold when none is requested, in milliseconds
+    private final long defaultTtlMs;
+
+    // Longest TTL a hold may have, in milliseconds
+    private final long maxTtlMs;
+
+    // Longest time a hold request may wait for tickets, in milliseconds
+    private final long maxWaitMs;
+
+    // Thread advancing the expiry wheel
+    private final ScheduledExecutorService expirer;
+
+    /**
+     * Creates the service and starts its expiry tick.
+     *
+     * @param ticketPoolRegistry The registry of event pools.
+     * @param poolEventPublisher The publisher for hold activity log lines.
+     * @param tickMs             Milliseconds per expiry tick; holds expire up to one tick late.
+     * @param defaultTtlMs       TTL of a hold when none is requested, in milliseconds.
+     * @param maxTtlMs           Longest TTL a hold may have, in milliseconds.
+     * @param maxWaitMs          Longest time a hold request may wait for tickets, in milliseconds.
+     */
+    public TicketHoldService(TicketPoolRegistry ticketPoolRegistry, PoolEventPublisher poolEventPublisher,
+                             @Value("${ticketpool.holds.tick-ms:100}") long tickMs,
+                             @Value("${ticketpool.holds.default-ttl-ms:60000}") long defaultTtlMs,
+                             @Value("${ticketpool.holds.max-ttl-ms:900000}") long maxTtlMs,
+                             @Value("${ticketpool.purchase.max-wait-ms:5000}") long maxWaitMs) {
+        this.ticketPoolRegistry = ticketPoolRegistry;
+        this.poolEventPublisher = poolEventPublisher;
+        this.maxTtlMs = Math.max(maxTtlMs, 1);
+        this.defaultTtlMs = Math.min(Math.max(defaultTtlMs, 1), this.maxTtlMs);
+        this.maxWaitMs = Math.max(maxWaitMs, 0);
+        long tick = Math.max(tickMs, 1);
+        this.expiries = new TimingWheel<>(tick, System.currentTimeMillis());
+        this.expirer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("ticket-hold-expirer").daemon(true).factory());
+        this.expirer.scheduleWithFixedDelay(this::expireSafely, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Holds tickets of an event's pool.
+     *
+     * @param eventId ID of the event
+     * @param count   Number of tickets wanted
+     * @param mode    Whether the hold must be filled completely
+     * @param ttlMs   How long to hold the tickets, 0 for the default; capped at {@code ticketpool.holds.max-ttl-ms}
+     * @param waitMs  Milliseconds to wait for tickets, 0 to return at once; capped at {@code ticketpool.purchase.max-wait-ms}
+     * @param owner   Who the tickets are held for, recorded in the pool's ticket index on confirmation; null if unknown
+     * @return The new hold, a hold of 0 tickets if none could be had in time, or null if the event does not exist
+     * @throws InterruptedException     If the calling thread is interrupted while waiting
+     * @throws IllegalArgumentException If the event has reserved seating, whose tickets are only sold with seats
+     */
+    public HoldView hold(String eventId, int count, PurchaseMode mode, long ttlMs, long waitMs, String owner)
+            throws InterruptedException {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return null;
+        }
+        if (pool.seatMap() != null) {
+            throw new IllegalArgumentException("Holds are not available for events with reserved seating; buy seats instead.");
+        }
+        watch(pool);
+        int[] tickets = new int[count];
+        long wait = Math.min(Math.max(waitMs, 0L), maxWaitMs);
+        int held = pool.purchaseQueue().hold(tickets, count, mode, wait, TimeUnit.MILLISECONDS); // In line with purchases
+        long ttl = ttlMs <= 0 ? defaultTtlMs : Math.min(ttlMs, maxTtlMs);
+        long expiresAt = System.currentTimeMillis() + ttl;
+        if (held == 0) {
+            return new HoldView(null, eventId, count, 0, expiresAt);
+        }
+
+        Hold hold = new Hold(UUID.randomUUID().toString(), eventId, pool, tickets, held, expiresAt, owner);
+        holds.put(hold.id, hold);
+        synchronized (expiries) {
+            hold.timeout = expiries.schedule(hold, expiresAt);
+        }
+        poolEventPublisher.publish("[" + eventId + "] " + held + " tickets held until " + expiresAt + ".");
+        return hold.view(count);
+    }
+
+    /**
+     * Returns an outstanding hold of an event.
+     *
+     * @param eventId ID of the event
+     * @param holdId  ID of the hold
+     * @return The hold, or null if the event has no such hold or it is no longer outstanding
+     */
+    public HoldView get(String eventId, String holdId) {
+        Hold hold = holds.get(holdId);
+        return hold == null || !hold.eventId.equals(eventId) ? null : hold.view(hold.count);
+    }
+
+    /**
+     * Sells the tickets of a hold of an event.
+     *
+     * @param eventId ID of the event
+     * @param holdId  ID of the hold
+     * @return The confirmed hold, or null if the event has no such hold, it has expired or was already confirmed
+     * or released
+     */
+    public HoldView confirm(String eventId, String holdId) {
+        Hold hold = take(eventId, holdId);
+        if (hold == null) {
+            return null;
+        }
+        if (hold.expiresAt <= System.currentTimeMillis()) {
+            release(hold); // Due but not yet reached by the expiry tick
+            return null;
+        }
+        hold.pool.confirmHeld(hold.tickets, hold.count, hold.owner);
+        poolEventPublisher.publish("[" + hold.eventId + "] " + hold.count + " held tickets sold. Pool size: "
+                + hold.pool.getPoolSize());
+        return hold.view(hold.count);
+    }
+
+    /**
+     * Returns the tickets of a hold of an event to the pool before it expires.
+     *
+     * @param eventId ID of the event
+     * @param holdId  ID of the hold
+     * @return false if the event has no such hold or it is no longer outstanding
+     */
+    public boolean release(String eventId, String holdId) {
+        Hold hold = take(eventId, holdId);
+        if (hold == null) {
+            return false;
+        }
+        release(hold);
+        return true;
+    }
+
+    /**
+     * Returns the tickets of every hold whose TTL has passed.
+     * Called by the expiry thread; also safe to call directly.
+     *
+     * @param nowMillis The current time, in milliseconds.
+     * @return The number of holds that expired.
+     */
+    int expire(long nowMillis) {
+        int[] expired = {0};
+        synchronized (expiries) {
+            expiries.advance(nowMillis, hold -> {
+                hold.timeout = null;
+                if (holds.remove(hold.id, hold)) {
+                    release(hold);
+                    expired[0]++;
+                }
+            });
+        }
+        return expired[0];
+    }
+
+    /**
+     * Stops the expiry thread. Outstanding holds are left in the persisted pool.
+     */
+    @PreDestroy
+    public void shutdown() {
+        expirer.shutdownNow();
+    }
+
+    // Removes an outstanding hold of the event; null if the event has no such hold or another caller got there first
+    private Hold take(String eventId, String holdId) {
+        Hold hold = holds.get(holdId);
+        return hold != null && hold.eventId.equals(eventId) && take(hold) ? hold : null;
+    }
+
+    // Removes a hold from the outstanding ones and cancels its expiry; false if another caller got there first
+    private boolean take(Hold hold) {
+        if (!holds.remove(hold.id, hold)) {
+            return false;
+        }
+        synchronized (expiries) {
+            if (hold.timeout != null) {
+                expiries.cancel(hold.timeout);
+                hold.timeout = null;
+            }
+        }
+        return true;
+    }
+
+    // Puts the tickets of a hold that is no longer outstanding back into its pool
+    private void release(Hold hold) {
+        hold.pool.releaseHeld(hold.tickets, hold.count);
+        poolEventPublisher.publish("[" + hold.eventId + "] " + hold.count + " held tickets returned to the pool.");
+    }
+
+    // Drops the holds of a pool when it is cleared, since their tickets went with it
+    private void watch(TicketPool pool) {
+        if (!watchedPools.add(pool)) {
+            return;
+        }
+        pool.addListener(new TicketPoolListener() {
+            @Override
+            public void ticketsCleared() {
+                for (Hold hold : holds.values()) {
+                    if (hold.pool == pool) {
+                        take(hold);
+                    }
+                }
+            }
+        });
+    }
+
+    // Expires holds without letting a failure cancel the periodic task
+    private void expireSafely() {
+        try {
+            int expired = expire(System.currentTimeMillis());
+            if (expired > 0) {
+                logger.debug("{} ticket holds expired.", expired);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to expire ticket holds.", e);
+        }
+    }
+
+    /**
+     * A hold as reported to API clients.
+     *
+     * @param holdId    ID of the hold, or null if no tickets could be held.
+     * @param eventId   ID of the event.
+     * @param requested Number of tickets asked for.
+     * @param held      Number of tickets held.
+     * @param expiresAt When the hold expires, in epoch milliseconds.
+     */
+    public record HoldView(String holdId, String eventId, int requested, int held, long expiresAt) {
+    }
+
+    // An outstanding hold
+    private static final class Hold {
+        private final String id;
+        private final String eventId;
+        private final TicketPool pool;
+        private final int[] tickets;
+        private final int count;
+        private final long expiresAt;
+        private final String owner;
+
+        // Pending expiry, or null once expired or cancelled; guarded by the expiry wheel
+        private TimingWheel.Timeout<Hold> timeout;
+
+        private Hold(String id, String eventId, TicketPool pool, int[] tickets, int count, long expiresAt,
+                     String owner) {
+            this.id = id;
+            this.eventId = eventId;
+            this.pool = pool;
+            this.tickets = tickets;
+            this.count = count;
+            this.expiresAt = expiresAt;
+            this.owner = owner;
+        }
+
+        private HoldView view(int requested) {
+            return new HoldView(id, eventId, requested, count, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.TicketPool;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs one INFO summary per event and interval in place of a line per ticket.
+ * <p>
+ * Ticket pools log individual tickets at DEBUG only. Every
+ * {@code ticketpool.logging.summary-interval-ms} this service reads each pool's size and
+ * generated-ticket count and logs how many tickets were added and removed since the previous
+ * summary, so the hot path pays nothing for routine logging. Events without activity are skipped.
+ */
+@Service
+public class TicketPoolActivityLog {
+    // Logger for the activity summaries
+    private static final Logger logger = LoggerFactory.getLogger(TicketPoolActivityLog.class);
+
+    // Registry of the pools to summarize
+    private final TicketPoolRegistry ticketPoolRegistry;
+
+    // Milliseconds between summaries
+    private final long intervalMs;
+
+    // Pool size and tickets generated at the previous summary, by event ID; used by the summary thread only
+    private final Map<String, int[]> previous = new HashMap<>();
+
+    // Thread writing the summaries
+    private final ScheduledExecutorService summarizer;
+
+    /**
+     * Creates the activity log and starts its summary cycle.
+     *
+     * @param ticketPoolRegistry The registry of event pools.
+     * @param summaryIntervalMs  Milliseconds between summaries.
+     */
+    public TicketPoolActivityLog(TicketPoolRegistry ticketPoolRegistry,
+                                 @Value("${ticketpool.logging.summary-interval-ms:5000}") long summaryIntervalMs) {
+        this.ticketPoolRegistry = ticketPoolRegistry;
+        this.intervalMs = Math.max(summaryIntervalMs, 1);
+        this.summarizer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("ticket-pool-activity-log").daemon(true).factory());
+        this.summarizer.scheduleWithFixedDelay(this::summarizeSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Logs the activity of every event since the previous summary.
+     * Called by the summary thread.
+     */
+    synchronized void summarize() {
+        previous.keySet().retainAll(ticketPoolRegistry.eventIds());
+        for (String eventId : ticketPoolRegistry.eventIds()) {
+            TicketPool pool = ticketPoolRegistry.get(eventId);
+            if (pool == null) {
+                continue;
+            }
+            int size = pool.getPoolSize();
+            int generated = pool.getTicketsGenerated();
+            int[] last = previous.get(eventId);
+            if (last == null) {
+                // The default pool may hold recovered tickets; every other event starts out empty
+                last = TicketPoolRegistry.DEFAULT_EVENT.equals(eventId) ? new int[] {size, generated} : new int[2];
+                previous.put(eventId, last);
+            }
+            int added = generated - last[1];
+            int lastSize = last[0];
+            if (added < 0) {
+                added = generated; // The pool was reset since the previous summary
+                lastSize = 0;
+            }
+            int removed = Math.max(lastSize + added - size, 0);
+            last[0] = size;
+            last[1] = generated;
+            if (added > 0 || removed > 0) {
+                logger.info("Event {}: {} tickets added, {} removed in the last {} ms. Pool size: {}, Total generated: {}",
+                        eventId, added, removed, intervalMs, size, generated);
+            }
+        }
+    }
+
+    /**
+     * Stops the summary thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        summarizer.shutdownNow();
+    }
+
+    // Summarizes without letting a failure cancel the periodic task
+    private void summarizeSafely() {
+        try {
+            summarize();
+        } catch (RuntimeException e) {
+            logger.error("Failed to summarize ticket pool activity.", e);
+        }
+    }
+}
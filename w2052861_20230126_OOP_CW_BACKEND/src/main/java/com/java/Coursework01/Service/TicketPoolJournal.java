@@ -0,0 +1,550 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Class.TicketPoolListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only journal of ticket pool changes, used to recover the pool after a restart.
+ * <p>
+ * Every change is appended to an in-memory buffer as a small checksummed record. Every
+ * {@code ticketpool.journal.group-commit-ms} the buffered records are written to the current
+ * journal segment with one {@link FileChannel} write and one {@code force}, so a single disk
+ * sync covers every change made in that interval. Every {@code ticketpool.journal.snapshot-interval-ms}
+ * the journal moves on to a new segment and the closed segments are folded into a snapshot,
+ * after which they are deleted.
+ * <p>
+ * On startup the latest valid snapshot is loaded and the segments written after it are replayed,
+ * stopping at the first torn or corrupt record. Recovery time is therefore bounded by the pool
+ * size plus one snapshot interval of changes, however many tickets were traded before. The
+ * recovered pool then replaces the database copy kept by {@link TicketPoolWriteBehind}. Without
+ * a journal, or with journaling disabled, the pool is restored from the database copy instead,
+ * and a new journal starts with the restored pool.
+ */
+@Service
+public class TicketPoolJournal implements TicketPoolListener {
+    // Logger for logging information and errors
+    private static final Logger logger = LoggerFactory.getLogger(TicketPoolJournal.class);
+
+    // File headers identifying journal segments and snapshots
+    private static final int SEGMENT_MAGIC = 0x54504A31; // "TPJ1"
+    private static final int SNAPSHOT_MAGIC = 0x54505331; // "TPS1"
+
+    // Record types
+    private static final byte ADDED = 1;
+    private static final byte REMOVED = 2;
+    private static final byte CLEARED = 3;
+    private static final byte COUNTERS = 4;
+
+    // File names carry the segment sequence number
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    // Number of replayed entries after which recovery nets its state to bound memory
+    private static final int NET_THRESHOLD = 1 << 20;
+
+    @Autowired
+    private TicketPool ticketPool;
+
+    // Database copy of the pool, restored when the journal holds nothing
+    @Autowired
+    private TicketPoolWriteBehind ticketPoolWriteBehind;
+
+    // Whether journaling and recovery are enabled
+    private final boolean enabled;
+
+    // Directory holding the journal segments and snapshots
+    private final Path directory;
+
+    // Milliseconds between group commits
+    private final long groupCommitMs;
+
+    // Milliseconds between snapshots
+    private final long snapshotIntervalMs;
+
+    // Runs group commits and snapshots
+    private final ScheduledExecutorService executor;
+
+    // Guards the append buffers
+    private final Object appendLock = new Object();
+
+    // Records appended since the last commit
+    private ByteBuffer active = ByteBuffer.allocate(64 * 1024);
+
+    // Empty buffer swapped in at the next commit
+    private ByteBuffer standby = ByteBuffer.allocate(64 * 1024);
+
+    // Guards the segment file and the commit and rotation steps
+    private final Object fileLock = new Object();
+
+    // Current segment, its sequence number and whether anything was written to it
+    private FileChannel segment;
+    private long segmentSeq;
+    private boolean segmentWritten;
+
+    // Pool counters as last journaled
+    private int[] journaledCounters;
+
+    /**
+     * Creates the journal.
+     *
+     * @param enabled            Whether journaling and recovery are enabled.
+     * @param directory          Directory holding the journal segments and snapshots.
+     * @param groupCommitMs      Milliseconds between group commits.
+     * @param snapshotIntervalMs Milliseconds between snapshots.
+     */
+    public TicketPoolJournal(@Value("${ticketpool.journal.enabled:false}") boolean enabled,
+                             @Value("${ticketpool.journal.directory:journal}") String directory,
+                             @Value("${ticketpool.journal.group-commit-ms:10}") long groupCommitMs,
+                             @Value("${ticketpool.journal.snapshot-interval-ms:60000}") long snapshotIntervalMs) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.groupCommitMs = Math.max(groupCommitMs, 1);
+        this.snapshotIntervalMs = Math.max(snapshotIntervalMs, 1);
+        this.executor = Executors.newScheduledThreadPool(2,
+                Thread.ofPlatform().name("ticket-pool-journal-", 0).daemon(true).factory());
+    }
+
+    // Recovers the pool, then starts journaling its changes
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            ticketPoolWriteBehind.restore();
+            return;
+        }
+        Files.createDirectories(directory);
+        long lastSeq = recover();
+        boolean restored = lastSeq < 0 && ticketPoolWriteBehind.restore();
+        if (lastSeq >= 0) {
+            ticketPoolWriteBehind.resync(); // The journal is at least as new as the database
+        }
+        openSegment(Math.max(lastSeq, 0) + 1);
+        journaledCounters = currentCounters();
+        if (restored) {
+            // Start the new journal from the restored pool, so the next recovery does not need the database
+            int[] tickets = ticketPool.ticketIds();
+            ticketsCleared();
+            ticketsAdded(tickets, 0, tickets.length);
+            journaledCounters = null;
+        }
+        ticketPool.addListener(this);
+        executor.scheduleWithFixedDelay(this::commitSafely, groupCommitMs, groupCommitMs, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::snapshotSafely, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Ticket pool journal in {} (group commit {} ms, snapshot every {} ms)",
+                directory.toAbsolutePath(), groupCommitMs, snapshotIntervalMs);
+    }
+
+    @Override
+    public void ticketsAdded(int[] tickets, int offset, int count) {
+        TicketPoolListener.forEachRun(tickets, offset, count, (first, last) -> append(ADDED, first, last));
+    }
+
+    @Override
+    public void ticketsRemoved(int[] tickets, int offset, int count) {
+        TicketPoolListener.forEachRun(tickets, offset, count, (first, last) -> append(REMOVED, first, last));
+    }
+
+    @Override
+    public void ticketsCleared() {
+        append(CLEARED);
+    }
+
+    /**
+     * Writes every record appended so far to the current segment and syncs it to disk.
+     *
+     * @throws IOException If the segment cannot be written.
+     */
+    public void commit() throws IOException {
+        synchronized (fileLock) {
+            int[] counters = currentCounters();
+            if (!Arrays.equals(counters, journaledCounters)) {
+                append(COUNTERS, counters);
+                journaledCounters = counters;
+            }
+            ByteBuffer full;
+            synchronized (appendLock) {
+                if (active.position() == 0) {
+                    return;
+                }
+                full = active;
+                active = standby;
+            }
+            full.flip();
+            while (full.hasRemaining()) {
+                segment.write(full);
+            }
+            segment.force(false);
+            segmentWritten = true;
+            full.clear();
+            standby = full;
+        }
+    }
+
+    /**
+     * Moves the journal on to a new segment and folds the closed segments into a new snapshot.
+     *
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public void snapshot() throws IOException {
+        long closedSeq;
+        synchronized (fileLock) {
+            commit();
+            if (!segmentWritten) {
+                return; // Nothing changed since the last snapshot
+            }
+            closedSeq = segmentSeq;
+            segment.close();
+            openSegment(closedSeq + 1);
+        }
+
+        // Fold outside the file lock, so commits continue on the new segment meanwhile
+        long started = System.nanoTime();
+        RecoveredState state = fold(closedSeq);
+        Path snapshot = directory.resolve(String.format("snapshot-%012d.bin", closedSeq));
+        writeSnapshot(snapshot, closedSeq, state);
+        for (Path file : listFiles()) {
+            long seq = sequenceOf(file);
+            if (seq >= 0 && seq <= closedSeq && !file.equals(snapshot)) {
+                Files.deleteIfExists(file);
+            }
+        }
+        logger.info("Ticket pool snapshot {} written with {} ticket IDs in {} ms", closedSeq,
+                state.tickets.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Writes any remaining records and closes the segment
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        executor.shutdownNow();
+        commitSafely();
+        synchronized (fileLock) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the ticket pool journal.", e);
+            }
+        }
+    }
+
+    // Restores the pool from the latest snapshot and journal tail, returning the last segment number seen or -1
+    private long recover() throws IOException {
+        long started = System.nanoTime();
+        RecoveredState state = fold(Long.MAX_VALUE);
+        if (state.counters != null) {
+            ticketPool.setTotalTickets(state.counters[0]);
+            ticketPool.setTicketReleaseRate(state.counters[1]);
+            ticketPool.setCustomerTicketRetrievalRate(state.counters[2]);
+            ticketPool.setMaxTicketCapacity(state.counters[3]);
+            ticketPool.setTicketsGenerated(state.counters[4]);
+            if (state.counters.length > 5) {
+                ticketPool.setLastTicketId(state.counters[5]); // Absent from journals written before unique IDs
+            }
+            if (state.counters.length > 6) {
+                ticketPool.setAvailable(state.counters[6] != 0); // Absent from journals written before it was kept
+            }
+        }
+        state.tickets.net();
+        int total = 0;
+        for (int i = 0; i < state.tickets.size(); i++) {
+            total += Math.max(state.tickets.quantity(i), 0);
+        }
+        if (total > 0) {
+            int[] tickets = new int[total];
+            int next = 0;
+            for (int i = 0; i < state.tickets.size(); i++) {
+                for (int q = 0; q < state.tickets.quantity(i); q++) {
+                    tickets[next++] = state.tickets.ticketId(i);
+                }
+            }
+            ticketPool.loadTickets(tickets);
+        }
+        if (state.lastSeq >= 0) {
+            logger.info("Recovered {} tickets from snapshot {} and {} journal records in {} ms", total,
+                    state.snapshotSeq, state.replayedRecords,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return state.lastSeq;
+    }
+
+    // Loads the latest snapshot and replays every segment after it, up to and including upToSeq
+    private RecoveredState fold(long upToSeq) throws IOException {
+        RecoveredState state = new RecoveredState();
+        List<Long> segments = new ArrayList<>();
+        long snapshotSeq = -1;
+        Path snapshotFile = null;
+        for (Path file : listFiles()) {
+            long seq = sequenceOf(file);
+            if (seq < 0 || seq > upToSeq) {
+                continue;
+            }
+            state.lastSeq = Math.max(state.lastSeq, seq);
+            if (SEGMENT_NAME.matcher(file.getFileName().toString()).matches()) {
+                segments.add(seq);
+            } else if (seq > snapshotSeq && isValidSnapshot(file)) {
+                snapshotSeq = seq;
+                snapshotFile = file;
+            }
+        }
+        if (snapshotFile != null) {
+            readSnapshot(snapshotFile, state);
+            state.snapshotSeq = snapshotSeq;
+        }
+        segments.sort(null);
+        for (long seq : segments) {
+            if (seq > snapshotSeq) {
+                replaySegment(directory.resolve(String.format("journal-%012d.log", seq)), state);
+            }
+        }
+        state.tickets.net();
+        return state;
+    }
+
+    // Applies the valid records of a segment, stopping at the first torn or corrupt one
+    private void replaySegment(Path file, RecoveredState state) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SEGMENT_MAGIC) {
+                logger.warn("Skipping {}: not a journal segment.", file);
+                return;
+            }
+            in.readLong(); // Segment number, already known from the file name
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length = in.readInt();
+                if (length < 1 || length > 1 + 4 * 7) {
+                    throw new EOFException("Invalid record length " + length);
+                }
+                byte[] record = new byte[length];
+                in.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != in.readInt()) {
+                    throw new EOFException("Checksum mismatch");
+                }
+                apply(ByteBuffer.wrap(record), state);
+                state.replayedRecords++;
+            }
+        } catch (EOFException e) {
+            // End of the segment, or a record torn by a crash: everything before it is valid
+        }
+    }
+
+    // Applies one decoded record to the recovered state
+    private static void apply(ByteBuffer record, RecoveredState state) {
+        byte type = record.get();
+        switch (type) {
+            case ADDED:
+                state.tickets.add(record.getInt(), record.getInt(), 1);
+                break;
+            case REMOVED:
+                state.tickets.add(record.getInt(), record.getInt(), -1);
+                break;
+            case CLEARED:
+                state.tickets.clear();
+                break;
+            case COUNTERS:
+                int[] counters = new int[record.remaining() / 4];
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] = record.getInt();
+                }
+                state.counters = counters;
+                break;
+            default:
+                return;
+        }
+        if (state.tickets.size() > NET_THRESHOLD) {
+            state.tickets.net();
+        }
+    }
+
+    // Writes a snapshot to a temporary file and moves it into place
+    private void writeSnapshot(Path file, long seq, RecoveredState state) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)), new CRC32());
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(seq);
+            int[] counters = state.counters != null ? state.counters : new int[0];
+            out.writeInt(counters.length);
+            for (int counter : counters) {
+                out.writeInt(counter);
+            }
+            out.writeInt(state.tickets.size());
+            for (int i = 0; i < state.tickets.size(); i++) {
+                out.writeInt(state.tickets.ticketId(i));
+                out.writeInt(state.tickets.quantity(i));
+            }
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Loads the counters and ticket quantities of a snapshot
+    private static void readSnapshot(Path file, RecoveredState state) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            in.readInt();
+            in.readLong();
+            int[] counters = new int[in.readInt()];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = in.readInt();
+            }
+            state.counters = counters.length > 0 ? counters : null;
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                int ticket = in.readInt();
+                state.tickets.add(ticket, ticket, in.readInt());
+            }
+        }
+    }
+
+    // Checks the header and checksum of a snapshot, so a half-written one is never loaded
+    private static boolean isValidSnapshot(Path file) {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), new CRC32());
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                return false;
+            }
+            in.readLong();
+            int counters = in.readInt();
+            in.skipNBytes(4L * counters);
+            int entries = in.readInt();
+            in.skipNBytes(8L * entries);
+            long expected = checked.getChecksum().getValue();
+            return in.readLong() == expected;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Starts a new segment file
+    private void openSegment(long seq) throws IOException {
+        Path file = directory.resolve(String.format("journal-%012d.log", seq));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(12).putInt(SEGMENT_MAGIC).putLong(seq).flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segment.force(true);
+        segmentSeq = seq;
+        segmentWritten = false;
+    }
+
+    // Appends one checksummed record: length, type, values, CRC32 of type and values
+    private void append(byte type, int... values) {
+        int length = 1 + 4 * values.length;
+        synchronized (appendLock) {
+            if (active.remaining() < length + 8) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(active.capacity() * 2, active.position() + length + 8));
+                active.flip();
+                active = grown.put(active);
+            }
+            active.putInt(length);
+            int start = active.position();
+            active.put(type);
+            for (int value : values) {
+                active.putInt(value);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(active.array(), start, length);
+            active.putInt((int) crc.getValue());
+        }
+    }
+
+    // Commits without letting a disk failure cancel the periodic task
+    private void commitSafely() {
+        try {
+            commit();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to commit the ticket pool journal.", e);
+        }
+    }
+
+    // Snapshots without letting a disk failure cancel the periodic task
+    private void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write a ticket pool snapshot.", e);
+        }
+    }
+
+    // Lists the journal directory
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Returns the sequence number in a segment or snapshot file name, or -1 for other files
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        Matcher matcher = SEGMENT_NAME.matcher(name);
+        if (!matcher.matches()) {
+            matcher = SNAPSHOT_NAME.matcher(name);
+            if (!matcher.matches()) {
+                return -1;
+            }
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    // Reads the pool counters that are journaled alongside the tickets, ending with whether the pool is available
+    private int[] currentCounters() {
+        return new int[] {ticketPool.getTotalTickets(), ticketPool.getTicketReleaseRate(),
+                ticketPool.getCustomerTicketRetrievalRate(), ticketPool.getMaxTicketCapacity(),
+                ticketPool.getTicketsGenerated(), ticketPool.getLastTicketId(), ticketPool.isAvailable() ? 1 : 0};
+    }
+
+    // Pool state rebuilt from a snapshot and journal segments
+    private static final class RecoveredState {
+        private final TicketDeltaBuffer tickets = new TicketDeltaBuffer();
+        private int[] counters;
+        private long snapshotSeq = -1;
+        private long lastSeq = -1;
+        private long replayedRecords;
+    }
+}
@@ -0,0 +1,158 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Class.TicketPoolListener;
+import com.java.Coursework01.Class.TicketPoolTimings;
+import com.java.Coursework01.Service.ParticipantScheduler.ScheduledParticipant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes ticket pool metrics to Micrometer, tagged with the event ID.
+ * <p>
+ * For every pool: counters of tickets added and removed, pool size, held tickets, capacity and
+ * occupancy gauges, histograms of the time vendors and customers spend in blocking pool calls, and a
+ * histogram of how long the engine holds its lock (blocking engine only). For every event:
+ * gauges of the active vendors and customers. The metrics are served in Prometheus format at
+ * {@code /actuator/prometheus}.
+ */
+@Component
+public class TicketPoolMetrics {
+
+    // Registry the meters are registered with
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param meterRegistry The application's meter registry.
+     */
+    public TicketPoolMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Registers the meters of an event's pool and starts recording its activity.
+     *
+     * @param eventId The event ID.
+     * @param pool    The event's ticket pool.
+     */
+    public void bindPool(String eventId, TicketPool pool) {
+        Tags tags = Tags.of("event", eventId);
+
+        Counter added = Counter.builder("ticketpool.tickets.added")
+                .description("Tickets added to the pool by vendors")
+                .baseUnit("tickets").tags(tags).register(meterRegistry);
+        Counter removed = Counter.builder("ticketpool.tickets.removed")
+                .description("Tickets removed from the pool by customers")
+                .baseUnit("tickets").tags(tags).register(meterRegistry);
+        pool.addListener(new TicketPoolListener() {
+            @Override
+            public void ticketsAdded(int[] tickets, int offset, int count) {
+                added.increment(count);
+            }
+
+            @Override
+            public void ticketsRemoved(int[] tickets, int offset, int count) {
+                removed.increment(count);
+            }
+        });
+
+        Timer vendorWait = waitTimer(tags, "vendor");
+        Timer customerWait = waitTimer(tags, "customer");
+        Timer lockHold = Timer.builder("ticketpool.lock.hold")
+                .description("Time the pool engine's lock is held per acquisition")
+                .tags(tags).publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100)).maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+        pool.setTimings(new TicketPoolTimings() {
+            @Override
+            public void vendorWaited(long nanos) {
+                vendorWait.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void customerWaited(long nanos) {
+                customerWait.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void lockHeld(long nanos) {
+                lockHold.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        });
+
+        Gauge.builder("ticketpool.size", pool, TicketPool::getPoolSize)
+                .description("Tickets currently in the pool")
+                .baseUnit("tickets").tags(tags).register(meterRegistry);
+        Gauge.builder("ticketpool.held", pool, TicketPool::getHeldTickets)
+                .description("Tickets taken out of the pool by holds awaiting confirmation")
+                .baseUnit("tickets").tags(tags).register(meterRegistry);
+        Gauge.builder("ticketpool.capacity", pool, TicketPool::getMaxTicketCapacity)
+                .description("Maximum number of tickets in the pool")
+                .baseUnit("tickets").tags(tags).register(meterRegistry);
+        Gauge.builder("ticketpool.occupancy", pool, TicketPoolMetrics::occupancy)
+                .description("Fraction of the pool capacity in use")
+                .tags(tags).register(meterRegistry);
+    }
+
+    /**
+     * Registers a gauge of an event's active vendors or customers.
+     *
+     * @param eventId      The event ID.
+     * @param role         "vendor" or "customer".
+     * @param participants The event's participants of that role, by ID.
+     */
+    public void bindParticipants(String eventId, String role, Map<String, ScheduledParticipant> participants) {
+        Gauge.builder("ticketpool.participants.active", participants, TicketPoolMetrics::countAlive)
+                .description("Vendors or customers currently running")
+                .tags("event", eventId, "role", role).register(meterRegistry);
+    }
+
+    /**
+     * Removes every meter of an event.
+     *
+     * @param eventId The event ID.
+     */
+    public void unbind(String eventId) {
+        for (Meter meter : meterRegistry.getMeters()) {
+            Meter.Id id = meter.getId();
+            if (id.getName().startsWith("ticketpool.") && eventId.equals(id.getTag("event"))) {
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+
+    // Histogram of the time one side spends in blocking pool calls
+    private Timer waitTimer(Tags tags, String role) {
+        return Timer.builder("ticketpool.wait")
+                .description("Time vendors and customers spend in blocking pool calls, including waits")
+                .tags(tags).tag("role", role).publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100)).maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    // Fraction of the capacity in use, 0 for a pool without capacity
+    private static double occupancy(TicketPool pool) {
+        int capacity = pool.getMaxTicketCapacity();
+        return capacity > 0 ? (double) pool.getPoolSize() / capacity : 0;
+    }
+
+    // Number of participants still running
+    private static double countAlive(Map<String, ScheduledParticipant> participants) {
+        int alive = 0;
+        for (ScheduledParticipant participant : participants.values()) {
+            if (participant.isAlive()) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+}
@@ -0,0 +1,128 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Class.TicketPoolEngineType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Holds one ticket pool per event, keyed by event ID.
+ * <p>
+ * Every pool has its own engine, so vendors and customers of different events never contend on
+ * the same ticket lock. Administrative changes to an event (initialize, start, reset) are
+ * serialized on one of a fixed set of lock stripes chosen by the event ID, so they only wait for
+ * changes to events that share the stripe. The application-wide {@link TicketPool} bean is
+ * registered as the {@link #DEFAULT_EVENT} pool.
+ */
+@Component
+public class TicketPoolRegistry {
+
+    // ID of the pool served by the original /api/ticket-pool endpoints
+    public static final String DEFAULT_EVENT = "default";
+
+    // Event IDs are used in URLs and log lines, so keep them short and plain
+    private static final Pattern EVENT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    // Pools by event ID
+    private final ConcurrentHashMap<String, TicketPool> pools = new ConcurrentHashMap<>();
+
+    // Locks serializing administrative changes, one shared by every event hashing to it
+    private final Object[] stripes;
+
+    // Engine implementation for new event pools
+    private final TicketPoolEngineType engineType;
+
+    // Metrics registered for every pool
+    private final TicketPoolMetrics ticketPoolMetrics;
+
+    /**
+     * Creates the registry with the default pool registered.
+     *
+     * @param defaultPool       The application-wide ticket pool.
+     * @param ticketPoolMetrics Metrics registered for every pool.
+     * @param stripeCount       Number of lock stripes.
+     * @param engineName        The configured engine name for new pools, e.g. "blocking" or "ring-buffer".
+     */
+    public TicketPoolRegistry(TicketPool defaultPool, TicketPoolMetrics ticketPoolMetrics,
+                              @Value("${ticketpool.registry.stripes:16}") int stripeCount,
+                              @Value("${ticketpool.engine:blocking}") String engineName) {
+        this.stripes = new Object[Math.max(stripeCount, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        this.engineType = TicketPoolEngineType.fromName(engineName);
+        this.ticketPoolMetrics = ticketPoolMetrics;
+        pools.put(DEFAULT_EVENT, defaultPool);
+        ticketPoolMetrics.bindPool(DEFAULT_EVENT, defaultPool);
+    }
+
+    /**
+     * Returns the pool of an event, creating an empty one if it does not exist yet.
+     *
+     * @param eventId The event ID.
+     * @return The event's ticket pool.
+     * @throws IllegalArgumentException If the event ID is not valid.
+     */
+    public TicketPool getOrCreate(String eventId) {
+        checkEventId(eventId);
+        return pools.computeIfAbsent(eventId, id -> {
+            TicketPool pool = new TicketPool();
+            pool.setEngineType(engineType);
+            ticketPoolMetrics.bindPool(id, pool);
+            return pool;
+        });
+    }
+
+    /**
+     * @param eventId The event ID.
+     * @return The event's ticket pool, or null if the event does not exist.
+     */
+    public TicketPool get(String eventId) {
+        return pools.get(eventId);
+    }
+
+    /**
+     * Removes an event's pool and its metrics. The default pool cannot be removed.
+     *
+     * @param eventId The event ID.
+     * @return The removed pool, or null if the event did not exist.
+     */
+    public TicketPool remove(String eventId) {
+        if (DEFAULT_EVENT.equals(eventId)) {
+            throw new IllegalArgumentException("The default event cannot be removed.");
+        }
+        TicketPool removed = pools.remove(eventId);
+        if (removed != null) {
+            ticketPoolMetrics.unbind(eventId);
+        }
+        return removed;
+    }
+
+    /**
+     * @return The IDs of all registered events.
+     */
+    public Set<String> eventIds() {
+        return pools.keySet();
+    }
+
+    /**
+     * Returns the lock serializing administrative changes to an event.
+     *
+     * @param eventId The event ID.
+     * @return The lock stripe for the event.
+     */
+    public Object lockFor(String eventId) {
+        return stripes[Math.floorMod(eventId.hashCode(), stripes.length)];
+    }
+
+    // Rejects event IDs that are empty, too long, or contain characters other than letters, digits, '-' and '_'
+    private static void checkEventId(String eventId) {
+        if (eventId == null || !EVENT_ID.matcher(eventId).matches()) {
+            throw new IllegalArgumentException("Event ID must be 1-64 letters, digits, '-' or '_'.");
+        }
+    }
+}
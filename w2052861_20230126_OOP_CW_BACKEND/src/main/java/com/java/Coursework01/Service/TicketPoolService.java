@@ -1,77 +1,251 @@
 package com.java.Coursework01.Service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.java.Coursework01.Class.ConsumerThread;
+import com.java.Coursework01.Class.IdempotencyCache;
+import com.java.Coursework01.Class.LoadProfile;
+import com.java.Coursework01.Class.LoadProfiles;
+import com.java.Coursework01.Class.PoolEvent;
+import com.java.Coursework01.Class.PoolEventSink;
+import com.java.Coursework01.Class.PoolParticipant;
+import com.java.Coursework01.Class.PoolSettings;
+import com.java.Coursework01.Class.ProfiledParticipant;
+import com.java.Coursework01.Class.PurchaseMode;
+import com.java.Coursework01.Class.ReconfigurableParticipant;
+import com.java.Coursework01.Class.SeatMap;
+import com.java.Coursework01.Class.SeatMap.SeatBlock;
+import com.java.Coursework01.Class.SeatMap.Section;
+import com.java.Coursework01.Class.SeatMap.SectionSummary;
 import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Class.TokenBucket;
 import com.java.Coursework01.Class.VendorThread;
 import com.java.Coursework01.Repository.TicketPoolRepository;
+import com.java.Coursework01.Service.ParticipantScheduler.ScheduledParticipant;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 
 @Service
 public class TicketPoolService {
     // Logger for logging information and errors
     private static final Logger logger = LoggerFactory.getLogger(TicketPoolService.class);
 
-    // Maps to keep track of vendor and customer threads
-    private final ConcurrentHashMap<String, Thread> vendorThreads = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Thread> customerThreads = new ConcurrentHashMap<>();
+    // Running vendors and customers of each event
+    private final ConcurrentHashMap<String, EventParticipants> participants = new ConcurrentHashMap<>();
 
     // Autowired dependencies
     @Autowired
-    private TicketPool ticketPool;
+    private TicketPoolRegistry ticketPoolRegistry;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private PoolEventPublisher poolEventPublisher;
 
     @Autowired
     private TicketPoolRepository ticketPoolRepository;
 
+    @Autowired
+    private ParticipantScheduler participantScheduler;
+
+    @Autowired
+    private TicketPoolMetrics ticketPoolMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PurchaseCoalescer purchaseCoalescer;
+
+    // Longest time an API purchase may wait for tickets, in milliseconds
+    @Value("${ticketpool.purchase.max-wait-ms:5000}")
+    private long maxPurchaseWaitMs;
+
+    // How long the outcome of a purchase is kept for retries with the same idempotency key, in milliseconds
+    @Value("${ticketpool.purchase.idempotency.ttl-ms:600000}")
+    private long idempotencyTtlMs;
+
+    // Most idempotency keys remembered at once
+    @Value("${ticketpool.purchase.idempotency.max-keys:100000}")
+    private int idempotencyMaxKeys;
+
+    // API purchases and their outcomes by event and idempotency key
+    private IdempotencyCache<KeyedPurchase> purchaseResults;
+
+    // Tickets each customer may buy per second on average, 0 for no limit
+    @Value("${ticketpool.customers.rate-limit.tickets-per-second:0}")
+    private double customerTicketsPerSecond;
+
+    // Tickets a customer may buy at once after being idle; at least one batch
+    @Value("${ticketpool.customers.rate-limit.burst:0}")
+    private int customerBurst;
+
+    // JSON file with the load profiles used when a start request gives none; empty for plain rates
+    @Value("${ticketpool.load-profiles.file:}")
+    private String loadProfilesFile;
+
+    // Creates the idempotency cache once its settings are injected
+    @PostConstruct
+    public void createPurchaseResults() {
+        purchaseResults = new IdempotencyCache<>(idempotencyTtlMs, idempotencyMaxKeys);
+    }
+
+    /**
+     * Starts vendors with the specified count and ticket release rate.
+     * Each vendor is identified by a unique vendor ID and driven by the participant scheduler.
+     *
+     * @param vendorCount      Number of vendors to start
+     * @param ticketReleaseRate Rate at which tickets are released by vendors
+     * @param batchSize        Number of tickets each vendor releases at a time
+     */
+    public void startVendorThreads(int vendorCount, int ticketReleaseRate, int batchSize) {
+        startVendorThreads(TicketPoolRegistry.DEFAULT_EVENT, vendorCount, ticketReleaseRate, batchSize);
+    }
+
     /**
-     * Starts vendor threads with the specified count and ticket release rate.
-     * Each vendor thread is identified by a unique vendor ID.
+     * Starts vendors for an event with the specified count and ticket release rate.
      *
-     * @param vendorCount      Number of vendor threads to start
+     * @param eventId          ID of the event whose pool the vendors fill
+     * @param vendorCount      Number of vendors to start
      * @param ticketReleaseRate Rate at which tickets are released by vendors
+     * @param batchSize        Number of tickets each vendor releases at a time
+     * @return false if the event does not exist
      */
-    public void startVendorThreads(int vendorCount, int ticketReleaseRate) {
+    public boolean startVendorThreads(String eventId, int vendorCount, int ticketReleaseRate, int batchSize) {
+        return startVendorThreads(eventId, vendorCount, ticketReleaseRate, batchSize, null);
+    }
+
+    /**
+     * Starts vendors for an event, driven by a load profile.
+     *
+     * @param eventId          ID of the event whose pool the vendors fill
+     * @param vendorCount      Number of vendors to start
+     * @param ticketReleaseRate Rate at which tickets are released by vendors at a multiplier of 1
+     * @param batchSize        Number of tickets each vendor releases at a time
+     * @param profile          Load profile for the vendors started now, or null for the plain rate
+     * @return false if the event does not exist
+     */
+    public boolean startVendorThreads(String eventId, int vendorCount, int ticketReleaseRate, int batchSize,
+                                      LoadProfile profile) {
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            TicketPool pool = ticketPoolRegistry.get(eventId);
+            if (pool == null) {
+                return false;
+            }
+            startVendors(eventId, pool, participantsOf(eventId), vendorCount, ticketReleaseRate, batchSize, profile,
+                    null);
+        }
+        return true;
+    }
+
+    // Starts the vendors that are not running; with a delay supplier, they follow it instead of a fixed rate
+    private void startVendors(String eventId, TicketPool pool, EventParticipants event, int vendorCount,
+                              int ticketReleaseRate, int batchSize, LoadProfile profile, LongSupplier delayMillis) {
+        ConcurrentHashMap<String, ScheduledParticipant> vendors = event.vendors;
+        ProfileTimeline timeline = ProfileTimeline.start(profile);
         for (int i = 0; i < vendorCount; i++) {
             String vendorId = "vendor-" + i; // Unique vendor identifier
-            if (!vendorThreads.containsKey(vendorId) || !vendorThreads.get(vendorId).isAlive()) {
-                VendorThread vendorThread = new VendorThread(ticketPool, ticketReleaseRate, messagingTemplate);
-                Thread thread = new Thread(vendorThread);
-                vendorThreads.put(vendorId, thread);
-                thread.start();
+            if (!vendors.containsKey(vendorId) || !vendors.get(vendorId).isAlive()) {
+                PoolParticipant vendorThread = new VendorThread(pool, ticketReleaseRate, eventSink(eventId), batchSize);
+                if (delayMillis != null) {
+                    vendorThread = new ReconfigurableParticipant(vendorThread, delayMillis);
+                }
+                vendors.put(vendorId, participantScheduler.schedule(eventId + "/" + vendorId, timeline.drive(vendorThread)));
             }
         }
     }
 
     /**
-     * Starts customer threads with the specified count and ticket retrieval rate.
-     * Each customer thread is identified by a unique customer ID.
+     * Starts customers with the specified count and ticket retrieval rate.
+     * Each customer is identified by a unique customer ID and driven by the participant scheduler.
+     *
+     * @param consumerCount       Number of customers to start
+     * @param ticketRetrievalRate Rate at which tickets are retrieved by customers
+     * @param batchSize           Number of tickets each customer buys at a time
+     * @param purchaseMode        Whether each purchase must be filled completely
+     */
+    public void startCustomerThreads(int consumerCount, int ticketRetrievalRate, int batchSize, PurchaseMode purchaseMode) {
+        startCustomerThreads(TicketPoolRegistry.DEFAULT_EVENT, consumerCount, ticketRetrievalRate, batchSize, purchaseMode);
+    }
+
+    /**
+     * Starts customers for an event with the specified count and ticket retrieval rate.
      *
-     * @param consumerCount       Number of customer threads to start
+     * @param eventId             ID of the event whose pool the customers buy from
+     * @param consumerCount       Number of customers to start
      * @param ticketRetrievalRate Rate at which tickets are retrieved by customers
+     * @param batchSize           Number of tickets each customer buys at a time
+     * @param purchaseMode        Whether each purchase must be filled completely
+     * @return false if the event does not exist
      */
-    public void startCustomerThreads(int consumerCount, int ticketRetrievalRate) {
+    public boolean startCustomerThreads(String eventId, int consumerCount, int ticketRetrievalRate, int batchSize,
+                                        PurchaseMode purchaseMode) {
+        return startCustomerThreads(eventId, consumerCount, ticketRetrievalRate, batchSize, purchaseMode, null);
+    }
+
+    /**
+     * Starts customers for an event, driven by a load profile.
+     *
+     * @param eventId             ID of the event whose pool the customers buy from
+     * @param consumerCount       Number of customers to start
+     * @param ticketRetrievalRate Rate at which tickets are retrieved by customers at a multiplier of 1
+     * @param batchSize           Number of tickets each customer buys at a time
+     * @param purchaseMode        Whether each purchase must be filled completely
+     * @param profile             Load profile for the customers started now, or null for the plain rate
+     * @return false if the event does not exist
+     */
+    public boolean startCustomerThreads(String eventId, int consumerCount, int ticketRetrievalRate, int batchSize,
+                                        PurchaseMode purchaseMode, LoadProfile profile) {
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            TicketPool pool = ticketPoolRegistry.get(eventId);
+            if (pool == null) {
+                return false;
+            }
+            startCustomers(eventId, pool, participantsOf(eventId), consumerCount, ticketRetrievalRate, batchSize,
+                    purchaseMode, profile, null);
+        }
+        return true;
+    }
+
+    // Starts the customers that are not running; with a delay supplier, they follow it instead of a fixed rate
+    private void startCustomers(String eventId, TicketPool pool, EventParticipants event, int consumerCount,
+                                int ticketRetrievalRate, int batchSize, PurchaseMode purchaseMode, LoadProfile profile,
+                                LongSupplier delayMillis) {
+        ConcurrentHashMap<String, ScheduledParticipant> customers = event.customers;
+        ProfileTimeline timeline = ProfileTimeline.start(profile);
         for (int i = 0; i < consumerCount; i++) {
             String customerId = "customer-" + i; // Unique customer identifier
-            if (!customerThreads.containsKey(customerId) || !customerThreads.get(customerId).isAlive()) {
-                ConsumerThread consumerThread = new ConsumerThread(ticketPool, ticketRetrievalRate, messagingTemplate);
-                Thread thread = new Thread(consumerThread);
-                customerThreads.put(customerId, thread);
-                thread.start();
+            if (!customers.containsKey(customerId) || !customers.get(customerId).isAlive()) {
+                PoolParticipant consumerThread = new ConsumerThread(pool, ticketRetrievalRate, eventSink(eventId),
+                        batchSize, purchaseMode, rateLimitOf(event, customerId, batchSize), customerId);
+                if (delayMillis != null) {
+                    consumerThread = new ReconfigurableParticipant(consumerThread, delayMillis);
+                }
+                customers.put(customerId, participantScheduler.schedule(eventId + "/" + customerId,
+                        timeline.drive(consumerThread)));
             }
         }
     }
 
     /**
      * Saves the current configuration of the ticket pool to the database.
+     * Only the pool row is written here; the tickets themselves are persisted
+     * incrementally by {@link TicketPoolWriteBehind}.
      *
      * @param configuration The ticket pool configuration to save
      */
@@ -87,78 +261,709 @@ public class TicketPoolService {
     }
 
     /**
-     * Adds a new vendor thread to the ticket pool.
+     * Sets up an event's pool with the given parameters and fills it with the initial tickets.
+     * Creates the event if it does not exist yet.
+     *
+     * @param eventId                     ID of the event
+     * @param maxTicketCapacity           Maximum number of tickets in the pool
+     * @param totalTickets                Number of tickets to start with
+     * @param ticketReleaseRate           Rate at which tickets are released by vendors
+     * @param customerTicketRetrievalRate Rate at which tickets are retrieved by customers
+     */
+    public void initializeEvent(String eventId, int maxTicketCapacity, int totalTickets, int ticketReleaseRate,
+                                int customerTicketRetrievalRate) {
+        TicketPool pool = ticketPoolRegistry.getOrCreate(eventId);
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            pool.setMaxTicketCapacity(maxTicketCapacity);
+            pool.setTotalTickets(totalTickets);
+            pool.setTicketReleaseRate(ticketReleaseRate);
+            pool.setCustomerTicketRetrievalRate(customerTicketRetrievalRate);
+            pool.setTicketsGenerated(0);
+            pool.setAvailable(true);
+
+            // Clear existing tickets and initialize new ones
+            pool.clearTickets();
+            pool.addTickets(totalTickets);
+        }
+        poolEventPublisher.publish("[" + eventId + "] Ticket pool initialized with max capacity: " + maxTicketCapacity +
+                ", total tickets: " + totalTickets);
+    }
+
+    /**
+     * Makes an event's pool available and starts its vendors and customers.
+     * The pool's release and retrieval rates are shared among the vendors and customers.
+     *
+     * @param eventId            ID of the event
+     * @param vendorCount        Number of vendors to run
+     * @param consumerCount      Number of customers to run
+     * @param vendorBatchSize    Number of tickets each vendor releases at a time
+     * @param customerBatchSize  Number of tickets each customer buys at a time
+     * @param purchaseMode       Whether each purchase must be filled completely
+     * @return false if the event does not exist
+     */
+    public boolean startEvent(String eventId, int vendorCount, int consumerCount, int vendorBatchSize,
+                              int customerBatchSize, PurchaseMode purchaseMode) {
+        return startEvent(eventId, vendorCount, consumerCount, vendorBatchSize, customerBatchSize, purchaseMode, null);
+    }
+
+    /**
+     * Makes an event's pool available and starts its vendors and customers under load profiles.
+     * The pool's release and retrieval rates are shared among the vendors and customers and scaled by the profiles
+     * from the moment they start; participants already running keep their current profile.
+     * See {@link #startParticipants}.
+     *
+     * @param eventId            ID of the event
+     * @param vendorCount        Number of vendors to run
+     * @param consumerCount      Number of customers to run
+     * @param vendorBatchSize    Number of tickets each vendor releases at a time
+     * @param customerBatchSize  Number of tickets each customer buys at a time
+     * @param purchaseMode       Whether each purchase must be filled completely
+     * @param loadProfiles       Load profiles to use, or null for those in {@code ticketpool.load-profiles.file}
+     * @return false if the event does not exist
+     */
+    public boolean startEvent(String eventId, int vendorCount, int consumerCount, int vendorBatchSize,
+                              int customerBatchSize, PurchaseMode purchaseMode, LoadProfiles loadProfiles) {
+        LoadProfiles profiles = resolveLoadProfiles(loadProfiles);
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return false;
+        }
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            pool.setAvailable(true);
+            startParticipants(eventId, vendorCount, consumerCount, vendorBatchSize, customerBatchSize, purchaseMode,
+                    profiles);
+        }
+        poolEventPublisher.publish("[" + eventId + "] Processes resumed or started with " + vendorCount +
+                " vendors and " + consumerCount + " consumers.");
+        return true;
+    }
+
+    /**
+     * Starts an event's vendors and customers with the pool's current rates and capacity, and publishes them as the
+     * event's settings so {@link #reconfigure} can change them while the participants run.
+     * The pool's release and retrieval rates are shared among the vendors and customers. Participants already running
+     * keep going under the new settings, and those beyond the new counts are stopped.
+     *
+     * @param eventId            ID of the event
+     * @param vendorCount        Number of vendors to run
+     * @param consumerCount      Number of customers to run
+     * @param vendorBatchSize    Number of tickets each vendor releases at a time
+     * @param customerBatchSize  Number of tickets each customer buys at a time
+     * @param purchaseMode       Whether each purchase must be filled completely
+     * @param loadProfiles       Load profiles to use, or null for those in {@code ticketpool.load-profiles.file}
+     * @return false if the event does not exist
+     */
+    public boolean startParticipants(String eventId, int vendorCount, int consumerCount, int vendorBatchSize,
+                                     int customerBatchSize, PurchaseMode purchaseMode, LoadProfiles loadProfiles) {
+        LoadProfiles profiles = resolveLoadProfiles(loadProfiles);
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            TicketPool pool = ticketPoolRegistry.get(eventId);
+            if (pool == null) {
+                return false;
+            }
+            EventParticipants event = participantsOf(eventId);
+            PoolSettings settings = new PoolSettings(pool.getTicketReleaseRate(), pool.getCustomerTicketRetrievalRate(),
+                    pool.getMaxTicketCapacity(), vendorCount, consumerCount);
+            PoolSettings previous = event.settings.getAndSet(settings);
+            event.startOptions = new StartOptions(vendorBatchSize, customerBatchSize, purchaseMode, profiles);
+            applyCounts(eventId, pool, event, previous, settings);
+        }
+        return true;
+    }
+
+    /**
+     * Publishes new settings to an event while its vendors and customers run, instead of resetting and
+     * re-initializing it. The pool is resized in place, keeping its tickets; the rates apply from each running
+     * participant's next tick; and only the difference in vendor and customer counts is started or stopped.
+     * Counts only take effect while the event runs; participants added with {@link #addVendor} or
+     * {@link #addCustomer} keep their own rates.
+     *
+     * @param eventId  ID of the event
+     * @param settings The new settings
+     * @return The settings now in force, or null if the event does not exist
+     * @throws IllegalArgumentException If a rate or the capacity is not positive
+     */
+    public PoolSettings reconfigure(String eventId, PoolSettings settings) {
+        if (settings.ticketReleaseRate() <= 0 || settings.customerTicketRetrievalRate() <= 0
+                || settings.maxTicketCapacity() <= 0) {
+            throw new IllegalArgumentException("Rates and max capacity must be positive integers.");
+        }
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            TicketPool pool = ticketPoolRegistry.get(eventId);
+            if (pool == null) {
+                return null;
+            }
+            EventParticipants event = participantsOf(eventId);
+            pool.setTicketReleaseRate(settings.ticketReleaseRate());
+            pool.setCustomerTicketRetrievalRate(settings.customerTicketRetrievalRate());
+            pool.setMaxTicketCapacity(settings.maxTicketCapacity()); // Resizes the engine, keeping the tickets
+            PoolSettings previous = event.settings.getAndSet(settings);
+            if (previous != null && event.startOptions != null && pool.isAvailable()) {
+                applyCounts(eventId, pool, event, previous, settings);
+            }
+        }
+        poolEventPublisher.publish("[" + eventId + "] Ticket pool reconfigured with max capacity: " +
+                settings.maxTicketCapacity() + ", release rate: " + settings.ticketReleaseRate() +
+                ", retrieval rate: " + settings.customerTicketRetrievalRate() + ", " + settings.vendorCount() +
+                " vendors and " + settings.consumerCount() + " consumers.");
+        return settings;
+    }
+
+    /**
+     * Returns the settings an event's vendors and customers run under.
+     *
+     * @param eventId ID of the event
+     * @return The settings last published, the pool's configuration with no participants if it is not running,
+     * or null if the event does not exist
+     */
+    public PoolSettings settingsOf(String eventId) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return null;
+        }
+        EventParticipants event = participants.get(eventId);
+        PoolSettings settings = event == null ? null : event.settings.get();
+        return settings != null && event.startOptions != null ? settings : new PoolSettings(pool.getTicketReleaseRate(),
+                pool.getCustomerTicketRetrievalRate(), pool.getMaxTicketCapacity(), 0, 0);
+    }
+
+    // Starts the participants the settings call for that are not running and stops those beyond the new counts
+    private void applyCounts(String eventId, TicketPool pool, EventParticipants event, PoolSettings previous,
+                             PoolSettings settings) {
+        StartOptions options = event.startOptions;
+        startVendors(eventId, pool, event, settings.vendorCount(), (int) (settings.vendorDelayMillis() / 100),
+                options.vendorBatchSize(), options.profiles().vendors(), () -> event.settings.get().vendorDelayMillis());
+        startCustomers(eventId, pool, event, settings.consumerCount(), (int) (settings.customerDelayMillis() / 100),
+                options.customerBatchSize(), options.purchaseMode(), options.profiles().customers(),
+                () -> event.settings.get().customerDelayMillis());
+        if (previous == null) {
+            return;
+        }
+        for (int i = settings.vendorCount(); i < previous.vendorCount(); i++) {
+            removeVendor(eventId, "vendor-" + i);
+        }
+        for (int i = settings.consumerCount(); i < previous.consumerCount(); i++) {
+            removeCustomer(eventId, "customer-" + i);
+        }
+    }
+
+    /**
+     * Returns the load profiles to start participants with.
+     *
+     * @param requested Profiles given with the start request, or null
+     * @return The requested profiles, else those in {@code ticketpool.load-profiles.file}, else plain rates
+     * @throws UncheckedIOException If the profiles file cannot be read
+     */
+    public LoadProfiles resolveLoadProfiles(LoadProfiles requested) {
+        if (requested != null) {
+            return requested;
+        }
+        if (loadProfilesFile == null || loadProfilesFile.isBlank()) {
+            return LoadProfiles.NONE;
+        }
+        try {
+            return objectMapper.readValue(new File(loadProfilesFile), LoadProfiles.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading load profiles from " + loadProfilesFile, e);
+        }
+    }
+
+    /**
+     * Makes an event's pool unavailable, so its vendors and customers finish after their current tick.
+     *
+     * @param eventId ID of the event
+     * @return false if the event does not exist
+     */
+    public boolean stopEvent(String eventId) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return false;
+        }
+        pool.setAvailable(false);
+        return true;
+    }
+
+    /**
+     * Stops an event's vendors and customers and empties its pool.
+     *
+     * @param eventId ID of the event
+     * @return false if the event does not exist
+     */
+    public boolean resetEvent(String eventId) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return false;
+        }
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            pool.setAvailable(false);
+            stopAllThreads(eventId);
+            pool.clearTickets();
+            pool.setTicketsGenerated(0);
+            pool.setTotalTickets(0);
+            pool.setMaxTicketCapacity(0);
+            pool.setTicketReleaseRate(0);
+            pool.setCustomerTicketRetrievalRate(0);
+        }
+        poolEventPublisher.publish("[" + eventId + "] Ticket pool reset successfully.");
+        return true;
+    }
+
+    /**
+     * Buys tickets from an event's pool on behalf of an API client, at most once per idempotency key.
+     * A retry with a key already used for the event gets the outcome of the first request, waiting for it
+     * if that request is still running, and buys nothing more; a retry asking for a different count, mode or
+     * owner is rejected. Outcomes that bought tickets are kept for
+     * {@code ticketpool.purchase.idempotency.ttl-ms}; requests that fail or buy nothing, e.g. because the pool is
+     * sold out for now or the coalescer turned them away, are forgotten so they can be retried.
+     *
+     * @param eventId        ID of the event
+     * @param count          Number of tickets wanted
+     * @param mode           Whether the purchase must be filled completely
+     * @param waitMs         Milliseconds to wait for tickets, 0 to return at once
+     * @param owner          Who is buying, recorded in the pool's ticket index; null if unknown
+     * @param idempotencyKey Key chosen by the client for this purchase, or null to buy unconditionally
+     * @return The outcome of the purchase, or null if the event does not exist
+     * @throws InterruptedException     If the request thread is interrupted while waiting
+     * @throws IllegalArgumentException If the key was used for a different count, mode or owner
+     */
+    public PurchaseResult purchase(String eventId, int count, PurchaseMode mode, long waitMs, String owner,
+                                   String idempotencyKey) throws InterruptedException {
+        if (idempotencyKey == null) {
+            return purchase(eventId, count, mode, waitMs, owner);
+        }
+        String key = eventId + '/' + idempotencyKey;
+        CompletableFuture<KeyedPurchase> result = new CompletableFuture<>();
+        CompletableFuture<KeyedPurchase> first;
+        while ((first = purchaseResults.putIfAbsent(key, result)) != null) {
+            try {
+                KeyedPurchase earlier = first.get();
+                if (!earlier.matches(count, mode, owner)) {
+                    throw new IllegalArgumentException("Idempotency key was already used for a different purchase.");
+                }
+                return earlier.outcome();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException failure) {
+                    throw failure; // The same request fails the same way
+                }
+                // The first request was interrupted and forgotten; this one takes its place
+            }
+        }
+        try {
+            PurchaseResult outcome = purchase(eventId, count, mode, waitMs, owner);
+            if (outcome == null || outcome.purchased() == 0) {
+                purchaseResults.remove(key, result); // The event may be created, or tickets added, later
+            }
+            result.complete(new KeyedPurchase(count, mode, owner, outcome));
+            return outcome;
+        } catch (InterruptedException | RuntimeException e) {
+            purchaseResults.remove(key, result);
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Buys tickets from an event's pool on behalf of an API client.
+     * The immediate attempt is coalesced with concurrent API purchases by the {@link PurchaseCoalescer}. If it
+     * buys nothing, waits in the pool's purchase queue at most {@code waitMs}, capped at
+     * {@code ticketpool.purchase.max-wait-ms}, so a request never parks its thread indefinitely; with no wait it
+     * returns at once. On an event with reserved seating the tickets are bought as one block of adjacent seats,
+     * like {@link #purchaseSeats}, whatever the mode.
+     *
+     * @param eventId ID of the event
+     * @param count   Number of tickets wanted
+     * @param mode    Whether the purchase must be filled completely
+     * @param waitMs  Milliseconds to wait for tickets, 0 to return at once
+     * @param owner   Who is buying, recorded in the pool's ticket index; null if unknown
+     * @return The outcome of the purchase, or null if the event does not exist
+     * @throws InterruptedException If the request thread is interrupted while waiting
+     */
+    public PurchaseResult purchase(String eventId, int count, PurchaseMode mode, long waitMs, String owner)
+            throws InterruptedException {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return null;
+        }
+        SeatMap seatMap = pool.seatMap();
+        if (seatMap != null) {
+            SeatPurchaseResult seated = purchaseSeats(eventId, pool, seatMap, count, null, waitMs, owner);
+            return new PurchaseResult(count, seated.seats() == null ? 0 : count, seated.poolSize());
+        }
+        long wait = Math.min(Math.max(waitMs, 0L), maxPurchaseWaitMs);
+        int purchased = purchaseCoalescer.purchase(pool, count, mode, owner);
+        if (purchased == 0 && wait > 0L) {
+            purchased = pool.purchaseQueue().purchase(count, mode, wait, TimeUnit.MILLISECONDS, owner);
+        }
+        int poolSize = pool.getPoolSize();
+        if (purchased > 0) {
+            eventSink(eventId).publish(PoolEvent.removed(purchased, poolSize));
+        }
+        return new PurchaseResult(count, purchased, poolSize);
+    }
+
+    /**
+     * Gives an event reserved seating, replacing any seat map it had; every seat starts free.
+     * From then on its customers buy each batch as a block of adjacent seats.
+     *
+     * @param eventId  ID of the event
+     * @param sections The sections of the venue, best first
+     * @return The availability of each section, or null if the event does not exist
+     * @throws IllegalArgumentException If the sections do not make a valid seat map
+     */
+    public List<SectionSummary> configureSeatMap(String eventId, List<Section> sections) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return null;
+        }
+        SeatMap seatMap = new SeatMap(sections);
+        pool.setSeatMap(seatMap);
+        poolEventPublisher.publish("[" + eventId + "] Seat map configured with " + seatMap.freeSeats() + " seats.");
+        return seatMap.summary();
+    }
+
+    /**
+     * @param eventId ID of the event
+     * @return The availability of each section, or null if the event does not exist or has no seat map
+     */
+    public List<SectionSummary> seatSummary(String eventId) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        SeatMap seatMap = pool == null ? null : pool.seatMap();
+        return seatMap == null ? null : seatMap.summary();
+    }
+
+    /**
+     * Buys tickets for a block of adjacent seats on behalf of an API client.
+     * The best block is claimed first, then the tickets are bought all or nothing through the pool's purchase
+     * queue, waiting at most {@code waitMs} like {@link #purchase}; if they cannot be had, the seats are freed.
+     *
+     * @param eventId ID of the event
+     * @param count   Number of adjacent seats wanted
+     * @param section Section to sit in, or null for the best block in any
+     * @param waitMs  Milliseconds to wait for tickets, 0 to return at once
+     * @param owner   Who is buying, recorded in the pool's ticket index; null if unknown
+     * @return The outcome of the purchase, or null if the event does not exist or has no seat map
+     * @throws InterruptedException If the request thread is interrupted while waiting
+     * @throws IllegalArgumentException If the section does not exist
+     */
+    public SeatPurchaseResult purchaseSeats(String eventId, int count, String section, long waitMs, String owner)
+            throws InterruptedException {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        SeatMap seatMap = pool == null ? null : pool.seatMap();
+        if (seatMap == null) {
+            return null;
+        }
+        return purchaseSeats(eventId, pool, seatMap, count, section, waitMs, owner);
+    }
+
+    // Claims the best block of seats, then buys its tickets all or nothing, freeing the seats if none can be had
+    private SeatPurchaseResult purchaseSeats(String eventId, TicketPool pool, SeatMap seatMap, int count, String section,
+                                             long waitMs, String owner) throws InterruptedException {
+        SeatBlock block = seatMap.claim(count, section);
+        int purchased = 0;
+        if (block != null) {
+            long wait = Math.min(Math.max(waitMs, 0L), maxPurchaseWaitMs);
+            try {
+                purchased = wait == 0L
+                        ? pool.purchaseQueue().tryPurchase(count, PurchaseMode.ALL_OR_NOTHING, owner)
+                        : pool.purchaseQueue().purchase(count, PurchaseMode.ALL_OR_NOTHING, wait,
+                        TimeUnit.MILLISECONDS, owner);
+            } finally {
+                if (purchased == 0) {
+                    seatMap.release(block); // No tickets for the seats; let someone else have them
+                }
+            }
+        }
+        int poolSize = pool.getPoolSize();
+        if (purchased > 0) {
+            eventSink(eventId).publish(PoolEvent.removed(purchased, poolSize));
+        }
+        return new SeatPurchaseResult(count, purchased > 0 ? block : null, poolSize);
+    }
+
+    /**
+     * Stops an event's vendors and customers and removes the event.
+     *
+     * @param eventId ID of the event
+     * @return false if the event does not exist
+     */
+    public boolean removeEvent(String eventId) {
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            TicketPool pool = ticketPoolRegistry.remove(eventId);
+            if (pool == null) {
+                return false;
+            }
+            pool.setAvailable(false);
+            stopAllThreads(eventId);
+            participants.remove(eventId);
+            ticketPoolMetrics.unbind(eventId); // Drops the participant gauges; the registry dropped the pool's meters
+        }
+        return true;
+    }
+
+    /**
+     * Adds a new vendor to the ticket pool.
      *
      * @param vendorId         Unique ID for the vendor
      * @param ticketReleaseRate Rate at which the vendor releases tickets
+     * @param batchSize        Number of tickets the vendor releases at a time
      */
-    public void addVendor(String vendorId, int ticketReleaseRate) {
-        VendorThread vendorThread = new VendorThread(ticketPool, ticketReleaseRate, messagingTemplate);
-        Thread thread = new Thread(vendorThread);
-        vendorThreads.put(vendorId, thread);
-        thread.start();
+    public void addVendor(String vendorId, int ticketReleaseRate, int batchSize) {
+        addVendor(TicketPoolRegistry.DEFAULT_EVENT, vendorId, ticketReleaseRate, batchSize);
     }
 
     /**
-     * Removes an existing vendor thread from the ticket pool.
+     * Adds a new vendor to an event's ticket pool.
+     *
+     * @param eventId          ID of the event
+     * @param vendorId         Unique ID for the vendor within the event
+     * @param ticketReleaseRate Rate at which the vendor releases tickets
+     * @param batchSize        Number of tickets the vendor releases at a time
+     * @return false if the event does not exist
+     */
+    public boolean addVendor(String eventId, String vendorId, int ticketReleaseRate, int batchSize) {
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            TicketPool pool = ticketPoolRegistry.get(eventId);
+            if (pool == null) {
+                return false;
+            }
+            VendorThread vendorThread = new VendorThread(pool, ticketReleaseRate, eventSink(eventId), batchSize);
+            ScheduledParticipant previous = participantsOf(eventId).vendors.put(vendorId,
+                    participantScheduler.schedule(eventId + "/" + vendorId, vendorThread));
+            if (previous != null) {
+                previous.cancel(); // Replace an existing vendor with the same ID
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes an existing vendor from the ticket pool.
      *
      * @param vendorId Unique ID of the vendor to remove
      */
     public void removeVendor(String vendorId) {
-        Thread thread = vendorThreads.get(vendorId);
-        if (thread != null) {
-            thread.interrupt();
-            vendorThreads.remove(vendorId);
+        removeVendor(TicketPoolRegistry.DEFAULT_EVENT, vendorId);
+    }
+
+    /**
+     * Removes an existing vendor from an event's ticket pool.
+     *
+     * @param eventId  ID of the event
+     * @param vendorId Unique ID of the vendor to remove
+     * @return false if the event does not exist
+     */
+    public boolean removeVendor(String eventId, String vendorId) {
+        if (ticketPoolRegistry.get(eventId) == null) {
+            return false;
+        }
+        EventParticipants event = participants.get(eventId);
+        ScheduledParticipant vendor = event == null ? null : event.vendors.remove(vendorId);
+        if (vendor != null) {
+            vendor.cancel();
         }
+        return true;
     }
 
     /**
-     * Adds a new customer thread to the ticket pool.
+     * Adds a new customer to the ticket pool.
      *
      * @param customerId         Unique ID for the customer
      * @param ticketRetrievalRate Rate at which the customer retrieves tickets
+     * @param batchSize           Number of tickets the customer buys at a time
+     * @param purchaseMode        Whether each purchase must be filled completely
      */
-    public void addCustomer(String customerId, int ticketRetrievalRate) {
-        ConsumerThread consumerThread = new ConsumerThread(ticketPool, ticketRetrievalRate, messagingTemplate);
-        Thread thread = new Thread(consumerThread);
-        customerThreads.put(customerId, thread);
-        thread.start();
+    public void addCustomer(String customerId, int ticketRetrievalRate, int batchSize, PurchaseMode purchaseMode) {
+        addCustomer(TicketPoolRegistry.DEFAULT_EVENT, customerId, ticketRetrievalRate, batchSize, purchaseMode);
     }
 
     /**
-     * Removes an existing customer thread from the ticket pool.
+     * Adds a new customer to an event's ticket pool.
+     *
+     * @param eventId             ID of the event
+     * @param customerId          Unique ID for the customer within the event
+     * @param ticketRetrievalRate Rate at which the customer retrieves tickets
+     * @param batchSize           Number of tickets the customer buys at a time
+     * @param purchaseMode        Whether each purchase must be filled completely
+     * @return false if the event does not exist
+     */
+    public boolean addCustomer(String eventId, String customerId, int ticketRetrievalRate, int batchSize,
+                               PurchaseMode purchaseMode) {
+        synchronized (ticketPoolRegistry.lockFor(eventId)) {
+            TicketPool pool = ticketPoolRegistry.get(eventId);
+            if (pool == null) {
+                return false;
+            }
+            EventParticipants event = participantsOf(eventId);
+            ConsumerThread consumerThread = new ConsumerThread(pool, ticketRetrievalRate, eventSink(eventId),
+                    batchSize, purchaseMode, rateLimitOf(event, customerId, batchSize), customerId);
+            ScheduledParticipant previous = event.customers.put(customerId,
+                    participantScheduler.schedule(eventId + "/" + customerId, consumerThread));
+            if (previous != null) {
+                previous.cancel(); // Replace an existing customer with the same ID; it keeps its rate limit
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes an existing customer from the ticket pool.
      *
      * @param customerId Unique ID of the customer to remove
      */
     public void removeCustomer(String customerId) {
-        Thread thread = customerThreads.get(customerId);
-        if (thread != null) {
-            thread.interrupt();
-            customerThreads.remove(customerId);
+        removeCustomer(TicketPoolRegistry.DEFAULT_EVENT, customerId);
+    }
+
+    /**
+     * Removes an existing customer from an event's ticket pool.
+     *
+     * @param eventId    ID of the event
+     * @param customerId Unique ID of the customer to remove
+     * @return false if the event does not exist
+     */
+    public boolean removeCustomer(String eventId, String customerId) {
+        if (ticketPoolRegistry.get(eventId) == null) {
+            return false;
+        }
+        EventParticipants event = participants.get(eventId);
+        if (event == null) {
+            return true; // Nothing was ever started for the event
+        }
+        ScheduledParticipant customer = event.customers.remove(customerId);
+        if (customer != null) {
+            customer.cancel();
         }
+        event.rateLimits.remove(customerId);
+        return true;
     }
 
     /**
-     * Stops all running threads (both vendors and customers) and clears the thread maps.
+     * Stops all running vendors and customers and clears the participant maps.
      */
     public void stopAllThreads() {
-        // Interrupt all vendor threads
-        for (Thread thread : vendorThreads.values()) {
-            if (thread != null && thread.isAlive()) {
-                thread.interrupt();
+        stopAllThreads(TicketPoolRegistry.DEFAULT_EVENT);
+    }
+
+    /**
+     * Stops all running vendors and customers of an event and clears its participant maps.
+     *
+     * @param eventId ID of the event
+     */
+    public void stopAllThreads(String eventId) {
+        EventParticipants event = participants.get(eventId);
+        if (event == null) {
+            return; // Nothing was ever started for the event
+        }
+
+        // Cancel all vendors
+        for (ScheduledParticipant vendor : event.vendors.values()) {
+            if (vendor != null && vendor.isAlive()) {
+                vendor.cancel();
             }
         }
-        vendorThreads.clear(); // Clear the map
+        event.vendors.clear(); // Clear the map
 
-        // Interrupt all customer threads
-        for (Thread thread : customerThreads.values()) {
-            if (thread != null && thread.isAlive()) {
-                thread.interrupt();
+        // Cancel all customers
+        for (ScheduledParticipant customer : event.customers.values()) {
+            if (customer != null && customer.isAlive()) {
+                customer.cancel();
             }
         }
-        customerThreads.clear(); // Clear the map
+        event.customers.clear(); // Clear the map
+        event.rateLimits.clear();
+        event.startOptions = null; // Participants still finishing a tick keep the last settings
 
         // Log the action
-        logger.info("All threads have been stopped.");
+        logger.info("All threads have been stopped for event {}.", eventId);
+    }
+
+    // Returns the participant maps of an event, creating them and their gauges on first use. Only call it for an
+    // event that exists, holding the event's lock, so maps are never created for unknown or removed events
+    private EventParticipants participantsOf(String eventId) {
+        return participants.computeIfAbsent(eventId, id -> {
+            EventParticipants created = new EventParticipants();
+            ticketPoolMetrics.bindParticipants(id, "vendor", created.vendors);
+            ticketPoolMetrics.bindParticipants(id, "customer", created.customers);
+            return created;
+        });
+    }
+
+    // Returns the token bucket of a customer, shared by every customer started under its ID; null if unlimited
+    private TokenBucket rateLimitOf(EventParticipants event, String customerId, int batchSize) {
+        if (customerTicketsPerSecond <= 0) {
+            return null;
+        }
+        return event.rateLimits.computeIfAbsent(customerId,
+                id -> new TokenBucket(customerTicketsPerSecond, Math.max(customerBurst, batchSize)));
+    }
+
+    // Tags log events with the event ID, except for the default pool whose log lines stay unchanged
+    private PoolEventSink eventSink(String eventId) {
+        if (TicketPoolRegistry.DEFAULT_EVENT.equals(eventId)) {
+            return poolEventPublisher;
+        }
+        return event -> poolEventPublisher.publish(event.forEvent(eventId));
+    }
+
+    /**
+     * Outcome of a purchase made through the API.
+     *
+     * @param requested Number of tickets asked for.
+     * @param purchased Number of tickets bought, 0 if none could be had in time.
+     * @param poolSize  Tickets left in the pool afterwards.
+     */
+    public record PurchaseResult(int requested, int purchased, int poolSize) {
+    }
+
+    // A purchase made with an idempotency key: what was asked for, so a reused key can be checked, and its outcome
+    private record KeyedPurchase(int count, PurchaseMode mode, String owner, PurchaseResult outcome) {
+
+        // Whether a retry asks for the same purchase
+        boolean matches(int count, PurchaseMode mode, String owner) {
+            return this.count == count && this.mode == mode && Objects.equals(this.owner, owner);
+        }
+    }
+
+    /**
+     * Outcome of a seat purchase made through the API.
+     *
+     * @param requested Number of adjacent seats asked for.
+     * @param seats     The seats bought, or null if no block or no tickets could be had in time.
+     * @param poolSize  Tickets left in the pool afterwards.
+     */
+    public record SeatPurchaseResult(int requested, SeatBlock seats, int poolSize) {
+    }
+
+    // Shared timeline of the participants started together under one load profile
+    private record ProfileTimeline(LoadProfile profile, long startNanos, SplittableRandom random) {
+
+        // Starts a timeline now; a null profile leaves participants as they are
+        private static ProfileTimeline start(LoadProfile profile) {
+            SplittableRandom random = profile == null || profile.seed() == null
+                    ? new SplittableRandom() : new SplittableRandom(profile.seed());
+            return new ProfileTimeline(profile, System.nanoTime(), random);
+        }
+
+        // Wraps a participant so the profile shapes its delays, each with its own stream of random gaps
+        private PoolParticipant drive(PoolParticipant participant) {
+            if (profile == null) {
+                return participant;
+            }
+            return new ProfiledParticipant(participant, profile, startNanos, random.split());
+        }
+    }
+
+    // How the participants of an event were last started, for those started when it is reconfigured
+    private record StartOptions(int vendorBatchSize, int customerBatchSize, PurchaseMode purchaseMode,
+                                LoadProfiles profiles) {
+    }
+
+    // Running vendors and customers of one event, the customers' rate limits by ID, and the settings they run under
+    private static final class EventParticipants {
+        private final ConcurrentHashMap<String, ScheduledParticipant> vendors = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, ScheduledParticipant> customers = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, TokenBucket> rateLimits = new ConcurrentHashMap<>();
+        private final AtomicReference<PoolSettings> settings = new AtomicReference<>(); // Null until first started
+        private volatile StartOptions startOptions; // Null while stopped
     }
 }
@@ -0,0 +1,231 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Class.TicketPoolListener;
+import com.java.Coursework01.Repository.TicketDeltaRepository;
+import com.java.Coursework01.Repository.TicketDeltaRepository.PoolCounters;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the ticket pool incrementally, behind the vendors and customers.
+ * <p>
+ * Every change to the pool is recorded as a range of ticket IDs that were added or removed.
+ * Every {@code ticketpool.persistence.flush-interval-ms} the recorded ranges are netted per
+ * ticket ID and written to {@code ticket_pool_ticket} in one transaction of JDBC batches,
+ * together with the pool counters if they changed. A flush therefore costs time proportional
+ * to the changes since the last flush, not to the size of the pool.
+ * <p>
+ * The stored pool is the latest {@code ticket_pool} row. On startup {@link TicketPoolJournal} either
+ * restores the pool from it, or, when the journal holds newer state, has it rewritten in full.
+ */
+@Service
+public class TicketPoolWriteBehind implements TicketPoolListener {
+    // Logger for logging information and errors
+    private static final Logger logger = LoggerFactory.getLogger(TicketPoolWriteBehind.class);
+
+    // Marks a clear of the whole pool in the change queue
+    private static final TicketRange CLEAR = new TicketRange(0, -1, 0);
+
+    @Autowired
+    private TicketPool ticketPool;
+
+    @Autowired
+    private TicketDeltaRepository ticketDeltaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Changes recorded since the last flush, in arrival order
+    private final ConcurrentLinkedQueue<TicketRange> changes = new ConcurrentLinkedQueue<>();
+
+    // Milliseconds between flushes
+    private final long flushIntervalMs;
+
+    // Maximum number of statements per JDBC batch
+    private final int batchSize;
+
+    // Thread running the periodic flush
+    private final ScheduledExecutorService flusher;
+
+    // Netted changes not yet written; only touched while flushing
+    private final TicketDeltaBuffer pending = new TicketDeltaBuffer();
+
+    // Whether the stored tickets must be deleted before the pending changes are written
+    private boolean pendingClear;
+
+    // Counters as last written, to skip unchanged updates
+    private PoolCounters writtenCounters;
+
+    /**
+     * Creates the write-behind recorder.
+     *
+     * @param flushIntervalMs Milliseconds between flushes.
+     * @param batchSize       Maximum number of statements per JDBC batch.
+     */
+    public TicketPoolWriteBehind(@Value("${ticketpool.persistence.flush-interval-ms:1000}") long flushIntervalMs,
+                                 @Value("${ticketpool.persistence.batch-size:500}") int batchSize) {
+        this.flushIntervalMs = Math.max(flushIntervalMs, 1);
+        this.batchSize = Math.max(batchSize, 1);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("ticket-pool-write-behind").daemon(true).factory());
+    }
+
+    /**
+     * Loads the stored pool: its row ID, counters and tickets. Listeners are not notified.
+     *
+     * @return true if a stored pool was found.
+     */
+    public synchronized boolean restore() {
+        Long poolId = ticketDeltaRepository.findLatestPoolId();
+        PoolCounters counters = poolId == null ? null : ticketDeltaRepository.findCounters(poolId);
+        if (counters == null) {
+            return false;
+        }
+        ticketPool.setId(poolId); // Later saves update this row instead of adding one per restart
+        ticketPool.setTotalTickets(counters.totalTickets());
+        ticketPool.setTicketReleaseRate(counters.ticketReleaseRate());
+        ticketPool.setCustomerTicketRetrievalRate(counters.customerTicketRetrievalRate());
+        ticketPool.setMaxTicketCapacity(counters.maxTicketCapacity());
+        ticketPool.setTicketsGenerated(counters.ticketsGenerated());
+        ticketPool.setLastTicketId(counters.lastTicketId());
+        ticketPool.setAvailable(counters.available());
+        int[] tickets = ticketDeltaRepository.findTickets(poolId);
+        ticketPool.loadTickets(tickets);
+        writtenCounters = counters;
+        logger.info("Restored {} tickets of pool {} from the database", ticketPool.getPoolSize(), poolId);
+        return true;
+    }
+
+    /**
+     * Queues the whole pool to replace the stored tickets at the next flush, after the pool was recovered
+     * from elsewhere. The latest row is kept as the pool's row.
+     */
+    public synchronized void resync() {
+        if (ticketPool.getId() == null) {
+            ticketPool.setId(ticketDeltaRepository.findLatestPoolId());
+        }
+        ticketsCleared();
+        int[] tickets = ticketPool.ticketIds();
+        ticketsAdded(tickets, 0, tickets.length);
+    }
+
+    // Starts recording pool changes and flushing them periodically
+    @PostConstruct
+    public void start() {
+        ticketPool.addListener(this);
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Ticket pool changes flushed every {} ms in batches of {}", flushIntervalMs, batchSize);
+    }
+
+    @Override
+    public void ticketsAdded(int[] tickets, int offset, int count) {
+        TicketPoolListener.forEachRun(tickets, offset, count,
+                (first, last) -> changes.offer(new TicketRange(first, last, 1)));
+    }
+
+    @Override
+    public void ticketsRemoved(int[] tickets, int offset, int count) {
+        TicketPoolListener.forEachRun(tickets, offset, count,
+                (first, last) -> changes.offer(new TicketRange(first, last, -1)));
+    }
+
+    @Override
+    public void ticketsCleared() {
+        changes.offer(CLEAR);
+    }
+
+    /**
+     * Writes every change recorded so far.
+     * Does nothing until the pool has been saved once and has a row ID; the changes are kept until then.
+     * If writing fails, the changes are kept and retried by the next flush.
+     */
+    public synchronized void flush() {
+        drainChanges();
+        Long poolId = ticketPool.getId();
+        PoolCounters counters = currentCounters();
+        boolean countersChanged = !counters.equals(writtenCounters);
+        if (poolId == null || (pending.size() == 0 && !pendingClear && !countersChanged)) {
+            return;
+        }
+
+        int count = pending.size();
+        int[] ticketIds = new int[count];
+        int[] quantities = new int[count];
+        for (int i = 0; i < count; i++) {
+            ticketIds[i] = pending.ticketId(i);
+            quantities[i] = pending.quantity(i);
+        }
+        boolean clear = pendingClear;
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (clear) {
+                ticketDeltaRepository.deleteTickets(poolId);
+            }
+            ticketDeltaRepository.applyTicketDeltas(poolId, ticketIds, quantities, count, batchSize);
+            if (countersChanged) {
+                ticketDeltaRepository.updateCounters(poolId, counters);
+            }
+        });
+
+        pending.clear();
+        pendingClear = false;
+        writtenCounters = counters;
+        if (count > 0 || clear) {
+            logger.info("Flushed {} ticket changes{} for pool {}", count, clear ? " after clearing" : "", poolId);
+        }
+    }
+
+    // Writes any remaining changes and stops the flush thread
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        flushSafely();
+    }
+
+    // Flushes without letting a database failure cancel the periodic task
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush ticket pool changes; they will be retried.", e);
+        }
+    }
+
+    // Moves the queued ranges into the netted pending changes
+    private void drainChanges() {
+        TicketRange range;
+        while ((range = changes.poll()) != null) {
+            if (range == CLEAR) {
+                pending.clear(); // Earlier changes are superseded by the clear
+                pendingClear = true;
+            } else {
+                pending.add(range.first(), range.last(), range.quantity());
+            }
+        }
+        pending.net();
+    }
+
+    // Reads the pool counters that are persisted alongside the tickets
+    private PoolCounters currentCounters() {
+        return new PoolCounters(ticketPool.getTotalTickets(), ticketPool.getTicketReleaseRate(),
+                ticketPool.getCustomerTicketRetrievalRate(), ticketPool.getMaxTicketCapacity(),
+                ticketPool.getTicketsGenerated(), ticketPool.getLastTicketId(), ticketPool.isAvailable());
+    }
+
+    // IDs first..last were each added (quantity 1) or removed (quantity -1)
+    private record TicketRange(int first, int last, int quantity) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairPurchaseQueueTests {
+
+	@Test
+	void servesWaitingCustomersInArrivalOrder() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		FairPurchaseQueue queue = pool.purchaseQueue();
+		List<Integer> served = new CopyOnWriteArrayList<>();
+		Thread[] customers = new Thread[3];
+		for (int i = 0; i < customers.length; i++) {
+			int customer = i;
+			customers[i] = Thread.ofVirtual().start(() -> {
+				try {
+					assertEquals(2, queue.purchase(2, PurchaseMode.ALL_OR_NOTHING));
+					served.add(customer);
+				} catch (InterruptedException e) {
+					fail(e);
+				}
+			});
+			waitForLine(queue, i + 1);
+		}
+
+		// A latecomer may not take tickets meant for the line
+		pool.addTickets(1);
+		assertEquals(0, queue.tryPurchase(1, PurchaseMode.PARTIAL_FILL));
+		for (int i = 0; i < 5; i++) {
+			pool.addTickets(1);
+		}
+		for (Thread customer : customers) {
+			customer.join(5_000);
+		}
+		assertEquals(List.of(0, 1, 2), served);
+		assertEquals(0, pool.getPoolSize());
+		assertEquals(0, queue.waiting());
+	}
+
+	@Test
+	void timedOutCustomersLeaveTheLine() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		FairPurchaseQueue queue = pool.purchaseQueue();
+		assertEquals(0, queue.purchase(1, PurchaseMode.PARTIAL_FILL, 20, TimeUnit.MILLISECONDS));
+		assertEquals(0, queue.waiting());
+		pool.addTickets(1);
+		assertEquals(1, queue.tryPurchase(1, PurchaseMode.PARTIAL_FILL));
+	}
+
+	@Test
+	void holdsWaitInLineBehindPurchases() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		FairPurchaseQueue queue = pool.purchaseQueue();
+		Thread customer = Thread.ofVirtual().start(() -> {
+			try {
+				assertEquals(2, queue.purchase(2, PurchaseMode.ALL_OR_NOTHING));
+			} catch (InterruptedException e) {
+				fail(e);
+			}
+		});
+		waitForLine(queue, 1);
+
+		int[] held = new int[2];
+		pool.addTickets(1);
+		assertEquals(0, queue.tryHold(held, 1, PurchaseMode.PARTIAL_FILL)); // Not ahead of the customer
+		pool.addTickets(1);
+		customer.join(5_000);
+		pool.addTickets(2);
+		assertEquals(2, queue.hold(held, 2, PurchaseMode.ALL_OR_NOTHING, 1, TimeUnit.SECONDS));
+		assertEquals(2, pool.getHeldTickets());
+		assertEquals(0, pool.getPoolSize());
+	}
+
+	private static void waitForLine(FairPurchaseQueue queue, int length) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (queue.waiting() < length) {
+			assertTrue(System.nanoTime() < deadline, "customer never joined the line");
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTests {
+
+	@Test
+	void retriesGetTheFirstResultUntilItExpires() {
+		AtomicLong now = new AtomicLong();
+		IdempotencyCache<Integer> cache = new IdempotencyCache<>(1_000, 2, now::get);
+		CompletableFuture<Integer> first = new CompletableFuture<>();
+		assertNull(cache.putIfAbsent("k1", first));
+		assertSame(first, cache.putIfAbsent("k1", new CompletableFuture<>()));
+
+		now.addAndGet(1_000_000_000L);
+		CompletableFuture<Integer> second = new CompletableFuture<>();
+		assertNull(cache.putIfAbsent("k1", second)); // Expired
+		assertNull(cache.putIfAbsent("k2", new CompletableFuture<>()));
+		assertNull(cache.putIfAbsent("k3", new CompletableFuture<>())); // Full: evicts k1
+		assertEquals(2, cache.size());
+		assertNull(cache.putIfAbsent("k1", new CompletableFuture<>()));
+	}
+}
@@ -0,0 +1,63 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadProfileTests {
+
+	private static final List<LoadProfile.Point> SPIKE = List.of(
+			new LoadProfile.Point(10, 1), new LoadProfile.Point(20, 10), new LoadProfile.Point(30, 2));
+
+	@Test
+	void stepsHoldAndRampsInterpolateBetweenPoints() {
+		LoadProfile step = new LoadProfile(null, null, LoadProfile.Shape.STEP, SPIKE, null);
+		LoadProfile ramp = new LoadProfile(null, null, LoadProfile.Shape.RAMP, SPIKE, null);
+		assertEquals(1.0, step.multiplierAt(5));
+		assertEquals(1.0, step.multiplierAt(15));
+		assertEquals(10.0, step.multiplierAt(25));
+		assertEquals(2.0, step.multiplierAt(1_000));
+		assertEquals(1.0, ramp.multiplierAt(5));
+		assertEquals(5.5, ramp.multiplierAt(15), 1e-9);
+		assertEquals(6.0, ramp.multiplierAt(25), 1e-9);
+		assertEquals(2.0, ramp.multiplierAt(1_000));
+	}
+
+	@Test
+	void rejectsInvalidPoints() {
+		assertThrows(IllegalArgumentException.class, () -> new LoadProfile(null, null, null,
+				List.of(new LoadProfile.Point(0, 0)), null));
+		assertThrows(IllegalArgumentException.class, () -> new LoadProfile(null, null, null,
+				List.of(new LoadProfile.Point(5, 1), new LoadProfile.Point(4, 1)), null));
+	}
+
+	@Test
+	void arrivalsAverageTheScaledRate() {
+		PoolParticipant base = new PoolParticipant() {
+			@Override
+			public boolean tick(boolean mayBlock) {
+				return true;
+			}
+
+			@Override
+			public long nextTickDelayMillis() {
+				return 1_000;
+			}
+		};
+		List<LoadProfile.Point> tenfold = List.of(new LoadProfile.Point(0, 10));
+		for (ArrivalDistribution arrival : ArrivalDistribution.values()) {
+			LoadProfile profile = new LoadProfile(arrival, 5, null, tenfold, 1L);
+			ProfiledParticipant participant = new ProfiledParticipant(base, profile, System.nanoTime(),
+					new SplittableRandom(1));
+			long total = 0;
+			int ticks = 20_000;
+			for (int i = 0; i < ticks; i++) {
+				total += participant.nextTickDelayMillis();
+			}
+			assertEquals(100.0, (double) total / ticks, 5.0, arrival.name());
+		}
+	}
+}
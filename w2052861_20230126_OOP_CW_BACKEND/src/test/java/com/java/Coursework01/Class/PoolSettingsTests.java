@@ -0,0 +1,41 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolSettingsTests {
+
+	@Test
+	void ratesAreSharedAmongParticipants() {
+		PoolSettings settings = new PoolSettings(10, 3, 100, 5, 4);
+		assertEquals(200, settings.vendorDelayMillis());
+		assertEquals(100, settings.customerDelayMillis()); // Never below one rate unit
+		assertEquals(1000, new PoolSettings(10, 3, 100, 0, 0).vendorDelayMillis());
+		assertThrows(IllegalArgumentException.class, () -> new PoolSettings(10, 3, -1, 1, 1));
+	}
+
+	@Test
+	void runningParticipantsFollowPublishedSettings() {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		AtomicReference<PoolSettings> settings = new AtomicReference<>(new PoolSettings(4, 1, 10, 1, 1));
+		PoolParticipant vendor = new ReconfigurableParticipant(new VendorThread(pool, 4, event -> { }, 1),
+				() -> settings.get().vendorDelayMillis());
+		assertEquals(400, vendor.nextTickDelayMillis());
+		settings.set(new PoolSettings(4, 1, 10, 2, 1));
+		assertEquals(200, vendor.nextTickDelayMillis());
+	}
+
+	@Test
+	void capacityChangesKeepTheTickets() {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		pool.addTickets(5);
+		pool.setMaxTicketCapacity(20);
+		pool.addTickets(10);
+		assertEquals(15, pool.getPoolSize());
+		pool.setMaxTicketCapacity(15);
+		assertEquals(15, pool.getPoolSize());
+	}
+}
@@ -0,0 +1,56 @@
+package com.java.Coursework01.Class;
+
+import com.java.Coursework01.Class.SeatMap.SeatBlock;
+import com.java.Coursework01.Class.SeatMap.Section;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapTests {
+
+	@Test
+	void claimsTheBestAdjacentSeats() {
+		SeatMap seats = new SeatMap(List.of(new Section("Stalls", 2, 10), new Section("Circle", 1, 20)));
+		assertEquals(new SeatBlock("Stalls", 1, 4, 3), seats.claim(3, null)); // Front row, middle
+		assertEquals(new SeatBlock("Stalls", 1, 1, 3), seats.claim(3, null)); // Front row, nearest the middle
+		assertEquals(new SeatBlock("Stalls", 2, 3, 6), seats.claim(6, null)); // Front row has no 6 left
+		assertEquals(new SeatBlock("Circle", 1, 3, 15), seats.claim(15, null));
+		assertNull(seats.claim(8, null));
+		assertEquals(new SeatBlock("Circle", 1, 18, 2), seats.claim(2, "Circle"));
+		assertThrows(IllegalArgumentException.class, () -> seats.claim(1, "Balcony"));
+
+		SeatBlock returned = new SeatBlock("Stalls", 1, 4, 3);
+		assertTrue(seats.release(returned));
+		assertFalse(seats.release(returned));
+		assertEquals(returned, seats.claim(3, "Stalls"));
+	}
+
+	@Test
+	void customersBuyBatchesSeatedTogether() {
+		TicketPool pool = new TicketPool(0, 1, 1, 100);
+		pool.setSeatMap(new SeatMap(List.of(new Section("Stalls", 1, 5))));
+		pool.addTickets(10);
+		ConsumerThread customer = new ConsumerThread(pool, 1, event -> { }, 3, PurchaseMode.PARTIAL_FILL);
+		pool.setAvailable(true);
+		assertTrue(customer.tick(false));
+		assertTrue(customer.tick(false)); // Only 2 adjacent seats left; buys nothing
+		assertEquals(7, pool.getPoolSize());
+		assertEquals(2, pool.seatMap().freeSeats());
+	}
+
+	@Test
+	void largeVenuesClaimQuickly() {
+		SeatMap seats = new SeatMap(List.of(new Section("Floor", 2_000, 50)));
+		long start = System.nanoTime();
+		int claimed = 0;
+		while (seats.claim(4, null) != null) {
+			claimed++;
+		}
+		long micros = (System.nanoTime() - start) / 1_000 / claimed;
+		assertEquals(22_000, claimed); // 11 blocks of 4 per row of 50, working out from the middle
+		assertEquals(6 * 2_000, seats.freeSeats());
+		assertTrue(micros < 1_000, "Average claim took " + micros + " us");
+	}
+}
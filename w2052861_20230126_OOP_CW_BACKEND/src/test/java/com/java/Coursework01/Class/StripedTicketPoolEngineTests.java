@@ -0,0 +1,116 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedTicketPoolEngineTests {
+
+	@Test
+	void customersStealFromOtherStripes() throws InterruptedException {
+		StripedTicketPoolEngine engine = new StripedTicketPoolEngine(2, 4);
+		assertEquals(2, engine.offer(new int[] {7, 8}, 0, 2));
+		assertFalse(engine.offer(9));
+		int[] taken = new int[2];
+		Thread customer = new Thread(() -> taken[0] = engine.poll(new int[2], 2, true));
+		customer.start();
+		customer.join();
+		assertEquals(2, taken[0]);
+		assertEquals(0, engine.size());
+		assertTrue(engine.offer(9));
+	}
+
+	@Test
+	void wholeBatchesAreCollectedAcrossEveryStripe() throws InterruptedException {
+		StripedTicketPoolEngine engine = new StripedTicketPoolEngine(16, 8);
+		CountDownLatch added = new CountDownLatch(8);
+		for (int v = 0; v < 8; v++) {
+			int first = v * 2 + 1;
+			Thread.ofPlatform().start(() -> {
+				engine.offer(new int[] {first, first + 1}, 0, 2); // Each vendor thread fills its own stripe
+				added.countDown();
+			});
+		}
+		added.await();
+		int[] buffer = new int[16];
+		assertEquals(0, engine.poll(buffer, 17, true));
+		assertEquals(16, engine.poll(buffer, 16, true));
+		Arrays.sort(buffer);
+		for (int i = 0; i < 16; i++) {
+			assertEquals(i + 1, buffer[i]);
+		}
+		assertEquals(0, engine.size());
+	}
+
+	@Test
+	void growsInPlaceBeyondItsFirstCapacity() {
+		StripedTicketPoolEngine engine = new StripedTicketPoolEngine(2, 3); // Rounded up to 4 stripes
+		assertEquals(2, engine.offer(new int[] {1, 2, 3}, 0, 3));
+		assertTrue(engine.resize(1_000)); // The stripes are unbounded, unlike the ring
+		assertEquals(998, engine.offer(new int[998], 0, 998));
+		assertEquals(1_000, engine.size());
+		assertTrue(engine.resize(10)); // Shrinking keeps the tickets but refuses vendors until they are sold
+		assertFalse(engine.offer(1));
+		assertEquals(991, engine.poll(new int[991], 991, false));
+		assertTrue(engine.offer(1));
+	}
+
+	@Test
+	void concurrentVendorsAndCustomersHandOverEveryTicketOnce() throws InterruptedException {
+		StripedTicketPoolEngine engine = new StripedTicketPoolEngine(8, 4);
+		int perVendor = 5_000;
+		AtomicIntegerArray seen = new AtomicIntegerArray(4 * perVendor + 1);
+		List<Thread> threads = new ArrayList<>();
+		for (int v = 0; v < 4; v++) {
+			int first = v * perVendor + 1;
+			threads.add(Thread.ofPlatform().start(() -> {
+				try {
+					for (int i = 0; i < perVendor; i += 2) {
+						engine.put(first + i); // Alternate single and batch adds
+						while (engine.offer(new int[] {first + i + 1}, 0, 1) == 0) {
+							Thread.yield();
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+		}
+		for (int c = 0; c < 4; c++) {
+			threads.add(Thread.ofPlatform().start(() -> {
+				int[] buffer = new int[3];
+				try {
+					for (int taken = 0; taken < perVendor; ) {
+						int removed;
+						if (taken % 2 == 0) {
+							buffer[0] = engine.take(); // Alternate single and batch removals
+							removed = 1;
+						} else {
+							removed = engine.take(buffer, Math.min(3, perVendor - taken), false);
+						}
+						for (int i = 0; i < removed; i++) {
+							seen.incrementAndGet(buffer[i]);
+						}
+						taken += removed;
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (int ticket = 1; ticket < seen.length(); ticket++) {
+			assertEquals(1, seen.get(ticket), "ticket " + ticket);
+		}
+		assertEquals(0, engine.size());
+		assertEquals(8, engine.offer(new int[9], 0, 9)); // Every permit was freed
+	}
+}
@@ -0,0 +1,89 @@
+package com.java.Coursework01.Class;
+
+import com.java.Coursework01.Class.TicketIndex.TicketCounts;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketIndexTests {
+
+	@Test
+	void ticketIdsAreNeverReused() {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		pool.addTickets(3);
+		pool.tryRemoveTickets(3, PurchaseMode.PARTIAL_FILL, "alice");
+		pool.addTickets(2);
+		pool.clearTickets();
+		pool.addTicket();
+		assertEquals(6, pool.getLastTicketId());
+
+		TicketIndex index = pool.ticketIndex();
+		assertEquals(TicketStatus.SOLD, index.status(2));
+		assertEquals("alice", index.ownerOf(2));
+		assertEquals(TicketStatus.WITHDRAWN, index.status(4));
+		assertEquals(TicketStatus.AVAILABLE, index.status(6));
+		assertEquals(TicketStatus.NOT_ISSUED, index.status(7));
+		assertEquals(new TicketCounts(1, 6, 6, 1, 0, 3, 2), index.count(1, 6));
+	}
+
+	@Test
+	void holdsMoveTicketsBetweenStatuses() {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		pool.addTickets(4);
+		int[] held = new int[2];
+		pool.tryHoldTickets(held, 2, PurchaseMode.ALL_OR_NOTHING);
+		assertEquals(TicketStatus.HELD, pool.ticketIndex().status(held[0]));
+		pool.confirmHeld(held, 1, "bob");
+		pool.releaseHeld(new int[] {held[1]}, 1);
+		assertEquals("bob", pool.ticketIndex().lookup(held[0]).owner());
+		assertEquals(TicketStatus.AVAILABLE, pool.ticketIndex().status(held[1]));
+	}
+
+	@Test
+	void denseRangesStayCompact() {
+		TicketIndex index = new TicketIndex();
+		int[] batch = new int[10_000];
+		for (int first = 1; first <= 10_000_000; first += batch.length) {
+			for (int i = 0; i < batch.length; i++) {
+				batch[i] = first + i;
+			}
+			index.issue(batch, 0, batch.length);
+			if (first % 20_000 == 1) {
+				index.sell(batch, 0, batch.length, "customer-" + (first % 3)); // Every other batch
+			}
+		}
+		assertEquals(10_000_000, index.count(1, 10_000_000).issued());
+		assertEquals(1234, index.count(60_001, 61_234).sold());
+		assertEquals(TicketStatus.SOLD, index.status(9_980_001));
+		assertEquals(TicketStatus.AVAILABLE, index.status(9_990_001));
+		assertEquals("customer-2", index.ownerOf(40_001));
+		assertTrue(index.sizeInBytes() < 5_000_000, "Index uses " + index.sizeInBytes() + " bytes");
+	}
+
+	@Test
+	void issuingAfterASaleKeepsTheTicketSold() {
+		TicketIndex index = new TicketIndex();
+		index.sell(new int[] {5}, 0, 1, "carol"); // A customer took it before its vendor indexed it
+		index.hold(new int[] {6}, 0, 1);
+		index.issue(new int[] {5, 6, 7}, 0, 3);
+		assertEquals(TicketStatus.SOLD, index.status(5));
+		assertEquals("carol", index.ownerOf(5));
+		assertEquals(TicketStatus.HELD, index.status(6));
+		assertEquals(new TicketCounts(5, 7, 3, 1, 1, 1, 0), index.count(5, 7));
+	}
+
+	@Test
+	void ownersBeyondTheLimitAreNotRecorded() {
+		TicketIndex index = new TicketIndex();
+		int[] ticket = new int[1];
+		for (int i = 0; i <= TicketIndex.MAX_OWNERS; i++) {
+			ticket[0] = i + 1;
+			index.issue(ticket, 0, 1);
+			index.sell(ticket, 0, 1, "owner-" + i);
+		}
+		assertEquals("owner-0", index.ownerOf(1));
+		assertEquals("owner-" + (TicketIndex.MAX_OWNERS - 1), index.ownerOf(TicketIndex.MAX_OWNERS));
+		assertEquals(TicketStatus.SOLD, index.status(TicketIndex.MAX_OWNERS + 1));
+		assertNull(index.ownerOf(TicketIndex.MAX_OWNERS + 1));
+	}
+}
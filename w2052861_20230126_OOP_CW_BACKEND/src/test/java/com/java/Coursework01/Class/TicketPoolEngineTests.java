@@ -0,0 +1,207 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketPoolEngineTests {
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void respectsCapacity(TicketPoolEngineType type) {
+		TicketPoolEngine engine = type.create(3);
+		assertTrue(engine.offer(1));
+		assertTrue(engine.offer(2));
+		assertTrue(engine.offer(3));
+		assertFalse(engine.offer(4));
+		assertEquals(3, engine.size());
+		assertNotEquals(TicketPoolEngine.NO_TICKET, engine.poll());
+		assertTrue(engine.offer(4));
+		engine.clear();
+		assertEquals(0, engine.size());
+		assertEquals(TicketPoolEngine.NO_TICKET, engine.poll());
+	}
+
+	@Test
+	void ringRejectsCapacitiesItCannotAllocate() {
+		assertThrows(IllegalArgumentException.class, () -> new RingBufferTicketPoolEngine(-1));
+		assertThrows(IllegalArgumentException.class,
+				() -> new RingBufferTicketPoolEngine(RingBufferTicketPoolEngine.MAX_CAPACITY + 1));
+		assertThrows(IllegalArgumentException.class, () -> new RingBufferTicketPoolEngine(Integer.MAX_VALUE));
+	}
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void fillsBatchesAllOrNothingOrPartially(TicketPoolEngineType type) {
+		TicketPoolEngine engine = type.create(4);
+		assertEquals(4, engine.offer(new int[] {1, 2, 3, 4, 5, 6}, 0, 6));
+		int[] buffer = new int[5];
+		assertEquals(0, engine.poll(buffer, 5, true));
+		assertEquals(4, engine.size());
+		assertEquals(3, engine.poll(buffer, 3, true));
+		assertEquals(1, engine.poll(buffer, 5, false));
+		assertEquals(0, engine.size());
+	}
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void transfersEveryTicketBetweenManyThreads(TicketPoolEngineType type) throws InterruptedException {
+		TicketPoolEngine engine = type.create(5);
+		int threads = 4;
+		int perThread = 10_000;
+		AtomicLong sum = new AtomicLong();
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			workers.add(new Thread(() -> {
+				try {
+					for (int i = 1; i <= perThread; i++) {
+						engine.put(i);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			workers.add(new Thread(() -> {
+				try {
+					for (int i = 0; i < perThread; i++) {
+						sum.addAndGet(engine.take());
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+		}
+		workers.forEach(Thread::start);
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals((long) threads * perThread * (perThread + 1) / 2, sum.get());
+		assertEquals(0, engine.size());
+	}
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void timedOperationsGiveUpWhenTheTimeRunsOut(TicketPoolEngineType type) throws InterruptedException {
+		TicketPoolEngine engine = type.create(2);
+		int[] buffer = new int[3];
+		assertEquals(TicketPoolEngine.NO_TICKET, engine.poll(20, TimeUnit.MILLISECONDS));
+		assertEquals(0, engine.poll(buffer, 1, false, 20, TimeUnit.MILLISECONDS));
+		assertTrue(engine.offer(1, 20, TimeUnit.MILLISECONDS));
+		assertTrue(engine.offer(2, 0, TimeUnit.MILLISECONDS));
+		assertFalse(engine.offer(3, 20, TimeUnit.MILLISECONDS));
+		assertEquals(0, engine.poll(buffer, 3, true, 20, TimeUnit.MILLISECONDS));
+		assertEquals(2, engine.size());
+
+		Thread customer = new Thread(() -> {
+			try {
+				Thread.sleep(50);
+				engine.poll();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		customer.start();
+		assertTrue(engine.offer(3, 5, TimeUnit.SECONDS)); // Space freed by the customer before the time runs out
+		customer.join();
+		assertEquals(2, engine.poll(buffer, 2, true, 0, TimeUnit.MILLISECONDS));
+
+		Thread.currentThread().interrupt();
+		assertThrows(InterruptedException.class, () -> engine.poll(5, TimeUnit.SECONDS));
+		assertFalse(Thread.interrupted());
+	}
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void wholeBatchWaitersGiveUpWhenTheCapacityDropsBelowTheBatch(TicketPoolEngineType type) throws Exception {
+		TicketPoolEngine engine = type.create(4);
+		assertTrue(engine.offer(1));
+		int[] taken = {-1, -1};
+		Thread taker = new Thread(() -> {
+			try {
+				taken[0] = engine.take(new int[3], 3, true);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Thread poller = new Thread(() -> {
+			try {
+				taken[1] = engine.poll(new int[3], 3, true, 1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		taker.start();
+		poller.start();
+		Thread.sleep(50);
+		assertTrue(engine.resize(2));
+		taker.join(5_000);
+		poller.join(5_000);
+		assertFalse(taker.isAlive());
+		assertFalse(poller.isAlive());
+		assertArrayEquals(new int[] {0, 0}, taken);
+		assertEquals(1, engine.size()); // Nothing was taken
+	}
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void concurrentHoldsKeepTheirCapacityAndEveryTicket(TicketPoolEngineType type) throws InterruptedException {
+		TicketPoolEngine engine = type.create(8);
+		assertEquals(8, engine.offer(new int[] {1, 2, 3, 4, 5, 6, 7, 8}, 0, 8));
+		AtomicBoolean overfilled = new AtomicBoolean();
+		List<Thread> holders = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int batch = t % 3 + 1;
+			holders.add(Thread.ofPlatform().start(() -> {
+				int[] held = new int[batch];
+				try {
+					for (int i = 0; i < 5_000; i++) {
+						int count = engine.hold(held, batch, false, 0, TimeUnit.MILLISECONDS);
+						engine.releaseHeld(held, 0, count);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+		}
+		Thread vendor = Thread.ofPlatform().start(() -> {
+			for (int i = 0; i < 5_000; i++) {
+				if (engine.offer(100 + i)) {
+					overfilled.set(true); // Space kept by a hold was handed to a vendor
+				}
+			}
+		});
+		for (Thread holder : holders) {
+			holder.join();
+		}
+		vendor.join();
+		assertFalse(overfilled.get());
+		int[] tickets = engine.toArray();
+		Arrays.sort(tickets);
+		assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 7, 8}, tickets);
+	}
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void droppedHoldsFreeTheirCapacity(TicketPoolEngineType type) throws InterruptedException {
+		TicketPoolEngine engine = type.create(3);
+		assertEquals(3, engine.offer(new int[] {1, 2, 3}, 0, 3));
+		int[] held = new int[2];
+		assertEquals(2, engine.hold(held, 2, true, 0, TimeUnit.MILLISECONDS));
+		assertEquals(0, engine.hold(held, 2, true, 20, TimeUnit.MILLISECONDS)); // Only one ticket is left
+		assertFalse(engine.offer(4));
+		engine.dropHeld(2);
+		assertEquals(2, engine.offer(new int[] {4, 5, 6}, 0, 3));
+		engine.reserveHeld(1); // A hold carried over from another engine
+		assertEquals(1, engine.poll(new int[1], 1, false));
+		assertFalse(engine.offer(7));
+	}
+}
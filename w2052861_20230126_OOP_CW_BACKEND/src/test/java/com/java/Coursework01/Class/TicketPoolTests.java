@@ -0,0 +1,164 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketPoolTests {
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void releasedHoldsFitAfterVendorsRefillThePool(TicketPoolEngineType type) {
+		TicketPool pool = new TicketPool(0, 1, 1, 5);
+		pool.setEngineType(type);
+		assertEquals(5, pool.tryAddTickets(5));
+		int[] held = new int[3];
+		assertEquals(3, pool.tryHoldTickets(held, 3, PurchaseMode.ALL_OR_NOTHING));
+		assertEquals(0, pool.tryAddTickets(3)); // The held tickets keep their place against the capacity
+		assertFalse(pool.tryAddTicket());
+		pool.releaseHeld(held, 3);
+		assertEquals(0, pool.getHeldTickets());
+		int[] pooled = pool.ticketIds();
+		Arrays.sort(pooled);
+		assertArrayEquals(new int[] {1, 2, 3, 4, 5}, pooled);
+	}
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void confirmedHoldsFreeTheirCapacity(TicketPoolEngineType type) {
+		TicketPool pool = new TicketPool(0, 1, 1, 4);
+		pool.setEngineType(type);
+		assertEquals(4, pool.tryAddTickets(4));
+		int[] held = new int[2];
+		assertEquals(2, pool.tryHoldTickets(held, 2, PurchaseMode.PARTIAL_FILL));
+		assertEquals(0, pool.tryAddTickets(2));
+		pool.confirmHeld(held, 2);
+		assertEquals(2, pool.tryAddTickets(2));
+		assertEquals(4, pool.getPoolSize());
+		assertEquals(TicketStatus.SOLD, pool.ticketIndex().status(held[0]));
+	}
+
+	@Test
+	void groupPurchasesServeBuyersInOrder() {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		pool.addTickets(6);
+		int[] counts = {2, 5, 3, 4};
+		PurchaseMode[] modes = {PurchaseMode.PARTIAL_FILL, PurchaseMode.ALL_OR_NOTHING,
+				PurchaseMode.ALL_OR_NOTHING, PurchaseMode.PARTIAL_FILL};
+		int[] granted = new int[4];
+		assertEquals(6, pool.removeTicketsForGroup(counts, modes, new String[] {"a", "b", "c", "d"}, 4, granted));
+		assertArrayEquals(new int[] {2, 0, 3, 1}, granted); // b cannot have all 5, so c and d get its share
+		assertEquals(0, pool.getPoolSize());
+		assertEquals(6, pool.ticketIndex().count(1, 6).sold());
+	}
+
+	@ParameterizedTest
+	@EnumSource(TicketPoolEngineType.class)
+	void groupPurchasesTakeOnlyWhatTheyGrant(TicketPoolEngineType type) {
+		TicketPool pool = new TicketPool(0, 1, 1, 5);
+		pool.setEngineType(type);
+		pool.addTickets(5);
+		int[] held = new int[2];
+		assertEquals(2, pool.tryHoldTickets(held, 2, PurchaseMode.ALL_OR_NOTHING));
+		pool.setMaxTicketCapacity(2); // Putting back tickets taken for nobody would no longer fit
+		int[] granted = new int[2];
+		assertEquals(0, pool.removeTicketsForGroup(new int[] {4, 5}, new PurchaseMode[] {PurchaseMode.ALL_OR_NOTHING,
+				PurchaseMode.ALL_OR_NOTHING}, new String[2], 2, granted));
+		assertArrayEquals(new int[] {0, 0}, granted);
+		assertEquals(3, pool.getPoolSize());
+		assertEquals(3, pool.ticketIndex().count(1, 5).available());
+	}
+
+	@Test
+	void concurrentHoldsPurchasesAndVendorsNeverLoseTickets() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 1, 1, 20);
+		pool.setEngineType(TicketPoolEngineType.STRIPED);
+		AtomicInteger sold = new AtomicInteger();
+		AtomicInteger added = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 3; t++) {
+			boolean confirm = t == 0;
+			threads.add(Thread.ofPlatform().start(() -> {
+				int[] held = new int[3];
+				for (int i = 0; i < 2_000; i++) {
+					int count = pool.tryHoldTickets(held, 3, PurchaseMode.PARTIAL_FILL);
+					if (count > 0 && confirm && i % 2 == 0) {
+						pool.confirmHeld(held, count);
+						sold.addAndGet(count);
+					} else if (count > 0) {
+						pool.releaseHeld(held, count);
+					}
+				}
+			}));
+		}
+		threads.add(Thread.ofPlatform().start(() -> {
+			for (int i = 0; i < 2_000; i++) {
+				sold.addAndGet(pool.tryRemoveTickets(2, PurchaseMode.ALL_OR_NOTHING));
+			}
+		}));
+		threads.add(Thread.ofPlatform().start(() -> {
+			for (int i = 0; i < 4_000; i++) {
+				added.addAndGet(pool.tryAddTickets(2));
+			}
+		}));
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, pool.getHeldTickets());
+		assertEquals(added.get(), pool.getTicketsGenerated());
+		assertEquals(added.get(), sold.get() + pool.getPoolSize());
+		assertTrue(pool.getPoolSize() <= 20);
+	}
+
+	@Test
+	void clearingThePoolDropsHoldsAndTheirCapacity() {
+		TicketPool pool = new TicketPool(0, 1, 1, 4);
+		pool.addTickets(4);
+		int[] held = new int[2];
+		assertEquals(2, pool.tryHoldTickets(held, 2, PurchaseMode.ALL_OR_NOTHING));
+		assertThrows(IllegalArgumentException.class, () -> pool.tryHoldTickets(new int[5], 5, PurchaseMode.ALL_OR_NOTHING));
+		pool.clearTickets();
+		assertEquals(0, pool.getHeldTickets());
+		assertEquals(4, pool.tryAddTickets(4));
+		assertEquals(TicketStatus.WITHDRAWN, pool.ticketIndex().status(held[0]));
+	}
+
+	@Test
+	void changingTheEngineKeepsTicketsBeyondALoweredCapacity() {
+		TicketPool pool = new TicketPool(0, 1, 1, 6);
+		assertEquals(6, pool.tryAddTickets(6));
+		int[] held = new int[2];
+		assertEquals(2, pool.tryHoldTickets(held, 2, PurchaseMode.ALL_OR_NOTHING));
+		pool.setMaxTicketCapacity(3); // The blocking engine shrinks in place below its tickets
+		pool.setEngineType(TicketPoolEngineType.RING_BUFFER);
+		assertEquals(4, pool.getPoolSize());
+		pool.releaseHeld(held, 2);
+		int[] pooled = pool.ticketIds();
+		Arrays.sort(pooled);
+		assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6}, pooled);
+		assertFalse(pool.tryAddTicket());
+	}
+
+	@Test
+	void customersWaitingOnAReplacedEngineMoveToTheNewOne() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 1, 1, 2);
+		pool.setEngineType(TicketPoolEngineType.RING_BUFFER);
+		AtomicInteger bought = new AtomicInteger();
+		Thread customer = Thread.ofPlatform().start(() -> bought.set(pool.removeTickets(3, PurchaseMode.PARTIAL_FILL)));
+		TimeUnit.MILLISECONDS.sleep(100); // Let the customer park on the empty ring
+		pool.setMaxTicketCapacity(100); // The ring cannot grow in place, so the pool moves to a new one
+		assertEquals(3, pool.tryAddTickets(3));
+		customer.join(TimeUnit.SECONDS.toMillis(5));
+		assertFalse(customer.isAlive());
+		assertTrue(bought.get() > 0);
+		assertEquals(3, bought.get() + pool.getPoolSize());
+	}
+}
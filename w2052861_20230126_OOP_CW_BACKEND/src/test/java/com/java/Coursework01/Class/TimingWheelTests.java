@@ -0,0 +1,56 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTests {
+
+	@Test
+	void expiresEachItemOnTheFirstTickAtOrAfterItsDeadline() {
+		TimingWheel<Long> wheel = new TimingWheel<>(10, 1_000);
+		long[] deadlines = {1_005, 1_010, 1_640, 1_650, 42_000, 700_000, 5_000_000};
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, deadline);
+		}
+		List<Long> expired = new ArrayList<>();
+		for (long now = 1_000; now <= 5_000_000; now += 10) {
+			int before = expired.size();
+			wheel.advance(now, expired::add);
+			for (int i = before; i < expired.size(); i++) {
+				assertTrue(expired.get(i) <= now, "expired early");
+				assertTrue(expired.get(i) > now - 10, "expired late");
+			}
+		}
+		assertEquals(List.of(1_005L, 1_010L, 1_640L, 1_650L, 42_000L, 700_000L, 5_000_000L), expired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cancelledItemsNeverExpire() {
+		TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+		TimingWheel.Timeout<String> kept = wheel.schedule("kept", 100);
+		TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 5_000);
+		assertTrue(wheel.cancel(cancelled));
+		assertFalse(wheel.cancel(cancelled));
+		List<String> expired = new ArrayList<>();
+		assertEquals(1, wheel.advance(10_000, expired::add));
+		assertEquals(List.of("kept"), expired);
+		assertFalse(wheel.cancel(kept));
+	}
+
+	@Test
+	void pastDeadlinesExpireOnTheNextTick() {
+		TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+		wheel.advance(1_000, item -> fail());
+		wheel.schedule("late", 500);
+		List<String> expired = new ArrayList<>();
+		wheel.advance(1_009, expired::add);
+		assertTrue(expired.isEmpty());
+		wheel.advance(1_010, expired::add);
+		assertEquals(List.of("late"), expired);
+	}
+}
@@ -0,0 +1,29 @@
+package com.java.Coursework01.Class;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTests {
+
+	@Test
+	void refillsAtItsRate() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(10, 2); // One token per 100 ms
+		assertTrue(bucket.tryAcquire(2));
+		assertFalse(bucket.tryAcquire(1));
+		Thread.sleep(250);
+		assertTrue(bucket.tryAcquire(2));
+		bucket.refund(1);
+		assertTrue(bucket.tryAcquire(1));
+	}
+
+	@Test
+	void capsRequestsAndRefundsAtTheBurstSize() {
+		TokenBucket bucket = new TokenBucket(0.001, 3);
+		assertTrue(bucket.tryAcquire(5)); // Spends the whole burst
+		assertFalse(bucket.tryAcquire(1));
+		bucket.refund(10);
+		assertTrue(bucket.tryAcquire(3));
+		assertFalse(bucket.tryAcquire(1));
+	}
+}
@@ -0,0 +1,113 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.PurchaseMode;
+import com.java.Coursework01.Class.TicketPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PurchaseCoalescerTests {
+
+	private final PurchaseCoalescer coalescer = new PurchaseCoalescer(10_000, 64);
+
+	@AfterEach
+	void stopDispatcher() {
+		coalescer.shutdown();
+	}
+
+	@Test
+	void concurrentPurchasesNeverOversell() throws Exception {
+		TicketPool pool = new TicketPool(0, 1, 1, 1_000);
+		pool.addTickets(1_000);
+		ExecutorService buyers = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 2_000; i++) {
+				results.add(buyers.submit(() -> coalescer.purchase(pool, 1, PurchaseMode.PARTIAL_FILL, null)));
+			}
+			int bought = 0;
+			for (Future<Integer> result : results) {
+				bought += result.get();
+			}
+			assertEquals(1_000, bought);
+			assertEquals(0, pool.getPoolSize());
+		} finally {
+			buyers.shutdownNow();
+		}
+	}
+
+	@Test
+	void purchasesFromSeveralPoolsStayWithTheirPool() throws Exception {
+		TicketPool first = new TicketPool(0, 1, 1, 100);
+		TicketPool second = new TicketPool(0, 1, 1, 100);
+		first.addTickets(30);
+		second.addTickets(50);
+		ExecutorService buyers = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Integer>> fromFirst = new ArrayList<>();
+			List<Future<Integer>> fromSecond = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				fromFirst.add(buyers.submit(() -> coalescer.purchase(first, 1, PurchaseMode.PARTIAL_FILL, null)));
+				fromSecond.add(buyers.submit(() -> coalescer.purchase(second, 2, PurchaseMode.ALL_OR_NOTHING, null)));
+			}
+			int boughtFirst = 0;
+			int boughtSecond = 0;
+			for (int i = 0; i < 40; i++) {
+				boughtFirst += fromFirst.get(i).get();
+				int pair = fromSecond.get(i).get();
+				assertTrue(pair == 0 || pair == 2); // All or nothing, even inside a group
+				boughtSecond += pair;
+			}
+			assertEquals(30, boughtFirst);
+			assertEquals(50, boughtSecond);
+		} finally {
+			buyers.shutdownNow();
+		}
+	}
+
+	@Test
+	void customersWaitingInLineComeFirst() throws InterruptedException {
+		TicketPool pool = new TicketPool(0, 1, 1, 10);
+		Thread customer = Thread.ofVirtual().start(() -> {
+			try {
+				pool.purchaseQueue().purchase(3, PurchaseMode.ALL_OR_NOTHING);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (pool.purchaseQueue().waiting() == 0) {
+			assertTrue(System.nanoTime() < deadline, "customer never joined the line");
+			Thread.sleep(1);
+		}
+		pool.addTickets(2);
+		assertEquals(0, coalescer.purchase(pool, 1, PurchaseMode.PARTIAL_FILL, null));
+		pool.addTickets(1);
+		customer.join(5_000);
+		assertEquals(0, pool.getPoolSize());
+	}
+
+	@Test
+	void rejectsBatchesThePoolCouldNeverFill() {
+		TicketPool pool = new TicketPool(0, 1, 1, 5);
+		assertThrows(IllegalArgumentException.class, () -> coalescer.purchase(pool, 6, PurchaseMode.ALL_OR_NOTHING, null));
+		assertThrows(IllegalArgumentException.class, () -> coalescer.purchase(pool, 0, PurchaseMode.PARTIAL_FILL, null));
+	}
+
+	@Test
+	void purchasesAfterShutdownBuyNothing() {
+		TicketPool pool = new TicketPool(0, 1, 1, 5);
+		pool.addTickets(5);
+		coalescer.shutdown();
+		assertEquals(0, coalescer.purchase(pool, 1, PurchaseMode.PARTIAL_FILL, null));
+		assertEquals(5, pool.getPoolSize());
+	}
+}
@@ -0,0 +1,58 @@
+package com.java.Coursework01.Service;
+
+import com.java.Coursework01.Class.PurchaseMode;
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Service.TicketPoolService.PurchaseResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TicketPoolServiceTests {
+
+	private static final String EVENT = "idempotency-test";
+
+	@Autowired
+	private TicketPoolService ticketPoolService;
+
+	@Autowired
+	private TicketPoolRegistry ticketPoolRegistry;
+
+	@AfterEach
+	void removeEvent() {
+		ticketPoolService.removeEvent(EVENT);
+	}
+
+	@Test
+	void retriesWithTheSameKeyBuyOnlyOnce() throws InterruptedException {
+		TicketPool pool = ticketPoolRegistry.getOrCreate(EVENT);
+		pool.setMaxTicketCapacity(10);
+
+		PurchaseResult soldOut = ticketPoolService.purchase(EVENT, 2, PurchaseMode.ALL_OR_NOTHING, 0, "dave", "key-1");
+		assertEquals(0, soldOut.purchased());
+
+		pool.addTickets(5);
+		PurchaseResult first = ticketPoolService.purchase(EVENT, 2, PurchaseMode.ALL_OR_NOTHING, 0, "dave", "key-1");
+		assertEquals(2, first.purchased()); // Buying nothing was not remembered, so the retry buys
+		PurchaseResult retry = ticketPoolService.purchase(EVENT, 2, PurchaseMode.ALL_OR_NOTHING, 0, "dave", "key-1");
+		assertEquals(first, retry);
+		assertEquals(3, pool.getPoolSize());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> ticketPoolService.purchase(EVENT, 3, PurchaseMode.ALL_OR_NOTHING, 0, "dave", "key-1"));
+		assertThrows(IllegalArgumentException.class,
+				() -> ticketPoolService.purchase(EVENT, 2, PurchaseMode.PARTIAL_FILL, 0, "dave", "key-1"));
+		assertThrows(IllegalArgumentException.class,
+				() -> ticketPoolService.purchase(EVENT, 2, PurchaseMode.ALL_OR_NOTHING, 0, "erin", "key-1"));
+		assertThrows(IllegalArgumentException.class,
+				() -> ticketPoolService.purchase(EVENT, 2, PurchaseMode.ALL_OR_NOTHING, 0, null, "key-1"));
+		assertEquals(3, pool.getPoolSize()); // None of them bought anything
+		assertEquals(2, ticketPoolService.purchase(EVENT, 2, PurchaseMode.ALL_OR_NOTHING, 0, "dave", "key-2").purchased());
+		assertEquals(1, pool.getPoolSize());
+	}
+}
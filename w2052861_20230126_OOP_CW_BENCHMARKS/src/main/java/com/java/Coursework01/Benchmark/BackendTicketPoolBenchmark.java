@@ -0,0 +1,150 @@
+package com.java.Coursework01.Benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Class.TicketPoolEngineType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the backend {@link TicketPool#addTicket()} and {@link TicketPool#removeTicket()} hot paths.
+ * <p>
+ * The benchmark thread acts as one of the producers (or consumers) while the remaining producers
+ * and every consumer (or producer) run as background threads against the same pool, so the
+ * measured call sees the contention of the configured participant mix. Background threads stop
+ * only at the end of the trial, which keeps the measured thread from blocking forever on a full
+ * or empty pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackendTicketPoolBenchmark {
+
+    // Number of threads adding tickets, including the measured one for addTicket
+    @Param({"1", "4"})
+    private int producers;
+
+    // Number of threads removing tickets, including the measured one for removeTicket
+    @Param({"1", "4"})
+    private int consumers;
+
+    // Maximum capacity of the pool
+    @Param({"64", "4096"})
+    private int capacity;
+
+    // Engine implementation, as set by the ticketpool.engine property
+    @Param({"blocking", "ring-buffer", "striped"})
+    private String engine;
+
+    // Logging of every ticket to benchmark.log: off, written by the calling thread (sync), or through an AsyncAppender (async)
+    @Param({"off", "sync", "async"})
+    private String logging;
+
+    // Pool under test
+    private TicketPool pool;
+
+    // Producers and consumers running alongside the measured thread
+    private final List<Thread> participants = new ArrayList<>();
+
+    // Cleared at the end of the trial to stop the background threads
+    private volatile boolean running;
+
+    /**
+     * Creates a half-full pool and starts the background producers and consumers.
+     *
+     * @param params Parameters of the running benchmark, used to tell which side is measured.
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        configureLogging();
+
+        pool = new TicketPool(0, 1, 1, capacity);
+        pool.setEngineType(TicketPoolEngineType.fromName(engine));
+        int[] initial = new int[capacity / 2];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = i + 1;
+        }
+        pool.loadTickets(initial);
+
+        boolean measuringProducer = params.getBenchmark().endsWith("addTicket");
+        running = true;
+        startParticipants("producer", measuringProducer ? producers - 1 : producers, pool::addTicket);
+        startParticipants("consumer", measuringProducer ? consumers : consumers - 1, pool::removeTicket);
+    }
+
+    /**
+     * Stops the background threads, waking any that are waiting on the pool.
+     *
+     * @throws InterruptedException If interrupted while waiting for the threads to finish.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        for (Thread participant : participants) {
+            participant.interrupt();
+        }
+        for (Thread participant : participants) {
+            participant.join();
+        }
+        participants.clear();
+    }
+
+    /**
+     * Adds one ticket, waiting for space if the pool is full.
+     */
+    @Benchmark
+    public void addTicket() {
+        pool.addTicket();
+    }
+
+    /**
+     * Removes one ticket, waiting for one to arrive if the pool is empty.
+     */
+    @Benchmark
+    public void removeTicket() {
+        pool.removeTicket();
+    }
+
+    // Routes the pool's DEBUG lines to the log file as selected by the logging parameter
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger poolLogger = context.getLogger(TicketPool.class);
+        if (logging.equals("off")) {
+            poolLogger.setLevel(ch.qos.logback.classic.Level.OFF);
+            return;
+        }
+        poolLogger.setLevel(ch.qos.logback.classic.Level.DEBUG);
+        if (logging.equals("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setNeverBlock(true);
+            async.addAppender(context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).getAppender("FILE"));
+            async.start();
+            poolLogger.addAppender(async);
+            poolLogger.setAdditive(false);
+        }
+    }
+
+    // Starts daemon threads that repeat the given pool operation until the trial ends
+    private void startParticipants(String role, int count, Runnable operation) {
+        for (int i = 0; i < count; i++) {
+            Thread participant = new Thread(() -> {
+                while (running && !Thread.currentThread().isInterrupted()) {
+                    operation.run();
+                }
+            }, role + "-" + (i + 1));
+            participant.setDaemon(true);
+            participant.start();
+            participants.add(participant);
+        }
+    }
+}
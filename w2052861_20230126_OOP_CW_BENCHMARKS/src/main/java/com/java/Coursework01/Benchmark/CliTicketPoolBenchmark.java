@@ -0,0 +1,182 @@
+package com.java.Coursework01.Benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CLI {@code TicketPool.addTickets(1)} and {@code TicketPool.buyTicket()} hot paths.
+ * <p>
+ * A CLI pool stops accepting tickets once it has generated its maximum capacity, so a pool cannot
+ * serve an open-ended stream of operations. Each invocation therefore sells out a series of fresh
+ * pools, {@link #TICKETS_PER_INVOCATION} tickets in total: the producers add every pool's tickets
+ * one at a time while the consumers buy them, each side splitting every pool evenly between its
+ * threads. Results are reported per ticket sold.
+ * <p>
+ * The CLI classes live in the default package, so they are reached through method handles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CliTicketPoolBenchmark {
+
+    // Tickets sold per invocation; a multiple of every capacity below
+    static final int TICKETS_PER_INVOCATION = 4096;
+
+    // new TicketPool(int ticketsAvailable, int maxCapacity)
+    private static final MethodHandle NEW_POOL;
+
+    // TicketPool.addTickets(int amount)
+    private static final MethodHandle ADD_TICKETS;
+
+    // TicketPool.buyTicket()
+    private static final MethodHandle BUY_TICKET;
+
+    static {
+        try {
+            // Not initialized yet: the pool configures its logger from system properties set in setUp()
+            Class<?> poolClass = Class.forName("TicketPool", false, CliTicketPoolBenchmark.class.getClassLoader());
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            NEW_POOL = lookup.findConstructor(poolClass, MethodType.methodType(void.class, int.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class, int.class));
+            ADD_TICKETS = lookup.findVirtual(poolClass, "addTickets", MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class));
+            BUY_TICKET = lookup.findVirtual(poolClass, "buyTicket", MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(void.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Number of threads adding tickets
+    @Param({"1", "4"})
+    private int producers;
+
+    // Number of threads buying tickets
+    @Param({"1", "4"})
+    private int consumers;
+
+    // Maximum capacity of each pool
+    @Param({"64", "4096"})
+    private int capacity;
+
+    // Logging of every ticket to ticket_pool.log: off, written by the calling thread (sync), or by the writer thread (async)
+    @Param({"off", "sync", "async"})
+    private String logging;
+
+    // Runs the producers and consumers of an invocation
+    private ExecutorService participants;
+
+    // Fresh pools for the next invocation
+    private Object[] pools;
+
+    /**
+     * Configures the CLI pool logger and starts the participant threads.
+     *
+     * @throws ClassNotFoundException If the CLI classes are missing.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ClassNotFoundException {
+        System.setProperty("ticketpool.log.async", String.valueOf(logging.equals("async")));
+        System.setProperty("ticketpool.log.level", logging.equals("off") ? "OFF" : "FINE");
+        Class.forName("TicketPool"); // Runs the pool's logger setup with the properties above
+        participants = Executors.newFixedThreadPool(producers + consumers);
+    }
+
+    /**
+     * Creates the empty pools sold out by the next invocation.
+     */
+    @Setup(Level.Invocation)
+    public void createPools() {
+        pools = new Object[TICKETS_PER_INVOCATION / capacity];
+        for (int i = 0; i < pools.length; i++) {
+            try {
+                pools[i] = (Object) NEW_POOL.invokeExact(0, capacity);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to create a CLI ticket pool.", e);
+            }
+        }
+    }
+
+    /**
+     * Stops the participant threads.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        participants.shutdownNow();
+    }
+
+    /**
+     * Sells out the prepared pools with the configured producers and consumers.
+     *
+     * @throws Exception If a producer or consumer fails.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKETS_PER_INVOCATION)
+    public void sellOut() throws Exception {
+        List<Future<?>> running = new ArrayList<>(producers + consumers);
+        for (int i = 0; i < producers; i++) {
+            int share = share(i, producers);
+            running.add(participants.submit(() -> {
+                for (Object pool : pools) {
+                    for (int t = 0; t < share; t++) {
+                        addTicket(pool);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int i = 0; i < consumers; i++) {
+            int share = share(i, consumers);
+            running.add(participants.submit(() -> {
+                for (Object pool : pools) {
+                    for (int t = 0; t < share; t++) {
+                        buyTicket(pool);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> participant : running) {
+            participant.get();
+        }
+    }
+
+    // Calls addTickets(1) on a CLI pool
+    private static void addTicket(Object pool) throws Exception {
+        try {
+            ADD_TICKETS.invokeExact(pool, 1);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Calls buyTicket() on a CLI pool
+    private static void buyTicket(Object pool) throws Exception {
+        try {
+            BUY_TICKET.invokeExact(pool);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Tickets of each pool handled by the given thread, spreading the remainder over the first threads
+    private int share(int index, int threads) {
+        return capacity / threads + (index < capacity % threads ? 1 : 0);
+    }
+}
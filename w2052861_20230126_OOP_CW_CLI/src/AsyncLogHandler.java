@@ -0,0 +1,108 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+public class AsyncLogHandler extends Handler {
+    // Hands log records to a background writer thread through a bounded ring buffer, so logging threads never wait on log I/O.
+    // When the buffer is full, new records are dropped and counted; the writer reports the count as a warning.
+
+    private final Handler[] targets; // Handlers that format and write the records
+    private final ArrayBlockingQueue<LogRecord> buffer; // Records waiting to be written, oldest first
+    private final AtomicLong dropped = new AtomicLong(); // Records discarded since the last report
+    private final Thread writer; // Thread writing the buffered records
+    private volatile boolean closed; // Set once close() is called
+
+    // Constructor to wrap the target handlers with a buffer of the given capacity
+    public AsyncLogHandler(int capacity, Handler... targets) {
+        this.targets = targets.clone();
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::writeRecords, "async-log-writer");
+        this.writer.setDaemon(true); // Do not keep the application alive for logging
+        this.writer.start();
+    }
+
+    // Queues a record for the writer thread without waiting
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        record.getSourceClassName(); // Resolve the caller on this thread; the writer thread has a different stack
+        if (!buffer.offer(record)) {
+            dropped.incrementAndGet(); // Buffer full: drop rather than block the caller
+        }
+    }
+
+    // Nothing to do: the writer thread flushes the targets every time it empties the buffer
+    @Override
+    public void flush() {
+    }
+
+    // Writes out the remaining records, then closes the target handlers
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore the interrupted status
+        }
+        for (Handler target : targets) {
+            target.close();
+        }
+    }
+
+    // Writer loop: writes records as they arrive and flushes the targets whenever the buffer runs empty
+    private void writeRecords() {
+        while (!closed) {
+            try {
+                LogRecord record = buffer.poll(1, TimeUnit.SECONDS);
+                if (record != null) {
+                    write(record);
+                }
+                if (buffer.isEmpty()) {
+                    reportDropped();
+                    flushTargets();
+                }
+            } catch (InterruptedException e) {
+                break; // Interrupted by close(): write what is left and stop
+            }
+        }
+        LogRecord record;
+        while ((record = buffer.poll()) != null) {
+            write(record);
+        }
+        reportDropped();
+        flushTargets();
+    }
+
+    // Passes a record to every target; each target applies its own level
+    private void write(LogRecord record) {
+        for (Handler target : targets) {
+            target.publish(record);
+        }
+    }
+
+    // Writes a warning with the number of records dropped since the last report
+    private void reportDropped() {
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            LogRecord report = new LogRecord(Level.WARNING, count + " log records dropped because the log buffer was full.");
+            report.setLoggerName(AsyncLogHandler.class.getName());
+            report.setSourceClassName(AsyncLogHandler.class.getName());
+            report.setSourceMethodName("reportDropped");
+            write(report);
+        }
+    }
+
+    // Flushes every target
+    private void flushTargets() {
+        for (Handler target : targets) {
+            target.flush();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Benchmark {
+    // Headless benchmark of the CLI TicketPool: N producers and M consumers add and buy tickets as fast as they can,
+    // for a fixed time or number of tickets, with logging off. Prints one JSON object with throughput, latency
+    // percentiles and lock waits, so runs on different hardware or settings can be compared by a script.
+    //
+    // A pool stops accepting tickets once it has generated its maximum capacity, so the run sells out a series of
+    // fresh pools of the configured capacity, like CliTicketPoolBenchmark: each producer adds its share of every
+    // pool and each consumer buys its share. Whichever thread first reaches the next pool decides whether the run
+    // goes on, so every thread stops after the same pool.
+    //
+    // Usage: java CLI benchmark [--producers N] [--consumers M] [--duration SECONDS | --tickets COUNT]
+    //                           [--capacity C] [--config FILE] [--output FILE]
+
+    private final int producers; // Number of threads adding tickets
+    private final int consumers; // Number of threads buying tickets
+    private final int capacity; // Maximum capacity of each pool
+    private final long durationNanos; // How long to run, if no ticket count is given
+    private final long ticketTarget; // Tickets to sell, 0 to run for durationNanos
+
+    private final ConcurrentHashMap<Integer, Round> rounds = new ConcurrentHashMap<>(); // Pools in use, by sequence number
+    private final Round stop = new Round(null, 0); // Marks the first pool after the end of the run
+    private long deadline; // When a timed run ends, from System.nanoTime()
+
+    // Creates a benchmark; capacity must be at least the number of producers and of consumers
+    public Benchmark(int producers, int consumers, int capacity, long durationSeconds, long ticketTarget) {
+        if (producers <= 0 || consumers <= 0) {
+            throw new IllegalArgumentException("Producer and consumer counts must be positive integers.");
+        }
+        if (capacity < Math.max(producers, consumers)) {
+            throw new IllegalArgumentException("Capacity must be at least the number of producers and of consumers.");
+        }
+        this.producers = producers;
+        this.consumers = consumers;
+        this.capacity = capacity;
+        this.durationNanos = durationSeconds * 1_000_000_000L;
+        this.ticketTarget = ticketTarget;
+    }
+
+    // Runs the benchmark from the command-line arguments that follow "benchmark"
+    public static void main(String[] args) {
+        // Logging off, set before the pool's logger is configured
+        System.setProperty("ticketpool.log.level", "OFF");
+        System.setProperty("ticketpool.log.async", "false");
+
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                System.err.println("Invalid argument: " + args[i]);
+                System.exit(2);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+
+        // Capacity from the configuration file when there is one. Read here rather than with
+        // Configuration.loadFromFile, which prints its errors to stdout; stdout stays clean JSON
+        String configFile = options.getOrDefault("config", "config.json");
+        int configCapacity = 200;
+        if (new File(configFile).isFile()) {
+            try (FileReader reader = new FileReader(configFile)) {
+                Configuration config = new Gson().fromJson(reader, Configuration.class);
+                if (config != null) {
+                    configCapacity = config.getMaxTicketCapacity();
+                }
+            } catch (IOException | JsonParseException e) {
+                System.err.println("Error loading configuration: " + e.getMessage()); // Falls back to the default
+            }
+        }
+        try {
+            Benchmark benchmark = new Benchmark(
+                    Integer.parseInt(options.getOrDefault("producers", "1")),
+                    Integer.parseInt(options.getOrDefault("consumers", "1")),
+                    Integer.parseInt(options.getOrDefault("capacity", String.valueOf(configCapacity))),
+                    Long.parseLong(options.getOrDefault("duration", "10")),
+                    Long.parseLong(options.getOrDefault("tickets", "0")));
+            String json = new Gson().toJson(benchmark.run());
+            System.out.println(json);
+            if (options.containsKey("output")) {
+                try (FileWriter writer = new FileWriter(options.get("output"))) {
+                    writer.write(json);
+                    writer.write(System.lineSeparator());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Benchmark failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Runs the producers and consumers to the end and returns the results
+    public Map<String, Object> run() throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads.isThreadContentionMonitoringSupported()) {
+            threads.setThreadContentionMonitoringEnabled(true); // Times monitor entry blocks as well as counting them
+        }
+
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < producers; i++) {
+            workers.add(new Worker(true, share(i, producers)));
+        }
+        for (int i = 0; i < consumers; i++) {
+            workers.add(new Worker(false, share(i, consumers)));
+        }
+
+        long start = System.nanoTime();
+        deadline = start + durationNanos;
+        for (Worker worker : workers) {
+            worker.start();
+        }
+        for (Worker worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Histogram adds = new Histogram();
+        Histogram buys = new Histogram();
+        long[] producerWaits = new long[4];
+        long[] consumerWaits = new long[4];
+        for (Worker worker : workers) {
+            (worker.producer ? adds : buys).merge(worker.latencies);
+            long[] waits = worker.producer ? producerWaits : consumerWaits;
+            for (int i = 0; i < waits.length; i++) {
+                waits[i] += worker.lockWaits[i];
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("producers", producers);
+        result.put("consumers", consumers);
+        result.put("capacity", capacity);
+        result.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        result.put("javaVersion", System.getProperty("java.version"));
+        result.put("osArch", System.getProperty("os.arch"));
+        result.put("elapsedSeconds", elapsed / 1e9);
+        result.put("ticketsSold", buys.count);
+        result.put("ticketsPerSecond", buys.count / (elapsed / 1e9));
+        result.put("operationsPerSecond", (adds.count + buys.count) / (elapsed / 1e9));
+        result.put("addLatencyNanos", adds.summary());
+        result.put("buyLatencyNanos", buys.summary());
+        result.put("producerLockWaits", lockWaits(producerWaits));
+        result.put("consumerLockWaits", lockWaits(consumerWaits));
+        return result;
+    }
+
+    // Returns the pool with the given sequence number, or stop once the run is over; the first caller decides
+    private Round round(int sequence) {
+        return rounds.computeIfAbsent(sequence, k -> {
+            boolean over = ticketTarget > 0 ? (long) k * capacity >= ticketTarget : System.nanoTime() >= deadline;
+            return over ? stop : new Round(new TicketPool(0, capacity), consumers);
+        });
+    }
+
+    // Tickets of each pool handled by the given thread, spreading the remainder over the first threads
+    private int share(int index, int threads) {
+        return capacity / threads + (index < capacity % threads ? 1 : 0);
+    }
+
+    // Lock waits as reported by the JVM: blocked entering a monitor, and waiting in wait()
+    private static Map<String, Object> lockWaits(long[] waits) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("blockedCount", waits[0]);
+        summary.put("blockedMillis", waits[1]);
+        summary.put("waitedCount", waits[2]);
+        summary.put("waitedMillis", waits[3]);
+        return summary;
+    }
+
+    // A pool and the number of consumers still buying from it
+    private static final class Round {
+        private final TicketPool pool;
+        private final AtomicInteger consumersLeft;
+
+        private Round(TicketPool pool, int consumers) {
+            this.pool = pool;
+            this.consumersLeft = new AtomicInteger(consumers);
+        }
+    }
+
+    // A producer or consumer thread, timing every call
+    private final class Worker extends Thread {
+        private final boolean producer; // Adds tickets if true, buys them otherwise
+        private final int share; // Tickets handled per pool
+        private final Histogram latencies = new Histogram(); // Time of each call
+        private final long[] lockWaits = new long[4]; // Blocked count and ms, waited count and ms, from the JVM
+
+        private Worker(boolean producer, int share) {
+            super(producer ? "benchmark-producer" : "benchmark-consumer");
+            this.producer = producer;
+            this.share = share;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int sequence = 0; ; sequence++) {
+                    Round round = round(sequence);
+                    if (round == stop) {
+                        break;
+                    }
+                    for (int i = 0; i < share; i++) {
+                        long start = System.nanoTime();
+                        if (producer) {
+                            round.pool.addTickets(1);
+                        } else {
+                            round.pool.buyTicket();
+                        }
+                        latencies.record(System.nanoTime() - start);
+                    }
+                    if (!producer && round.consumersLeft.decrementAndGet() == 0) {
+                        rounds.remove(sequence); // Sold out; producers finished with it before the last ticket
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            // Lock statistics of this thread; apart from the pools' monitors it only locks to fetch the next pool
+            @SuppressWarnings("deprecation") // threadId() replaces getId() only from Java 19; the CLI supports Java 11
+            ThreadInfo info = ManagementFactory.getThreadMXBean().getThreadInfo(getId());
+            if (info != null) {
+                lockWaits[0] = info.getBlockedCount();
+                lockWaits[1] = Math.max(info.getBlockedTime(), 0);
+                lockWaits[2] = info.getWaitedCount();
+                lockWaits[3] = Math.max(info.getWaitedTime(), 0);
+            }
+        }
+    }
+
+    // Log-linear histogram of non-negative values with 16 buckets per power of two, so within about 6%
+    static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        private final long[] counts = new long[(64 - SUB_BITS) * SUB_BUCKETS];
+        private long count;
+        private long sum;
+        private long max;
+
+        void record(long value) {
+            counts[index(Math.max(value, 0))]++;
+            count++;
+            sum += value;
+            max = Math.max(max, value);
+        }
+
+        void merge(Histogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            sum += other.sum;
+            max = Math.max(max, other.max);
+        }
+
+        // Lowest value of the bucket holding the given fraction of the recorded values
+        long percentile(double fraction) {
+            long rank = Math.max((long) Math.ceil(fraction * count), 1);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(lowestValue(i), max);
+                }
+            }
+            return max;
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", count);
+            summary.put("mean", count == 0 ? 0 : sum / count);
+            summary.put("p50", percentile(0.50));
+            summary.put("p90", percentile(0.90));
+            summary.put("p99", percentile(0.99));
+            summary.put("p999", percentile(0.999));
+            summary.put("max", max);
+            return summary;
+        }
+
+        private static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long lowestValue(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+            return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BITS);
+        }
+    }
+}
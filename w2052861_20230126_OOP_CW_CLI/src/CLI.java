@@ -1,3 +1,4 @@
+import java.io.IOException;
 import java.util.Scanner;
 
 public class CLI {
@@ -6,19 +7,30 @@ public class CLI {
     private static Thread producerThread; // Thread for producing tickets
     private static Thread consumerThread; // Thread for consuming tickets
     private static final String CONFIG_FILE = "config.json"; // Configuration file path
-    private static Configuration config; // Configuration object for system settings
+    private static final String SIMULATION_REPORT_FILE = "simulation_report.txt"; // Report of the last simulation
+    private static final String SNAPSHOT_FILE = "ticket_pool.snapshot"; // Binary snapshot of the configuration and pool
+    private static final long CHECKPOINT_INTERVAL_MILLIS = Long.getLong("ticketpool.checkpoint-ms", 10000); // Time between checkpoints while running, 0 for none
+    private static volatile Configuration config; // Configuration object for system settings, replaced as a whole so running threads see one snapshot
     private static Thread monitorThread; // Thread for monitoring system status
     private static boolean systemRunning = false; // Indicates if the system is currently running
     private static boolean configurationUpdated = false; // Fix: Tracks if manual configuration has been done
 
     public static void main(String[] args) {
+        // Headless benchmark: java CLI benchmark [options]
+        if (args.length > 0 && args[0].equals("benchmark")) {
+            Benchmark.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         loadConfiguration(); // Load configuration on startup
-        initializeSystemComponents(); // Initialize system components
+        if (!restoreSnapshot()) {
+            initializeSystemComponents(); // Initialize system components
+        }
 
         Scanner inp = new Scanner(System.in); // Scanner for user input
         String input;
 
-        System.out.println("Enter 'start', 'stop', 'check', 'config', or 'exit':");
+        System.out.println("Enter 'start', 'stop', 'check', 'config', 'checkpoint', 'simulate', or 'exit':");
 
         // Main loop to handle user input
         while (!(input = inp.nextLine()).equals("exit")) {
@@ -35,8 +47,14 @@ public class CLI {
                 case "config":
                     configureSystem(inp); // Manually configure the system
                     break;
+                case "checkpoint":
+                    checkpoint(); // Save the pool now
+                    break;
+                case "simulate":
+                    handleSimulate(inp); // Run a simulated sale on a virtual clock
+                    break;
                 default:
-                    System.out.println("Invalid command. Please use 'start', 'stop', 'check', 'config', or 'exit'.");
+                    System.out.println("Invalid command. Please use 'start', 'stop', 'check', 'config', 'checkpoint', 'simulate', or 'exit'.");
                     break;
             }
         }
@@ -54,11 +72,37 @@ public class CLI {
         }
     }
 
+    // Resume the configuration and pool saved by the last run, if any
+    private static boolean restoreSnapshot() {
+        PoolSnapshot snapshot = PoolSnapshot.load(SNAPSHOT_FILE);
+        if (snapshot == null) {
+            return false;
+        }
+        config = snapshot.getConfiguration();
+        ticketPool = snapshot.getPool();
+        System.out.println("Resumed from " + SNAPSHOT_FILE + " with " + ticketPool.getAvailableTickets() + " tickets available.");
+        return true;
+    }
+
+    // Save the configuration and pool so the next run resumes from them; synchronized so the monitor thread and a
+    // command never save at the same time
+    private static synchronized void checkpoint() {
+        if (ticketPool == null) {
+            System.out.println("System not configured yet.");
+            return;
+        }
+        try {
+            System.out.println("Checkpoint saved to " + PoolSnapshot.save(SNAPSHOT_FILE, config, ticketPool) + ".");
+        } catch (IOException e) {
+            System.out.println(String.format("Error writing to file: %s", e.getMessage())); // Error handling
+        }
+    }
+
     // Initialize ticket pool and threads
     private static void initializeSystemComponents() {
         ticketPool = new TicketPool(config.getTotalTickets(), config.getMaxTicketCapacity());
-        producerThread = new Thread(new Producer(ticketPool, config.getTicketReleaseRate()));
-        consumerThread = new Thread(new Consumer(ticketPool, config.getCustomerRetrievalRate()));
+        producerThread = new Thread(new Producer(ticketPool, () -> config.getTicketReleaseRate()));
+        consumerThread = new Thread(new Consumer(ticketPool, () -> config.getCustomerRetrievalRate()));
     }
 
     // Handle the "start" command
@@ -91,6 +135,20 @@ public class CLI {
         }
     }
 
+    // Handle the "simulate" command: runs the configured sale on a virtual clock instead of real threads
+    private static void handleSimulate(Scanner inp) {
+        int vendors = getPositiveInp(inp, "Enter number of vendors: ");
+        int customers = getPositiveInp(inp, "Enter number of customers: ");
+        int seconds = getPositiveInp(inp, "Enter simulated duration in seconds: ");
+        int seed = getPositiveInp(inp, "Enter random seed: ");
+
+        Simulation simulation = new Simulation(config, vendors, customers, seconds, seed);
+        String report = simulation.run();
+        System.out.print(report);
+        System.out.print(simulation.timing()); // Not saved, so saved reports of the same seed stay identical
+        Simulation.saveReport(report, SIMULATION_REPORT_FILE);
+    }
+
     // Start the ticketing system
     private static void startSystem() {
         if (systemRunning) {
@@ -100,9 +158,9 @@ public class CLI {
         System.out.println("Starting Ticketing System...");
         systemRunning = true;
 
-        // Recreate threads
-        producerThread = new Thread(new Producer(ticketPool, config.getTicketReleaseRate()));
-        consumerThread = new Thread(new Consumer(ticketPool, config.getCustomerRetrievalRate()));
+        // Recreate threads; they read their rates from the current configuration, so reconfiguring does not restart them
+        producerThread = new Thread(new Producer(ticketPool, () -> config.getTicketReleaseRate()));
+        consumerThread = new Thread(new Consumer(ticketPool, () -> config.getCustomerRetrievalRate()));
 
         // Start threads
         startMonitoring();
@@ -128,7 +186,13 @@ public class CLI {
         }
         if (monitorThread != null && monitorThread.isAlive()) {
             monitorThread.interrupt();
+            try {
+                monitorThread.join(); // Let a periodic checkpoint in progress finish before the final one
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
+        checkpoint(); // Save where the sale stopped
     }
 
     // Manually configure the system
@@ -138,10 +202,19 @@ public class CLI {
         int customerRetrievalRate = getPositiveInp(inp, "Enter customer ticket retrieval rate: ");
         int maxTicketCapacity = getPositiveInp(inp, "Enter maximum ticket capacity: ");
 
-        config = new Configuration(totalTickets, ticketReleaseRate, customerRetrievalRate, maxTicketCapacity);
-        config.saveToFile(CONFIG_FILE); // Save updated configuration
-        initializeSystemComponents(); // Reinitialize system components with updated configuration
+        Configuration updated = new Configuration(totalTickets, ticketReleaseRate, customerRetrievalRate, maxTicketCapacity);
+        updated.saveToFile(CONFIG_FILE); // Save updated configuration
         configurationUpdated = true; // Fix: Set flag to true after manual configuration
+        if (systemRunning) {
+            // Apply to the running system: resize the pool in place and publish the new rates to the running threads;
+            // the total number of tickets only applies to a new pool
+            ticketPool.setMaxCapacity(maxTicketCapacity);
+            config = updated;
+            System.out.println("Configuration updated and saved. Applied to the running system; total tickets apply from the next new pool.");
+            return;
+        }
+        config = updated;
+        initializeSystemComponents(); // Reinitialize system components with updated configuration
         System.out.println("Configuration updated and saved.");
     }
 
@@ -164,9 +237,16 @@ public class CLI {
     private static void startMonitoring() {
         monitorThread = new Thread(() -> {
             try {
+                long lastCheckpoint = System.currentTimeMillis();
                 while (!Thread.currentThread().isInterrupted()) {
                     System.out.println("Tickets available: " + ticketPool.getAvailableTickets());
                     Thread.sleep(1000);
+
+                    // Checkpoint periodically; the pool is locked only to copy its tickets
+                    if (CHECKPOINT_INTERVAL_MILLIS > 0 && System.currentTimeMillis() - lastCheckpoint >= CHECKPOINT_INTERVAL_MILLIS) {
+                        checkpoint();
+                        lastCheckpoint = System.currentTimeMillis();
+                    }
                 }
             } catch (InterruptedException e) {
                 System.out.println("Monitoring thread interrupted.");
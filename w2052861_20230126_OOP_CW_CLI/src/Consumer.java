@@ -1,11 +1,18 @@
+import java.util.function.IntSupplier;
+
 public class Consumer implements Runnable {
     // The Consumer class represents a thread that retrieves tickets from a shared ticket pool at a specified rate.
 
     private final TicketPool ticketPool; // Shared resource that manages tickets
-    private final int retrievalRate; // Rate at which tickets are retrieved (in arbitrary units)
+    private final IntSupplier retrievalRate; // Current retrieval rate (in arbitrary units), read before each purchase
 
     // Constructor to initialize the Consumer with a ticket pool and retrieval rate
     public Consumer(TicketPool ticketPool, int retrievalRate) {
+        this(ticketPool, () -> retrievalRate);
+    }
+
+    // Constructor for a Consumer whose retrieval rate can change while it runs, e.g. when the system is reconfigured
+    public Consumer(TicketPool ticketPool, IntSupplier retrievalRate) {
         this.ticketPool = ticketPool; // Assign the shared ticket pool
         this.retrievalRate = retrievalRate; // Set the retrieval rate for ticket consumption
     }
@@ -16,7 +23,7 @@ public class Consumer implements Runnable {
         try {
             // Continuously attempt to retrieve tickets until the thread is interrupted
             while (!Thread.currentThread().isInterrupted()) {
-                Thread.sleep(retrievalRate * 80L); // Simulate a delay based on the retrieval rate
+                Thread.sleep(retrievalRate.getAsInt() * 80L); // Simulate a delay based on the retrieval rate
                 ticketPool.buyTicket(); // Attempt to retrieve a ticket from the pool
             }
         } catch (InterruptedException e) {
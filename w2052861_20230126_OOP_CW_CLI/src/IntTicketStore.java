@@ -0,0 +1,128 @@
+import java.nio.IntBuffer;
+import java.util.NoSuchElementException;
+
+public class IntTicketStore {
+    // Growable double-ended queue of primitive ticket IDs, backed by a power-of-two circular array.
+    // Adding or removing at either end is O(1) and no ticket is boxed. Callers provide their own locking.
+
+    // Capacity of a store created without a size hint
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Circular array of ticket IDs
+    private int[] elements;
+
+    // Index of the first ticket
+    private int head;
+
+    // Number of tickets in the store
+    private int size;
+
+    // Creates an empty store with the default capacity
+    public IntTicketStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Creates an empty store sized for the expected number of tickets
+    public IntTicketStore(int expectedSize) {
+        this.elements = new int[arrayLength(expectedSize)];
+    }
+
+    // Creates a store holding the remaining tickets of a buffer, first to last, sized for the expected number of tickets
+    public static IntTicketStore readFrom(IntBuffer source, int expectedSize) {
+        int count = source.remaining();
+        IntTicketStore store = new IntTicketStore(Math.max(count, expectedSize));
+        source.get(store.elements, 0, count); // One bulk copy, e.g. straight out of a mapped file
+        store.size = count;
+        return store;
+    }
+
+    // Adds a ticket before the first ticket
+    public void addFirst(int ticket) {
+        ensureCapacity(size + 1);
+        head = (head - 1) & (elements.length - 1);
+        elements[head] = ticket;
+        size++;
+    }
+
+    // Adds a ticket after the last ticket
+    public void addLast(int ticket) {
+        ensureCapacity(size + 1);
+        elements[(head + size) & (elements.length - 1)] = ticket;
+        size++;
+    }
+
+    // Removes and returns the first ticket
+    public int removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException("Ticket store is empty.");
+        }
+        int ticket = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return ticket;
+    }
+
+    // Removes and returns the last ticket
+    public int removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException("Ticket store is empty.");
+        }
+        size--;
+        return elements[(head + size) & (elements.length - 1)];
+    }
+
+    // Returns the ticket at the given position from the first ticket, without removing it
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return elements[(head + index) & (elements.length - 1)];
+    }
+
+    // Number of tickets in the store
+    public int size() {
+        return size;
+    }
+
+    // True if the store holds no tickets
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Removes every ticket while keeping the allocated array
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // Copies the tickets into a new array, first to last
+    public int[] toArray() {
+        int[] copy = new int[size];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, copy, 0, firstPart);
+        System.arraycopy(elements, 0, copy, firstPart, size - firstPart);
+        return copy;
+    }
+
+    // Doubles the array until it can hold the requested number of tickets
+    private void ensureCapacity(int required) {
+        if (required <= elements.length) {
+            return;
+        }
+        if (required > 1 << 30) {
+            throw new IllegalStateException("Ticket store cannot hold more than 2^30 tickets.");
+        }
+        int[] grown = new int[arrayLength(required)];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+        elements = grown;
+        head = 0;
+    }
+
+    // Smallest power of two that fits the requested size
+    private static int arrayLength(int requested) {
+        int length = Integer.highestOneBit(Math.max(requested, DEFAULT_CAPACITY));
+        return length < requested ? length << 1 : length;
+    }
+}
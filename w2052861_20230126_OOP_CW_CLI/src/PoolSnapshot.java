@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public class PoolSnapshot {
+    // Compact binary snapshot of the CLI configuration and TicketPool contents, read and written through a
+    // MappedByteBuffer so a pool of millions of tickets loads and saves with one bulk copy each way.
+    //
+    // Layout, little-endian ints: magic, version, sequence, ticket count, tickets generated, total tickets, release
+    // rate, retrieval rate, max capacity, CRC32 of the header before it and the tickets; then the ticket IDs, oldest first.
+    // A mapped file cannot be renamed on Windows, so instead of a temp file and a move, saves alternate between two
+    // slots, the file itself and the file with SLOT_SUFFIX, each rewritten in place. A save never touches the slot
+    // holding the newest good snapshot, and the CRC makes a slot torn by a crash mid-write fail to load, so loading
+    // the good slot with the highest sequence always finds the last complete checkpoint.
+
+    private static final int MAGIC = 0x54505331; // "TPS1"
+    private static final int VERSION = 2; // Format version
+    private static final String SLOT_SUFFIX = ".1"; // Suffix of the second slot
+    private static final int SEQUENCE_OFFSET = 8; // Offset of the sequence number
+    private static final int CRC_OFFSET = 36; // Header bytes covered by the CRC, which follows them
+    private static final int HEADER_BYTES = CRC_OFFSET + Integer.BYTES; // Tickets start here
+
+    private static String knownFile; // Snapshot file whose slots were last read or written
+    private static int newestSlot = -1; // Slot of knownFile holding the newest good snapshot, -1 for none
+    private static int newestSequence; // Sequence number of that snapshot
+
+    private final Configuration configuration; // Configuration the pool was running with
+    private final TicketPool pool; // Restored pool
+
+    private PoolSnapshot(Configuration configuration, TicketPool pool) {
+        this.configuration = configuration;
+        this.pool = pool;
+    }
+
+    // Getter for the saved configuration
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    // Getter for the restored pool
+    public TicketPool getPool() {
+        return pool;
+    }
+
+    // Saves the configuration and a consistent copy of the pool's tickets into the older slot and returns its path;
+    // the pool is locked only for the copy
+    public static synchronized Path save(String filename, Configuration config, TicketPool pool) throws IOException {
+        int[] tickets;
+        int generated;
+        synchronized (pool) {
+            tickets = pool.getTicketIds();
+            generated = pool.getGeneratedTickets();
+        }
+
+        long size = HEADER_BYTES + (long) tickets.length * Integer.BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Pool is too large for a snapshot: " + tickets.length + " tickets.");
+        }
+        if (!filename.equals(knownFile)) {
+            findNewestSlot(filename);
+        }
+        int slot = newestSlot == 0 ? 1 : 0; // Never overwrite the newest good snapshot
+        int sequence = newestSequence + 1;
+        Path path = slotPath(filename, slot);
+        newestSlot = -1; // Until this save completes, the other slot may be the only good one
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // Grows the file if needed
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(sequence).putInt(tickets.length).putInt(generated)
+                    .putInt(config.getTotalTickets()).putInt(config.getTicketReleaseRate())
+                    .putInt(config.getCustomerRetrievalRate()).putInt(config.getMaxTicketCapacity());
+            buffer.position(HEADER_BYTES);
+            buffer.asIntBuffer().put(tickets);
+            buffer.putInt(CRC_OFFSET, checksum(buffer, tickets.length));
+            buffer.force(); // Flush to disk before reporting the checkpoint as taken
+        }
+        newestSlot = slot;
+        newestSequence = sequence;
+        return path;
+    }
+
+    // Loads the newest good snapshot from either slot; null if there is none, or both are damaged or from another
+    // format version
+    public static synchronized PoolSnapshot load(String filename) {
+        MappedByteBuffer buffer = findNewestSlot(filename);
+        if (buffer == null) {
+            return null;
+        }
+        buffer.position(SEQUENCE_OFFSET + Integer.BYTES);
+        int count = buffer.getInt();
+        int generated = buffer.getInt();
+        Configuration config = new Configuration(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+
+        buffer.position(HEADER_BYTES);
+        buffer.limit(HEADER_BYTES + count * Integer.BYTES);
+        TicketPool pool = new TicketPool(buffer.asIntBuffer(), generated, config.getMaxTicketCapacity());
+        return new PoolSnapshot(config, pool);
+    }
+
+    // Reads both slots of a snapshot file and remembers the good one with the highest sequence; returns it mapped,
+    // or null if neither is good
+    private static MappedByteBuffer findNewestSlot(String filename) {
+        knownFile = filename;
+        newestSlot = -1;
+        newestSequence = 0;
+        MappedByteBuffer newest = null;
+        for (int slot = 0; slot < 2; slot++) {
+            MappedByteBuffer buffer = readSlot(slotPath(filename, slot));
+            if (buffer != null && (newest == null || buffer.getInt(SEQUENCE_OFFSET) - newestSequence > 0)) {
+                newest = buffer;
+                newestSlot = slot;
+                newestSequence = buffer.getInt(SEQUENCE_OFFSET);
+            }
+        }
+        return newest;
+    }
+
+    // Maps one slot and checks it; null if there is none, or it is damaged or from another format version
+    private static MappedByteBuffer readSlot(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                System.out.println("Ignoring snapshot " + path + ": not a snapshot file.");
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                System.out.println("Ignoring snapshot " + path + ": not a version " + VERSION + " snapshot.");
+                return null;
+            }
+            int count = buffer.getInt(SEQUENCE_OFFSET + Integer.BYTES);
+            if (count < 0 || HEADER_BYTES + (long) count * Integer.BYTES > channel.size()
+                    || buffer.getInt(CRC_OFFSET) != checksum(buffer, count)) {
+                System.out.println("Ignoring snapshot " + path + ": checksum mismatch.");
+                return null;
+            }
+            return buffer; // Stays valid after the channel is closed
+        } catch (NoSuchFileException e) {
+            return null; // Nothing saved in this slot yet
+        } catch (IOException e) {
+            System.out.println(String.format("Error loading snapshot: %s", e.getMessage())); // Error handling
+            return null;
+        }
+    }
+
+    // Path of one of the two slots of a snapshot file
+    private static Path slotPath(String filename, int slot) {
+        return Paths.get(slot == 0 ? filename : filename + SLOT_SUFFIX);
+    }
+
+    // CRC32 of the header fields before the CRC and the given number of tickets
+    private static int checksum(ByteBuffer buffer, int count) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.position(0).limit(CRC_OFFSET);
+        crc.update(view);
+        view.limit(HEADER_BYTES + count * Integer.BYTES).position(HEADER_BYTES);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+}
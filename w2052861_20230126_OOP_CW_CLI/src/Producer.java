@@ -1,11 +1,18 @@
+import java.util.function.IntSupplier;
+
 public class Producer implements Runnable {
     // The Producer class represents a thread that continuously adds tickets to a shared ticket pool at a specified rate.
 
     private final TicketPool ticketPool; // Shared resource that manages the pool of tickets
-    private final int releaseRate; // Time in milliseconds between each ticket addition
+    private final IntSupplier releaseRate; // Current release rate, read before each ticket addition
 
     // Constructor to initialize the Producer with a ticket pool and release rate
     public Producer(TicketPool ticketPool, int releaseRate) {
+        this(ticketPool, () -> releaseRate);
+    }
+
+    // Constructor for a Producer whose release rate can change while it runs, e.g. when the system is reconfigured
+    public Producer(TicketPool ticketPool, IntSupplier releaseRate) {
         this.ticketPool = ticketPool; // Assign the shared ticket pool
         this.releaseRate = releaseRate; // Set the rate at which tickets are released
     }
@@ -16,7 +23,7 @@ public class Producer implements Runnable {
         try {
             // Continuously produce tickets until the thread is interrupted
             while (!Thread.currentThread().isInterrupted()) {
-                Thread.sleep(releaseRate * 50L); // Simulate a delay based on the release rate
+                Thread.sleep(releaseRate.getAsInt() * 50L); // Simulate a delay based on the release rate
                 ticketPool.addTickets(1); // Add one ticket to the pool
             }
         } catch (InterruptedException e) {
@@ -0,0 +1,256 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class Simulation {
+    // Discrete-event simulation of the ticket pool: vendors and customers act at the intervals the
+    // Producer and Consumer sleep for, but on a virtual clock, so an hour-long sale runs in milliseconds.
+    // Actions wait in a priority queue ordered by time and then by scheduling order, and every interval is
+    // jittered by a seeded random generator, so the same configuration and seed always give the same report.
+    // How long the run took in real time varies from run to run, so it is kept out of the report; see timing().
+    // A vendor finding the pool full and a customer finding it empty wait in line, as they would in wait(),
+    // until the next action that frees capacity or adds a ticket wakes them.
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long VENDOR_MILLIS_PER_RATE = 50L; // Producer sleeps releaseRate * 50 ms between tickets
+    private static final long CUSTOMER_MILLIS_PER_RATE = 80L; // Consumer sleeps retrievalRate * 80 ms between purchases
+    private static final double JITTER = 0.5; // Intervals vary uniformly by up to this fraction either way
+
+    private final int maxCapacity; // Maximum capacity of the pool, also the most tickets ever generated
+    private final int vendors; // Number of vendors
+    private final int customers; // Number of customers; actors vendors..vendors+customers-1
+    private final long vendorIntervalNanos; // Mean time between a vendor's tickets
+    private final long customerIntervalNanos; // Mean time between a customer's purchases
+    private final long durationNanos; // Simulated time to run for
+    private final long seed; // Seed of the interval jitter
+    private final SplittableRandom random; // Jitters every interval
+
+    // Pending actions: a binary min-heap of (time, sequence) with the acting participant
+    private long[] heapTimes = new long[64];
+    private long[] heapSeqs = new long[64];
+    private int[] heapActors = new int[64];
+    private int heapSize;
+    private long nextSeq;
+
+    private final IntTicketStore waitingVendors = new IntTicketStore(); // Vendors waiting for capacity, oldest first
+    private final IntTicketStore waitingCustomers = new IntTicketStore(); // Customers waiting for tickets, oldest first
+    private final long[] waitingSince; // When each waiting participant started to wait
+
+    private long now; // Virtual clock, in nanoseconds
+    private int tickets; // Tickets in the pool
+    private int generated; // Tickets generated so far
+    private long actions; // Vendor and customer actions processed
+    private long added; // Tickets added
+    private long sold; // Tickets sold
+    private long capacityWaits; // Times a vendor waited for capacity
+    private long ticketWaits; // Times a customer waited for tickets
+    private long soldOutAt = -1; // When the last generated ticket was sold, -1 if never
+    private long[] customerWaits = new long[64]; // Every customer wait, in nanoseconds
+    private int customerWaitCount;
+    private long wallNanos; // Real time the run took, in nanoseconds
+
+    // Creates a simulation from the CLI configuration
+    public Simulation(Configuration config, int vendors, int customers, long durationSeconds, long seed) {
+        this.maxCapacity = config.getMaxTicketCapacity();
+        this.vendors = Math.max(vendors, 1);
+        this.customers = Math.max(customers, 1);
+        this.vendorIntervalNanos = Math.max(config.getTicketReleaseRate() * VENDOR_MILLIS_PER_RATE * NANOS_PER_MILLI, 1L);
+        this.customerIntervalNanos = Math.max(config.getCustomerRetrievalRate() * CUSTOMER_MILLIS_PER_RATE * NANOS_PER_MILLI, 1L);
+        this.durationNanos = durationSeconds * 1000L * NANOS_PER_MILLI;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.waitingSince = new long[this.vendors + this.customers];
+        this.tickets = Math.min(config.getTotalTickets(), maxCapacity);
+        this.generated = tickets; // The initial tickets count as generated, as in TicketPool
+    }
+
+    // Runs the simulation until the simulated time is up or nobody can act any more, and returns the report
+    public String run() {
+        long wallStart = System.nanoTime();
+        for (int actor = 0; actor < vendors + customers; actor++) {
+            schedule(actor, interval(actor));
+        }
+
+        while (heapSize > 0 && heapTimes[0] <= durationNanos) {
+            now = heapTimes[0];
+            int actor = heapActors[0];
+            pop();
+            actions++;
+            if (actor < vendors) {
+                vendorActs(actor);
+            } else {
+                customerActs(actor);
+            }
+        }
+
+        wallNanos = Math.max(System.nanoTime() - wallStart, 1L);
+        return report(heapSize > 0 ? durationNanos : now);
+    }
+
+    // How long the finished run took in real time; unlike the report, this differs between runs
+    public String timing() {
+        return String.format("Ran %d actions in %.3f s (%.0f actions/s)%n", actions, seconds(wallNanos), actions / seconds(wallNanos));
+    }
+
+    // A vendor adds one ticket, or waits while the pool is full or every ticket has been generated
+    private void vendorActs(int vendor) {
+        if (tickets >= maxCapacity || generated >= maxCapacity) {
+            capacityWaits++;
+            waitingSince[vendor] = now;
+            waitingVendors.addLast(vendor);
+            return;
+        }
+        tickets++;
+        generated++;
+        added++;
+        if (!waitingCustomers.isEmpty()) {
+            int customer = waitingCustomers.removeFirst();
+            recordCustomerWait(now - waitingSince[customer]);
+            schedule(customer, 0L); // Woken customers buy straight away
+        }
+        schedule(vendor, interval(vendor));
+    }
+
+    // A customer buys one ticket, or waits while the pool is empty
+    private void customerActs(int customer) {
+        if (tickets == 0) {
+            ticketWaits++;
+            waitingSince[customer] = now;
+            waitingCustomers.addLast(customer);
+            return;
+        }
+        tickets--;
+        sold++;
+        if (tickets == 0 && generated >= maxCapacity && soldOutAt < 0) {
+            soldOutAt = now;
+        }
+        if (!waitingVendors.isEmpty()) {
+            schedule(waitingVendors.removeFirst(), 0L); // Woken vendors retry straight away
+        }
+        schedule(customer, interval(customer));
+    }
+
+    // Jittered time until a participant's next action
+    private long interval(int actor) {
+        long mean = actor < vendors ? vendorIntervalNanos : customerIntervalNanos;
+        return Math.max((long) (mean * (1.0 + JITTER * (2.0 * random.nextDouble() - 1.0))), 1L);
+    }
+
+    private void recordCustomerWait(long nanos) {
+        if (customerWaitCount == customerWaits.length) {
+            customerWaits = Arrays.copyOf(customerWaits, customerWaitCount * 2);
+        }
+        customerWaits[customerWaitCount++] = nanos;
+    }
+
+    // Adds an action after the given delay; actions at the same time run in the order they were scheduled
+    private void schedule(int actor, long delayNanos) {
+        if (heapSize == heapTimes.length) {
+            heapTimes = Arrays.copyOf(heapTimes, heapSize * 2);
+            heapSeqs = Arrays.copyOf(heapSeqs, heapSize * 2);
+            heapActors = Arrays.copyOf(heapActors, heapSize * 2);
+        }
+        long time = now + delayNanos;
+        long seq = nextSeq++;
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(time, seq, heapTimes[parent], heapSeqs[parent])) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        heapTimes[i] = time;
+        heapSeqs[i] = seq;
+        heapActors[i] = actor;
+    }
+
+    // Removes the earliest action
+    private void pop() {
+        int last = --heapSize;
+        long time = heapTimes[last];
+        long seq = heapSeqs[last];
+        int actor = heapActors[last];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && before(heapTimes[child + 1], heapSeqs[child + 1], heapTimes[child], heapSeqs[child])) {
+                child++;
+            }
+            if (!before(heapTimes[child], heapSeqs[child], time, seq)) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        heapTimes[i] = time;
+        heapSeqs[i] = seq;
+        heapActors[i] = actor;
+    }
+
+    private void move(int from, int to) {
+        heapTimes[to] = heapTimes[from];
+        heapSeqs[to] = heapSeqs[from];
+        heapActors[to] = heapActors[from];
+    }
+
+    private static boolean before(long time, long seq, long otherTime, long otherSeq) {
+        return time < otherTime || (time == otherTime && seq < otherSeq);
+    }
+
+    // Formats the results of a finished run
+    private String report(long simulatedNanos) {
+        long[] waits = Arrays.copyOf(customerWaits, customerWaitCount);
+        Arrays.sort(waits);
+        StringBuilder report = new StringBuilder();
+        report.append("Simulation report\n");
+        report.append(String.format("  Seed: %d, vendors: %d, customers: %d, max capacity: %d%n", seed, vendors, customers, maxCapacity));
+        report.append(String.format("  Simulated time: %.3f s of %.3f s%n", seconds(simulatedNanos), seconds(durationNanos)));
+        report.append(String.format("  Actions processed: %d%n", actions));
+        report.append(String.format("  Tickets added: %d, sold: %d, left in pool: %d, total generated: %d%n", added, sold, tickets, generated));
+        report.append(String.format("  Vendor waits for capacity: %d, customer waits for tickets: %d%n", capacityWaits, ticketWaits));
+        if (waits.length > 0) {
+            report.append(String.format("  Customer wait (ms): mean %.1f, p50 %.1f, p99 %.1f, max %.1f%n",
+                    millis(mean(waits)), millis(percentile(waits, 0.50)), millis(percentile(waits, 0.99)), millis(waits[waits.length - 1])));
+        }
+        if (soldOutAt >= 0) {
+            report.append(String.format("  Sold out at: %.3f s%n", seconds(soldOutAt)));
+        }
+        return report.toString();
+    }
+
+    // Writes the report to a file, e.g. to compare runs
+    public static void saveReport(String report, String filename) {
+        try (FileWriter writer = new FileWriter(filename)) {
+            writer.write(report);
+            System.out.println("Report saved to " + filename + ".");
+        } catch (IOException e) {
+            System.out.println(String.format("Error writing to file: %s", e.getMessage())); // Error handling
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static double mean(long[] values) {
+        double sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static double millis(double nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
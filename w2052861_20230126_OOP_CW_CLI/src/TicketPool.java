@@ -1,6 +1,5 @@
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.IntBuffer;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Level;
@@ -9,12 +8,22 @@ import java.util.logging.SimpleFormatter;
 
 public class TicketPool {
     // Manages a pool of tickets with synchronized methods for adding and removing tickets.
+    // Per-ticket activity is logged at FINE and summarized at INFO every SUMMARY_INTERVAL_MILLIS; nothing is logged while holding the lock.
 
     private int ticketsAvailable; // Tracks the number of tickets currently available
     private int generatedTickets = 0; // Tracks the total number of tickets generated
-    private final int maxCapacity; // Maximum capacity of the ticket pool
+    private int maxCapacity; // Maximum capacity of the ticket pool, changed in place by setMaxCapacity
     private static final Logger logger = Logger.getLogger(TicketPool.class.getName()); // Logger for logging events
-    private final List<Integer> tickets; // List to store ticket IDs
+    private final IntTicketStore tickets; // Primitive queue of ticket IDs, oldest first
+
+    private static final long SUMMARY_INTERVAL_MILLIS = Long.getLong("ticketpool.log.summary-ms", 5000); // Time between activity summaries
+    private static final String SUMMARY_MESSAGE = "Last {0,number,#} ms: {1,number,#} tickets added, {2,number,#} purchased, "
+            + "{3,number,#} waits for capacity, {4,number,#} waits for tickets. Tickets now: {5,number,#}. Total generated tickets: {6,number,#}";
+    private int addedSinceSummary; // Tickets added since the last summary
+    private int purchasedSinceSummary; // Tickets purchased since the last summary
+    private int capacityWaitsSinceSummary; // Times a vendor waited for capacity since the last summary
+    private int ticketWaitsSinceSummary; // Times a customer waited for tickets since the last summary
+    private long lastSummaryMillis = System.currentTimeMillis(); // When the last summary was taken
 
     // Static block to configure the logger
     static {
@@ -23,15 +32,22 @@ public class TicketPool {
             FileHandler fileHandler = new FileHandler("ticket_pool.log", true);
             fileHandler.setFormatter(new SimpleFormatter()); // Format logs for readability
             fileHandler.setLevel(Level.ALL); // Capture all log levels
-            logger.addHandler(fileHandler);
 
             // Set up a ConsoleHandler for console output
             ConsoleHandler consoleHandler = new ConsoleHandler();
-            consoleHandler.setLevel(Level.ALL); // Capture all log levels
-            logger.addHandler(consoleHandler);
+            consoleHandler.setLevel(Level.INFO); // Summaries and warnings only; per-ticket lines go to the file
+
+            // Write through a background thread unless -Dticketpool.log.async=false
+            if (Boolean.parseBoolean(System.getProperty("ticketpool.log.async", "true"))) {
+                int bufferSize = Integer.getInteger("ticketpool.log.buffer-size", 8192);
+                logger.addHandler(new AsyncLogHandler(bufferSize, fileHandler, consoleHandler));
+            } else {
+                logger.addHandler(fileHandler);
+                logger.addHandler(consoleHandler);
+            }
 
-            // Ensure all logs are captured by setting the logger level
-            logger.setLevel(Level.ALL);
+            // Log summaries and warnings; per-ticket lines need -Dticketpool.log.level=FINE
+            logger.setLevel(Level.parse(System.getProperty("ticketpool.log.level", "INFO")));
 
             // Disable parent handlers to prevent duplicate log entries
             logger.setUseParentHandlers(false);
@@ -45,51 +61,126 @@ public class TicketPool {
     public TicketPool(int ticketsAvailable, int maxCapacity) {
         this.ticketsAvailable = ticketsAvailable; // Set initial available tickets
         this.maxCapacity = maxCapacity; // Set maximum pool capacity
-        this.tickets = new ArrayList<>(); // Initialize the ticket list
+        this.tickets = new IntTicketStore(maxCapacity); // Initialize the ticket store
         this.generatedTickets = ticketsAvailable;
 
-        // Populate the ticket list with initial tickets
+        // Populate the ticket store with initial tickets
         for (int i = 0; i < ticketsAvailable; i++) {
-            tickets.add(i + 1); // Assign integer IDs to tickets
+            tickets.addLast(i + 1); // Assign integer IDs to tickets
         }
     }
 
-    // Synchronized method to add tickets to the pool
-    public synchronized void addTickets(int amount) throws InterruptedException {
-        // Wait if the pool is at maximum capacity
-        while (tickets.size() >= maxCapacity || generatedTickets >= maxCapacity) {
-            logger.warning("Cannot add ticket. Pool is at maximum capacity."); // Log capacity warning
-            wait(); // Wait for capacity to become available
+    // Constructor to restore a pool from saved ticket IDs, oldest first, e.g. from a PoolSnapshot
+    public TicketPool(IntBuffer ticketIds, int generatedTickets, int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        this.tickets = IntTicketStore.readFrom(ticketIds, maxCapacity);
+        this.ticketsAvailable = tickets.size();
+        this.generatedTickets = generatedTickets;
+    }
+
+    // Method to add tickets to the pool, waiting while the pool is at maximum capacity
+    public void addTickets(int amount) throws InterruptedException {
+        int available;
+        int generated;
+        Object[] summary;
+        synchronized (this) {
+            // Wait if the pool is at maximum capacity
+            while (tickets.size() >= maxCapacity || generatedTickets >= maxCapacity) {
+                capacityWaitsSinceSummary++; // Counted for the next summary
+                wait(); // Wait for capacity to become available
+            }
+
+            // Add tickets to the pool up to the maximum capacity
+            for (int i = 0; i < amount && tickets.size() < maxCapacity; i++) {
+                generatedTickets++; // Increment the total generated tickets count
+                addedSinceSummary++;
+                tickets.addLast(generatedTickets); // Numbered by the generated count, so no ID is reused after a purchase
+            }
+
+            ticketsAvailable = tickets.size(); // Update the count of available tickets
+            available = ticketsAvailable;
+            generated = generatedTickets;
+            summary = takeSummaryIfDue();
+
+            notifyAll(); // Notify waiting threads that tickets are available
         }
 
-        // Add tickets to the pool up to the maximum capacity
-        for (int i = 0; i < amount && tickets.size() < maxCapacity; i++) {
-            generatedTickets++; // Increment the total generated tickets count
-            tickets.add(tickets.size() + 1); // Add a new ticket to the pool
+        if (logger.isLoggable(Level.FINE)) {
+            logger.logp(Level.FINE, "TicketPool", "addTickets",
+                    "Tickets added: {0,number,#}. Total tickets now: {1,number,#}. Total generated tickets: {2,number,#}",
+                    new Object[] {amount, available, generated}); // Log the addition of tickets
         }
+        logSummary(summary);
+    }
 
-        ticketsAvailable = tickets.size(); // Update the count of available tickets
-        logger.info(String.format("Tickets added: %d. Total tickets now: %d. Total generated tickets: %d",
-                amount, ticketsAvailable, generatedTickets)); // Log the addition of tickets
+    // Method to purchase (remove) a ticket from the pool, waiting while no tickets are available
+    public void buyTicket() throws InterruptedException {
+        int available;
+        Object[] summary;
+        synchronized (this) {
+            // Wait if no tickets are available
+            while (tickets.isEmpty()) {
+                ticketWaitsSinceSummary++; // Counted for the next summary
+                wait(); // Wait for tickets to become available
+            }
 
-        notifyAll(); // Notify waiting threads that tickets are available
-    }
+            tickets.removeFirst(); // Remove the first ticket in O(1)
+            purchasedSinceSummary++;
+            ticketsAvailable = tickets.size(); // Update the count of available tickets
+            available = ticketsAvailable;
+            summary = takeSummaryIfDue();
+        }
 
-    // Synchronized method to purchase (remove) a ticket from the pool
-    public synchronized void buyTicket() throws InterruptedException {
-        // Wait if no tickets are available
-        while (tickets.isEmpty()) {
-            logger.warning("Tickets not available, Please Wait...."); // Log ticket unavailability
-            wait(); // Wait for tickets to become available
+        if (logger.isLoggable(Level.FINE)) {
+            logger.logp(Level.FINE, "TicketPool", "buyTicket",
+                    "Ticket purchased. Remaining tickets now: {0,number,#}", available); // Log the purchase
         }
+        logSummary(summary);
+    }
 
-        Integer purchasedTicket = tickets.remove(0); // Remove the first ticket from the list
-        ticketsAvailable = tickets.size(); // Update the count of available tickets
-        logger.info(String.format("Ticket purchased. Remaining tickets now: %d", ticketsAvailable)); // Log the purchase
+    // Synchronized method to change the maximum capacity while producers and consumers run; tickets over a lower
+    // capacity stay until they are bought, and producers waiting for capacity recheck against the new one
+    public synchronized void setMaxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        notifyAll();
+    }
+
+    // Synchronized method to copy the IDs of the available tickets, oldest first
+    public synchronized int[] getTicketIds() {
+        return tickets.toArray();
+    }
+
+    // Synchronized method to get the total number of tickets generated
+    public synchronized int getGeneratedTickets() {
+        return generatedTickets;
     }
 
     // Synchronized method to get the number of available tickets
     public synchronized int getAvailableTickets() {
-        return tickets.size(); // Return the size of the ticket list
+        return tickets.size(); // Return the size of the ticket store
+    }
+
+    // Collects and resets the activity counters once the summary interval has passed; null otherwise. Caller holds the lock.
+    private Object[] takeSummaryIfDue() {
+        long now = System.currentTimeMillis();
+        long elapsed = now - lastSummaryMillis;
+        if (elapsed < SUMMARY_INTERVAL_MILLIS) {
+            return null;
+        }
+        Object[] summary = {elapsed, addedSinceSummary, purchasedSinceSummary, capacityWaitsSinceSummary,
+                ticketWaitsSinceSummary, tickets.size(), generatedTickets};
+        addedSinceSummary = 0;
+        purchasedSinceSummary = 0;
+        capacityWaitsSinceSummary = 0;
+        ticketWaitsSinceSummary = 0;
+        lastSummaryMillis = now;
+        return summary;
+    }
+
+    // Logs a summary taken by takeSummaryIfDue, after the lock has been released
+    private static void logSummary(Object[] summary) {
+        if (summary != null) {
+            logger.logp(Level.INFO, "TicketPool", "summary", SUMMARY_MESSAGE, summary);
+        }
     }
 }
@@ -1,6 +1,7 @@
 import { Component, OnDestroy, OnInit } from '@angular/core';
 import Chart from 'chart.js/auto';
-import { Subscription, interval } from 'rxjs';
+import { ReplaySubject, Subscription } from 'rxjs';
+import { LoggerService, PoolSnapshotFrame, PoolState } from '../../services/logger.service';
 import { TicketPoolService } from '../../services/ticket-pool.service';
 
 @Component({
@@ -12,9 +13,13 @@ import { TicketPoolService } from '../../services/ticket-pool.service';
 export class ChartsComponent implements OnInit, OnDestroy {
   private chart: Chart | undefined; // Chart.js instance for rendering the chart
   private updateSubscription: Subscription | undefined; // Subscription for real-time updates
+  private pools: { [eventId: string]: PoolState } = {}; // Latest state of every pool, built from snapshot frames
+  private lastSequence = -1; // Sequence of the last frame applied
+  private readonly eventId = 'default'; // Event whose pool size is charted
+  private readonly replayedFrames = 20; // Frames kept while the initial snapshot loads; a later full frame repairs any gap
 
-  // Constructor to inject the TicketPoolService dependency
-  constructor(private ticketPoolService: TicketPoolService) {}
+  // Constructor to inject the TicketPoolService and LoggerService dependencies
+  constructor(private ticketPoolService: TicketPoolService, private loggerService: LoggerService) {}
 
   // Lifecycle hook called on component initialization
   ngOnInit(): void {
@@ -79,44 +84,69 @@ export class ChartsComponent implements OnInit, OnDestroy {
     }
 
     console.log('Starting real-time updates...'); // Log message for starting updates
-    this.updateSubscription = interval(2000).subscribe(() => {
-      // Fetch the current ticket pool size every 2 seconds
-      this.ticketPoolService.getCurrentPoolSize().subscribe({
-        next: (poolSize) => {
-          if (!this.chart) {
-            console.error('Chart is not initialized.'); // Log error if chart is undefined
-            return;
-          }
-
-          console.log('Fetched pool size:', poolSize); // Log the fetched pool size
-
-          const currentTime = new Date().toLocaleTimeString(); // Get the current time as a label
-
-          // Add the new data point to the chart
-          this.chart.data.labels?.push(currentTime); // Add the time label
-          this.chart.data.datasets[0].data.push(poolSize); // Add the pool size data
-
-          // Limit the number of data points to 20
-          if ((this.chart?.data.labels?.length ?? 0) > 20) {
-            this.chart.data.labels?.shift(); // Remove the oldest label
-            this.chart.data.datasets[0].data?.shift(); // Remove the oldest data point
-          }
-
-          this.chart.update(); // Refresh the chart to show updated data
-          console.log('Chart updated.'); // Log update success
-        },
-        error: (error) => {
-          console.error('Error fetching ticket pool size:', error); // Log error if data fetching fails
-        },
-      });
-    });
+    // Record the frames the backend pushes from now on, so none is lost while the initial snapshot loads
+    const liveFrames = new ReplaySubject<PoolSnapshotFrame>(this.replayedFrames);
+    const updates = new Subscription();
+    updates.add(this.loggerService.getPoolSnapshots().subscribe(liveFrames));
+    // Start from a full snapshot, then apply the recorded and live frames; frames older than the snapshot are skipped
+    updates.add(this.ticketPoolService.getPoolSnapshot().subscribe({
+      next: (snapshot) => {
+        this.applyFrame(snapshot);
+        updates.add(liveFrames.subscribe({
+          next: (frame) => this.applyFrame(frame),
+          error: (error) => this.logSnapshotError(error),
+        }));
+      },
+      error: (error) => this.logSnapshotError(error),
+    }));
+    this.updateSubscription = updates;
+  }
+
+  // Method to log a failure of the snapshot requests or stream
+  private logSnapshotError(error: unknown): void {
+    console.error('Error receiving pool snapshots:', error); // Log error if the snapshot stream fails
+  }
+
+  // Method to apply a snapshot frame to the pool state and chart the pool size
+  private applyFrame(frame: PoolSnapshotFrame): void {
+    if (frame.sequence < this.lastSequence) {
+      return; // Older than the state already shown
+    }
+    this.lastSequence = frame.sequence;
+    if (frame.full) {
+      this.pools = {}; // A full frame lists every pool
+    }
+    for (const eventId of frame.removed) {
+      delete this.pools[eventId];
+    }
+    Object.assign(this.pools, frame.pools);
+
+    if (!this.chart) {
+      console.error('Chart is not initialized.'); // Log error if chart is undefined
+      return;
+    }
+
+    const poolSize = this.pools[this.eventId]?.poolSize ?? 0; // Pools missing from the frame are unchanged
+    const currentTime = new Date(frame.time).toLocaleTimeString(); // Use the time the frame was sampled as the label
+
+    // Add the new data point to the chart
+    this.chart.data.labels?.push(currentTime); // Add the time label
+    this.chart.data.datasets[0].data.push(poolSize); // Add the pool size data
+
+    // Limit the number of data points to 20
+    if ((this.chart?.data.labels?.length ?? 0) > 20) {
+      this.chart.data.labels?.shift(); // Remove the oldest label
+      this.chart.data.datasets[0].data?.shift(); // Remove the oldest data point
+    }
+
+    this.chart.update(); // Refresh the chart to show updated data
   }
 
   // Method to stop real-time updates for the chart
   stopUpdates(): void {
     if (this.updateSubscription) {
       console.log('Stopping real-time updates...'); // Log message for stopping updates
-      this.updateSubscription.unsubscribe(); // Unsubscribe from the interval
+      this.updateSubscription.unsubscribe(); // Unsubscribe from the snapshot stream
       this.updateSubscription = undefined; // Clear the subscription reference
     } else {
       console.warn('No active updates to stop.'); // Warn if there are no active updates
@@ -1,22 +1,59 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
-import { BehaviorSubject, Observable, catchError, throwError, tap } from 'rxjs';
+import { BehaviorSubject, Observable, Subject, catchError, throwError, tap } from 'rxjs';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 
+/**
+ * Batch of log events published by the backend to `/topic/logs`.
+ */
+interface LogFrame {
+  messages: string[]; // Log lines, oldest first
+  coalesced: number; // Events counted in the totals but not listed in messages
+  dropped: number; // Events discarded by the backend because its queue was full
+  ticketsAdded: number; // Tickets added by the events in this frame
+  ticketsRemoved: number; // Tickets removed by the events in this frame
+  poolSize: number; // Latest pool size, or -1 if unknown
+  ticketsGenerated: number; // Latest total of generated tickets, or -1 if unknown
+}
+
+/**
+ * State of one event's pool in a snapshot frame.
+ */
+export interface PoolState {
+  poolSize: number; // Tickets in the pool
+  capacity: number; // Maximum number of tickets in the pool
+  ticketsGenerated: number; // Tickets generated so far
+  held: number; // Tickets held for customers and not yet confirmed or released
+}
+
+/**
+ * Pool snapshot published by the backend to `/topic/pool-snapshots` once per tick.
+ * Full frames list every pool; the others list only the pools that changed since the previous frame.
+ */
+export interface PoolSnapshotFrame {
+  sequence: number; // Tick number
+  time: number; // When the frame was built, in epoch milliseconds
+  full: boolean; // Whether `pools` lists every pool
+  pools: { [eventId: string]: PoolState }; // Pool state by event ID
+  removed: string[]; // Events removed since the previous frame
+}
+
 @Injectable({
   providedIn: 'root', // Makes this service available throughout the application
 })
 export class LoggerService {
   private stompClient!: Client; // STOMP client for managing WebSocket connection
   private logSubject = new BehaviorSubject<string[]>([]); // BehaviorSubject to store and stream real-time logs
+  private snapshotSubject = new Subject<PoolSnapshotFrame>(); // Subject streaming pool snapshot frames
   private backendUrl = 'http://localhost:8080/api/ticket-pool'; // Base URL for backend API endpoints
 
   constructor(private http: HttpClient) {}
 
   /**
    * Establishes a WebSocket connection to the backend.
-   * Subscribes to the `/topic/logs` topic to receive real-time log updates.
+   * Subscribes to the `/topic/logs` topic to receive real-time log updates,
+   * and to `/topic/pool-snapshots` to receive pool snapshots.
    */
   connect(): void {
     const socket = new SockJS('http://localhost:8080/ws-logs'); // Create SockJS connection
@@ -31,9 +68,11 @@ export class LoggerService {
       console.log('WebSocket connected'); // Log successful connection
       this.stompClient.subscribe('/topic/logs', (message) => {
         const logs = this.logSubject.getValue(); // Get the current list of logs
-        logs.push(message.body); // Add the new log message to the list
+        logs.push(...this.parseLogFrame(message.body)); // Add every log message in the frame to the list
         this.logSubject.next(logs); // Update the BehaviorSubject with the new log list
-        console.log('Log received:', message.body); // Log the received message
+      });
+      this.stompClient.subscribe('/topic/pool-snapshots', (message) => {
+        this.snapshotSubject.next(JSON.parse(message.body)); // Pass each snapshot frame on to subscribers
       });
     };
 
@@ -45,6 +84,34 @@ export class LoggerService {
     this.stompClient.activate(); // Activate the WebSocket connection
   }
 
+  /**
+   * Extracts the log lines from a frame sent to `/topic/logs`.
+   * The backend batches events into frames; plain-text messages are still accepted as a single line.
+   *
+   * @param body - Body of the STOMP message
+   * @returns The log lines to display
+   */
+  private parseLogFrame(body: string): string[] {
+    let frame: LogFrame;
+    try {
+      frame = JSON.parse(body);
+    } catch {
+      return [body]; // Not a batched frame
+    }
+    if (!frame || !Array.isArray(frame.messages)) {
+      return [body];
+    }
+    const lines = [...frame.messages];
+    if (frame.coalesced > 0) {
+      lines.push(`... ${frame.coalesced} more events (${frame.ticketsAdded} tickets added, ` +
+        `${frame.ticketsRemoved} removed, pool size ${frame.poolSize})`);
+    }
+    if (frame.dropped > 0) {
+      lines.push(`... ${frame.dropped} events dropped`);
+    }
+    return lines;
+  }
+
   /**
    * Disconnects the WebSocket connection if active.
    */
@@ -63,6 +130,14 @@ export class LoggerService {
     return this.logSubject.asObservable(); // Return the BehaviorSubject as an observable
   }
 
+  /**
+   * Provides an observable stream of pool snapshot frames pushed by the backend.
+   * Frames arrive only while connected and only when a pool changed, plus a full frame every few ticks.
+   */
+  getPoolSnapshots(): Observable<PoolSnapshotFrame> {
+    return this.snapshotSubject.asObservable(); // Return the Subject as an observable
+  }
+
   /**
    * Sends a request to initialize the ticket pool with the given configuration.
    *
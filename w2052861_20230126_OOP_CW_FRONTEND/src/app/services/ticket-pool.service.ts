@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { catchError, Observable, of, tap, throwError } from 'rxjs';
+import { PoolSnapshotFrame } from './logger.service';
 
 @Injectable({
   providedIn: 'root', // Makes the service available application-wide
@@ -109,4 +110,19 @@ export class TicketPoolService {
       })
     );
   }
+
+  /**
+   * Fetches the state of every pool as of the backend's last snapshot tick.
+   * Used to start from a full frame before applying the frames pushed over WebSocket.
+   *
+   * @returns Observable with a full snapshot frame
+   */
+  getPoolSnapshot(): Observable<PoolSnapshotFrame> {
+    return this.http.get<PoolSnapshotFrame>(`${this.apiUrl}/snapshot`).pipe(
+      catchError((error) => {
+        console.error('Error fetching pool snapshot:', error); // Log error
+        return throwError(() => new Error('Fetching pool snapshot failed.')); // Throw custom error
+      })
+    );
+  }
 }
@@ -0,0 +1,65 @@
+package com.java.Coursework01.Reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The activity log frames the backend sends to {@code /topic/logs}, as a {@link Flux} of their JSON.
+ * <p>
+ * Frames are encoded once by the messaging template and shared by every subscriber. Each subscriber buffers
+ * at most {@code ticketpool.reactive.log-buffer} frames it has not read yet; beyond that its oldest frames are
+ * dropped, so a slow client loses log lines rather than holding up the publisher or other clients.
+ */
+@Component
+public class LogStream {
+
+    // Destination the backend sends log frames to
+    private static final String LOG_TOPIC = "/topic/logs";
+
+    // Frames as they are sent; dropped for subscribers without demand, which buffer their own
+    private final Sinks.Many<String> frames = Sinks.many().multicast().directBestEffort();
+
+    // Frames each subscriber may fall behind by
+    private final int bufferSize;
+
+    /**
+     * Creates the stream and subscribes it to the broker channel.
+     *
+     * @param brokerChannel The channel the backend's frames are sent to.
+     * @param bufferSize    Frames each subscriber may fall behind by.
+     */
+    public LogStream(SubscribableChannel brokerChannel, @Value("${ticketpool.reactive.log-buffer:64}") int bufferSize) {
+        this.bufferSize = Math.max(bufferSize, 1);
+        brokerChannel.subscribe(this::onMessage);
+    }
+
+    /**
+     * Opens a stream of log frames, starting with the next one sent.
+     *
+     * @return The frames as JSON.
+     */
+    public Flux<String> frames() {
+        return frames.asFlux().onBackpressureBuffer(bufferSize, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    // Passes log frames on to the subscribers; called on whichever thread sent the frame
+    private void onMessage(Message<?> message) {
+        if (LOG_TOPIC.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                && message.getPayload() instanceof byte[] json) {
+            String frame = new String(json, StandardCharsets.UTF_8);
+            while (frames.tryEmitNext(frame) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.yield(); // Another sending thread is emitting a frame; it only takes a moment
+            }
+            // Any other failure means no subscriber could take the frame: none are listening or all are behind,
+            // and a log line is not worth more than that
+        }
+    }
+}
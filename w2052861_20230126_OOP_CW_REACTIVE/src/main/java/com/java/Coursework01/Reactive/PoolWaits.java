@@ -0,0 +1,108 @@
+package com.java.Coursework01.Reactive;
+
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Class.TicketPoolListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Waits for tickets without parking a thread.
+ * <p>
+ * The servlet API waits for tickets inside the pool, one blocked request thread per waiting client. Here a wait
+ * is a {@link Mono} that retries a non-blocking attempt whenever the pool reports added tickets, and at least
+ * every {@code ticketpool.reactive.recheck-ms} to catch tickets returned by released holds, until the attempt
+ * succeeds or the wait is over. Waits are capped at {@code ticketpool.purchase.max-wait-ms}, like those of the
+ * servlet API. Between attempts a waiting client holds no thread at all. Attempts run on
+ * the bounded elastic scheduler, since they may take the pool's lock or wait briefly for the purchase
+ * dispatcher, and never on the Netty event loop.
+ * <p>
+ * Signals from a busy pool are collapsed to the latest one, so a waiter makes at most one attempt at a time
+ * however fast vendors add tickets. Waiters do not join the pool's fair purchase line: purchases still yield to
+ * customers waiting in it, but among reactive waiters the first attempt after an addition wins.
+ */
+@Component
+public class PoolWaits {
+
+    // Tickets-added signals of each pool; pools dropped from the registry are forgotten
+    private final Map<TicketPool, Sinks.Many<Boolean>> additions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Longest gap between attempts while waiting
+    private final Duration recheck;
+
+    // Longest wait, in milliseconds
+    private final long maxWaitMs;
+
+    /**
+     * Creates the waits.
+     *
+     * @param recheckMs Longest gap between attempts while waiting, in milliseconds.
+     * @param maxWaitMs Longest wait, in milliseconds.
+     */
+    public PoolWaits(@Value("${ticketpool.reactive.recheck-ms:250}") long recheckMs,
+                     @Value("${ticketpool.purchase.max-wait-ms:5000}") long maxWaitMs) {
+        this.recheck = Duration.ofMillis(Math.max(recheckMs, 1));
+        this.maxWaitMs = Math.max(maxWaitMs, 0);
+    }
+
+    /**
+     * Makes an attempt, and retries it as tickets arrive until it succeeds or {@code waitMs} is over.
+     * An attempt already running when the wait is over is allowed to finish, so its effect is never lost.
+     *
+     * @param pool      The pool the attempt takes tickets from.
+     * @param attempt   A non-blocking attempt, returning null if the pool is gone.
+     * @param succeeded Whether an attempt's result ends the wait.
+     * @param waitMs    Milliseconds to keep retrying, 0 for a single attempt; capped at the longest wait.
+     * @param <T>       The type of the attempt's result.
+     * @return The first successful result, or the last result if none succeeded in time.
+     */
+    public <T> Mono<T> await(TicketPool pool, Callable<T> attempt, Predicate<T> succeeded, long waitMs) {
+        Mono<T> once = Mono.fromCallable(attempt).subscribeOn(Schedulers.boundedElastic());
+        long wait = Math.min(waitMs, maxWaitMs);
+        if (wait <= 0) {
+            return once;
+        }
+        AtomicReference<T> last = new AtomicReference<>();
+        // Signals are subscribed before the first attempt, so tickets added while it runs are not missed
+        Flux<Object> triggers = Flux.<Object>merge(additionsOf(pool).asFlux(), Flux.interval(recheck, recheck),
+                        Mono.just(true))
+                .take(Duration.ofMillis(wait));
+        return triggers
+                .onBackpressureLatest()
+                .concatMap(trigger -> once, 1)
+                .doOnNext(last::set)
+                .filter(succeeded)
+                .next()
+                .switchIfEmpty(Mono.fromSupplier(last::get));
+    }
+
+    // The signal of a pool, listening to it on first use
+    private Sinks.Many<Boolean> additionsOf(TicketPool pool) {
+        synchronized (additions) {
+            Sinks.Many<Boolean> sink = additions.get(pool);
+            if (sink == null) {
+                Sinks.Many<Boolean> created = Sinks.many().multicast().directBestEffort();
+                pool.addListener(new TicketPoolListener() {
+                    @Override
+                    public void ticketsAdded(int[] tickets, int offset, int count) {
+                        created.tryEmitNext(true); // Fails harmlessly when emitted concurrently or unobserved
+                    }
+                });
+                additions.put(pool, created);
+                sink = created;
+            }
+            return sink;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.java.Coursework01.Reactive;
+
+import com.java.Coursework01.Coursework01Application;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+/**
+ * Runs the backend's pools and services behind the WebFlux API instead of the servlet controllers.
+ * <p>
+ * The backend jar still brings Spring MVC for its own controllers, so the application type is forced to
+ * reactive. The servlet controllers, the servlet-only CORS and STOMP endpoint configuration, and the backend's
+ * own application class are left out of the scan; {@link ReactiveMessagingConfig} replaces the STOMP broker.
+ * Settings and the database are the backend's: run this instead of the backend, not beside it.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@AutoConfigurationPackage(basePackages = "com.java.Coursework01") // Entities and repositories live in the backend
+@ComponentScan(basePackages = "com.java.Coursework01", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.java\\.Coursework01\\.(Controller|Config)\\..*"),
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = Coursework01Application.class)
+})
+public class ReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveApplication.class);
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.run(args);
+    }
+}
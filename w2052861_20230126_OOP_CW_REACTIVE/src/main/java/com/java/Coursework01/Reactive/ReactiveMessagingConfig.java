@@ -0,0 +1,42 @@
+package com.java.Coursework01.Reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+
+/**
+ * Stands in for the backend's STOMP broker, whose WebSocket endpoint needs a servlet container.
+ * <p>
+ * The backend's services still send their frames through a {@link SimpMessagingTemplate}; here the template
+ * delivers them synchronously to in-process subscribers of {@link #brokerChannel()}, such as {@link LogStream},
+ * which serve them as Server-Sent Events instead.
+ */
+@Configuration
+public class ReactiveMessagingConfig {
+
+    /**
+     * @return The channel the backend's frames are sent to; subscribers are called on the sending thread.
+     */
+    @Bean
+    public SubscribableChannel brokerChannel() {
+        return new ExecutorSubscribableChannel();
+    }
+
+    /**
+     * @param brokerChannel The channel the frames are sent to.
+     * @param objectMapper  The application's JSON mapper.
+     * @return The template used by the backend's services, encoding each frame as JSON once, as the broker does.
+     */
+    @Bean
+    public SimpMessagingTemplate simpMessagingTemplate(SubscribableChannel brokerChannel, ObjectMapper objectMapper) {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        SimpMessagingTemplate template = new SimpMessagingTemplate(brokerChannel);
+        template.setMessageConverter(converter);
+        return template;
+    }
+}
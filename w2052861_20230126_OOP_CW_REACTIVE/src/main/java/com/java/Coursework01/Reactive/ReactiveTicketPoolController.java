@@ -0,0 +1,395 @@
+package com.java.Coursework01.Reactive;
+
+// Importing required classes and libraries
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.java.Coursework01.Class.LoadProfiles;
+import com.java.Coursework01.Class.PoolSettings;
+import com.java.Coursework01.Class.PurchaseMode;
+import com.java.Coursework01.Class.TicketPool;
+import com.java.Coursework01.Repository.TicketPoolRepository;
+import com.java.Coursework01.Service.PoolEventPublisher;
+import com.java.Coursework01.Service.PoolSnapshotBroadcaster;
+import com.java.Coursework01.Service.PoolSnapshotBroadcaster.Frame;
+import com.java.Coursework01.Service.TicketHoldService;
+import com.java.Coursework01.Service.TicketHoldService.HoldView;
+import com.java.Coursework01.Service.TicketPoolRegistry;
+import com.java.Coursework01.Service.TicketPoolService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+// Reactive REST controller with the operations of TicketPoolController, plus event purchases
+@RestController
+@CrossOrigin(origins = "http://localhost:4200") // Allowing cross-origin requests from the frontend
+@RequestMapping("/api/ticket-pool") // Same base path as the servlet API
+public class ReactiveTicketPoolController {
+
+    // Name of the SSE events carrying frames, as in the servlet API
+    private static final String SSE_EVENT = "snapshot";
+
+    // Name of the SSE events carrying log frames
+    private static final String LOG_EVENT = "log";
+
+    // Autowired dependencies for service, ticket pool, event publisher, repository, pool registry, streams, holds and waits
+    @Autowired
+    private TicketPoolService ticketPoolService;
+
+    @Autowired
+    private TicketPool ticketPool;
+
+    @Autowired
+    private PoolEventPublisher poolEventPublisher;
+
+    @Autowired
+    private TicketPoolRepository ticketPoolRepository;
+
+    @Autowired
+    private TicketPoolRegistry ticketPoolRegistry;
+
+    @Autowired
+    private PoolSnapshotBroadcaster poolSnapshotBroadcaster;
+
+    @Autowired
+    private SnapshotStream snapshotStream;
+
+    @Autowired
+    private LogStream logStream;
+
+    @Autowired
+    private TicketHoldService ticketHoldService;
+
+    @Autowired
+    private PoolWaits poolWaits;
+
+    // Endpoint to send a test log message to the frontend
+    @PostMapping("/send-log")
+    public Mono<String> sendLog() {
+        poolEventPublisher.publish("Test log message from backend"); // Queued, never blocks
+        return Mono.just("Log sent");
+    }
+
+    // Exception handler for missing or malformed request parameters
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<String> handleBadInput(ServerWebInputException ex) {
+        return ResponseEntity.badRequest().body(ex.getReason());
+    }
+
+    // Exception handler for invalid event IDs and arguments
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    // Endpoint to initialize the ticket pool with the given parameters
+    @PostMapping("/initialize")
+    public Mono<ResponseEntity<String>> initializePool(
+            @RequestParam int maxTicketCapacity,
+            @RequestParam int totalTickets,
+            @RequestParam int ticketReleaseRate,
+            @RequestParam int customerTicketRetrievalRate) {
+
+        // Validate input parameters to ensure they are positive
+        if (maxTicketCapacity <= 0 || totalTickets <= 0 || ticketReleaseRate <= 0 || customerTicketRetrievalRate <= 0) {
+            return Mono.just(ResponseEntity.badRequest().body("All parameters must be positive integers."));
+        }
+
+        // Ensure total tickets do not exceed maximum capacity
+        if (totalTickets > maxTicketCapacity) {
+            return Mono.just(ResponseEntity.badRequest().body("Total tickets cannot exceed max capacity."));
+        }
+
+        // Takes the pool lock and saves to the database, so it runs off the event loop
+        return blocking(() -> {
+            ticketPoolService.initializeEvent(TicketPoolRegistry.DEFAULT_EVENT, maxTicketCapacity, totalTickets,
+                    ticketReleaseRate, customerTicketRetrievalRate);
+            ticketPoolService.saveConfiguration(ticketPool);
+            return ResponseEntity.ok("Ticket pool initialized successfully.");
+        });
+    }
+
+    // Endpoint to start vendor and consumer threads, optionally under load profiles given as the JSON body
+    @PostMapping("/start")
+    public Mono<ResponseEntity<String>> startProcesses(@RequestParam int vendorCount,
+                                                       @RequestParam int consumerCount,
+                                                       @RequestParam(defaultValue = "1") int vendorBatchSize,
+                                                       @RequestParam(defaultValue = "1") int customerBatchSize,
+                                                       @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode,
+                                                       @RequestBody(required = false) Mono<LoadProfiles> loadProfiles) {
+
+        // Validate input parameters to ensure they are positive
+        if (vendorCount <= 0 || consumerCount <= 0) {
+            return Mono.just(ResponseEntity.badRequest().body("Vendor and Consumer counts must be positive integers."));
+        }
+        if (vendorBatchSize <= 0 || customerBatchSize <= 0) {
+            return Mono.just(ResponseEntity.badRequest().body("Batch sizes must be positive integers."));
+        }
+
+        return loadProfiles
+                .map(profiles -> new LoadProfiles[] {profiles})
+                .defaultIfEmpty(new LoadProfiles[] {null})
+                .flatMap(profiles -> blocking(() -> {
+                    // Make the pool available, then start vendors and consumers sharing its rates
+                    ticketPoolService.startEvent(TicketPoolRegistry.DEFAULT_EVENT, vendorCount, consumerCount,
+                            vendorBatchSize, customerBatchSize, purchaseMode, profiles[0]);
+                    return ResponseEntity.ok("Processes started or resumed successfully.");
+                }))
+                .onErrorResume(e -> !(e instanceof IllegalArgumentException), e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error starting processes: " + e.getMessage())));
+    }
+
+    // Endpoint to stop all active processes
+    @PostMapping("/stop")
+    public Mono<String> stopProcesses() {
+        ticketPool.setAvailable(false); // Set ticket pool to unavailable
+        return Mono.just("Processes stopped successfully.");
+    }
+
+    // Endpoint to reset the ticket pool
+    @PostMapping("/reset")
+    public Mono<String> resetPool() {
+        return blocking(() -> {
+            ticketPoolService.resetEvent(TicketPoolRegistry.DEFAULT_EVENT);
+            return "Ticket pool has been reset.";
+        });
+    }
+
+    // Endpoint to stream the pool size log lines, one per second; lines a client is not ready for are dropped
+    @GetMapping(value = "/logs", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<String> streamPoolLog() {
+        return Flux.interval(Duration.ofSeconds(1))
+                .onBackpressureDrop()
+                .map(tick -> poolSnapshotBroadcaster.logLine());
+    }
+
+    // Endpoint to stream pool snapshots; each client gets frames only as fast as it reads them
+    @GetMapping(value = "/snapshots", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Frame>> streamSnapshots() {
+        return snapshotStream.frames()
+                .map(frame -> ServerSentEvent.builder(frame)
+                        .id(Long.toString(frame.sequence()))
+                        .event(SSE_EVENT)
+                        .build());
+    }
+
+    // Endpoint to stream the activity log frames otherwise sent over STOMP to /topic/logs
+    @GetMapping(value = "/log-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamLogs() {
+        return logStream.frames()
+                .map(json -> ServerSentEvent.builder(json).event(LOG_EVENT).build());
+    }
+
+    // Endpoint to get the state of every pool as of the last snapshot tick
+    @GetMapping("/snapshot")
+    public Mono<Frame> getSnapshot() {
+        return Mono.fromSupplier(poolSnapshotBroadcaster::snapshot);
+    }
+
+    // Endpoint to get the settings the vendors and consumers run under
+    @GetMapping("/config")
+    public Mono<PoolSettings> getSettings() {
+        return Mono.fromSupplier(() -> ticketPoolService.settingsOf(TicketPoolRegistry.DEFAULT_EVENT));
+    }
+
+    // Endpoint to change the rates, capacity and vendor/consumer counts while the processes run
+    @PutMapping("/config")
+    public Mono<PoolSettings> reconfigure(@RequestBody Mono<PoolSettings> settings) {
+        return settings.flatMap(requested -> blocking(() -> {
+            PoolSettings applied = ticketPoolService.reconfigure(TicketPoolRegistry.DEFAULT_EVENT, requested);
+            ticketPoolService.saveConfiguration(ticketPool);
+            return applied;
+        }));
+    }
+
+    // Endpoint to save the current ticket pool configuration
+    @PostMapping("/save")
+    public Mono<ResponseEntity<String>> saveConfiguration(
+            @RequestParam int maxTicketCapacity,
+            @RequestParam int totalTickets,
+            @RequestParam int ticketReleaseRate,
+            @RequestParam int customerTicketRetrievalRate) {
+
+        TicketPool configuration = new TicketPool();
+        configuration.setMaxTicketCapacity(maxTicketCapacity);
+        configuration.setTotalTickets(totalTickets);
+        configuration.setTicketReleaseRate(ticketReleaseRate);
+        configuration.setCustomerTicketRetrievalRate(customerTicketRetrievalRate);
+
+        return blocking(() -> {
+            ticketPoolRepository.save(configuration);
+
+            // Save configuration to a JSON file
+            File file = new File("ticket-pool-configuration.json");
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, configuration);
+            return ResponseEntity.ok("Configuration saved successfully to " + file.getAbsolutePath());
+        }).onErrorResume(e -> !(e instanceof IllegalArgumentException), e -> Mono.just(
+                ResponseEntity.status(500).body("Error saving configuration: " + e.getMessage())));
+    }
+
+    // Endpoint to add a new vendor to the ticket pool
+    @PostMapping("/addVendor")
+    public Mono<ResponseEntity<String>> addVendor(@RequestParam String vendorId, @RequestParam int ticketReleaseRate,
+                                                  @RequestParam(defaultValue = "1") int batchSize) {
+        if (batchSize <= 0) {
+            return Mono.just(ResponseEntity.badRequest().body("Batch size must be a positive integer."));
+        }
+        ticketPoolService.addVendor(vendorId, ticketReleaseRate, batchSize); // Scheduled, never blocks
+        return Mono.just(ResponseEntity.ok("Vendor added successfully."));
+    }
+
+    // Endpoint to remove an existing vendor from the ticket pool
+    @DeleteMapping("/removeVendor")
+    public Mono<String> removeVendor(@RequestParam String vendorId) {
+        ticketPoolService.removeVendor(vendorId);
+        return Mono.just("Vendor removed successfully.");
+    }
+
+    // Endpoint to add a new customer to the ticket pool
+    @PostMapping("/addCustomer")
+    public Mono<ResponseEntity<String>> addCustomer(@RequestParam String customerId, @RequestParam int ticketRetrievalRate,
+                                                    @RequestParam(defaultValue = "1") int batchSize,
+                                                    @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode) {
+        if (batchSize <= 0) {
+            return Mono.just(ResponseEntity.badRequest().body("Batch size must be a positive integer."));
+        }
+        ticketPoolService.addCustomer(customerId, ticketRetrievalRate, batchSize, purchaseMode);
+        return Mono.just(ResponseEntity.ok("Customer added successfully."));
+    }
+
+    // Endpoint to remove an existing customer from the ticket pool
+    @DeleteMapping("/removeCustomer")
+    public Mono<String> removeCustomer(@RequestParam String customerId) {
+        ticketPoolService.removeCustomer(customerId);
+        return Mono.just("Customer removed successfully.");
+    }
+
+    // Endpoint to clear logs
+    @PostMapping("/clear-logs")
+    public Mono<String> clearLogs() {
+        return Mono.just("Logs cleared.");
+    }
+
+    // Endpoint to list the IDs of all events, including the default pool
+    @GetMapping("/events")
+    public Mono<Set<String>> listEvents() {
+        return Mono.fromSupplier(ticketPoolRegistry::eventIds);
+    }
+
+    // Endpoint to get the current size of the ticket pool
+    @GetMapping("/size")
+    public Mono<Integer> getPoolSize() {
+        return Mono.fromSupplier(ticketPool::getPoolSize);
+    }
+
+    // Endpoint to hold tickets for ttlMs; waits up to waitMs without a thread and responds 503 if none could be had
+    @PostMapping("/{eventId}/holds")
+    public Mono<ResponseEntity<?>> holdTickets(@PathVariable String eventId,
+                                               @RequestParam(defaultValue = "1") int count,
+                                               @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode,
+                                               @RequestParam(defaultValue = "0") long ttlMs,
+                                               @RequestParam(defaultValue = "0") long waitMs,
+                                               @RequestParam(required = false) String owner) {
+
+        // Validate input parameters
+        if (count <= 0) {
+            return Mono.just(ResponseEntity.badRequest().body("Ticket count must be a positive integer."));
+        }
+        if (ttlMs < 0 || waitMs < 0) {
+            return Mono.just(ResponseEntity.badRequest().body("TTL and wait time cannot be negative."));
+        }
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+
+        return poolWaits.await(pool,
+                        () -> ticketHoldService.hold(eventId, count, purchaseMode, ttlMs, 0, owner),
+                        hold -> hold.held() > 0, waitMs)
+                .<ResponseEntity<?>>map(hold -> hold.held() == 0
+                        // Nothing to hold right now: tell the client to come back
+                        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(hold)
+                        : ResponseEntity.status(HttpStatus.CREATED).body(hold))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Endpoint to get the available and held ticket counts of an event
+    @GetMapping("/{eventId}/holds/summary")
+    public Mono<ResponseEntity<Map<String, Integer>>> getHoldSummary(@PathVariable String eventId) {
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return Mono.just(ResponseEntity.ok(Map.of("available", pool.getPoolSize(), "held", pool.getHeldTickets())));
+    }
+
+    // Endpoint to get an outstanding hold of an event
+    @GetMapping("/{eventId}/holds/{holdId}")
+    public Mono<ResponseEntity<HoldView>> getHold(@PathVariable String eventId, @PathVariable String holdId) {
+        return Mono.justOrEmpty(ticketHoldService.get(eventId, holdId))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Endpoint to sell the tickets of a hold; 404 once the hold has expired
+    @PostMapping("/{eventId}/holds/{holdId}/confirm")
+    public Mono<ResponseEntity<HoldView>> confirmHold(@PathVariable String eventId, @PathVariable String holdId) {
+        return Mono.justOrEmpty(ticketHoldService.confirm(eventId, holdId))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Endpoint to return the tickets of a hold to the pool before it expires
+    @DeleteMapping("/{eventId}/holds/{holdId}")
+    public Mono<ResponseEntity<String>> releaseHold(@PathVariable String eventId, @PathVariable String holdId) {
+        if (!ticketHoldService.release(eventId, holdId)) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return Mono.just(ResponseEntity.ok("Hold released."));
+    }
+
+    // Endpoint to buy tickets from an event's pool; waits up to waitMs without a thread and responds 503 if none could be had
+    @PostMapping("/{eventId}/purchase")
+    public Mono<ResponseEntity<?>> purchase(@PathVariable String eventId,
+                                            @RequestParam(defaultValue = "1") int count,
+                                            @RequestParam(defaultValue = "PARTIAL_FILL") PurchaseMode purchaseMode,
+                                            @RequestParam(defaultValue = "0") long waitMs,
+                                            @RequestParam(required = false) String owner) {
+        if (count <= 0) {
+            return Mono.just(ResponseEntity.badRequest().body("Ticket count must be a positive integer."));
+        }
+        if (waitMs < 0) {
+            return Mono.just(ResponseEntity.badRequest().body("Wait time cannot be negative."));
+        }
+        TicketPool pool = ticketPoolRegistry.get(eventId);
+        if (pool == null) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+
+        return poolWaits.await(pool,
+                        () -> ticketPoolService.purchase(eventId, count, purchaseMode, 0, owner),
+                        result -> result.purchased() > 0, waitMs)
+                .<ResponseEntity<?>>map(result -> result.purchased() == 0
+                        // Sold out for now: tell the client to come back
+                        ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(result)
+                        : ResponseEntity.ok(result))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Runs a call that may block, such as a database write, off the event loop
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,74 @@
+package com.java.Coursework01.Reactive;
+
+import com.java.Coursework01.Service.PoolSnapshotBroadcaster;
+import com.java.Coursework01.Service.PoolSnapshotBroadcaster.Frame;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+/**
+ * Pool snapshot frames as a {@link Flux}, one subscription per client.
+ * <p>
+ * Frames come from the broadcaster's single sampling thread and are only emitted as far as the client has
+ * requested them. Frames the client is not ready for are merged into one pending frame, latest state per
+ * pool, the same way the SSE stream of the servlet API does it. A slow client therefore costs one frame of
+ * memory and never holds up the tick or other clients, however many streams are open.
+ */
+@Component
+public class SnapshotStream {
+
+    // Source of the frames
+    private final PoolSnapshotBroadcaster poolSnapshotBroadcaster;
+
+    /**
+     * Creates the stream.
+     *
+     * @param poolSnapshotBroadcaster The broadcaster sampling the pools.
+     */
+    public SnapshotStream(PoolSnapshotBroadcaster poolSnapshotBroadcaster) {
+        this.poolSnapshotBroadcaster = poolSnapshotBroadcaster;
+    }
+
+    /**
+     * Opens a stream of frames. The first frame is a full one with the state of the last tick.
+     *
+     * @return The frames, merged while the subscriber has no outstanding demand.
+     */
+    public Flux<Frame> frames() {
+        return Flux.create(sink -> {
+            Subscription subscription = new Subscription(sink);
+            sink.onRequest(n -> subscription.drain());
+            sink.onDispose(poolSnapshotBroadcaster.addListener(subscription::offer)::run);
+        });
+    }
+
+    // One subscriber, with at most one frame waiting for demand
+    private static final class Subscription {
+        // Where the frames go
+        private final FluxSink<Frame> sink;
+
+        // Frame waiting for demand, merged from every tick since the last emission; guarded by this
+        private Frame pending;
+
+        private Subscription(FluxSink<Frame> sink) {
+            this.sink = sink;
+        }
+
+        // Queues a frame, merging it into the one already waiting, and emits it if there is demand
+        private void offer(Frame frame) {
+            synchronized (this) {
+                pending = pending == null ? frame : pending.merge(frame);
+            }
+            drain();
+        }
+
+        // Emits the pending frame if the subscriber has asked for one
+        private synchronized void drain() {
+            if (pending != null && sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                Frame next = pending;
+                pending = null;
+                sink.next(next);
+            }
+        }
+    }
+}